@@ -0,0 +1,64 @@
+package com.fixed_asset.patient_service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual-thread mode (spring.threads.virtual.enabled). Boot 3.1 has no
+ * support for the property itself, so the pieces Boot 3.2+ wires are wired
+ * here under the same name: Tomcat serves every request on its own virtual
+ * thread, and applicationTaskExecutor (used by @Async and async MVC requests
+ * such as the NDJSON exports) starts a virtual thread per task. Web3jConfig
+ * and BlockchainJobDispatcher check the same property for the chain clients.
+ *
+ * The service builds for JDK 17, so the JDK 21 virtual-thread API is looked
+ * up reflectively; enabling the property on an older runtime fails at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreads("tomcat-handler-"));
+    }
+
+    // Replaces Boot's pooled executor, which backs off while this bean exists
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(virtualThreads("task-"));
+    }
+
+    public static ExecutorService virtualThreads(String namePrefix) {
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, virtualThreadFactory(namePrefix));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Virtual threads need JDK 21 or later (running " + Runtime.version() + ")", e);
+        }
+    }
+
+    /**
+     * Thread.ofVirtual().name(namePrefix, 0).factory(): threads named
+     * namePrefix0, namePrefix1, ...
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Virtual threads need JDK 21 or later (running " + Runtime.version() + ")", e);
+        }
+    }
+}
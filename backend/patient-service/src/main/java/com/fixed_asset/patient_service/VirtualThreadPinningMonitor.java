@@ -0,0 +1,87 @@
+package com.fixed_asset.patient_service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Pinning diagnostics for virtual-thread mode. Streams the JFR
+ * jdk.VirtualThreadPinned event in-process and logs every pin longer than
+ * threads.pinning.threshold-ms with the stack that held the carrier, usually a
+ * blocking call inside a synchronized block or a native frame. Each pin is
+ * also counted in the threads.virtual.pinned metric. For a one-off check
+ * without this component, start the JVM with -Djdk.tracePinnedThreads=full.
+ */
+@Component
+@ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "threads.pinning.monitor-enabled"}, havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${threads.pinning.threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${threads.pinning.stack-depth:12}")
+    private int stackDepth;
+
+    private RecordingStream stream;
+    private Counter pinnedCounter;
+
+    @PostConstruct
+    public void start() {
+        pinnedCounter = meterRegistry.counter("threads.virtual.pinned");
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Logging virtual thread pins longer than {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        String thread = event.getThread() != null ? event.getThread().getJavaName() : "unknown";
+        log.warn("Virtual thread {} pinned its carrier for {} ms at:{}",
+                thread, event.getDuration().toMillis(), format(event.getStackTrace()));
+    }
+
+    private String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        StringBuilder frames = new StringBuilder();
+        List<RecordedFrame> recorded = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(stackDepth, recorded.size()); i++) {
+            RecordedFrame frame = recorded.get(i);
+            frames.append(System.lineSeparator()).append("    at ")
+                    .append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        if (recorded.size() > stackDepth) {
+            frames.append(System.lineSeparator()).append("    ... ").append(recorded.size() - stackDepth).append(" more");
+        }
+        return frames.toString();
+    }
+}
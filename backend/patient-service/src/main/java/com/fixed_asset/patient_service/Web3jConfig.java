@@ -1,19 +1,100 @@
 package com.fixed_asset.patient_service;
 
+import com.fixed_asset.patient_service.service.NonceManager;
+import com.fixed_asset.patient_service.service.RpcBatchClient;
+import com.fixed_asset.patient_service.service.TransactionSubmitter;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.http.HttpService;
 
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class Web3jConfig {
 
     @Value("${blockchain.rpc.url:http://localhost:8545}")
     private String rpcUrl;
 
+    @Value("${blockchain.rpc.max-connections:32}")
+    private int maxConnections;
+
+    @Value("${blockchain.rpc.batch.max-size:100}")
+    private int batchMaxSize;
+
+    @Value("${blockchain.rpc.batch.linger-ms:5}")
+    private long batchLingerMs;
+
+    @Value("${blockchain.chain-id:31337}")
+    private long chainId;
+
+    @Value("${blockchain.tx.gas-limit:500000}")
+    private long gasLimit;
+
+    @Value("${blockchain.tx.stuck-after-ms:60000}")
+    private long stuckAfterMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean
     public Web3j web3j() {
-        return Web3j.build(new HttpService(rpcUrl));
+        // OkHttp allows only 5 concurrent requests per host by default, which
+        // would serialize pipelined submissions behind each other
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConnections);
+        dispatcher.setMaxRequestsPerHost(maxConnections);
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxConnections, 5, TimeUnit.MINUTES))
+                .build();
+        return Web3j.build(new HttpService(rpcUrl, httpClient));
+    }
+
+    @Bean(destroyMethod = "close")
+    public RpcBatchClient rpcBatchClient(Web3j web3j) {
+        return new RpcBatchClient(web3j, batchMaxSize, batchLingerMs, sendExecutor("rpc-send-"));
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${blockchain.admin.private-key:}'.isEmpty()")
+    public Credentials adminCredentials(@Value("${blockchain.admin.private-key}") String privateKey) {
+        return Credentials.create(privateKey);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${blockchain.admin.private-key:}'.isEmpty()")
+    public NonceManager nonceManager(Web3j web3j, Credentials adminCredentials) {
+        return new NonceManager(() -> {
+            try {
+                return web3j.ethGetTransactionCount(adminCredentials.getAddress(), DefaultBlockParameterName.PENDING)
+                        .send().getTransactionCount().longValueExact();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to read pending nonce: " + e.getMessage());
+            }
+        });
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${blockchain.admin.private-key:}'.isEmpty()")
+    public TransactionSubmitter transactionSubmitter(Web3j web3j, Credentials adminCredentials, NonceManager nonceManager) {
+        return new TransactionSubmitter(web3j, adminCredentials, chainId, nonceManager,
+                BigInteger.valueOf(gasLimit), Duration.ofMillis(stuckAfterMs), sendExecutor("tx-send-"));
+    }
+
+    // Blocking sends on virtual threads; null keeps web3j's cached platform pool.
+    // Blocking OkHttp calls bypass the Dispatcher limits, the connection pool still applies
+    private Executor sendExecutor(String namePrefix) {
+        return virtualThreads ? VirtualThreadConfig.virtualThreads(namePrefix) : null;
     }
-}
\ No newline at end of file
+}
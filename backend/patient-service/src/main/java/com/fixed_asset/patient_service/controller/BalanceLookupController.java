@@ -0,0 +1,34 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tokens/balances")
+public class BalanceLookupController {
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${tokens.bulk-lookup.max-ids:5000}")
+    private int maxIds;
+
+    // POST so a few thousand ids fit; one NDJSON TokenBalanceDTO line per known patient
+    @PostMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> lookupBalances(@RequestBody List<Long> patientIds) {
+        if (patientIds == null || patientIds.isEmpty() || patientIds.size() > maxIds) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> tokenService.exportTokenBalances(patientIds, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,96 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.DepositApproval;
+import com.fixed_asset.patient_service.dto.RedemptionCompletion;
+import com.fixed_asset.patient_service.service.BenefitService;
+import com.fixed_asset.patient_service.service.DepositService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Hospital review of many redemptions or deposits per call. Each endpoint
+ * answers with one BatchItemResult per item: items that fail validation are
+ * reported and skipped, the rest are applied together.
+ */
+@RestController
+@RequestMapping("/api/batch")
+public class BatchReviewController {
+
+    @Autowired
+    private BenefitService benefitService;
+
+    @Autowired
+    private DepositService depositService;
+
+    @Value("${batch.max-items:500}")
+    private int maxItems;
+
+    @PostMapping("/redemptions/approve")
+    public ResponseEntity<List<BatchItemResult>> approveRedemptions(
+            @RequestParam String hospitalId,
+            @RequestParam(required = false) String reviewer,
+            @RequestBody List<String> redemptionIds) {
+
+        if (!withinLimit(redemptionIds)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(benefitService.approveRedemptions(redemptionIds, hospitalId, reviewer));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/redemptions/complete")
+    public ResponseEntity<List<BatchItemResult>> completeRedemptions(@RequestBody List<RedemptionCompletion> completions) {
+        if (!withinLimit(completions) || completions.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(benefitService.completeRedemptions(completions));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/deposits/approve")
+    public ResponseEntity<List<BatchItemResult>> approveDeposits(
+            @RequestParam(required = false) String reviewer,
+            @RequestBody List<DepositApproval> approvals) {
+
+
+        if (!withinLimit(approvals) || approvals.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(depositService.approveDeposits(approvals, reviewer));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/deposits/reject")
+    public ResponseEntity<List<BatchItemResult>> rejectDeposits(
+            @RequestParam String reason,
+            @RequestParam(required = false) String reviewer,
+            @RequestBody List<Long> depositIds) {
+
+        if (!withinLimit(depositIds)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(depositService.rejectDeposits(depositIds, reason, reviewer));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private boolean withinLimit(List<?> items) {
+        return items != null && !items.isEmpty() && items.size() <= maxItems;
+    }
+}
@@ -1,12 +1,20 @@
 package com.fixed_asset.patient_service.controller;
 
+import com.fixed_asset.patient_service.dto.CursorPage;
 import com.fixed_asset.patient_service.dto.HealthBenefitDTO;
 import com.fixed_asset.patient_service.dto.RedemptionRequest;
 import com.fixed_asset.patient_service.dto.RedemptionResponse;
 import com.fixed_asset.patient_service.service.BenefitService;
+import com.fixed_asset.patient_service.service.LedgerVersion;
+import com.fixed_asset.patient_service.service.WriteRequestExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,6 +25,12 @@ public class BenefitController {
     @Autowired
     private BenefitService benefitService;
 
+    @Autowired
+    private WriteRequestExecutor writeRequestExecutor;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
     @GetMapping("/available")
     public ResponseEntity<List<HealthBenefitDTO>> getAvailableBenefits(@PathVariable Long patientId) {
         try {
@@ -28,33 +42,64 @@ public class BenefitController {
     }
 
     @PostMapping("/redeem")
-    public ResponseEntity<RedemptionResponse> redeemBenefit(
+    public DeferredResult<ResponseEntity<RedemptionResponse>> redeemBenefit(
             @PathVariable Long patientId,
             @RequestBody RedemptionRequest redemptionRequest) {
-        
+        return writeRequestExecutor.submit(() -> {
+            try {
+                // Ensure the redemption request matches the path patient ID
+                if (!patientId.equals(redemptionRequest.getPatientId())) {
+                    return ResponseEntity.badRequest().body(createErrorResponse("Patient ID in path and request body do not match"));
+                }
+
+                RedemptionResponse response = benefitService.redeemBenefit(redemptionRequest);
+                return ResponseEntity.ok(response);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+            }
+        }, this::createErrorResponse);
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<List<RedemptionResponse>> getRedemptionHistory(@PathVariable Long patientId, WebRequest request) {
         try {
-            // Ensure the redemption request matches the path patient ID
-            if (!patientId.equals(redemptionRequest.getPatientId())) {
-                return ResponseEntity.badRequest().body(createErrorResponse("Patient ID in path and request body do not match"));
+            // A matching If-None-Match is answered from the patient's ledger version alone
+            String etag = LedgerVersion.etag(ledgerVersion.current(patientId));
+            if (etag != null && request.checkNotModified(etag)) {
+                return null;
             }
-            
-            RedemptionResponse response = benefitService.redeemBenefit(redemptionRequest);
-            return ResponseEntity.ok(response);
+            List<RedemptionResponse> history = benefitService.getRedemptionHistory(patientId);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(etag)
+                    .body(history);
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+            return ResponseEntity.badRequest().build();
         }
     }
 
-    @GetMapping("/history")
-    public ResponseEntity<List<RedemptionResponse>> getRedemptionHistory(@PathVariable Long patientId) {
+    @GetMapping("/history/page")
+    public ResponseEntity<CursorPage<RedemptionResponse>> getRedemptionHistoryPage(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        
         try {
-            List<RedemptionResponse> history = benefitService.getRedemptionHistory(patientId);
-            return ResponseEntity.ok(history);
+            CursorPage<RedemptionResponse> page = benefitService.getRedemptionHistoryPage(patientId, cursor, limit);
+            return ResponseEntity.ok(page);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping(value = "/history/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRedemptionHistory(@PathVariable Long patientId) {
+        StreamingResponseBody body = out -> benefitService.exportRedemptionHistory(patientId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/redemption/{redemptionId}")
     public ResponseEntity<RedemptionResponse> getRedemptionById(
             @PathVariable Long patientId,
@@ -75,10 +120,38 @@ public class BenefitController {
     }
 
     @PostMapping("/redemption/{redemptionId}/approve")
-    public ResponseEntity<String> approveRedemption(
+    public DeferredResult<ResponseEntity<String>> approveRedemption(
             @PathVariable Long patientId,
             @PathVariable String redemptionId,
-            @RequestParam String hospitalId) {
+            @RequestParam String hospitalId,
+            @RequestParam(required = false) String reviewer) {
+        return writeRequestExecutor.submit(() -> {
+            try {
+                RedemptionResponse redemption = benefitService.getRedemptionById(redemptionId);
+
+                // Verify the redemption belongs to the patient
+                if (!redemption.getPatientId().equals(patientId)) {
+                    return ResponseEntity.notFound().build();
+                }
+
+                boolean success = benefitService.approveRedemption(redemptionId, hospitalId, reviewer);
+                if (success) {
+                    return ResponseEntity.ok("Redemption approved successfully");
+                } else {
+                    return ResponseEntity.badRequest().body("Failed to approve redemption");
+                }
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body("Failed to approve redemption: " + e.getMessage());
+            }
+        }, message -> "Failed to approve redemption: " + message);
+    }
+
+    @PostMapping("/redemption/{redemptionId}/reject")
+    public ResponseEntity<String> rejectRedemption(
+            @PathVariable Long patientId,
+            @PathVariable String redemptionId,
+            @RequestParam String reason,
+            @RequestParam(required = false) String reviewer) {
         
         try {
             RedemptionResponse redemption = benefitService.getRedemptionById(redemptionId);
@@ -88,40 +161,41 @@ public class BenefitController {
                 return ResponseEntity.notFound().build();
             }
             
-            boolean success = benefitService.approveRedemption(redemptionId, hospitalId);
+            boolean success = benefitService.rejectRedemption(redemptionId, reason, reviewer);
             if (success) {
-                return ResponseEntity.ok("Redemption approved successfully");
+                return ResponseEntity.ok("Redemption rejected and held tokens released");
             } else {
-                return ResponseEntity.badRequest().body("Failed to approve redemption");
+                return ResponseEntity.badRequest().body("Failed to reject redemption");
             }
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body("Failed to approve redemption: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Failed to reject redemption: " + e.getMessage());
         }
     }
 
     @PostMapping("/redemption/{redemptionId}/complete")
-    public ResponseEntity<String> completeRedemption(
+    public DeferredResult<ResponseEntity<String>> completeRedemption(
             @PathVariable Long patientId,
             @PathVariable String redemptionId,
             @RequestParam String transactionHash) {
-        
-        try {
-            RedemptionResponse redemption = benefitService.getRedemptionById(redemptionId);
-            
-            // Verify the redemption belongs to the patient
-            if (!redemption.getPatientId().equals(patientId)) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            boolean success = benefitService.completeRedemption(redemptionId, transactionHash);
-            if (success) {
-                return ResponseEntity.ok("Redemption completed successfully");
-            } else {
-                return ResponseEntity.badRequest().body("Failed to complete redemption");
+        return writeRequestExecutor.submit(() -> {
+            try {
+                RedemptionResponse redemption = benefitService.getRedemptionById(redemptionId);
+
+                // Verify the redemption belongs to the patient
+                if (!redemption.getPatientId().equals(patientId)) {
+                    return ResponseEntity.notFound().build();
+                }
+
+                boolean success = benefitService.completeRedemption(redemptionId, transactionHash);
+                if (success) {
+                    return ResponseEntity.ok("Redemption completed successfully");
+                } else {
+                    return ResponseEntity.badRequest().body("Failed to complete redemption");
+                }
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body("Failed to complete redemption: " + e.getMessage());
             }
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body("Failed to complete redemption: " + e.getMessage());
-        }
+        }, message -> "Failed to complete redemption: " + message);
     }
 
     @GetMapping("/total-redeemed")
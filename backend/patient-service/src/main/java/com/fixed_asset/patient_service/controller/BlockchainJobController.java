@@ -0,0 +1,25 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.dto.BlockchainJobDTO;
+import com.fixed_asset.patient_service.service.BlockchainJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/blockchain/jobs")
+public class BlockchainJobController {
+
+    @Autowired
+    private BlockchainJobService blockchainJobService;
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BlockchainJobDTO> getJob(@PathVariable String jobId) {
+        try {
+            BlockchainJobDTO job = blockchainJobService.getJob(jobId);
+            return ResponseEntity.ok(job);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
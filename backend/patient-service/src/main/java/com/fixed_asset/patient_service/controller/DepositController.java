@@ -1,11 +1,17 @@
 package com.fixed_asset.patient_service.controller;
 
+import com.fixed_asset.patient_service.dto.CursorPage;
 import com.fixed_asset.patient_service.dto.DepositRequest;
 import com.fixed_asset.patient_service.dto.DepositResponse;
 import com.fixed_asset.patient_service.service.DepositService;
+import com.fixed_asset.patient_service.service.TokenAmount;
+import com.fixed_asset.patient_service.service.WriteRequestExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,6 +22,9 @@ public class DepositController {
     @Autowired
     private DepositService depositService;
 
+    @Autowired
+    private WriteRequestExecutor writeRequestExecutor;
+
     @PostMapping
     public ResponseEntity<DepositResponse> submitDeposit(
             @PathVariable Long patientId,
@@ -44,6 +53,28 @@ public class DepositController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<DepositResponse>> getPatientDepositPage(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        
+        try {
+            CursorPage<DepositResponse> page = depositService.getDepositPage(patientId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPatientDeposits(@PathVariable Long patientId) {
+        StreamingResponseBody body = out -> depositService.exportDeposits(patientId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{depositId}")
     public ResponseEntity<DepositResponse> getDepositById(
             @PathVariable Long patientId,
@@ -99,37 +130,40 @@ public class DepositController {
     }
 
     @PostMapping("/{depositId}/approve")
-    public ResponseEntity<DepositResponse> approveDeposit(
+    public DeferredResult<ResponseEntity<DepositResponse>> approveDeposit(
             @PathVariable Long patientId,
             @PathVariable Long depositId,
             @RequestParam Double tokensToMint,
-            @RequestParam String depositIdHash) {
-        
-        try {
-            DepositResponse deposit = depositService.getDepositById(depositId);
-            
-            // Verify the deposit belongs to the patient
-            if (!deposit.getPatientId().equals(patientId)) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            boolean approved = depositService.approveDeposit(depositId, tokensToMint, depositIdHash);
-            if (approved) {
-                DepositResponse updatedDeposit = depositService.getDepositById(depositId);
-                return ResponseEntity.ok(updatedDeposit);
-            } else {
-                return ResponseEntity.badRequest().body(createErrorResponse("Failed to approve deposit"));
+            @RequestParam String depositIdHash,
+            @RequestParam(required = false) String reviewer) {
+        return writeRequestExecutor.submit(() -> {
+            try {
+                DepositResponse deposit = depositService.getDepositById(depositId);
+
+                // Verify the deposit belongs to the patient
+                if (!deposit.getPatientId().equals(patientId)) {
+                    return ResponseEntity.notFound().build();
+                }
+
+                boolean approved = depositService.approveDeposit(depositId, TokenAmount.fromTokens(tokensToMint), depositIdHash, reviewer);
+                if (approved) {
+                    DepositResponse updatedDeposit = depositService.getDepositById(depositId);
+                    return ResponseEntity.ok(updatedDeposit);
+                } else {
+                    return ResponseEntity.badRequest().body(createErrorResponse("Failed to approve deposit"));
+                }
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
             }
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
-        }
+        }, this::createErrorResponse);
     }
 
     @PostMapping("/{depositId}/reject")
     public ResponseEntity<DepositResponse> rejectDeposit(
             @PathVariable Long patientId,
             @PathVariable Long depositId,
-            @RequestParam String reason) {
+            @RequestParam String reason,
+            @RequestParam(required = false) String reviewer) {
         
         try {
             DepositResponse deposit = depositService.getDepositById(depositId);
@@ -139,7 +173,7 @@ public class DepositController {
                 return ResponseEntity.notFound().build();
             }
             
-            boolean rejected = depositService.rejectDeposit(depositId, reason);
+            boolean rejected = depositService.rejectDeposit(depositId, reason, reviewer);
             if (rejected) {
                 DepositResponse updatedDeposit = depositService.getDepositById(depositId);
                 return ResponseEntity.ok(updatedDeposit);
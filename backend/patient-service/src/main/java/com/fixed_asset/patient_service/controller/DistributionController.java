@@ -0,0 +1,53 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.dto.DistributionProofDTO;
+import com.fixed_asset.patient_service.dto.DistributionRequest;
+import com.fixed_asset.patient_service.model.ProfitDistribution;
+import com.fixed_asset.patient_service.service.ProfitDistributionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/distributions")
+public class DistributionController {
+
+    @Autowired
+    private ProfitDistributionService distributionService;
+
+    @PostMapping
+    public ResponseEntity<ProfitDistribution> createDistribution(@RequestBody DistributionRequest request) {
+        try {
+            return ResponseEntity.ok(distributionService.createDistribution(request.getTradeId(), request.getProfit()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{tradeId}/publish")
+    public ResponseEntity<ProfitDistribution> publishRoot(@PathVariable Long tradeId) {
+        try {
+            return ResponseEntity.ok(distributionService.publishRoot(tradeId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{tradeId}")
+    public ResponseEntity<ProfitDistribution> getDistribution(@PathVariable Long tradeId) {
+        try {
+            return ResponseEntity.ok(distributionService.getDistribution(tradeId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{tradeId}/proofs/{patientId}")
+    public ResponseEntity<DistributionProofDTO> getProof(@PathVariable Long tradeId, @PathVariable Long patientId) {
+        try {
+            return ResponseEntity.ok(distributionService.getProof(tradeId, patientId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.fixed_asset.patient_service.controller;
 
 import com.fixed_asset.patient_service.dto.PatientDTO;
 import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.service.PatientEventHub;
 import com.fixed_asset.patient_service.service.PatientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -16,6 +19,9 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientEventHub patientEventHub;
+
     @PostMapping("/register")
     public ResponseEntity<Patient> registerPatient(@RequestBody Patient patient) {
         Patient registeredPatient = patientService.registerPatient(patient);
@@ -28,6 +34,16 @@ public class PatientController {
         return ResponseEntity.ok(patient);
     }
 
+    // Balance and deposit/redemption status changes as they commit; replaces polling the portal pages
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(patientEventHub.subscribe(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/email/{email}")
     public ResponseEntity<PatientDTO> getPatientByEmail(@PathVariable String email) {
         PatientDTO patient = patientService.getPatientByEmail(email);
@@ -0,0 +1,25 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.service.PatientTokenStatsRebuildJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/token-stats")
+public class PatientTokenStatsController {
+
+    @Autowired
+    private PatientTokenStatsRebuildJob rebuildJob;
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            return ResponseEntity.ok(rebuildJob.rebuildAll());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
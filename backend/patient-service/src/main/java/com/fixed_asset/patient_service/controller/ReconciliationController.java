@@ -0,0 +1,40 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.model.BalanceDiscrepancy;
+import com.fixed_asset.patient_service.service.BalanceReconciliationJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+public class ReconciliationController {
+
+    @Autowired
+    private BalanceReconciliationJob reconciliationJob;
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> startRun() {
+        try {
+            return ResponseEntity.accepted().body(reconciliationJob.startRun());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(reconciliationJob.getStatus());
+    }
+
+    @GetMapping("/runs/{runId}/discrepancies")
+    public ResponseEntity<List<BalanceDiscrepancy>> getDiscrepancies(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(reconciliationJob.getDiscrepancies(runId, afterId, limit));
+    }
+}
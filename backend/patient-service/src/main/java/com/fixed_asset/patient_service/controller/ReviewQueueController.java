@@ -0,0 +1,112 @@
+package com.fixed_asset.patient_service.controller;
+
+import com.fixed_asset.patient_service.dto.DepositResponse;
+import com.fixed_asset.patient_service.dto.RedemptionResponse;
+import com.fixed_asset.patient_service.service.BenefitService;
+import com.fixed_asset.patient_service.service.DepositService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Claim-based review queue for approvers on any node. A claim leases the
+ * oldest unleased PENDING rows to one reviewer; the reviewer heartbeats the
+ * ids it is still working on and releases what it gives up. Leases that run
+ * out put the rows back in the queue. While a lease is live, only its holder
+ * (passed as the reviewer parameter) can approve or reject the row.
+ */
+@RestController
+@RequestMapping("/api/review-queue")
+public class ReviewQueueController {
+
+    @Autowired
+    private DepositService depositService;
+
+    @Autowired
+    private BenefitService benefitService;
+
+    @Value("${review-queue.max-claim:100}")
+    private int maxClaim;
+
+    @PostMapping("/deposits/claim")
+    public ResponseEntity<List<DepositResponse>> claimDeposits(
+            @RequestParam String reviewer,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if (limit < 1 || limit > maxClaim) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(depositService.claimPendingDeposits(reviewer, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Returns the ids whose lease was extended; anything missing is no longer this reviewer's
+    @PostMapping("/deposits/heartbeat")
+    public ResponseEntity<List<Long>> renewDepositLeases(
+            @RequestParam String reviewer,
+            @RequestBody List<Long> depositIds) {
+
+        try {
+            return ResponseEntity.ok(depositService.renewDepositLeases(reviewer, depositIds));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/deposits/release")
+    public ResponseEntity<Integer> releaseDepositLeases(
+            @RequestParam String reviewer,
+            @RequestBody List<Long> depositIds) {
+
+        try {
+            return ResponseEntity.ok(depositService.releaseDepositLeases(reviewer, depositIds));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/redemptions/claim")
+    public ResponseEntity<List<RedemptionResponse>> claimRedemptions(
+            @RequestParam String reviewer,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if (limit < 1 || limit > maxClaim) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(benefitService.claimPendingRedemptions(reviewer, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/redemptions/heartbeat")
+    public ResponseEntity<List<String>> renewRedemptionLeases(
+            @RequestParam String reviewer,
+            @RequestBody List<String> redemptionIds) {
+
+        try {
+            return ResponseEntity.ok(benefitService.renewRedemptionLeases(reviewer, redemptionIds));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/redemptions/release")
+    public ResponseEntity<Integer> releaseRedemptionLeases(
+            @RequestParam String reviewer,
+            @RequestBody List<String> redemptionIds) {
+
+        try {
+            return ResponseEntity.ok(benefitService.releaseRedemptionLeases(reviewer, redemptionIds));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.fixed_asset.patient_service.controller;
 
+import com.fixed_asset.patient_service.dto.CursorPage;
 import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
 import com.fixed_asset.patient_service.dto.TokenTransactionDTO;
+import com.fixed_asset.patient_service.service.LedgerVersion;
+import com.fixed_asset.patient_service.service.TokenAmount;
 import com.fixed_asset.patient_service.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,10 +23,24 @@ public class TokenController {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    // Polled by the frontend: a matching If-None-Match costs one ledger_version lookup
     @GetMapping("/balance")
-    public ResponseEntity<TokenBalanceDTO> getTokenBalance(@PathVariable Long patientId) {
-        TokenBalanceDTO balance = tokenService.getTokenBalance(patientId);
-        return ResponseEntity.ok(balance);
+    public ResponseEntity<TokenBalanceDTO> getTokenBalance(@PathVariable Long patientId, WebRequest request) {
+        Long version = ledgerVersion.current(patientId);
+        if (version == null) {
+            return ResponseEntity.ok(tokenService.getTokenBalance(patientId));
+        }
+        if (request.checkNotModified(LedgerVersion.etag(version))) {
+            return null;
+        }
+        TokenBalanceDTO balance = tokenService.getTokenBalance(patientId, version);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(LedgerVersion.etag(balance.getLedgerVersion()))
+                .body(balance);
     }
 
     @PostMapping("/asset/update")
@@ -27,7 +48,7 @@ public class TokenController {
             @PathVariable Long patientId,
             @RequestParam Double amount) {
         
-        boolean success = tokenService.updateAssetTokenBalance(patientId, amount);
+        boolean success = tokenService.updateAssetTokenBalance(patientId, TokenAmount.fromTokens(amount));
         if (success) {
             return ResponseEntity.ok("Asset token balance updated successfully");
         } else {
@@ -40,7 +61,7 @@ public class TokenController {
             @PathVariable Long patientId,
             @RequestParam Double amount) {
         
-        boolean success = tokenService.updateHealthTokenBalance(patientId, amount);
+        boolean success = tokenService.updateHealthTokenBalance(patientId, TokenAmount.fromTokens(amount));
         if (success) {
             return ResponseEntity.ok("Health token balance updated successfully");
         } else {
@@ -54,7 +75,7 @@ public class TokenController {
             @RequestParam Long toPatientId,
             @RequestParam Double amount) {
         
-        boolean success = tokenService.transferAssetTokens(patientId, toPatientId, amount);
+        boolean success = tokenService.transferAssetTokens(patientId, toPatientId, TokenAmount.fromTokens(amount));
         if (success) {
             return ResponseEntity.ok("Tokens transferred successfully");
         } else {
@@ -63,9 +84,39 @@ public class TokenController {
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<List<TokenTransactionDTO>> getTokenTransactions(@PathVariable Long patientId) {
+    public ResponseEntity<List<TokenTransactionDTO>> getTokenTransactions(@PathVariable Long patientId, WebRequest request) {
+        // Read before the history, so the tag never claims more than was loaded
+        String etag = LedgerVersion.etag(ledgerVersion.current(patientId));
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         List<TokenTransactionDTO> transactions = tokenService.getTokenTransactions(patientId);
-        return ResponseEntity.ok(transactions);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(transactions);
+    }
+
+    @GetMapping("/transactions/page")
+    public ResponseEntity<CursorPage<TokenTransactionDTO>> getTokenTransactionPage(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        
+        try {
+            CursorPage<TokenTransactionDTO> page = tokenService.getTokenTransactionPage(patientId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/transactions/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTokenTransactions(@PathVariable Long patientId) {
+        StreamingResponseBody body = out -> tokenService.exportTokenTransactions(patientId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/transactions/{tokenType}")
@@ -0,0 +1,11 @@
+package com.fixed_asset.patient_service.dto;
+
+/**
+ * An AT holder as profit allocation sees it: the token_balances ledger
+ * balance and the wallet the share is paid to.
+ */
+public interface AssetHoldingView {
+    Long getPatientId();
+    String getWalletAddress();
+    Long getAssetTokenBalance(); // TokenAmount units
+}
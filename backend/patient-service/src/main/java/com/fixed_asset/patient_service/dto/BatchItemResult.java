@@ -0,0 +1,40 @@
+package com.fixed_asset.patient_service.dto;
+
+/**
+ * Outcome of one item in a batch approve/complete/reject call. A failed item
+ * leaves its row untouched; the rest of the batch still applies.
+ */
+public class BatchItemResult {
+    private String id;
+    private boolean success;
+    private String status; // the row's status after the batch
+    private String message;
+
+    // Constructors
+    public BatchItemResult() {}
+
+    public BatchItemResult(String id, boolean success, String status, String message) {
+        this.id = id;
+        this.success = success;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static BatchItemResult succeeded(Object id, String status) {
+        return new BatchItemResult(String.valueOf(id), true, status, null);
+    }
+
+    public static BatchItemResult failed(Object id, String status, String message) {
+        return new BatchItemResult(String.valueOf(id), false, status, message);
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,57 @@
+package com.fixed_asset.patient_service.dto;
+
+import java.math.BigInteger;
+
+/**
+ * A decoded HospitalFinancials/AssetToken log. Fields not carried by the
+ * event type are left null; amounts are in base units (18 decimals).
+ */
+public class ChainEvent {
+    private String eventName; // AssetTokenMinted, TradeRecorded, ProfitDistributed, HealthTokenRedeemed, DepositMetadataSet
+    private String contractAddress;
+    private long blockNumber;
+    private String blockHash;
+    private String transactionHash;
+    private int logIndex;
+    private String walletAddress;
+    private BigInteger depositNumber;
+    private BigInteger tradeId;
+    private BigInteger amount; // amountAT, amountHT, investedAT or distributedHT
+    private BigInteger profit; // profitEarned or totalProfit
+    private String serviceType;
+    private String metadata;
+    private Long timestamp;
+
+    // Constructors
+    public ChainEvent() {}
+
+    // Getters and Setters
+    public String getEventName() { return eventName; }
+    public void setEventName(String eventName) { this.eventName = eventName; }
+    public String getContractAddress() { return contractAddress; }
+    public void setContractAddress(String contractAddress) { this.contractAddress = contractAddress; }
+    public long getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(long blockNumber) { this.blockNumber = blockNumber; }
+    public String getBlockHash() { return blockHash; }
+    public void setBlockHash(String blockHash) { this.blockHash = blockHash; }
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+    public int getLogIndex() { return logIndex; }
+    public void setLogIndex(int logIndex) { this.logIndex = logIndex; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public BigInteger getDepositNumber() { return depositNumber; }
+    public void setDepositNumber(BigInteger depositNumber) { this.depositNumber = depositNumber; }
+    public BigInteger getTradeId() { return tradeId; }
+    public void setTradeId(BigInteger tradeId) { this.tradeId = tradeId; }
+    public BigInteger getAmount() { return amount; }
+    public void setAmount(BigInteger amount) { this.amount = amount; }
+    public BigInteger getProfit() { return profit; }
+    public void setProfit(BigInteger profit) { this.profit = profit; }
+    public String getServiceType() { return serviceType; }
+    public void setServiceType(String serviceType) { this.serviceType = serviceType; }
+    public String getMetadata() { return metadata; }
+    public void setMetadata(String metadata) { this.metadata = metadata; }
+    public Long getTimestamp() { return timestamp; }
+    public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
+}
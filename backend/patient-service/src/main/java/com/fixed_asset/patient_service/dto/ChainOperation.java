@@ -0,0 +1,34 @@
+package com.fixed_asset.patient_service.dto;
+
+import java.math.BigInteger;
+
+public class ChainOperation {
+    private String operation; // MINT_AT, MINT_HT, BURN_HT, PUBLISH_ROOT
+    private String walletAddress;
+    private BigInteger amount;
+    private String depositId;
+    private String metadata;
+
+    // Constructors
+    public ChainOperation() {}
+
+    public ChainOperation(String operation, String walletAddress, BigInteger amount, String depositId, String metadata) {
+        this.operation = operation;
+        this.walletAddress = walletAddress;
+        this.amount = amount;
+        this.depositId = depositId;
+        this.metadata = metadata;
+    }
+
+    // Getters and Setters
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public BigInteger getAmount() { return amount; }
+    public void setAmount(BigInteger amount) { this.amount = amount; }
+    public String getDepositId() { return depositId; }
+    public void setDepositId(String depositId) { this.depositId = depositId; }
+    public String getMetadata() { return metadata; }
+    public void setMetadata(String metadata) { this.metadata = metadata; }
+}
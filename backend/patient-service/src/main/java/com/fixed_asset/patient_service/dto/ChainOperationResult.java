@@ -0,0 +1,50 @@
+package com.fixed_asset.patient_service.dto;
+
+public class ChainOperationResult {
+    private boolean success;
+    private String transactionHash;
+    private String error;
+    private boolean pending; // broadcast, confirmations still outstanding
+    private Long nonce; // set on prepared transactions
+
+    // Constructors
+    public ChainOperationResult() {}
+
+    public ChainOperationResult(boolean success, String transactionHash, String error) {
+        this.success = success;
+        this.transactionHash = transactionHash;
+        this.error = error;
+    }
+
+    public static ChainOperationResult success(String transactionHash) {
+        return new ChainOperationResult(true, transactionHash, null);
+    }
+
+    public static ChainOperationResult submitted(String transactionHash) {
+        ChainOperationResult result = new ChainOperationResult(true, transactionHash, null);
+        result.setPending(true);
+        return result;
+    }
+
+    public static ChainOperationResult prepared(String transactionHash, Long nonce) {
+        ChainOperationResult result = submitted(transactionHash);
+        result.setNonce(nonce);
+        return result;
+    }
+
+    public static ChainOperationResult failure(String error) {
+        return new ChainOperationResult(false, null, error);
+    }
+
+    // Getters and Setters
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public boolean isPending() { return pending; }
+    public void setPending(boolean pending) { this.pending = pending; }
+    public Long getNonce() { return nonce; }
+    public void setNonce(Long nonce) { this.nonce = nonce; }
+}
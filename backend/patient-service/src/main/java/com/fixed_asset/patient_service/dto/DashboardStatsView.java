@@ -0,0 +1,19 @@
+package com.fixed_asset.patient_service.dto;
+
+/**
+ * Read model for the patient dashboard: balances and status counts
+ * resolved in a single aggregate query.
+ */
+public interface DashboardStatsView {
+    String getWalletAddress();
+    Double getAssetTokenBalance();
+    Double getHealthTokenBalance();
+    Double getHealthTokenHeld();
+    Double getAvailableHealthTokenBalance(); // balance less what pending redemptions hold
+    Long getTotalDeposits();
+    Long getPendingDeposits();
+    Long getApprovedDeposits();
+    Long getTotalRedemptions();
+    Long getPendingRedemptions();
+    Long getCompletedRedemptions();
+}
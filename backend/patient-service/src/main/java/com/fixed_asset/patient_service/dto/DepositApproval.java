@@ -0,0 +1,24 @@
+package com.fixed_asset.patient_service.dto;
+
+public class DepositApproval {
+    private Long depositId;
+    private Double tokensToMint; // AT
+    private String depositIdHash;
+
+    // Constructors
+    public DepositApproval() {}
+
+    public DepositApproval(Long depositId, Double tokensToMint, String depositIdHash) {
+        this.depositId = depositId;
+        this.tokensToMint = tokensToMint;
+        this.depositIdHash = depositIdHash;
+    }
+
+    // Getters and Setters
+    public Long getDepositId() { return depositId; }
+    public void setDepositId(Long depositId) { this.depositId = depositId; }
+    public Double getTokensToMint() { return tokensToMint; }
+    public void setTokensToMint(Double tokensToMint) { this.tokensToMint = tokensToMint; }
+    public String getDepositIdHash() { return depositIdHash; }
+    public void setDepositIdHash(String depositIdHash) { this.depositIdHash = depositIdHash; }
+}
@@ -11,6 +11,7 @@ public class DepositResponse {
     private String depositId;
     private String status;
     private String metadata;
+    private String jobId;
     private LocalDateTime createdAt;
     private LocalDateTime processedAt;
 
@@ -34,6 +35,8 @@ public class DepositResponse {
     public void setStatus(String status) { this.status = status; }
     public String getMetadata() { return metadata; }
     public void setMetadata(String metadata) { this.metadata = metadata; }
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getProcessedAt() { return processedAt; }
@@ -0,0 +1,39 @@
+package com.fixed_asset.patient_service.dto;
+
+import java.util.List;
+
+/**
+ * Everything a patient's wallet needs to call
+ * HospitalFinancials.claimProfit(tradeId, amount, proof).
+ */
+public class DistributionProofDTO {
+    private Long tradeId;
+    private String walletAddress;
+    private String amount; // base units, as passed to claimProfit
+    private Double htAmount;
+    private Integer leafIndex;
+    private List<String> proof;
+    private String merkleRoot;
+    private String status; // BUILT until the root is on chain, then PUBLISHED
+
+    // Constructors
+    public DistributionProofDTO() {}
+
+    // Getters and Setters
+    public Long getTradeId() { return tradeId; }
+    public void setTradeId(Long tradeId) { this.tradeId = tradeId; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public String getAmount() { return amount; }
+    public void setAmount(String amount) { this.amount = amount; }
+    public Double getHtAmount() { return htAmount; }
+    public void setHtAmount(Double htAmount) { this.htAmount = htAmount; }
+    public Integer getLeafIndex() { return leafIndex; }
+    public void setLeafIndex(Integer leafIndex) { this.leafIndex = leafIndex; }
+    public List<String> getProof() { return proof; }
+    public void setProof(List<String> proof) { this.proof = proof; }
+    public String getMerkleRoot() { return merkleRoot; }
+    public void setMerkleRoot(String merkleRoot) { this.merkleRoot = merkleRoot; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,21 @@
+package com.fixed_asset.patient_service.dto;
+
+public class DistributionRequest {
+    private Long tradeId;
+
+    private Double profit; // HT, as recorded for the trade
+
+    // Constructors
+    public DistributionRequest() {}
+
+    public DistributionRequest(Long tradeId, Double profit) {
+        this.tradeId = tradeId;
+        this.profit = profit;
+    }
+
+    // Getters and Setters
+    public Long getTradeId() { return tradeId; }
+    public void setTradeId(Long tradeId) { this.tradeId = tradeId; }
+    public Double getProfit() { return profit; }
+    public void setProfit(Double profit) { this.profit = profit; }
+}
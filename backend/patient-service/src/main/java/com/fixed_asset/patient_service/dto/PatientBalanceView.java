@@ -0,0 +1,15 @@
+package com.fixed_asset.patient_service.dto;
+
+/**
+ * A patient's token_balances row with the wallet it belongs to, for bulk
+ * lookups. Balances are TokenAmount units; a patient without a row reads as
+ * zero. The ledger version lets cached copies be checked against ETags.
+ */
+public interface PatientBalanceView {
+    Long getPatientId();
+    String getWalletAddress();
+    Long getLedgerVersion();
+    Long getAssetTokenBalance();
+    Long getHealthTokenBalance();
+    Long getHealthTokenHeld();
+}
@@ -0,0 +1,46 @@
+package com.fixed_asset.patient_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One message on a patient's event stream (GET /api/patients/{id}/events),
+ * sent as an SSE event named after its type. BALANCE carries the patient's
+ * current balance; DEPOSIT and REDEMPTION carry the id and new status of the
+ * row that moved. RESYNC means events were dropped for a slow client, which
+ * should refetch what it shows.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PatientEvent {
+    public static final String BALANCE = "BALANCE";
+    public static final String DEPOSIT = "DEPOSIT";
+    public static final String REDEMPTION = "REDEMPTION";
+    public static final String RESYNC = "RESYNC";
+
+    private String type;
+    private Long patientId;
+    private String referenceId; // deposit id or redemption id
+    private String status;
+    private TokenBalanceDTO balance; // filled in by the node that streams it
+
+    // Constructors
+    public PatientEvent() {}
+
+    public PatientEvent(String type, Long patientId, String referenceId, String status) {
+        this.type = type;
+        this.patientId = patientId;
+        this.referenceId = referenceId;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public String getReferenceId() { return referenceId; }
+    public void setReferenceId(String referenceId) { this.referenceId = referenceId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public TokenBalanceDTO getBalance() { return balance; }
+    public void setBalance(TokenBalanceDTO balance) { this.balance = balance; }
+}
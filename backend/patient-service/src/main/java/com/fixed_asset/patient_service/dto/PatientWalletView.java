@@ -0,0 +1,15 @@
+package com.fixed_asset.patient_service.dto;
+
+/**
+ * A patient's wallet with the balances the database holds for it: the
+ * token_balances ledger in TokenAmount units, and the copy on the patients
+ * row in tokens.
+ */
+public interface PatientWalletView {
+    Long getId();
+    String getWalletAddress();
+    Long getLedgerAssetTokenBalance();
+    Long getLedgerHealthTokenBalance();
+    Double getProfileAssetTokenBalance();
+    Double getProfileHealthTokenBalance();
+}
@@ -0,0 +1,20 @@
+package com.fixed_asset.patient_service.dto;
+
+public class RedemptionCompletion {
+    private String redemptionId;
+    private String transactionHash;
+
+    // Constructors
+    public RedemptionCompletion() {}
+
+    public RedemptionCompletion(String redemptionId, String transactionHash) {
+        this.redemptionId = redemptionId;
+        this.transactionHash = transactionHash;
+    }
+
+    // Getters and Setters
+    public String getRedemptionId() { return redemptionId; }
+    public void setRedemptionId(String redemptionId) { this.redemptionId = redemptionId; }
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+}
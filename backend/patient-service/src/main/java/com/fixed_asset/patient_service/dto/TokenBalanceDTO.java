@@ -1,10 +1,15 @@
 package com.fixed_asset.patient_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class TokenBalanceDTO {
     private Long patientId;
     private Double assetTokenBalance;
     private Double healthTokenBalance;
+    private Double healthTokenHeld = 0.0;
     private String walletAddress;
+    // Ledger version the balance was read at; served as the ETag, not in the body
+    private Long ledgerVersion;
 
     // Constructors
     public TokenBalanceDTO() {}
@@ -23,6 +28,14 @@ public class TokenBalanceDTO {
     public void setAssetTokenBalance(Double assetTokenBalance) { this.assetTokenBalance = assetTokenBalance; }
     public Double getHealthTokenBalance() { return healthTokenBalance; }
     public void setHealthTokenBalance(Double healthTokenBalance) { this.healthTokenBalance = healthTokenBalance; }
+    public Double getHealthTokenHeld() { return healthTokenHeld; }
+    public void setHealthTokenHeld(Double healthTokenHeld) { this.healthTokenHeld = healthTokenHeld; }
+    public Double getAvailableHealthTokens() {
+        return healthTokenBalance == null ? null : healthTokenBalance - (healthTokenHeld == null ? 0.0 : healthTokenHeld);
+    }
     public String getWalletAddress() { return walletAddress; }
     public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    @JsonIgnore
+    public Long getLedgerVersion() { return ledgerVersion; }
+    public void setLedgerVersion(Long ledgerVersion) { this.ledgerVersion = ledgerVersion; }
 }
\ No newline at end of file
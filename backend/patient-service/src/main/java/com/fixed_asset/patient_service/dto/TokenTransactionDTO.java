@@ -9,6 +9,7 @@ public class TokenTransactionDTO {
     private String tokenType; // AT, HT
     private LocalDateTime timestamp;
     private String status;
+    private String jobId;
 
     // Constructors
     public TokenTransactionDTO() {}
@@ -35,4 +36,6 @@ public class TokenTransactionDTO {
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
 }
\ No newline at end of file
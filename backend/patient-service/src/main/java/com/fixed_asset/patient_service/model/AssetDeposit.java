@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class AssetDeposit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_deposits_seq")
+    @SequenceGenerator(name = "asset_deposits_seq", sequenceName = "asset_deposits_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,7 +26,7 @@ public class AssetDeposit {
     private Double assetValue;
 
     @Column(nullable = false)
-    private Double tokensMinted;
+    private long tokensMinted; // TokenAmount units
 
     @Column(unique = true)
     private String depositId; // Blockchain deposit ID
@@ -35,6 +36,15 @@ public class AssetDeposit {
 
     private String metadata; // IPFS hash or additional data
 
+    @Column(name = "mint_job_id")
+    private String mintJobId; // Blockchain job that mints the AT
+
+    @Column(name = "claimed_by")
+    private String claimedBy; // Reviewer holding the review-queue lease
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -53,14 +63,20 @@ public class AssetDeposit {
     public void setAssetType(String assetType) { this.assetType = assetType; }
     public Double getAssetValue() { return assetValue; }
     public void setAssetValue(Double assetValue) { this.assetValue = assetValue; }
-    public Double getTokensMinted() { return tokensMinted; }
-    public void setTokensMinted(Double tokensMinted) { this.tokensMinted = tokensMinted; }
+    public long getTokensMinted() { return tokensMinted; }
+    public void setTokensMinted(long tokensMinted) { this.tokensMinted = tokensMinted; }
     public String getDepositId() { return depositId; }
     public void setDepositId(String depositId) { this.depositId = depositId; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public String getMetadata() { return metadata; }
     public void setMetadata(String metadata) { this.metadata = metadata; }
+    public String getMintJobId() { return mintJobId; }
+    public void setMintJobId(String mintJobId) { this.mintJobId = mintJobId; }
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getProcessedAt() { return processedAt; }
@@ -0,0 +1,62 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "balance_discrepancies")
+public class BalanceDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_discrepancies_seq")
+    @SequenceGenerator(name = "balance_discrepancies_seq", sequenceName = "balance_discrepancies_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "wallet_address", nullable = false)
+    private String walletAddress;
+
+    @Column(name = "token_type", nullable = false)
+    private String tokenType; // AT, HT
+
+    @Column(name = "chain_balance", nullable = false, precision = 78, scale = 0)
+    private BigInteger chainBalance; // base units (18 decimals), as balanceOf returns them
+
+    @Column(name = "ledger_balance", nullable = false, precision = 78, scale = 0)
+    private BigInteger ledgerBalance; // token_balances, in base units
+
+    @Column(name = "profile_balance", nullable = false, precision = 78, scale = 0)
+    private BigInteger profileBalance; // patients, in base units
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public BalanceDiscrepancy() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public String getTokenType() { return tokenType; }
+    public void setTokenType(String tokenType) { this.tokenType = tokenType; }
+    public BigInteger getChainBalance() { return chainBalance; }
+    public void setChainBalance(BigInteger chainBalance) { this.chainBalance = chainBalance; }
+    public BigInteger getLedgerBalance() { return ledgerBalance; }
+    public void setLedgerBalance(BigInteger ledgerBalance) { this.ledgerBalance = ledgerBalance; }
+    public BigInteger getProfileBalance() { return profileBalance; }
+    public void setProfileBalance(BigInteger profileBalance) { this.profileBalance = profileBalance; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
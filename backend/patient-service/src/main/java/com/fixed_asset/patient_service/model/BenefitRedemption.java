@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class BenefitRedemption {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "benefit_redemptions_seq")
+    @SequenceGenerator(name = "benefit_redemptions_seq", sequenceName = "benefit_redemptions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,7 +26,7 @@ public class BenefitRedemption {
     private String serviceType; // CHECKUP, MEDICINE, INSURANCE, etc.
 
     @Column(nullable = false)
-    private Double htAmount;
+    private long htAmount; // TokenAmount units
 
     @Column(nullable = false)
     private String status; // PENDING, APPROVED, COMPLETED, REJECTED
@@ -34,12 +35,22 @@ public class BenefitRedemption {
     private String hospitalId;
     private String transactionHash;
 
+    @Column(name = "transaction_status")
+    private String transactionStatus; // PENDING, CONFIRMED, FAILED
+
+    @Column(name = "claimed_by")
+    private String claimedBy; // Reviewer holding the review-queue lease
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     private LocalDateTime processedAt;
     private LocalDateTime completedAt;
+    private LocalDateTime confirmedAt;
 
     // Constructors
     public BenefitRedemption() {}
@@ -53,8 +64,8 @@ public class BenefitRedemption {
     public void setRedemptionId(String redemptionId) { this.redemptionId = redemptionId; }
     public String getServiceType() { return serviceType; }
     public void setServiceType(String serviceType) { this.serviceType = serviceType; }
-    public Double getHtAmount() { return htAmount; }
-    public void setHtAmount(Double htAmount) { this.htAmount = htAmount; }
+    public long getHtAmount() { return htAmount; }
+    public void setHtAmount(long htAmount) { this.htAmount = htAmount; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public String getDescription() { return description; }
@@ -69,4 +80,12 @@ public class BenefitRedemption {
     public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
     public LocalDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public String getTransactionStatus() { return transactionStatus; }
+    public void setTransactionStatus(String transactionStatus) { this.transactionStatus = transactionStatus; }
+    public LocalDateTime getConfirmedAt() { return confirmedAt; }
+    public void setConfirmedAt(LocalDateTime confirmedAt) { this.confirmedAt = confirmedAt; }
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
 }
\ No newline at end of file
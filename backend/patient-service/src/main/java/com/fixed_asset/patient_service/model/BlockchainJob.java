@@ -0,0 +1,107 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "blockchain_jobs")
+@EntityListeners(AuditingEntityListener.class)
+public class BlockchainJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blockchain_jobs_seq")
+    @SequenceGenerator(name = "blockchain_jobs_seq", sequenceName = "blockchain_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_id", unique = true, nullable = false)
+    private String jobId;
+
+    @Column(nullable = false)
+    private String operation; // MINT_AT, MINT_HT, BURN_HT
+
+    @Column(nullable = false)
+    private String contract; // ASSET_TOKEN, HEALTH_TOKEN
+
+    @Column(name = "wallet_address", nullable = false)
+    private String walletAddress;
+
+    @Column(nullable = false, precision = 78, scale = 0)
+    private BigInteger amount; // base units (18 decimals)
+
+    private String depositId;
+    private String metadata;
+
+    @Column(name = "reference_type", nullable = false)
+    private String referenceType; // ASSET_DEPOSIT, TOKEN_TRANSACTION
+
+    @Column(name = "reference_id", nullable = false)
+    private Long referenceId;
+
+    @Column(nullable = false)
+    private String status; // QUEUED, SUBMITTING, SUBMITTED, CONFIRMED, FAILED
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    private String transactionHash; // recorded before broadcast
+    private Long nonce;
+    private String lastError;
+    private String claimedBy;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public BlockchainJob() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+    public String getContract() { return contract; }
+    public void setContract(String contract) { this.contract = contract; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public BigInteger getAmount() { return amount; }
+    public void setAmount(BigInteger amount) { this.amount = amount; }
+    public String getDepositId() { return depositId; }
+    public void setDepositId(String depositId) { this.depositId = depositId; }
+    public String getMetadata() { return metadata; }
+    public void setMetadata(String metadata) { this.metadata = metadata; }
+    public String getReferenceType() { return referenceType; }
+    public void setReferenceType(String referenceType) { this.referenceType = referenceType; }
+    public Long getReferenceId() { return referenceId; }
+    public void setReferenceId(Long referenceId) { this.referenceId = referenceId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+    public Long getNonce() { return nonce; }
+    public void setNonce(Long nonce) { this.nonce = nonce; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
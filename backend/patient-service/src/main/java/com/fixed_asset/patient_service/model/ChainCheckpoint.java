@@ -0,0 +1,40 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "chain_checkpoints")
+public class ChainCheckpoint {
+    @Id
+    private String name; // one row per indexer
+
+    @Column(name = "block_number", nullable = false)
+    private Long blockNumber; // last fully indexed block
+
+    @Column(name = "block_hash")
+    private String blockHash; // hash of blockNumber when it was indexed; null until the first range
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ChainCheckpoint() {}
+
+    public ChainCheckpoint(String name, Long blockNumber) {
+        this.name = name;
+        this.blockNumber = blockNumber;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Long getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(Long blockNumber) { this.blockNumber = blockNumber; }
+    public String getBlockHash() { return blockHash; }
+    public void setBlockHash(String blockHash) { this.blockHash = blockHash; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,93 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "chain_events", uniqueConstraints = @UniqueConstraint(columnNames = {"transaction_hash", "log_index"}))
+@EntityListeners(AuditingEntityListener.class)
+public class ChainEventRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chain_events_seq")
+    @SequenceGenerator(name = "chain_events_seq", sequenceName = "chain_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "event_name", nullable = false)
+    private String eventName;
+
+    @Column(name = "contract_address", nullable = false)
+    private String contractAddress;
+
+    @Column(name = "block_number", nullable = false)
+    private Long blockNumber;
+
+    @Column(name = "block_hash", nullable = false)
+    private String blockHash;
+
+    @Column(name = "transaction_hash", nullable = false)
+    private String transactionHash;
+
+    @Column(name = "log_index", nullable = false)
+    private Integer logIndex;
+
+    @Column(name = "wallet_address")
+    private String walletAddress;
+
+    @Column(name = "deposit_number", precision = 78, scale = 0)
+    private BigInteger depositNumber;
+
+    @Column(name = "trade_id", precision = 78, scale = 0)
+    private BigInteger tradeId;
+
+    @Column(precision = 78, scale = 0)
+    private BigInteger amount; // base units (18 decimals)
+
+    @Column(precision = 78, scale = 0)
+    private BigInteger profit;
+
+    private String serviceType;
+    private String metadata;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ChainEventRecord() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getEventName() { return eventName; }
+    public void setEventName(String eventName) { this.eventName = eventName; }
+    public String getContractAddress() { return contractAddress; }
+    public void setContractAddress(String contractAddress) { this.contractAddress = contractAddress; }
+    public Long getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(Long blockNumber) { this.blockNumber = blockNumber; }
+    public String getBlockHash() { return blockHash; }
+    public void setBlockHash(String blockHash) { this.blockHash = blockHash; }
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+    public Integer getLogIndex() { return logIndex; }
+    public void setLogIndex(Integer logIndex) { this.logIndex = logIndex; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public BigInteger getDepositNumber() { return depositNumber; }
+    public void setDepositNumber(BigInteger depositNumber) { this.depositNumber = depositNumber; }
+    public BigInteger getTradeId() { return tradeId; }
+    public void setTradeId(BigInteger tradeId) { this.tradeId = tradeId; }
+    public BigInteger getAmount() { return amount; }
+    public void setAmount(BigInteger amount) { this.amount = amount; }
+    public BigInteger getProfit() { return profit; }
+    public void setProfit(BigInteger profit) { this.profit = profit; }
+    public String getServiceType() { return serviceType; }
+    public void setServiceType(String serviceType) { this.serviceType = serviceType; }
+    public String getMetadata() { return metadata; }
+    public void setMetadata(String metadata) { this.metadata = metadata; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
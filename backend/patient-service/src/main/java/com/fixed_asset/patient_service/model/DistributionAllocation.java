@@ -0,0 +1,61 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigInteger;
+
+@Entity
+@Table(name = "distribution_allocations")
+public class DistributionAllocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "distribution_allocations_seq")
+    @SequenceGenerator(name = "distribution_allocations_seq", sequenceName = "distribution_allocations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "distribution_id", nullable = false)
+    private Long distributionId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "wallet_address", nullable = false)
+    private String walletAddress;
+
+    @Column(nullable = false, precision = 78, scale = 0)
+    private BigInteger amount; // this patient's share, HT base units (18 decimals)
+
+    @Column(name = "leaf_amount", nullable = false, precision = 78, scale = 0)
+    private BigInteger leafAmount; // the wallet's claimable total; differs from amount when a wallet is shared
+
+    @Column(name = "leaf_index", nullable = false)
+    private Integer leafIndex;
+
+    // Constructors
+    public DistributionAllocation() {}
+
+    public DistributionAllocation(Long distributionId, Long patientId, String walletAddress, BigInteger amount,
+                                  BigInteger leafAmount, Integer leafIndex) {
+        this.distributionId = distributionId;
+        this.patientId = patientId;
+        this.walletAddress = walletAddress;
+        this.amount = amount;
+        this.leafAmount = leafAmount;
+        this.leafIndex = leafIndex;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getDistributionId() { return distributionId; }
+    public void setDistributionId(Long distributionId) { this.distributionId = distributionId; }
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    public BigInteger getAmount() { return amount; }
+    public void setAmount(BigInteger amount) { this.amount = amount; }
+    public BigInteger getLeafAmount() { return leafAmount; }
+    public void setLeafAmount(BigInteger leafAmount) { this.leafAmount = leafAmount; }
+    public Integer getLeafIndex() { return leafIndex; }
+    public void setLeafIndex(Integer leafIndex) { this.leafIndex = leafIndex; }
+}
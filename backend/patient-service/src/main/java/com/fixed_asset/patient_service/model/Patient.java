@@ -1,6 +1,7 @@
 package com.fixed_asset.patient_service.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,7 +15,8 @@ import java.util.List;
 @EntityListeners(AuditingEntityListener.class)
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -46,6 +48,11 @@ public class Patient {
     @Column(name = "health_token_balance")
     private Double healthTokenBalance = 0.0;
 
+    // Bumped in SQL by LedgerVersion only; entity saves never write it
+    @ColumnDefault("0")
+    @Column(name = "ledger_version", nullable = false, insertable = false, updatable = false)
+    private Long ledgerVersion;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -82,6 +89,8 @@ public class Patient {
     public void setHealthTokenBalance(Double healthTokenBalance) { this.healthTokenBalance = healthTokenBalance; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public Long getLedgerVersion() { return ledgerVersion; }
+    public void setLedgerVersion(Long ledgerVersion) { this.ledgerVersion = ledgerVersion; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Redemption request count per patient and service type; the keyed
+ * companion of {@link PatientTokenStats}.
+ */
+@Entity
+@Table(name = "patient_service_usage")
+@IdClass(PatientServiceUsage.Key.class)
+public class PatientServiceUsage {
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Id
+    @Column(name = "service_type")
+    private String serviceType;
+
+    @Column(name = "redemption_count", nullable = false)
+    private Long redemptionCount = 0L;
+
+    // Constructors
+    public PatientServiceUsage() {}
+
+    // Getters and Setters
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public String getServiceType() { return serviceType; }
+    public void setServiceType(String serviceType) { this.serviceType = serviceType; }
+    public Long getRedemptionCount() { return redemptionCount; }
+    public void setRedemptionCount(Long redemptionCount) { this.redemptionCount = redemptionCount; }
+
+    public static class Key implements Serializable {
+        private Long patientId;
+        private String serviceType;
+
+        public Key() {}
+
+        public Key(Long patientId, String serviceType) {
+            this.patientId = patientId;
+            this.serviceType = serviceType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(patientId, key.patientId) && Objects.equals(serviceType, key.serviceType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(patientId, serviceType);
+        }
+    }
+}
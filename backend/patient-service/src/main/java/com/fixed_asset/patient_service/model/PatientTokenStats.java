@@ -0,0 +1,56 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-patient running totals over the ledger tables, kept in step with them
+ * by PatientTokenStatsService. Rows are written only through the native
+ * upserts in PatientTokenStatsRepository.
+ */
+@Entity
+@Table(name = "patient_token_stats")
+public class PatientTokenStats {
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    // All sums are TokenAmount units
+
+    @Column(name = "at_minted", nullable = false)
+    private long atMinted; // SUM(amount) of AT MINT transactions
+
+    @Column(name = "ht_minted", nullable = false)
+    private long htMinted; // SUM(amount) of HT MINT transactions
+
+    @Column(name = "ht_redeemed", nullable = false)
+    private long htRedeemed; // SUM(ht_amount) of COMPLETED redemptions
+
+    @Column(name = "processed_tokens", nullable = false)
+    private long processedTokens; // SUM(tokens_minted) of PROCESSED deposits
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public PatientTokenStats() {}
+
+    public PatientTokenStats(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    // Getters and Setters
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public long getAtMinted() { return atMinted; }
+    public void setAtMinted(long atMinted) { this.atMinted = atMinted; }
+    public long getHtMinted() { return htMinted; }
+    public void setHtMinted(long htMinted) { this.htMinted = htMinted; }
+    public long getHtRedeemed() { return htRedeemed; }
+    public void setHtRedeemed(long htRedeemed) { this.htRedeemed = htRedeemed; }
+    public long getProcessedTokens() { return processedTokens; }
+    public void setProcessedTokens(long processedTokens) { this.processedTokens = processedTokens; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,72 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "profit_distributions")
+public class ProfitDistribution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "profit_distributions_seq")
+    @SequenceGenerator(name = "profit_distributions_seq", sequenceName = "profit_distributions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "trade_id", nullable = false, unique = true)
+    private Long tradeId;
+
+    @Column(nullable = false, precision = 78, scale = 0)
+    private BigInteger profit; // base units (18 decimals)
+
+    @Column(name = "pool_amount", nullable = false, precision = 78, scale = 0)
+    private BigInteger poolAmount; // profit x profit-share-percentage
+
+    @Column(name = "distributed_amount", nullable = false, precision = 78, scale = 0)
+    private BigInteger distributedAmount; // sum of allocations; equals the pool
+
+    @Column(name = "recipient_count", nullable = false)
+    private Integer recipientCount; // Merkle leaves, one per distinct wallet
+
+    @Column(name = "merkle_root")
+    private String merkleRoot;
+
+    @Column(nullable = false)
+    private String status; // BUILDING, BUILT, PUBLISHED, FAILED
+
+    @Column(name = "transaction_hash")
+    private String transactionHash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // Constructors
+    public ProfitDistribution() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getTradeId() { return tradeId; }
+    public void setTradeId(Long tradeId) { this.tradeId = tradeId; }
+    public BigInteger getProfit() { return profit; }
+    public void setProfit(BigInteger profit) { this.profit = profit; }
+    public BigInteger getPoolAmount() { return poolAmount; }
+    public void setPoolAmount(BigInteger poolAmount) { this.poolAmount = poolAmount; }
+    public BigInteger getDistributedAmount() { return distributedAmount; }
+    public void setDistributedAmount(BigInteger distributedAmount) { this.distributedAmount = distributedAmount; }
+    public Integer getRecipientCount() { return recipientCount; }
+    public void setRecipientCount(Integer recipientCount) { this.recipientCount = recipientCount; }
+    public String getMerkleRoot() { return merkleRoot; }
+    public void setMerkleRoot(String merkleRoot) { this.merkleRoot = merkleRoot; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+}
@@ -0,0 +1,56 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_runs")
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_runs_seq")
+    @SequenceGenerator(name = "reconciliation_runs_seq", sequenceName = "reconciliation_runs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String status; // RUNNING, COMPLETED, FAILED
+
+    @Column(name = "total_wallets", nullable = false)
+    private Long totalWallets;
+
+    @Column(name = "wallets_checked", nullable = false)
+    private Long walletsChecked = 0L;
+
+    @Column(name = "discrepancy_count", nullable = false)
+    private Long discrepancyCount = 0L;
+
+    @Column(name = "error_count", nullable = false)
+    private Long errorCount = 0L;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public ReconciliationRun() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Long getTotalWallets() { return totalWallets; }
+    public void setTotalWallets(Long totalWallets) { this.totalWallets = totalWallets; }
+    public Long getWalletsChecked() { return walletsChecked; }
+    public void setWalletsChecked(Long walletsChecked) { this.walletsChecked = walletsChecked; }
+    public Long getDiscrepancyCount() { return discrepancyCount; }
+    public void setDiscrepancyCount(Long discrepancyCount) { this.discrepancyCount = discrepancyCount; }
+    public Long getErrorCount() { return errorCount; }
+    public void setErrorCount(Long errorCount) { this.errorCount = errorCount; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -12,18 +12,23 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class TokenBalance {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_balances_seq")
+    @SequenceGenerator(name = "token_balances_seq", sequenceName = "token_balances_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne
     @JoinColumn(name = "patient_id", unique = true, nullable = false)
     private Patient patient;
 
+    // Balances are TokenAmount units (1e-8 tokens)
     @Column(name = "asset_token_balance", nullable = false)
-    private Double assetTokenBalance = 0.0;
+    private long assetTokenBalance;
 
     @Column(name = "health_token_balance", nullable = false)
-    private Double healthTokenBalance = 0.0;
+    private long healthTokenBalance;
+
+    @Column(name = "health_token_held", nullable = false)
+    private long healthTokenHeld; // Reserved by pending redemptions; part of the balance
 
     @Column(name = "last_asset_token_update")
     private LocalDateTime lastAssetTokenUpdate;
@@ -51,16 +56,18 @@ public class TokenBalance {
     public void setId(Long id) { this.id = id; }
     public Patient getPatient() { return patient; }
     public void setPatient(Patient patient) { this.patient = patient; }
-    public Double getAssetTokenBalance() { return assetTokenBalance; }
-    public void setAssetTokenBalance(Double assetTokenBalance) { 
+    public long getAssetTokenBalance() { return assetTokenBalance; }
+    public void setAssetTokenBalance(long assetTokenBalance) {
         this.assetTokenBalance = assetTokenBalance;
         this.lastAssetTokenUpdate = LocalDateTime.now();
     }
-    public Double getHealthTokenBalance() { return healthTokenBalance; }
-    public void setHealthTokenBalance(Double healthTokenBalance) { 
+    public long getHealthTokenBalance() { return healthTokenBalance; }
+    public void setHealthTokenBalance(long healthTokenBalance) {
         this.healthTokenBalance = healthTokenBalance;
         this.lastHealthTokenUpdate = LocalDateTime.now();
     }
+    public long getHealthTokenHeld() { return healthTokenHeld; }
+    public void setHealthTokenHeld(long healthTokenHeld) { this.healthTokenHeld = healthTokenHeld; }
     public LocalDateTime getLastAssetTokenUpdate() { return lastAssetTokenUpdate; }
     public void setLastAssetTokenUpdate(LocalDateTime lastAssetTokenUpdate) { this.lastAssetTokenUpdate = lastAssetTokenUpdate; }
     public LocalDateTime getLastHealthTokenUpdate() { return lastHealthTokenUpdate; }
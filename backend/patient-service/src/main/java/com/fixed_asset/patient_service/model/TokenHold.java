@@ -0,0 +1,60 @@
+package com.fixed_asset.patient_service.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "token_holds")
+@EntityListeners(AuditingEntityListener.class)
+public class TokenHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_holds_seq")
+    @SequenceGenerator(name = "token_holds_seq", sequenceName = "token_holds_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    @Column(name = "redemption_id", unique = true, nullable = false)
+    private String redemptionId;
+
+    @Column(name = "token_type", nullable = false)
+    private String tokenType; // HT
+
+    @Column(nullable = false)
+    private long amount; // TokenAmount units
+
+    @Column(nullable = false)
+    private String status; // HELD, CONVERTED, RELEASED
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime resolvedAt;
+
+    // Constructors
+    public TokenHold() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Patient getPatient() { return patient; }
+    public void setPatient(Patient patient) { this.patient = patient; }
+    public String getRedemptionId() { return redemptionId; }
+    public void setRedemptionId(String redemptionId) { this.redemptionId = redemptionId; }
+    public String getTokenType() { return tokenType; }
+    public void setTokenType(String tokenType) { this.tokenType = tokenType; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+}
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class TokenTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_transactions_seq")
+    @SequenceGenerator(name = "token_transactions_seq", sequenceName = "token_transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,7 +26,7 @@ public class TokenTransaction {
     private String transactionType; // MINT, BURN, TRANSFER, REDEEM
 
     @Column(nullable = false)
-    private Double amount;
+    private long amount; // TokenAmount units
 
     @Column(name = "token_type", nullable = false)
     private String tokenType; // AT, HT
@@ -35,6 +36,9 @@ public class TokenTransaction {
 
     private String metadata;
 
+    @Column(name = "job_id")
+    private String jobId; // Blockchain job mirroring this entry on-chain
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -53,14 +57,16 @@ public class TokenTransaction {
     public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
     public String getTransactionType() { return transactionType; }
     public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
-    public Double getAmount() { return amount; }
-    public void setAmount(Double amount) { this.amount = amount; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
     public String getTokenType() { return tokenType; }
     public void setTokenType(String tokenType) { this.tokenType = tokenType; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public String getMetadata() { return metadata; }
     public void setMetadata(String metadata) { this.metadata = metadata; }
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getConfirmedAt() { return confirmedAt; }
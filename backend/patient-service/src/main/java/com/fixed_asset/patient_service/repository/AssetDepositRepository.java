@@ -1,23 +1,97 @@
 package com.fixed_asset.patient_service.repository;
 
 import com.fixed_asset.patient_service.model.AssetDeposit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AssetDepositRepository extends JpaRepository<AssetDeposit, Long> {
     List<AssetDeposit> findByPatientId(Long patientId);
     Optional<AssetDeposit> findByDepositId(String depositId);
+    List<AssetDeposit> findByDepositIdIn(Collection<String> depositIds);
+
+    // Takes a deposit out of PENDING unless another reviewer holds a live lease on it; 0 rows when
+    // another approval or rejection got there first. The row lock makes a racing transition wait and then match nothing
+    @Modifying
+    @Query("""
+            UPDATE AssetDeposit ad SET ad.status = :status
+            WHERE ad.id = :id AND ad.status = 'PENDING'
+              AND (ad.claimedBy IS NULL OR ad.claimedBy = :reviewer OR ad.leaseExpiresAt < :now)
+            """)
+    int transitionFromPending(@Param("id") Long id, @Param("status") String status,
+                              @Param("reviewer") String reviewer, @Param("now") LocalDateTime now);
+
+    // Batch review: locks the requested deposits transitionFromPending would accept, so they
+    // can be moved in memory without another reviewer or node acting on them meanwhile
+    @Query(value = """
+            SELECT id FROM asset_deposits
+            WHERE id IN (:ids) AND status = 'PENDING'
+              AND (claimed_by IS NULL OR claimed_by = :reviewer OR lease_expires_at < :now)
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> lockReviewableIds(@Param("ids") Collection<Long> ids, @Param("reviewer") String reviewer, @Param("now") LocalDateTime now);
+
+    // Batch approval needs each patient's wallet, so fetch them in the same query
+    @Query("SELECT ad FROM AssetDeposit ad JOIN FETCH ad.patient WHERE ad.id IN :ids")
+    List<AssetDeposit> findWithPatientByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Review queue: the oldest PENDING deposits without a live lease. SKIP LOCKED passes over
+    // rows another node is claiming at this moment instead of queueing behind its transaction
+    @Query(value = """
+            SELECT id FROM asset_deposits
+            WHERE status = 'PENDING' AND (lease_expires_at IS NULL OR lease_expires_at < :now)
+            ORDER BY created_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockClaimableIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AssetDeposit ad SET ad.claimedBy = :reviewer, ad.leaseExpiresAt = :expiresAt WHERE ad.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("reviewer") String reviewer, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Heartbeat; a lease another reviewer has since taken over is left alone
+    @Modifying
+    @Query("UPDATE AssetDeposit ad SET ad.leaseExpiresAt = :expiresAt WHERE ad.id IN :ids AND ad.claimedBy = :reviewer AND ad.status = 'PENDING'")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("reviewer") String reviewer, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT ad.id FROM AssetDeposit ad WHERE ad.id IN :ids AND ad.claimedBy = :reviewer AND ad.status = 'PENDING'")
+    List<Long> findLeasedIds(@Param("ids") Collection<Long> ids, @Param("reviewer") String reviewer);
+
+    @Modifying
+    @Query("UPDATE AssetDeposit ad SET ad.claimedBy = NULL, ad.leaseExpiresAt = NULL WHERE ad.id IN :ids AND ad.claimedBy = :reviewer")
+    int releaseLeases(@Param("ids") Collection<Long> ids, @Param("reviewer") String reviewer);
+
     List<AssetDeposit> findByStatus(String status);
+    List<AssetDeposit> findByPatientIdOrderByCreatedAtDescIdDesc(Long patientId, Pageable pageable);
     
     @Query("SELECT ad FROM AssetDeposit ad WHERE ad.patient.id = :patientId AND ad.status = :status")
     List<AssetDeposit> findByPatientIdAndStatus(@Param("patientId") Long patientId, @Param("status") String status);
     
     @Query("SELECT COALESCE(SUM(ad.tokensMinted), 0) FROM AssetDeposit ad WHERE ad.patient.id = :patientId AND ad.status = 'PROCESSED'")
-    Double sumProcessedTokensByPatientId(@Param("patientId") Long patientId);
+    Long sumProcessedTokensByPatientId(@Param("patientId") Long patientId);
+
+    // Keyset page: rows strictly older than the (createdAt, id) cursor
+    @Query("SELECT ad FROM AssetDeposit ad WHERE ad.patient.id = :patientId AND (ad.createdAt < :createdAt OR (ad.createdAt = :createdAt AND ad.id < :id)) ORDER BY ad.createdAt DESC, ad.id DESC")
+    List<AssetDeposit> findPageBefore(@Param("patientId") Long patientId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT ad FROM AssetDeposit ad WHERE ad.patient.id = :patientId ORDER BY ad.createdAt DESC, ad.id DESC")
+    Stream<AssetDeposit> streamByPatientId(@Param("patientId") Long patientId);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.BalanceDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BalanceDiscrepancyRepository extends JpaRepository<BalanceDiscrepancy, Long> {
+    List<BalanceDiscrepancy> findByRunIdAndIdGreaterThanOrderByIdAsc(Long runId, Long afterId, Pageable pageable);
+}
@@ -1,24 +1,109 @@
 package com.fixed_asset.patient_service.repository;
 
 import com.fixed_asset.patient_service.model.BenefitRedemption;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BenefitRedemptionRepository extends JpaRepository<BenefitRedemption, Long> {
     List<BenefitRedemption> findByPatientId(Long patientId);
     Optional<BenefitRedemption> findByRedemptionId(String redemptionId);
+    List<BenefitRedemption> findByRedemptionIdIn(Collection<String> redemptionIds);
+
+    // Moves a redemption on only from the expected status; 0 rows when it has already moved,
+    // e.g. a repeated completion or one racing a rejection
+    @Modifying
+    @Query("UPDATE BenefitRedemption br SET br.status = :to WHERE br.redemptionId = :redemptionId AND br.status = :from")
+    int transition(@Param("redemptionId") String redemptionId, @Param("from") String from, @Param("to") String to);
+
+    // Review actions, as AssetDepositRepository.transitionFromPending
+    @Modifying
+    @Query("""
+            UPDATE BenefitRedemption br SET br.status = :to
+            WHERE br.redemptionId = :redemptionId AND br.status = 'PENDING'
+              AND (br.claimedBy IS NULL OR br.claimedBy = :reviewer OR br.leaseExpiresAt < :now)
+            """)
+    int transitionFromPending(@Param("redemptionId") String redemptionId, @Param("to") String to,
+                              @Param("reviewer") String reviewer, @Param("now") LocalDateTime now);
+
+    // Batch review, as AssetDepositRepository.lockReviewableIds
+    @Query(value = """
+            SELECT redemption_id FROM benefit_redemptions
+            WHERE redemption_id IN (:redemptionIds) AND status = 'PENDING'
+              AND (claimed_by IS NULL OR claimed_by = :reviewer OR lease_expires_at < :now)
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<String> lockReviewableRedemptionIds(@Param("redemptionIds") Collection<String> redemptionIds,
+                                             @Param("reviewer") String reviewer, @Param("now") LocalDateTime now);
+
+    // Batch completion: holds the APPROVED rows so a concurrent completion or rejection waits
+    @Query(value = "SELECT redemption_id FROM benefit_redemptions WHERE redemption_id IN (:redemptionIds) AND status = :status FOR UPDATE",
+            nativeQuery = true)
+    List<String> lockRedemptionIdsByStatus(@Param("redemptionIds") Collection<String> redemptionIds, @Param("status") String status);
+
+    // Review queue, as AssetDepositRepository.lockClaimableIds
+    @Query(value = """
+            SELECT id FROM benefit_redemptions
+            WHERE status = 'PENDING' AND (lease_expires_at IS NULL OR lease_expires_at < :now)
+            ORDER BY created_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockClaimableIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BenefitRedemption br SET br.claimedBy = :reviewer, br.leaseExpiresAt = :expiresAt WHERE br.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("reviewer") String reviewer, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE BenefitRedemption br SET br.leaseExpiresAt = :expiresAt WHERE br.redemptionId IN :redemptionIds AND br.claimedBy = :reviewer AND br.status = 'PENDING'")
+    int renewLeases(@Param("redemptionIds") Collection<String> redemptionIds, @Param("reviewer") String reviewer, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT br.redemptionId FROM BenefitRedemption br WHERE br.redemptionId IN :redemptionIds AND br.claimedBy = :reviewer AND br.status = 'PENDING'")
+    List<String> findLeasedRedemptionIds(@Param("redemptionIds") Collection<String> redemptionIds, @Param("reviewer") String reviewer);
+
+    @Modifying
+    @Query("UPDATE BenefitRedemption br SET br.claimedBy = NULL, br.leaseExpiresAt = NULL WHERE br.redemptionId IN :redemptionIds AND br.claimedBy = :reviewer")
+    int releaseLeases(@Param("redemptionIds") Collection<String> redemptionIds, @Param("reviewer") String reviewer);
+
     List<BenefitRedemption> findByStatus(String status);
     List<BenefitRedemption> findByPatientIdAndStatus(Long patientId, String status);
+    List<BenefitRedemption> findByPatientIdOrderByCreatedAtDescIdDesc(Long patientId, Pageable pageable);
+
+    @Query("SELECT br.transactionHash FROM BenefitRedemption br WHERE br.transactionStatus = 'PENDING' AND br.completedAt >= :since")
+    List<String> findPendingTransactionHashesSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE BenefitRedemption br SET br.transactionStatus = :status, br.confirmedAt = :now WHERE br.transactionHash = :transactionHash AND br.transactionStatus = 'PENDING'")
+    int resolveTransaction(@Param("transactionHash") String transactionHash, @Param("status") String status, @Param("now") LocalDateTime now);
     
     @Query("SELECT SUM(br.htAmount) FROM BenefitRedemption br WHERE br.patient.id = :patientId AND br.status = 'COMPLETED'")
-    Double sumRedeemedHTByPatientId(@Param("patientId") Long patientId);
+    Long sumRedeemedHTByPatientId(@Param("patientId") Long patientId);
     
     @Query("SELECT COUNT(br) FROM BenefitRedemption br WHERE br.patient.id = :patientId AND br.serviceType = :serviceType")
     Long countRedemptionsByPatientAndServiceType(@Param("patientId") Long patientId, @Param("serviceType") String serviceType);
+
+    // Keyset page: rows strictly older than the (createdAt, id) cursor
+    @Query("SELECT br FROM BenefitRedemption br WHERE br.patient.id = :patientId AND (br.createdAt < :createdAt OR (br.createdAt = :createdAt AND br.id < :id)) ORDER BY br.createdAt DESC, br.id DESC")
+    List<BenefitRedemption> findPageBefore(@Param("patientId") Long patientId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT br FROM BenefitRedemption br WHERE br.patient.id = :patientId ORDER BY br.createdAt DESC, br.id DESC")
+    Stream<BenefitRedemption> streamByPatientId(@Param("patientId") Long patientId);
 }
\ No newline at end of file
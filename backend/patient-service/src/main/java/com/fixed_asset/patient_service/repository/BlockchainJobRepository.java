@@ -0,0 +1,69 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlockchainJobRepository extends JpaRepository<BlockchainJob, Long> {
+    Optional<BlockchainJob> findByJobId(String jobId);
+    List<BlockchainJob> findByClaimedByAndStatus(String claimedBy, String status);
+    Optional<BlockchainJob> findByTransactionHashAndStatus(String transactionHash, String status);
+
+    @Query("SELECT j.transactionHash FROM BlockchainJob j WHERE j.status = 'SUBMITTED' AND j.updatedAt >= :since")
+    List<String> findSubmittedHashesSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT j.id FROM BlockchainJob j WHERE j.contract = :contract AND j.status = 'QUEUED' ORDER BY j.id")
+    List<Long> findQueuedIdsByContract(@Param("contract") String contract, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BlockchainJob j SET j.status = 'SUBMITTING', j.claimedBy = :claimedBy, j.updatedAt = :now WHERE j.id IN :ids AND j.status = 'QUEUED'")
+    int claimJobs(@Param("ids") List<Long> ids, @Param("claimedBy") String claimedBy, @Param("now") LocalDateTime now);
+
+    @Query("SELECT j FROM BlockchainJob j WHERE j.status = 'SUBMITTING' AND j.updatedAt < :staleBefore ORDER BY j.id")
+    List<BlockchainJob> findStaleClaims(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    // Stores the hash and nonce of a signed transaction before it is broadcast;
+    // 0 rows means the claim was lost and the transaction must not be sent
+    @Modifying
+    @Query("""
+            UPDATE BlockchainJob j SET j.transactionHash = :transactionHash, j.nonce = :nonce, j.updatedAt = :now
+            WHERE j.id = :id AND j.claimedBy = :claimedBy AND j.status = 'SUBMITTING'
+            """)
+    int recordBroadcast(@Param("id") Long id, @Param("claimedBy") String claimedBy,
+                        @Param("transactionHash") String transactionHash, @Param("nonce") Long nonce,
+                        @Param("now") LocalDateTime now);
+
+    // Ends a claim; only the holder of the claim token can move the job on
+    @Modifying
+    @Query("""
+            UPDATE BlockchainJob j
+            SET j.status = :status, j.claimedBy = NULL, j.attempts = :attempts, j.transactionHash = :transactionHash,
+                j.nonce = :nonce, j.lastError = :lastError, j.completedAt = :completedAt, j.updatedAt = :now
+            WHERE j.id = :id AND j.claimedBy = :claimedBy AND j.status = 'SUBMITTING'
+            """)
+    int releaseClaim(@Param("id") Long id, @Param("claimedBy") String claimedBy, @Param("status") String status,
+                     @Param("attempts") Integer attempts, @Param("transactionHash") String transactionHash,
+                     @Param("nonce") Long nonce, @Param("lastError") String lastError,
+                     @Param("completedAt") LocalDateTime completedAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE BlockchainJob j
+            SET j.status = :status, j.attempts = :attempts, j.transactionHash = :transactionHash,
+                j.nonce = :nonce, j.lastError = :lastError, j.completedAt = :completedAt, j.updatedAt = :now
+            WHERE j.id = :id AND j.status = 'SUBMITTED'
+            """)
+    int resolveSubmitted(@Param("id") Long id, @Param("status") String status,
+                         @Param("attempts") Integer attempts, @Param("transactionHash") String transactionHash,
+                         @Param("nonce") Long nonce, @Param("lastError") String lastError,
+                         @Param("completedAt") LocalDateTime completedAt, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.ChainCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChainCheckpointRepository extends JpaRepository<ChainCheckpoint, String> {
+    // Serializes range commits, so two nodes running the indexer never apply the same range
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ChainCheckpoint c WHERE c.name = :name")
+    Optional<ChainCheckpoint> lockByName(@Param("name") String name);
+}
@@ -0,0 +1,22 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.ChainEventRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChainEventRecordRepository extends JpaRepository<ChainEventRecord, Long> {
+    boolean existsByTransactionHashAndLogIndex(String transactionHash, Integer logIndex);
+
+    @Query("SELECT e FROM ChainEventRecord e WHERE e.blockNumber > :blockNumber ORDER BY e.blockNumber, e.logIndex")
+    List<ChainEventRecord> findAfterBlock(@Param("blockNumber") Long blockNumber);
+
+    @Modifying
+    @Query("DELETE FROM ChainEventRecord e WHERE e.blockNumber > :blockNumber")
+    int deleteAfterBlock(@Param("blockNumber") Long blockNumber);
+}
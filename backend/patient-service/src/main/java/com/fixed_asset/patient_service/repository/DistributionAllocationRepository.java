@@ -0,0 +1,18 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.DistributionAllocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DistributionAllocationRepository extends JpaRepository<DistributionAllocation, Long> {
+    Optional<DistributionAllocation> findByDistributionIdAndPatientId(Long distributionId, Long patientId);
+
+    // Leaf-order chunks for rebuilding a tree; pass the last leaf index of the previous chunk
+    List<DistributionAllocation> findByDistributionIdAndLeafIndexGreaterThanOrderByLeafIndexAsc(
+            Long distributionId, Integer afterLeafIndex, Pageable pageable);
+}
@@ -1,11 +1,17 @@
 package com.fixed_asset.patient_service.repository;
 
+import com.fixed_asset.patient_service.dto.DashboardStatsView;
+import com.fixed_asset.patient_service.dto.PatientWalletView;
 import com.fixed_asset.patient_service.model.Patient;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,4 +27,62 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     @Query("SELECT p.assetTokenBalance FROM Patient p WHERE p.id = :patientId")
     Optional<Double> findAssetTokenBalanceByPatientId(@Param("patientId") Long patientId);
-}
\ No newline at end of file
+
+    @Query("SELECT MIN(p.id) FROM Patient p")
+    Long findMinId();
+
+    @Query("SELECT MAX(p.id) FROM Patient p")
+    Long findMaxId();
+
+    long countByWalletAddressIsNotNull();
+
+    // Keyset chunks for reconciliation; pass the last id of the previous chunk.
+    // Ledger balances stay in TokenAmount units so they compare exactly with the chain.
+    @Query("""
+            SELECT p.id AS id, p.walletAddress AS walletAddress,
+                   tb.assetTokenBalance AS ledgerAssetTokenBalance,
+                   tb.healthTokenBalance AS ledgerHealthTokenBalance,
+                   p.assetTokenBalance AS profileAssetTokenBalance, p.healthTokenBalance AS profileHealthTokenBalance
+            FROM Patient p LEFT JOIN TokenBalance tb ON tb.patient.id = p.id
+            WHERE p.id > :afterId AND p.walletAddress IS NOT NULL
+            ORDER BY p.id
+            """)
+    List<PatientWalletView> findWalletChunk(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = """
+            SELECT p.wallet_address AS "walletAddress",
+                   CAST(COALESCE(tb.asset_token_balance, 0) AS DOUBLE PRECISION) / 100000000 AS "assetTokenBalance",
+                   CAST(COALESCE(tb.health_token_balance, 0) AS DOUBLE PRECISION) / 100000000 AS "healthTokenBalance",
+                   CAST(COALESCE(tb.health_token_held, 0) AS DOUBLE PRECISION) / 100000000 AS "healthTokenHeld",
+                   CAST(COALESCE(tb.health_token_balance - tb.health_token_held, 0) AS DOUBLE PRECISION) / 100000000
+                       AS "availableHealthTokenBalance",
+                   ds.total AS "totalDeposits",
+                   ds.pending AS "pendingDeposits",
+                   ds.approved AS "approvedDeposits",
+                   rs.total AS "totalRedemptions",
+                   rs.pending AS "pendingRedemptions",
+                   rs.completed AS "completedRedemptions"
+            FROM patients p
+            LEFT JOIN token_balances tb ON tb.patient_id = p.id
+            CROSS JOIN (SELECT COUNT(*) AS total,
+                               COUNT(*) FILTER (WHERE status = 'PENDING') AS pending,
+                               COUNT(*) FILTER (WHERE status = 'APPROVED') AS approved
+                        FROM asset_deposits WHERE patient_id = :patientId) ds
+            CROSS JOIN (SELECT COUNT(*) AS total,
+                               COUNT(*) FILTER (WHERE status = 'PENDING') AS pending,
+                               COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed
+                        FROM benefit_redemptions WHERE patient_id = :patientId) rs
+            WHERE p.id = :patientId
+            """, nativeQuery = true)
+    Optional<DashboardStatsView> findDashboardStats(@Param("patientId") Long patientId);
+
+    // Primary-key lookup of one column: the whole cost of a 304
+    @Query(value = "SELECT ledger_version FROM patients WHERE id = :patientId", nativeQuery = true)
+    Optional<Long> findLedgerVersion(@Param("patientId") Long patientId);
+
+    // Transactional for callers that write without a transaction, e.g. updatePatient
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE patients SET ledger_version = ledger_version + 1 WHERE id = ANY(:patientIds)", nativeQuery = true)
+    int bumpLedgerVersions(@Param("patientIds") Long[] patientIds);
+}
@@ -0,0 +1,87 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.PatientTokenStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientTokenStatsRepository extends JpaRepository<PatientTokenStats, Long> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO patient_token_stats (patient_id, at_minted, ht_minted, ht_redeemed, processed_tokens, updated_at)
+            VALUES (:patientId, :atMinted, :htMinted, :htRedeemed, :processedTokens, now())
+            ON CONFLICT (patient_id) DO UPDATE SET
+                at_minted = patient_token_stats.at_minted + EXCLUDED.at_minted,
+                ht_minted = patient_token_stats.ht_minted + EXCLUDED.ht_minted,
+                ht_redeemed = patient_token_stats.ht_redeemed + EXCLUDED.ht_redeemed,
+                processed_tokens = patient_token_stats.processed_tokens + EXCLUDED.processed_tokens,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void addDeltas(@Param("patientId") Long patientId,
+                   @Param("atMinted") long atMinted,
+                   @Param("htMinted") long htMinted,
+                   @Param("htRedeemed") long htRedeemed,
+                   @Param("processedTokens") long processedTokens);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO patient_service_usage (patient_id, service_type, redemption_count)
+            VALUES (:patientId, :serviceType, 1)
+            ON CONFLICT (patient_id, service_type) DO UPDATE SET
+                redemption_count = patient_service_usage.redemption_count + 1
+            """, nativeQuery = true)
+    void incrementServiceUsage(@Param("patientId") Long patientId, @Param("serviceType") String serviceType);
+
+    @Query(value = "SELECT redemption_count FROM patient_service_usage WHERE patient_id = :patientId AND service_type = :serviceType", nativeQuery = true)
+    Optional<Long> findServiceUsage(@Param("patientId") Long patientId, @Param("serviceType") String serviceType);
+
+    // Range rebuild, run in one transaction per range (see PatientTokenStatsServiceImpl.rebuildRange)
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO patient_token_stats (patient_id, at_minted, ht_minted, ht_redeemed, processed_tokens, updated_at)
+            SELECT id, 0, 0, 0, 0, now() FROM patients WHERE id BETWEEN :fromId AND :toId
+            ON CONFLICT (patient_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertMissingRows(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query(value = "SELECT patient_id FROM patient_token_stats WHERE patient_id BETWEEN :fromId AND :toId ORDER BY patient_id FOR UPDATE", nativeQuery = true)
+    List<Long> lockRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Stats and ledger columns are both TokenAmount units
+    @Modifying
+    @Query(value = """
+            UPDATE patient_token_stats s SET
+                at_minted = COALESCE((SELECT SUM(t.amount) FROM token_transactions t
+                                      WHERE t.patient_id = s.patient_id AND t.token_type = 'AT' AND t.transaction_type = 'MINT'), 0),
+                ht_minted = COALESCE((SELECT SUM(t.amount) FROM token_transactions t
+                                      WHERE t.patient_id = s.patient_id AND t.token_type = 'HT' AND t.transaction_type = 'MINT'), 0),
+                ht_redeemed = COALESCE((SELECT SUM(r.ht_amount) FROM benefit_redemptions r
+                                        WHERE r.patient_id = s.patient_id AND r.status = 'COMPLETED'), 0),
+                processed_tokens = COALESCE((SELECT SUM(d.tokens_minted) FROM asset_deposits d
+                                             WHERE d.patient_id = s.patient_id AND d.status = 'PROCESSED'), 0),
+                updated_at = now()
+            WHERE s.patient_id BETWEEN :fromId AND :toId
+            """, nativeQuery = true)
+    int recomputeRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query(value = "DELETE FROM patient_service_usage WHERE patient_id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int deleteServiceUsageRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO patient_service_usage (patient_id, service_type, redemption_count)
+            SELECT patient_id, service_type, COUNT(*) FROM benefit_redemptions
+            WHERE patient_id BETWEEN :fromId AND :toId
+            GROUP BY patient_id, service_type
+            """, nativeQuery = true)
+    int recomputeServiceUsageRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
@@ -0,0 +1,12 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.ProfitDistribution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProfitDistributionRepository extends JpaRepository<ProfitDistribution, Long> {
+    Optional<ProfitDistribution> findByTradeId(Long tradeId);
+}
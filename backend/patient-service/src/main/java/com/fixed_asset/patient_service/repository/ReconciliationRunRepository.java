@@ -0,0 +1,12 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    Optional<ReconciliationRun> findTopByOrderByIdDesc();
+}
@@ -1,13 +1,21 @@
 package com.fixed_asset.patient_service.repository;
 
+import com.fixed_asset.patient_service.dto.AssetHoldingView;
+import com.fixed_asset.patient_service.dto.PatientBalanceView;
 import com.fixed_asset.patient_service.model.TokenBalance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TokenBalanceRepository extends JpaRepository<TokenBalance, Long> {
@@ -16,17 +24,66 @@ public interface TokenBalanceRepository extends JpaRepository<TokenBalance, Long
     
     @Modifying
     @Query("UPDATE TokenBalance tb SET tb.assetTokenBalance = tb.assetTokenBalance + :amount WHERE tb.patient.id = :patientId")
-    void incrementAssetTokenBalance(@Param("patientId") Long patientId, @Param("amount") Double amount);
+    void incrementAssetTokenBalance(@Param("patientId") Long patientId, @Param("amount") long amount);
     
     @Modifying
     @Query("UPDATE TokenBalance tb SET tb.assetTokenBalance = tb.assetTokenBalance - :amount WHERE tb.patient.id = :patientId AND tb.assetTokenBalance >= :amount")
-    int decrementAssetTokenBalance(@Param("patientId") Long patientId, @Param("amount") Double amount);
+    int decrementAssetTokenBalance(@Param("patientId") Long patientId, @Param("amount") long amount);
     
     @Modifying
     @Query("UPDATE TokenBalance tb SET tb.healthTokenBalance = tb.healthTokenBalance + :amount WHERE tb.patient.id = :patientId")
-    void incrementHealthTokenBalance(@Param("patientId") Long patientId, @Param("amount") Double amount);
+    void incrementHealthTokenBalance(@Param("patientId") Long patientId, @Param("amount") long amount);
     
     @Modifying
-    @Query("UPDATE TokenBalance tb SET tb.healthTokenBalance = tb.healthTokenBalance - :amount WHERE tb.patient.id = :patientId AND tb.healthTokenBalance >= :amount")
-    int decrementHealthTokenBalance(@Param("patientId") Long patientId, @Param("amount") Double amount);
+    @Query("UPDATE TokenBalance tb SET tb.healthTokenBalance = tb.healthTokenBalance - :amount WHERE tb.patient.id = :patientId AND tb.healthTokenBalance - tb.healthTokenHeld >= :amount")
+    int decrementHealthTokenBalance(@Param("patientId") Long patientId, @Param("amount") long amount);
+
+    // Holds: the WHERE clause is the balance check, so concurrent reservations cannot over-commit
+    @Modifying
+    @Query("UPDATE TokenBalance tb SET tb.healthTokenHeld = tb.healthTokenHeld + :amount WHERE tb.patient.id = :patientId AND tb.healthTokenBalance - tb.healthTokenHeld >= :amount")
+    int reserveHealthTokens(@Param("patientId") Long patientId, @Param("amount") long amount);
+
+    @Modifying
+    @Query("UPDATE TokenBalance tb SET tb.healthTokenBalance = tb.healthTokenBalance - :amount, tb.healthTokenHeld = tb.healthTokenHeld - :amount WHERE tb.patient.id = :patientId AND tb.healthTokenHeld >= :amount")
+    int convertHeldHealthTokens(@Param("patientId") Long patientId, @Param("amount") long amount);
+
+    @Modifying
+    @Query("UPDATE TokenBalance tb SET tb.healthTokenHeld = tb.healthTokenHeld - :amount WHERE tb.patient.id = :patientId AND tb.healthTokenHeld >= :amount")
+    int releaseHeldHealthTokens(@Param("patientId") Long patientId, @Param("amount") long amount);
+
+    // convertHeldHealthTokens for many patients in one statement; the arrays pair each patient with its total
+    @Modifying
+    @Query(value = """
+            UPDATE token_balances tb
+            SET health_token_balance = tb.health_token_balance - d.amount,
+                health_token_held = tb.health_token_held - d.amount
+            FROM unnest(CAST(:patientIds AS BIGINT[]), CAST(:amounts AS BIGINT[])) AS d(patient_id, amount)
+            WHERE tb.patient_id = d.patient_id AND tb.health_token_held >= d.amount
+            """, nativeQuery = true)
+    int convertHeldHealthTokensBatch(@Param("patientIds") Long[] patientIds, @Param("amounts") Long[] amounts);
+
+    // Keyset chunks of AT holders for profit allocation; pass the last patient id of the previous chunk
+    @Query("""
+            SELECT tb.patient.id AS patientId, p.walletAddress AS walletAddress, tb.assetTokenBalance AS assetTokenBalance
+            FROM TokenBalance tb JOIN tb.patient p
+            WHERE tb.patient.id > :afterPatientId AND tb.assetTokenBalance > 0 AND p.walletAddress IS NOT NULL
+            ORDER BY tb.patient.id
+            """)
+    List<AssetHoldingView> findAssetHoldingChunk(@Param("afterPatientId") Long afterPatientId, Pageable pageable);
+
+    // Bulk lookup: the whole id list is bound as one array parameter, so any batch size is a single statement
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT p.id AS "patientId", p.wallet_address AS "walletAddress", p.ledger_version AS "ledgerVersion",
+                   COALESCE(tb.asset_token_balance, 0) AS "assetTokenBalance",
+                   COALESCE(tb.health_token_balance, 0) AS "healthTokenBalance",
+                   COALESCE(tb.health_token_held, 0) AS "healthTokenHeld"
+            FROM patients p
+            LEFT JOIN token_balances tb ON tb.patient_id = p.id
+            WHERE p.id = ANY(:patientIds)
+            """, nativeQuery = true)
+    Stream<PatientBalanceView> streamBalancesByPatientIds(@Param("patientIds") Long[] patientIds);
 }
\ No newline at end of file
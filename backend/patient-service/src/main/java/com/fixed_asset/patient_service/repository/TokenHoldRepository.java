@@ -0,0 +1,34 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fixed_asset.patient_service.model.TokenHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TokenHoldRepository extends JpaRepository<TokenHold, Long> {
+    Optional<TokenHold> findByRedemptionId(String redemptionId);
+
+    // Moves a hold out of HELD; 0 rows means another request already resolved it
+    @Modifying
+    @Query("UPDATE TokenHold h SET h.status = :status, h.resolvedAt = :now WHERE h.redemptionId = :redemptionId AND h.status = 'HELD'")
+    int resolveHold(@Param("redemptionId") String redemptionId, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    // Batch approval locks the holds it converts; a concurrent resolveHold waits, then finds them resolved
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM TokenHold h WHERE h.redemptionId IN :redemptionIds AND h.status = 'HELD'")
+    List<TokenHold> lockHeldByRedemptionIds(@Param("redemptionIds") Collection<String> redemptionIds);
+
+    @Modifying
+    @Query("UPDATE TokenHold h SET h.status = :status, h.resolvedAt = :now WHERE h.redemptionId IN :redemptionIds AND h.status = 'HELD'")
+    int resolveHolds(@Param("redemptionIds") Collection<String> redemptionIds, @Param("status") String status, @Param("now") LocalDateTime now);
+}
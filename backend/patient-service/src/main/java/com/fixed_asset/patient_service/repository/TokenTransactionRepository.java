@@ -1,13 +1,19 @@
 package com.fixed_asset.patient_service.repository;
 
 import com.fixed_asset.patient_service.model.TokenTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TokenTransactionRepository extends JpaRepository<TokenTransaction, Long> {
@@ -16,10 +22,22 @@ public interface TokenTransactionRepository extends JpaRepository<TokenTransacti
     List<TokenTransaction> findByTokenType(String tokenType);
     List<TokenTransaction> findByPatientIdAndTokenType(Long patientId, String tokenType);
     List<TokenTransaction> findByTransactionType(String transactionType);
+    List<TokenTransaction> findByPatientIdOrderByCreatedAtDescIdDesc(Long patientId, Pageable pageable);
     
     @Query("SELECT tt FROM TokenTransaction tt WHERE tt.patient.id = :patientId AND tt.status = :status ORDER BY tt.createdAt DESC")
     List<TokenTransaction> findByPatientIdAndStatus(@Param("patientId") Long patientId, @Param("status") String status);
     
     @Query("SELECT SUM(tt.amount) FROM TokenTransaction tt WHERE tt.patient.id = :patientId AND tt.tokenType = :tokenType AND tt.transactionType = 'MINT'")
-    Double sumMintedTokensByPatientAndType(@Param("patientId") Long patientId, @Param("tokenType") String tokenType);
+    Long sumMintedTokensByPatientAndType(@Param("patientId") Long patientId, @Param("tokenType") String tokenType);
+
+    // Keyset page: rows strictly older than the (createdAt, id) cursor
+    @Query("SELECT tt FROM TokenTransaction tt WHERE tt.patient.id = :patientId AND (tt.createdAt < :createdAt OR (tt.createdAt = :createdAt AND tt.id < :id)) ORDER BY tt.createdAt DESC, tt.id DESC")
+    List<TokenTransaction> findPageBefore(@Param("patientId") Long patientId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT tt FROM TokenTransaction tt WHERE tt.patient.id = :patientId ORDER BY tt.createdAt DESC, tt.id DESC")
+    Stream<TokenTransaction> streamByPatientId(@Param("patientId") Long patientId);
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.CursorPage;
+import com.fixed_asset.patient_service.dto.PatientWalletView;
+import com.fixed_asset.patient_service.model.BalanceDiscrepancy;
+import com.fixed_asset.patient_service.model.ReconciliationRun;
+import com.fixed_asset.patient_service.repository.BalanceDiscrepancyRepository;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares every wallet's AT and HT balance on chain with token_balances and
+ * the copy on the patients row. Wallets are read in keyset chunks while the
+ * balanceOf calls for earlier chunks are still in flight; a semaphore caps
+ * the number of outstanding calls, which RpcBatchClient coalesces into batch
+ * requests. Balances are compared exactly in chain base units, and each
+ * mismatch is written to balance_discrepancies under the run's id.
+ *
+ * Database and chain balances are not read at the same instant, so a wallet
+ * with a mint or burn job in flight can show up as a transient discrepancy.
+ */
+@Component
+public class BalanceReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceReconciliationJob.class);
+    private static final int REQUESTS_PER_WALLET = 2;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private BalanceDiscrepancyRepository discrepancyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blockchain.simulation.enabled:true}")
+    private boolean simulationEnabled;
+
+    @Value("${reconciliation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${reconciliation.max-in-flight:200}")
+    private int maxInFlight;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong walletsChecked = new AtomicLong();
+    private final AtomicLong discrepancies = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private volatile ReconciliationRun currentRun;
+    private volatile long startNanos;
+    private volatile Semaphore permits;
+
+    private ExecutorService runner;
+    private Counter walletCounter;
+    private Counter discrepancyCounter;
+    private Counter errorCounter;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void start() {
+        runner = Executors.newSingleThreadExecutor(task -> new Thread(task, "balance-reconciliation"));
+        walletCounter = meterRegistry.counter("reconciliation.wallets.checked");
+        discrepancyCounter = meterRegistry.counter("reconciliation.discrepancies");
+        errorCounter = meterRegistry.counter("reconciliation.errors");
+        runTimer = meterRegistry.timer("reconciliation.run.duration");
+        Gauge.builder("reconciliation.requests.in-flight", this, BalanceReconciliationJob::requestsInFlight)
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.progress", this, BalanceReconciliationJob::progress)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
+    }
+
+    @Scheduled(cron = "${reconciliation.cron:-}")
+    public void scheduledRun() {
+        try {
+            reconcileAll();
+        } catch (RuntimeException e) {
+            log.warn("Balance reconciliation skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a run on the background thread and returns its initial status.
+     */
+    public Map<String, Object> startRun() {
+        ReconciliationRun run = begin();
+        runner.execute(() -> execute(run));
+        return getStatus();
+    }
+
+    /**
+     * Runs a full reconciliation on the calling thread.
+     */
+    public Map<String, Object> reconcileAll() {
+        execute(begin());
+        return getStatus();
+    }
+
+    public Map<String, Object> getStatus() {
+        ReconciliationRun run = currentRun != null ? currentRun : runRepository.findTopByOrderByIdDesc().orElse(null);
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (run == null) {
+            status.put("status", "IDLE");
+            return status;
+        }
+
+        boolean live = run == currentRun;
+        long checked = live ? walletsChecked.get() : run.getWalletsChecked();
+        long elapsedMs = live && "RUNNING".equals(run.getStatus())
+                ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)
+                : Duration.between(run.getStartedAt(), run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now()).toMillis();
+
+        status.put("runId", run.getId());
+        status.put("status", run.getStatus());
+        status.put("totalWallets", run.getTotalWallets());
+        status.put("walletsChecked", checked);
+        status.put("discrepancies", live ? discrepancies.get() : run.getDiscrepancyCount());
+        status.put("errors", live ? errors.get() : run.getErrorCount());
+        status.put("percentComplete", run.getTotalWallets() == 0 ? 100.0 : Math.min(100.0, 100.0 * checked / run.getTotalWallets()));
+        status.put("walletsPerSecond", elapsedMs == 0 ? 0.0 : checked * 1000.0 / elapsedMs);
+        status.put("elapsedMs", elapsedMs);
+        status.put("requestsInFlight", live ? (long) requestsInFlight() : 0L);
+        return status;
+    }
+
+    public List<BalanceDiscrepancy> getDiscrepancies(Long runId, Long afterId, int limit) {
+        return discrepancyRepository.findByRunIdAndIdGreaterThanOrderByIdAsc(runId, afterId, PageRequest.of(0, CursorPage.clampLimit(limit)));
+    }
+
+    private ReconciliationRun begin() {
+        if (simulationEnabled) {
+            throw new RuntimeException("Balance reconciliation needs a live chain; blockchain simulation is enabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Balance reconciliation already running");
+        }
+        try {
+            ReconciliationRun run = new ReconciliationRun();
+            run.setStatus("RUNNING");
+            run.setTotalWallets(patientRepository.countByWalletAddressIsNotNull());
+            run.setStartedAt(LocalDateTime.now());
+            run = runRepository.save(run);
+
+            walletsChecked.set(0);
+            discrepancies.set(0);
+            errors.set(0);
+            permits = new Semaphore(Math.max(REQUESTS_PER_WALLET, maxInFlight));
+            startNanos = System.nanoTime();
+            currentRun = run;
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void execute(ReconciliationRun run) {
+        Semaphore runPermits = permits;
+        int totalPermits = runPermits.availablePermits();
+        Queue<BalanceDiscrepancy> found = new ConcurrentLinkedQueue<>();
+        String outcome = "FAILED";
+        try {
+            long afterId = 0L;
+            List<PatientWalletView> chunk;
+            do {
+                chunk = patientRepository.findWalletChunk(afterId, PageRequest.of(0, chunkSize));
+                for (PatientWalletView wallet : chunk) {
+                    runPermits.acquire(REQUESTS_PER_WALLET);
+                    reconcile(run.getId(), wallet, found)
+                            .whenComplete((ignored, e) -> runPermits.release(REQUESTS_PER_WALLET));
+                }
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+                run = flush(run, found);
+            } while (chunk.size() == chunkSize);
+
+            // Wait for the last calls to drain
+            runPermits.acquire(totalPermits);
+            runPermits.release(totalPermits);
+            outcome = "COMPLETED";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Balance reconciliation run {} interrupted", run.getId());
+        } catch (RuntimeException e) {
+            log.error("Balance reconciliation run {} failed: {}", run.getId(), e.getMessage(), e);
+        } finally {
+            try {
+                run = flush(run, found);
+                run.setStatus(outcome);
+                run.setFinishedAt(LocalDateTime.now());
+                currentRun = runRepository.save(run);
+                long elapsedNanos = System.nanoTime() - startNanos;
+                runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                log.info("Balance reconciliation run {} {}: {} wallets, {} discrepancies, {} errors in {} ms",
+                        run.getId(), outcome.toLowerCase(), walletsChecked.get(), discrepancies.get(), errors.get(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private CompletableFuture<Void> reconcile(Long runId, PatientWalletView wallet, Queue<BalanceDiscrepancy> found) {
+        CompletableFuture<BigInteger> assetBalance = blockchainService.getAssetTokenBalanceAsync(wallet.getWalletAddress());
+        CompletableFuture<BigInteger> healthBalance = blockchainService.getHealthTokenBalanceAsync(wallet.getWalletAddress());
+        return assetBalance.thenAcceptBoth(healthBalance, (asset, health) -> {
+            compare(runId, wallet, "AT", asset,
+                    wallet.getLedgerAssetTokenBalance(), wallet.getProfileAssetTokenBalance(), found);
+            compare(runId, wallet, "HT", health,
+                    wallet.getLedgerHealthTokenBalance(), wallet.getProfileHealthTokenBalance(), found);
+            walletsChecked.incrementAndGet();
+            walletCounter.increment();
+        }).exceptionally(e -> {
+            errors.incrementAndGet();
+            errorCounter.increment();
+            log.debug("Balance lookup failed for {}: {}", wallet.getWalletAddress(), e.getMessage());
+            return null;
+        });
+    }
+
+    private void compare(Long runId, PatientWalletView wallet, String tokenType, BigInteger chain,
+                         Long ledger, Double profile, Queue<BalanceDiscrepancy> found) {
+        // A patient without a token_balances row has never been credited. The profile copy
+        // is a double, rounded to the nearest ledger unit before comparing.
+        BigInteger ledgerBalance = TokenAmount.toBaseUnits(ledger != null ? ledger : 0L);
+        BigInteger profileBalance = TokenAmount.toBaseUnits(TokenAmount.fromTokens(profile != null ? profile : 0.0));
+        if (chain.equals(ledgerBalance) && chain.equals(profileBalance)) {
+            return;
+        }
+        BalanceDiscrepancy discrepancy = new BalanceDiscrepancy();
+        discrepancy.setRunId(runId);
+        discrepancy.setPatientId(wallet.getId());
+        discrepancy.setWalletAddress(wallet.getWalletAddress());
+        discrepancy.setTokenType(tokenType);
+        discrepancy.setChainBalance(chain);
+        discrepancy.setLedgerBalance(ledgerBalance);
+        discrepancy.setProfileBalance(profileBalance);
+        discrepancy.setCreatedAt(LocalDateTime.now());
+        found.add(discrepancy);
+        discrepancies.incrementAndGet();
+        discrepancyCounter.increment();
+    }
+
+    private ReconciliationRun flush(ReconciliationRun run, Queue<BalanceDiscrepancy> found) {
+        List<BalanceDiscrepancy> batch = new ArrayList<>();
+        BalanceDiscrepancy next;
+        while ((next = found.poll()) != null) {
+            batch.add(next);
+        }
+        if (!batch.isEmpty()) {
+            discrepancyRepository.saveAll(batch);
+        }
+        run.setWalletsChecked(walletsChecked.get());
+        run.setDiscrepancyCount(discrepancies.get());
+        run.setErrorCount(errors.get());
+        ReconciliationRun saved = runRepository.save(run);
+        currentRun = saved;
+        log.debug("Reconciliation run {}: {}/{} wallets checked", saved.getId(), saved.getWalletsChecked(), saved.getTotalWallets());
+        return saved;
+    }
+
+    private double requestsInFlight() {
+        Semaphore runPermits = permits;
+        return running.get() && runPermits != null ? Math.max(REQUESTS_PER_WALLET, maxInFlight) - runPermits.availablePermits() : 0;
+    }
+
+    private double progress() {
+        ReconciliationRun run = currentRun;
+        if (run == null || run.getTotalWallets() == 0) {
+            return 0;
+        }
+        return (double) walletsChecked.get() / run.getTotalWallets();
+    }
+}
@@ -1,17 +1,32 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.CursorPage;
 import com.fixed_asset.patient_service.dto.HealthBenefitDTO;
+import com.fixed_asset.patient_service.dto.RedemptionCompletion;
 import com.fixed_asset.patient_service.dto.RedemptionRequest;
 import com.fixed_asset.patient_service.dto.RedemptionResponse;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BenefitService {
     List<HealthBenefitDTO> getAvailableBenefits(Long patientId);
+    List<HealthBenefitDTO> evaluateBenefits(Double healthTokenBalance);
     RedemptionResponse redeemBenefit(RedemptionRequest redemptionRequest);
     List<RedemptionResponse> getRedemptionHistory(Long patientId);
+    CursorPage<RedemptionResponse> getRedemptionHistoryPage(Long patientId, String cursor, int limit);
+    void exportRedemptionHistory(Long patientId, OutputStream out);
+    List<RedemptionResponse> getRecentRedemptions(Long patientId, int limit);
     RedemptionResponse getRedemptionById(String redemptionId);
-    boolean approveRedemption(String redemptionId, String hospitalId);
+    boolean approveRedemption(String redemptionId, String hospitalId, String reviewer);
     boolean completeRedemption(String redemptionId, String transactionHash);
+    List<BatchItemResult> approveRedemptions(List<String> redemptionIds, String hospitalId, String reviewer);
+    List<BatchItemResult> completeRedemptions(List<RedemptionCompletion> completions);
+    List<RedemptionResponse> claimPendingRedemptions(String reviewer, int limit);
+    List<String> renewRedemptionLeases(String reviewer, List<String> redemptionIds);
+    int releaseRedemptionLeases(String reviewer, List<String> redemptionIds);
+    boolean rejectRedemption(String redemptionId, String reason, String reviewer);
+    boolean resolveRedemptionTransaction(String transactionHash, boolean success);
     Double getTotalRedeemedHT(Long patientId);
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.CursorPage;
 import com.fixed_asset.patient_service.dto.HealthBenefitDTO;
+import com.fixed_asset.patient_service.dto.HistoryCursor;
+import com.fixed_asset.patient_service.dto.RedemptionCompletion;
 import com.fixed_asset.patient_service.dto.RedemptionRequest;
 import com.fixed_asset.patient_service.dto.RedemptionResponse;
 import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
@@ -9,13 +13,26 @@ import com.fixed_asset.patient_service.model.Patient;
 import com.fixed_asset.patient_service.repository.BenefitRedemptionRepository;
 import com.fixed_asset.patient_service.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +47,24 @@ public class BenefitServiceImpl implements BenefitService {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+
+    @Autowired
+    private PatientTokenStatsService statsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Autowired
+    private PatientEventPublisher patientEvents;
+
+    @Value("${review-queue.lease-seconds:300}")
+    private long leaseSeconds;
+
     private final List<HealthBenefitDTO> availableBenefits = Arrays.asList(
         new HealthBenefitDTO("CHECKUP", "Regular Health Checkup", 10.0, true, "Minimum 10 HT required"),
         new HealthBenefitDTO("MEDICINE", "Medicine Discount (20%)", 5.0, true, "Minimum 5 HT required"),
@@ -41,11 +76,16 @@ public class BenefitServiceImpl implements BenefitService {
     @Override
     public List<HealthBenefitDTO> getAvailableBenefits(Long patientId) {
         TokenBalanceDTO balance = tokenService.getTokenBalance(patientId);
-        
+        return evaluateBenefits(balance.getAvailableHealthTokens());
+    }
+
+    @Override
+    public List<HealthBenefitDTO> evaluateBenefits(Double healthTokenBalance) {
+        long balance = TokenAmount.fromTokens(healthTokenBalance);
         return availableBenefits.stream()
                 .map(benefit -> {
-                    boolean available = balance.getHealthTokenBalance() >= benefit.getHtCost();
-                    String eligibility = available ? "Eligible" : "Requires " + benefit.getHtCost() + " HT (Current: " + balance.getHealthTokenBalance() + " HT)";
+                    boolean available = balance >= TokenAmount.fromTokens(benefit.getHtCost());
+                    String eligibility = available ? "Eligible" : "Requires " + benefit.getHtCost() + " HT (Current: " + healthTokenBalance + " HT)";
                     
                     HealthBenefitDTO updatedBenefit = new HealthBenefitDTO();
                     updatedBenefit.setServiceType(benefit.getServiceType());
@@ -65,9 +105,15 @@ public class BenefitServiceImpl implements BenefitService {
         Patient patient = patientRepository.findById(redemptionRequest.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + redemptionRequest.getPatientId()));
 
-        // Check if patient has sufficient HT balance
-        TokenBalanceDTO balance = tokenService.getTokenBalance(patient.getId());
-        if (balance.getHealthTokenBalance() < redemptionRequest.getHtAmount()) {
+        if (redemptionRequest.getHtAmount() == null) {
+            throw new RuntimeException("HT amount is required");
+        }
+        long htAmount = TokenAmount.fromTokens(redemptionRequest.getHtAmount());
+
+        // Reserve the HT up front; the hold is converted on approval or released on rejection
+        String redemptionId = generateRedemptionId();
+        if (!tokenService.reserveHealthTokens(patient.getId(), redemptionId, htAmount)) {
+            TokenBalanceDTO balance = tokenService.getTokenBalance(patient.getId());
             return new RedemptionResponse(
                 null,
                 patient.getId(),
@@ -75,26 +121,29 @@ public class BenefitServiceImpl implements BenefitService {
                 redemptionRequest.getHtAmount(),
                 "REJECTED",
                 LocalDateTime.now(),
-                "Insufficient health tokens. Available: " + balance.getHealthTokenBalance() + " HT, Required: " + redemptionRequest.getHtAmount() + " HT"
+                "Insufficient health tokens. Available: " + balance.getAvailableHealthTokens() + " HT, Required: " + redemptionRequest.getHtAmount() + " HT"
             );
         }
 
         // Create redemption record
         BenefitRedemption redemption = new BenefitRedemption();
         redemption.setPatient(patient);
-        redemption.setRedemptionId(generateRedemptionId());
+        redemption.setRedemptionId(redemptionId);
         redemption.setServiceType(redemptionRequest.getServiceType());
-        redemption.setHtAmount(redemptionRequest.getHtAmount());
+        redemption.setHtAmount(htAmount);
         redemption.setStatus("PENDING");
         redemption.setDescription("Redeeming " + redemptionRequest.getServiceType() + " service");
 
         BenefitRedemption savedRedemption = redemptionRepository.save(redemption);
+        statsService.recordRedemptionRequest(patient.getId(), savedRedemption.getServiceType());
+        outboxService.recordRedemptionEvent(savedRedemption, "REDEMPTION_SUBMITTED");
+        ledgerVersion.bump(patient.getId());
 
         return new RedemptionResponse(
             savedRedemption.getRedemptionId(),
             patient.getId(),
             savedRedemption.getServiceType(),
-            savedRedemption.getHtAmount(),
+            TokenAmount.toTokens(savedRedemption.getHtAmount()),
             savedRedemption.getStatus(),
             savedRedemption.getCreatedAt(),  // This should be 'redeemedAt' in your DTO
             "Redemption request submitted successfully"
@@ -109,6 +158,36 @@ public class BenefitServiceImpl implements BenefitService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<RedemptionResponse> getRedemptionHistoryPage(Long patientId, String cursor, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<BenefitRedemption> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = redemptionRepository.findByPatientIdOrderByCreatedAtDescIdDesc(patientId, window);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rows = redemptionRepository.findPageBefore(patientId, position.getCreatedAt(), position.getId(), window);
+        }
+        return CursorPage.of(rows, pageSize, this::convertToResponse,
+                redemption -> HistoryCursor.encode(redemption.getCreatedAt(), redemption.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRedemptionHistory(Long patientId, OutputStream out) {
+        ndjsonWriter.write(redemptionRepository.streamByPatientId(patientId), this::convertToResponse, out);
+    }
+
+    @Override
+    public List<RedemptionResponse> getRecentRedemptions(Long patientId, int limit) {
+        List<BenefitRedemption> redemptions = redemptionRepository.findByPatientIdOrderByCreatedAtDescIdDesc(patientId, PageRequest.of(0, limit));
+        return redemptions.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public RedemptionResponse getRedemptionById(String redemptionId) {
         BenefitRedemption redemption = redemptionRepository.findByRedemptionId(redemptionId)
@@ -118,21 +197,31 @@ public class BenefitServiceImpl implements BenefitService {
 
     @Override
     @Transactional
-    public boolean approveRedemption(String redemptionId, String hospitalId) {
+    public boolean approveRedemption(String redemptionId, String hospitalId, String reviewer) {
         BenefitRedemption redemption = redemptionRepository.findByRedemptionId(redemptionId)
                 .orElseThrow(() -> new RuntimeException("Redemption not found with id: " + redemptionId));
+        // Only one approval may burn the HT, and only by the reviewer holding a live lease, if any
+        if (redemptionRepository.transitionFromPending(redemptionId, "APPROVED", reviewer, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(reviewFailure(redemption));
+        }
 
-        // Deduct HT tokens
-        boolean deducted = tokenService.updateHealthTokenBalance(redemption.getPatient().getId(), -redemption.getHtAmount());
-        if (!deducted) {
-            throw new RuntimeException("Failed to deduct health tokens");
+        // Convert the hold into a burn; redemptions submitted before holds existed are deducted directly
+        if (!tokenService.convertHold(redemptionId)) {
+            boolean deducted = tokenService.updateHealthTokenBalance(redemption.getPatient().getId(), TokenAmount.negate(redemption.getHtAmount()));
+            if (!deducted) {
+                throw new RuntimeException("Failed to deduct health tokens");
+            }
         }
 
         redemption.setStatus("APPROVED");
         redemption.setHospitalId(hospitalId);
         redemption.setProcessedAt(LocalDateTime.now());
+        clearLease(redemption);
 
         redemptionRepository.save(redemption);
+        outboxService.recordRedemptionEvent(redemption, "REDEMPTION_APPROVED");
+        ledgerVersion.bump(redemption.getPatient().getId());
+        patientEvents.redemptionStatusChanged(redemption.getPatient().getId(), redemptionId, "APPROVED");
         return true;
     }
 
@@ -141,18 +230,199 @@ public class BenefitServiceImpl implements BenefitService {
     public boolean completeRedemption(String redemptionId, String transactionHash) {
         BenefitRedemption redemption = redemptionRepository.findByRedemptionId(redemptionId)
                 .orElseThrow(() -> new RuntimeException("Redemption not found with id: " + redemptionId));
+        // Only approved redemptions have had their hold converted and HT burned
+        if (redemptionRepository.transition(redemptionId, "APPROVED", "COMPLETED") == 0) {
+            throw new RuntimeException("Redemption is not approved: " + redemption.getStatus());
+        }
 
         redemption.setStatus("COMPLETED");
         redemption.setTransactionHash(transactionHash);
         redemption.setCompletedAt(LocalDateTime.now());
+        if (transactionHash != null) {
+            // Picked up by ConfirmationTracker
+            redemption.setTransactionStatus("PENDING");
+        }
 
         redemptionRepository.save(redemption);
+        statsService.recordRedemptionTransition(redemption.getPatient().getId(),
+                "APPROVED", "COMPLETED", redemption.getHtAmount());
+        outboxService.recordRedemptionEvent(redemption, "REDEMPTION_COMPLETED");
+        ledgerVersion.bump(redemption.getPatient().getId());
+        patientEvents.redemptionStatusChanged(redemption.getPatient().getId(), redemptionId, "COMPLETED");
         return true;
     }
 
+    @Override
+    @Transactional
+    public List<BatchItemResult> approveRedemptions(List<String> redemptionIds, String hospitalId, String reviewer) {
+        Set<String> requested = new LinkedHashSet<>(redemptionIds);
+        requested.remove(null);
+        LocalDateTime now = LocalDateTime.now();
+        // Locked before loading, so the loaded rows are the ones the lock saw
+        Set<String> reviewable = requested.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(redemptionRepository.lockReviewableRedemptionIds(requested, reviewer, now));
+        Map<String, BenefitRedemption> found = loadRedemptions(requested);
+
+        List<BatchItemResult> results = new ArrayList<>(requested.size());
+        List<BenefitRedemption> pending = new ArrayList<>();
+        for (String redemptionId : requested) {
+            BenefitRedemption redemption = found.get(redemptionId);
+            if (redemption == null) {
+                results.add(BatchItemResult.failed(redemptionId, null, "Redemption not found with id: " + redemptionId));
+            } else if (!reviewable.contains(redemptionId)) {
+                results.add(BatchItemResult.failed(redemptionId, redemption.getStatus(), reviewFailure(redemption)));
+            } else {
+                pending.add(redemption);
+            }
+        }
+
+        // All holds are converted together; a redemption without a live hold (submitted before
+        // holds existed, or resolved by a concurrent call) fails here and can go through approveRedemption
+        Set<String> converted = tokenService.convertHolds(pending.stream()
+                .map(BenefitRedemption::getRedemptionId)
+                .collect(Collectors.toList()));
+        for (BenefitRedemption redemption : pending) {
+            if (!converted.contains(redemption.getRedemptionId())) {
+                results.add(BatchItemResult.failed(redemption.getRedemptionId(), redemption.getStatus(), "No held health tokens for redemption"));
+                continue;
+            }
+            redemption.setStatus("APPROVED");
+            redemption.setHospitalId(hospitalId);
+            redemption.setProcessedAt(now);
+            clearLease(redemption);
+            outboxService.recordRedemptionEvent(redemption, "REDEMPTION_APPROVED");
+            ledgerVersion.bump(redemption.getPatient().getId());
+            patientEvents.redemptionStatusChanged(redemption.getPatient().getId(), redemption.getRedemptionId(), "APPROVED");
+            results.add(BatchItemResult.succeeded(redemption.getRedemptionId(), "APPROVED"));
+        }
+        // The loaded rows are managed, so the status changes flush as batched updates on commit
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResult> completeRedemptions(List<RedemptionCompletion> completions) {
+        Set<String> redemptionIds = completions.stream()
+                .map(RedemptionCompletion::getRedemptionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> approved = redemptionIds.isEmpty() ? Collections.emptySet()
+                : new HashSet<>(redemptionRepository.lockRedemptionIdsByStatus(redemptionIds, "APPROVED"));
+        Map<String, BenefitRedemption> found = loadRedemptions(redemptionIds);
+
+        List<BatchItemResult> results = new ArrayList<>(completions.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (RedemptionCompletion completion : completions) {
+            String redemptionId = completion.getRedemptionId();
+            BenefitRedemption redemption = found.get(redemptionId);
+            if (redemption == null) {
+                results.add(BatchItemResult.failed(redemptionId, null, "Redemption not found with id: " + redemptionId));
+                continue;
+            }
+            // Only approved redemptions have had their HT burned; this also rejects duplicates in the batch
+            if (!approved.contains(redemptionId) || !"APPROVED".equals(redemption.getStatus())) {
+                results.add(BatchItemResult.failed(redemptionId, redemption.getStatus(), "Redemption is not approved: " + redemption.getStatus()));
+                continue;
+            }
+
+            redemption.setStatus("COMPLETED");
+            redemption.setTransactionHash(completion.getTransactionHash());
+            redemption.setCompletedAt(now);
+            if (completion.getTransactionHash() != null) {
+                // Picked up by ConfirmationTracker
+                redemption.setTransactionStatus("PENDING");
+            }
+            statsService.recordRedemptionTransition(redemption.getPatient().getId(),
+                    "APPROVED", "COMPLETED", redemption.getHtAmount());
+            outboxService.recordRedemptionEvent(redemption, "REDEMPTION_COMPLETED");
+            ledgerVersion.bump(redemption.getPatient().getId());
+            patientEvents.redemptionStatusChanged(redemption.getPatient().getId(), redemptionId, "COMPLETED");
+            results.add(BatchItemResult.succeeded(redemptionId, "COMPLETED"));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<RedemptionResponse> claimPendingRedemptions(String reviewer, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = redemptionRepository.lockClaimableIds(now, limit);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        redemptionRepository.lease(ids, reviewer, now.plusSeconds(leaseSeconds));
+        return redemptionRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(BenefitRedemption::getCreatedAt).thenComparing(BenefitRedemption::getId))
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public List<String> renewRedemptionLeases(String reviewer, List<String> redemptionIds) {
+        if (redemptionIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        redemptionRepository.renewLeases(redemptionIds, reviewer, LocalDateTime.now().plusSeconds(leaseSeconds));
+        return redemptionRepository.findLeasedRedemptionIds(redemptionIds, reviewer);
+    }
+
+    @Override
+    @Transactional
+    public int releaseRedemptionLeases(String reviewer, List<String> redemptionIds) {
+        return redemptionIds.isEmpty() ? 0 : redemptionRepository.releaseLeases(redemptionIds, reviewer);
+    }
+
+    @Override
+    @Transactional
+    public boolean rejectRedemption(String redemptionId, String reason, String reviewer) {
+        BenefitRedemption redemption = redemptionRepository.findByRedemptionId(redemptionId)
+                .orElseThrow(() -> new RuntimeException("Redemption not found with id: " + redemptionId));
+        if (redemptionRepository.transitionFromPending(redemptionId, "REJECTED", reviewer, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(reviewFailure(redemption));
+        }
+
+        tokenService.releaseHold(redemptionId);
+
+        redemption.setStatus("REJECTED");
+        redemption.setDescription(reason);
+        redemption.setProcessedAt(LocalDateTime.now());
+        clearLease(redemption);
+
+        redemptionRepository.save(redemption);
+        outboxService.recordRedemptionEvent(redemption, "REDEMPTION_REJECTED");
+        ledgerVersion.bump(redemption.getPatient().getId());
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean resolveRedemptionTransaction(String transactionHash, boolean success) {
+        return redemptionRepository.resolveTransaction(transactionHash, success ? "CONFIRMED" : "FAILED", LocalDateTime.now()) > 0;
+    }
+
     @Override
     public Double getTotalRedeemedHT(Long patientId) {
-        return redemptionRepository.sumRedeemedHTByPatientId(patientId);
+        return TokenAmount.toTokens(statsService.getStats(patientId).getHtRedeemed());
+    }
+
+    private Map<String, BenefitRedemption> loadRedemptions(Set<String> redemptionIds) {
+        return redemptionRepository.findByRedemptionIdIn(redemptionIds).stream()
+                .collect(Collectors.toMap(BenefitRedemption::getRedemptionId, Function.identity()));
+    }
+
+    // A redemption that could not be reviewed has either moved on or is leased to another reviewer
+    private String reviewFailure(BenefitRedemption redemption) {
+        if ("PENDING".equals(redemption.getStatus()) && redemption.getClaimedBy() != null) {
+            return "Redemption is leased to " + redemption.getClaimedBy();
+        }
+        return "Redemption is not pending: " + redemption.getStatus();
+    }
+
+    // The entity is written back whole, so the lease has to be cleared on it too
+    private void clearLease(BenefitRedemption redemption) {
+        redemption.setClaimedBy(null);
+        redemption.setLeaseExpiresAt(null);
     }
 
     private String generateRedemptionId() {
@@ -164,7 +434,7 @@ public class BenefitServiceImpl implements BenefitService {
             redemption.getRedemptionId(),
             redemption.getPatient().getId(),
             redemption.getServiceType(),
-            redemption.getHtAmount(),
+            TokenAmount.toTokens(redemption.getHtAmount()),
             redemption.getStatus(),
             redemption.getCreatedAt(),
             "Redemption " + redemption.getStatus().toLowerCase()
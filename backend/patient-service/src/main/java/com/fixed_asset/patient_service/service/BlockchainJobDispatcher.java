@@ -0,0 +1,197 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.VirtualThreadConfig;
+import com.fixed_asset.patient_service.dto.ChainOperation;
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the blockchain job queue. Each contract is polled for a batch of
+ * QUEUED jobs, which is handed to one of a small, fixed set of worker threads
+ * so that chain round trips never run on request threads.
+ */
+@Component
+@ConditionalOnProperty(name = "blockchain.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class BlockchainJobDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockchainJobDispatcher.class);
+    private static final List<String> CONTRACTS = List.of("ASSET_TOKEN", "HEALTH_TOKEN");
+
+    @Autowired
+    private BlockchainJobService jobService;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Value("${blockchain.jobs.workers:2}")
+    private int workers;
+
+    @Value("${blockchain.jobs.batch-size:20}")
+    private int batchSize;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final String workerId = "node-" + UUID.randomUUID().toString().substring(0, 8);
+    private ThreadPoolTaskExecutor executor;
+    private Semaphore freeWorkers;
+
+    @PostConstruct
+    public void start() {
+        freeWorkers = new Semaphore(workers);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("chain-worker-");
+        if (virtualThreads) {
+            // Still capped at workers by freeWorkers; only the thread kind changes
+            executor.setThreadFactory(VirtualThreadConfig.virtualThreadFactory("chain-worker-"));
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.jobs.poll-interval-ms:500}")
+    public void dispatch() {
+        for (String contract : CONTRACTS) {
+            // Only claim work a free worker can start immediately, so nothing
+            // sits in SUBMITTING while waiting for a thread
+            while (freeWorkers.tryAcquire()) {
+                List<BlockchainJob> batch;
+                try {
+                    batch = jobService.claimBatch(contract, batchSize, workerId);
+                } catch (RuntimeException e) {
+                    freeWorkers.release();
+                    throw e;
+                }
+                if (batch.isEmpty()) {
+                    freeWorkers.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        process(contract, batch);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Settles jobs whose worker stopped reporting. A job with no recorded hash
+     * was never broadcast and goes back to the queue; otherwise the chain is
+     * asked what became of its transaction. Either way the update only lands
+     * if the claim is still the one read here, so a worker that is merely slow
+     * cannot have its job sent a second time.
+     */
+    @Scheduled(fixedDelayString = "${blockchain.jobs.recovery-interval-ms:60000}")
+    public void recoverStaleJobs() {
+        int recovered = 0;
+        for (BlockchainJob job : jobService.findStaleJobs(batchSize)) {
+            try {
+                if (job.getTransactionHash() == null) {
+                    if (jobService.requeueUnsent(job)) {
+                        recovered++;
+                    }
+                    continue;
+                }
+                ChainOperationResult outcome = blockchainService.lookupTransaction(job.getTransactionHash(), job.getNonce());
+                jobService.completeBatch(List.of(job), List.of(outcome));
+                recovered++;
+            } catch (RuntimeException e) {
+                log.warn("Could not recover blockchain job {}: {}", job.getJobId(), e.getMessage());
+            }
+        }
+        if (recovered > 0) {
+            log.warn("Recovered {} blockchain jobs left in SUBMITTING", recovered);
+        }
+    }
+
+    private void process(String contract, List<BlockchainJob> batch) {
+        List<ChainOperation> operations = batch.stream()
+                .map(job -> new ChainOperation(job.getOperation(), job.getWalletAddress(), job.getAmount(), job.getDepositId(), job.getMetadata()))
+                .collect(Collectors.toList());
+
+        List<ChainOperationResult> prepared;
+        try {
+            prepared = blockchainService.prepareBatch(contract, operations);
+        } catch (RuntimeException e) {
+            log.error("Could not sign batch of {} {} jobs: {}", batch.size(), contract, e.getMessage());
+            prepared = batch.stream()
+                    .map(job -> ChainOperationResult.failure(e.getMessage()))
+                    .collect(Collectors.toList());
+        }
+
+        // Each hash and nonce is on its job row before the node sees the
+        // transaction, so recovery can find it on chain instead of resending
+        List<BlockchainJob> unsent = new ArrayList<>();
+        List<ChainOperationResult> unsentResults = new ArrayList<>();
+        List<BlockchainJob> recorded = new ArrayList<>();
+        List<String> recordedHashes = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            BlockchainJob job = batch.get(i);
+            ChainOperationResult result = i < prepared.size() ? prepared.get(i) : ChainOperationResult.failure("Not prepared");
+            if (!result.isSuccess()) {
+                unsent.add(job);
+                unsentResults.add(result);
+            } else if (record(job, result)) {
+                recorded.add(job);
+                recordedHashes.add(result.getTransactionHash());
+            } else {
+                dropped.add(result.getTransactionHash());
+            }
+        }
+        if (!dropped.isEmpty()) {
+            blockchainService.discardPrepared(dropped);
+        }
+        if (!unsent.isEmpty()) {
+            jobService.completeBatch(unsent, unsentResults);
+        }
+        if (recorded.isEmpty()) {
+            return;
+        }
+
+        List<ChainOperationResult> results;
+        try {
+            results = blockchainService.broadcastPrepared(recordedHashes);
+        } catch (RuntimeException e) {
+            // Some of them may have gone out; recovery settles them from the chain
+            log.error("Broadcast of {} {} jobs failed: {}", recorded.size(), contract, e.getMessage());
+            return;
+        }
+        jobService.completeBatch(recorded, results);
+    }
+
+    private boolean record(BlockchainJob job, ChainOperationResult prepared) {
+        try {
+            return jobService.recordBroadcast(job, prepared.getTransactionHash(), prepared.getNonce());
+        } catch (RuntimeException e) {
+            log.warn("Could not record transaction for blockchain job {}: {}", job.getJobId(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.BlockchainJobDTO;
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+
+import java.util.List;
+
+public interface BlockchainJobService {
+    String enqueueAssetMint(AssetDeposit deposit);
+    String enqueueHealthTokenOperation(TokenTransaction transaction, String operation, String walletAddress);
+    BlockchainJobDTO getJob(String jobId);
+    List<BlockchainJob> claimBatch(String contract, int batchSize, String workerId);
+    boolean recordBroadcast(BlockchainJob job, String transactionHash, Long nonce);
+    void completeBatch(List<BlockchainJob> jobs, List<ChainOperationResult> results);
+    boolean resolveSubmitted(String transactionHash, String minedHash, boolean success, String error);
+    List<BlockchainJob> findStaleJobs(int limit);
+    boolean requeueUnsent(BlockchainJob job);
+}
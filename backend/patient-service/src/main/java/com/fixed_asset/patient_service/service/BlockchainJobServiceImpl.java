@@ -0,0 +1,269 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.BlockchainJobDTO;
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.AssetDepositRepository;
+import com.fixed_asset.patient_service.repository.BlockchainJobRepository;
+import com.fixed_asset.patient_service.repository.TokenTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable mint/burn queue backed by the blockchain_jobs table. Jobs are written
+ * in the caller's transaction, claimed in per-contract batches by the
+ * dispatcher, and their outcome is written back to the referenced
+ * AssetDeposit or TokenTransaction. A claimed job only moves on through
+ * updates conditioned on its claim token, and its transaction hash and nonce
+ * are recorded before the transaction is broadcast.
+ */
+@Service
+public class BlockchainJobServiceImpl implements BlockchainJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockchainJobServiceImpl.class);
+    static final int TOKEN_DECIMALS = 18;
+
+    @Autowired
+    private BlockchainJobRepository jobRepository;
+
+    @Autowired
+    private AssetDepositRepository depositRepository;
+
+    @Autowired
+    private TokenTransactionRepository tokenTransactionRepository;
+
+    @Autowired
+    private PatientTokenStatsService statsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Value("${blockchain.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${blockchain.jobs.stale-after-ms:300000}")
+    private long staleAfterMs;
+
+    @Override
+    @Transactional
+    public String enqueueAssetMint(AssetDeposit deposit) {
+        BlockchainJob job = newJob("MINT_AT", "ASSET_TOKEN", deposit.getPatient().getWalletAddress(), deposit.getTokensMinted());
+        job.setDepositId(deposit.getDepositId());
+        job.setMetadata(deposit.getMetadata());
+        job.setReferenceType("ASSET_DEPOSIT");
+        job.setReferenceId(deposit.getId());
+        return jobRepository.save(job).getJobId();
+    }
+
+    @Override
+    @Transactional
+    public String enqueueHealthTokenOperation(TokenTransaction transaction, String operation, String walletAddress) {
+        BlockchainJob job = newJob(operation, "HEALTH_TOKEN", walletAddress, transaction.getAmount());
+        job.setReferenceType("TOKEN_TRANSACTION");
+        job.setReferenceId(transaction.getId());
+        return jobRepository.save(job).getJobId();
+    }
+
+    @Override
+    public BlockchainJobDTO getJob(String jobId) {
+        BlockchainJob job = jobRepository.findByJobId(jobId)
+                .orElseThrow(() -> new RuntimeException("Blockchain job not found with id: " + jobId));
+        return convertToDTO(job);
+    }
+
+    @Override
+    @Transactional
+    public List<BlockchainJob> claimBatch(String contract, int batchSize, String workerId) {
+        List<Long> candidateIds = jobRepository.findQueuedIdsByContract(contract, PageRequest.of(0, batchSize));
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // The conditional update only flips rows still QUEUED, so another node
+        // racing on the same ids simply ends up with fewer rows
+        String claimToken = workerId + ":" + UUID.randomUUID().toString().substring(0, 8);
+        jobRepository.claimJobs(candidateIds, claimToken, LocalDateTime.now());
+        return jobRepository.findByClaimedByAndStatus(claimToken, "SUBMITTING");
+    }
+
+    @Override
+    @Transactional
+    public boolean recordBroadcast(BlockchainJob job, String transactionHash, Long nonce) {
+        if (jobRepository.recordBroadcast(job.getId(), job.getClaimedBy(), transactionHash, nonce, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        job.setTransactionHash(transactionHash);
+        job.setNonce(nonce);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void completeBatch(List<BlockchainJob> jobs, List<ChainOperationResult> results) {
+        for (int i = 0; i < jobs.size(); i++) {
+            BlockchainJob job = jobs.get(i);
+            ChainOperationResult result = i < results.size() ? results.get(i) : ChainOperationResult.failure("No result returned");
+            String claimToken = job.getClaimedBy();
+            job.setAttempts(job.getAttempts() + 1);
+            settle(job, result);
+            if (releaseClaim(job, claimToken) == 0) {
+                // Recovery took the job over; whatever it decided stands
+                log.warn("Blockchain job {} is no longer claimed by {}, dropping its {} result",
+                        job.getJobId(), claimToken, job.getStatus());
+                continue;
+            }
+            job.setClaimedBy(null);
+            applyOutcome(job);
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean resolveSubmitted(String transactionHash, String minedHash, boolean success, String error) {
+        BlockchainJob job = jobRepository.findByTransactionHashAndStatus(transactionHash, "SUBMITTED").orElse(null);
+        if (job == null) {
+            return false;
+        }
+        settle(job, success ? ChainOperationResult.success(minedHash) : ChainOperationResult.failure(error));
+        if (jobRepository.resolveSubmitted(job.getId(), job.getStatus(), job.getAttempts(), job.getTransactionHash(),
+                job.getNonce(), job.getLastError(), job.getCompletedAt(), LocalDateTime.now()) == 0) {
+            return false;
+        }
+        applyOutcome(job);
+        return true;
+    }
+
+    @Override
+    public List<BlockchainJob> findStaleJobs(int limit) {
+        return jobRepository.findStaleClaims(LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000L), PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional
+    public boolean requeueUnsent(BlockchainJob job) {
+        if (job.getTransactionHash() != null) {
+            throw new RuntimeException("Blockchain job " + job.getJobId() + " has a recorded transaction; look it up instead");
+        }
+        String claimToken = job.getClaimedBy();
+        job.setStatus("QUEUED");
+        return releaseClaim(job, claimToken) > 0;
+    }
+
+    private BlockchainJob newJob(String operation, String contract, String walletAddress, long amount) {
+        BlockchainJob job = new BlockchainJob();
+        job.setJobId("JOB-" + UUID.randomUUID());
+        job.setOperation(operation);
+        job.setContract(contract);
+        job.setWalletAddress(walletAddress);
+        job.setAmount(TokenAmount.toBaseUnits(Math.abs(amount)));
+        job.setStatus("QUEUED");
+        return job;
+    }
+
+    /**
+     * Moves the job to the status the result calls for. Only the in-memory
+     * copy changes; the caller writes it back with a conditional update.
+     */
+    private void settle(BlockchainJob job, ChainOperationResult result) {
+        if (result.isSuccess() && result.isPending()) {
+            // Broadcast only; ConfirmationTracker resolves it once it has enough confirmations
+            job.setStatus("SUBMITTED");
+            job.setTransactionHash(result.getTransactionHash());
+            job.setLastError(result.getError());
+        } else if (result.isSuccess()) {
+            job.setStatus("CONFIRMED");
+            job.setTransactionHash(result.getTransactionHash());
+            job.setCompletedAt(LocalDateTime.now());
+        } else if (job.getAttempts() < maxAttempts) {
+            // Only reached once the transaction is known not to be mined, so a new one is safe
+            job.setStatus("QUEUED");
+            job.setTransactionHash(null);
+            job.setNonce(null);
+            job.setLastError(result.getError());
+        } else {
+            job.setStatus("FAILED");
+            job.setLastError(result.getError());
+            job.setCompletedAt(LocalDateTime.now());
+        }
+    }
+
+    private int releaseClaim(BlockchainJob job, String claimToken) {
+        return jobRepository.releaseClaim(job.getId(), claimToken, job.getStatus(), job.getAttempts(),
+                job.getTransactionHash(), job.getNonce(), job.getLastError(), job.getCompletedAt(), LocalDateTime.now());
+    }
+
+    private void applyOutcome(BlockchainJob job) {
+        if ("SUBMITTED".equals(job.getStatus())) {
+            markSubmitted(job, job.getTransactionHash());
+        } else if ("CONFIRMED".equals(job.getStatus())) {
+            markReference(job, true, job.getTransactionHash());
+        } else if ("FAILED".equals(job.getStatus())) {
+            markReference(job, false, null);
+        }
+    }
+
+    private void markSubmitted(BlockchainJob job, String transactionHash) {
+        if ("TOKEN_TRANSACTION".equals(job.getReferenceType())) {
+            tokenTransactionRepository.findById(job.getReferenceId()).ifPresent(transaction -> {
+                transaction.setTransactionHash(transactionHash);
+                tokenTransactionRepository.save(transaction);
+                ledgerVersion.bump(transaction);
+            });
+        }
+    }
+
+    private void markReference(BlockchainJob job, boolean success, String transactionHash) {
+        if ("ASSET_DEPOSIT".equals(job.getReferenceType())) {
+            depositRepository.findById(job.getReferenceId()).ifPresent(deposit -> {
+                String previousStatus = deposit.getStatus();
+                deposit.setStatus(success ? "PROCESSED" : "FAILED");
+                deposit.setProcessedAt(LocalDateTime.now());
+                depositRepository.save(deposit);
+                long tokens = deposit.getTokensMinted();
+                statsService.recordDepositTransition(deposit.getPatient().getId(),
+                        previousStatus, tokens, deposit.getStatus(), tokens);
+                outboxService.recordDepositEvent(deposit, "DEPOSIT_" + deposit.getStatus());
+                ledgerVersion.bump(deposit.getPatient().getId());
+            });
+        } else if ("TOKEN_TRANSACTION".equals(job.getReferenceType())) {
+            tokenTransactionRepository.findById(job.getReferenceId()).ifPresent(transaction -> {
+                transaction.setStatus(success ? "CONFIRMED" : "FAILED");
+                if (success) {
+                    transaction.setTransactionHash(transactionHash);
+                    transaction.setConfirmedAt(LocalDateTime.now());
+                }
+                tokenTransactionRepository.save(transaction);
+                ledgerVersion.bump(transaction);
+            });
+        }
+    }
+
+    private BlockchainJobDTO convertToDTO(BlockchainJob job) {
+        BlockchainJobDTO dto = new BlockchainJobDTO();
+        dto.setJobId(job.getJobId());
+        dto.setOperation(job.getOperation());
+        dto.setStatus(job.getStatus());
+        dto.setReferenceType(job.getReferenceType());
+        dto.setReferenceId(job.getReferenceId());
+        dto.setTransactionHash(job.getTransactionHash());
+        dto.setAttempts(job.getAttempts());
+        dto.setLastError(job.getLastError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setCompletedAt(job.getCompletedAt());
+        return dto;
+    }
+}
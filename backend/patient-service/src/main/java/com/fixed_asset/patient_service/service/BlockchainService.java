@@ -1,13 +1,49 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.ChainOperation;
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+
 import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface BlockchainService {
     String mintAssetTokens(String patientWallet, BigInteger amount, String depositId, String metadata);
     String mintHealthTokens(String patientWallet, BigInteger amount);
     boolean burnHealthTokens(String patientWallet, BigInteger amount);
+    String publishDistributionRoot(Long tradeId, String merkleRoot, BigInteger totalAmount);
     BigInteger getAssetTokenBalance(String walletAddress);
     BigInteger getHealthTokenBalance(String walletAddress);
     boolean isTransactionConfirmed(String transactionHash);
+    CompletableFuture<BigInteger> getAssetTokenBalanceAsync(String walletAddress);
+    CompletableFuture<BigInteger> getHealthTokenBalanceAsync(String walletAddress);
+    CompletableFuture<Boolean> isTransactionConfirmedAsync(String transactionHash);
     String getCurrentBlockNumber();
-}
\ No newline at end of file
+
+    /**
+     * Signs each operation under its own nonce without sending it. Successful
+     * results carry the transaction hash and nonce (no nonce in simulation
+     * mode), so they can be recorded before anything reaches the node.
+     */
+    List<ChainOperationResult> prepareBatch(String contract, List<ChainOperation> operations);
+
+    /**
+     * Broadcasts transactions returned by prepareBatch without waiting for
+     * receipts. On a live chain accepted results are pending and confirmed
+     * later by ConfirmationTracker; in simulation mode they come back
+     * confirmed. A failure means the node rejected the transaction.
+     */
+    List<ChainOperationResult> broadcastPrepared(List<String> transactionHashes);
+
+    /**
+     * Drops prepared transactions that will not be broadcast.
+     */
+    void discardPrepared(List<String> transactionHashes);
+
+    /**
+     * Finds out what became of a transaction recorded before broadcast:
+     * confirmed or failed if it was mined, failed if another transaction has
+     * used its nonce, and pending while it may still be mined.
+     */
+    ChainOperationResult lookupTransaction(String transactionHash, Long nonce);
+}
@@ -1,37 +1,86 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.ChainOperation;
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.Hash;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthBlockNumber;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.protocol.http.HttpService;
 import org.springframework.beans.factory.annotation.Value;
+import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class BlockchainServiceImpl implements BlockchainService {
 
-    @Value("${blockchain.rpc.url:http://localhost:8545}")
-    private String rpcUrl;
+    @Value("${blockchain.simulation.enabled:true}")
+    private boolean simulationEnabled;
 
+    @Value("${blockchain.simulation.latency-ms:1000}")
+    private long simulatedLatencyMs;
+
+    @Value("${blockchain.asset-token.contract-address:}")
+    private String assetTokenAddress;
+
+    @Value("${blockchain.health-token.contract-address:}")
+    private String healthTokenAddress;
+
+    @Value("${blockchain.hospital-financials.contract-address:}")
+    private String hospitalFinancialsAddress;
+
+    @Value("${blockchain.tx.receipt-poll-ms:1000}")
+    private long receiptPollMs;
+
+    @Value("${blockchain.tx.receipt-timeout-ms:120000}")
+    private long receiptTimeoutMs;
+
+    @Autowired
     private Web3j web3j;
 
+    @Autowired
+    private RpcBatchClient rpcBatchClient;
+
+    @Autowired
+    private ObjectProvider<TransactionSubmitter> transactionSubmitter;
+
     @Override
     public String mintAssetTokens(String patientWallet, BigInteger amount, String depositId, String metadata) {
-        // TODO: Implement actual smart contract interaction
+        if (!simulationEnabled) {
+            return submitAndAwait(new ChainOperation("MINT_AT", patientWallet, amount, depositId, metadata));
+        }
         // This is a simulation for development
         try {
             // Simulate blockchain transaction
-            Thread.sleep(1000); // Simulate network delay
+            Thread.sleep(simulatedLatencyMs); // Simulate network delay
             
             // Generate mock transaction hash
-            String transactionHash = "0x" + java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 64);
-            
-            // In production, this would call:
-            // AssetToken contract = AssetToken.load(contractAddress, web3j, credentials, gasProvider);
-            // TransactionReceipt receipt = contract.mint(patientWallet, amount).send();
+            String transactionHash = mockTransactionHash();
             
             return transactionHash;
         } catch (Exception e) {
@@ -41,10 +90,12 @@ public class BlockchainServiceImpl implements BlockchainService {
 
     @Override
     public String mintHealthTokens(String patientWallet, BigInteger amount) {
-        // TODO: Implement actual smart contract interaction
+        if (!simulationEnabled) {
+            return submitAndAwait(new ChainOperation("MINT_HT", patientWallet, amount, null, null));
+        }
         try {
-            Thread.sleep(1000); // Simulate network delay
-            String transactionHash = "0x" + java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 64);
+            Thread.sleep(simulatedLatencyMs); // Simulate network delay
+            String transactionHash = mockTransactionHash();
             return transactionHash;
         } catch (Exception e) {
             throw new RuntimeException("Failed to mint health tokens: " + e.getMessage());
@@ -53,48 +104,356 @@ public class BlockchainServiceImpl implements BlockchainService {
 
     @Override
     public boolean burnHealthTokens(String patientWallet, BigInteger amount) {
-        // TODO: Implement actual smart contract interaction
+        if (!simulationEnabled) {
+            submitAndAwait(new ChainOperation("BURN_HT", patientWallet, amount, null, null));
+            return true;
+        }
         try {
-            Thread.sleep(1000); // Simulate network delay
+            Thread.sleep(simulatedLatencyMs); // Simulate network delay
             return true;
         } catch (Exception e) {
             throw new RuntimeException("Failed to burn health tokens: " + e.getMessage());
         }
     }
 
+    @Override
+    public String publishDistributionRoot(Long tradeId, String merkleRoot, BigInteger totalAmount) {
+        if (!simulationEnabled) {
+            // The trade id rides in depositId and the root in metadata
+            return submitAndAwait(new ChainOperation("PUBLISH_ROOT", null, totalAmount, tradeId.toString(), merkleRoot));
+        }
+        try {
+            Thread.sleep(simulatedLatencyMs); // Simulate network delay
+            return mockTransactionHash();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to publish distribution root: " + e.getMessage());
+        }
+    }
+
     @Override
     public BigInteger getAssetTokenBalance(String walletAddress) {
-        // TODO: Implement actual blockchain query
-        // Simulate balance check
-        return BigInteger.valueOf(1000); // Mock balance
+        return join(getAssetTokenBalanceAsync(walletAddress));
     }
 
     @Override
     public BigInteger getHealthTokenBalance(String walletAddress) {
-        // TODO: Implement actual blockchain query
-        return BigInteger.valueOf(500); // Mock balance
+        return join(getHealthTokenBalanceAsync(walletAddress));
     }
 
     @Override
     public boolean isTransactionConfirmed(String transactionHash) {
-        // TODO: Implement actual transaction confirmation check
-        return true; // Mock confirmation
+        return join(isTransactionConfirmedAsync(transactionHash));
+    }
+
+    @Override
+    public CompletableFuture<BigInteger> getAssetTokenBalanceAsync(String walletAddress) {
+        if (simulationEnabled) {
+            return CompletableFuture.completedFuture(BigInteger.valueOf(1000)); // Mock balance
+        }
+        return balanceOf(assetTokenAddress, walletAddress);
+    }
+
+    @Override
+    public CompletableFuture<BigInteger> getHealthTokenBalanceAsync(String walletAddress) {
+        if (simulationEnabled) {
+            return CompletableFuture.completedFuture(BigInteger.valueOf(500)); // Mock balance
+        }
+        return balanceOf(healthTokenAddress, walletAddress);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isTransactionConfirmedAsync(String transactionHash) {
+        if (simulationEnabled) {
+            return CompletableFuture.completedFuture(true); // Mock confirmation
+        }
+        return rpcBatchClient.enqueue(web3j.ethGetTransactionReceipt(transactionHash))
+                .thenApply(response -> response.getTransactionReceipt().map(TransactionReceipt::isStatusOK).orElse(false));
     }
 
     @Override
     public String getCurrentBlockNumber() {
         try {
-            initializeWeb3j();
-            EthBlockNumber blockNumber = web3j.ethBlockNumber().send();
+            EthBlockNumber blockNumber = rpcBatchClient.enqueue(web3j.ethBlockNumber()).join();
             return blockNumber.getBlockNumber().toString();
         } catch (Exception e) {
             return "Unknown - " + e.getMessage();
         }
     }
 
-    private void initializeWeb3j() {
-        if (web3j == null) {
-            web3j = Web3j.build(new HttpService(rpcUrl));
+    @Override
+    public List<ChainOperationResult> prepareBatch(String contract, List<ChainOperation> operations) {
+        List<ChainOperationResult> results = new ArrayList<>(operations.size());
+        if (simulationEnabled) {
+            for (ChainOperation operation : operations) {
+                results.add(ChainOperationResult.prepared(mockTransactionHash(), null));
+            }
+            return results;
+        }
+        TransactionSubmitter submitter = requireSubmitter();
+        for (ChainOperation operation : operations) {
+            try {
+                PreparedTransaction transaction = submitter.prepare(targetContract(operation), encode(operation));
+                results.add(ChainOperationResult.prepared(transaction.getTransactionHash(), transaction.getNonce()));
+            } catch (RuntimeException e) {
+                results.add(ChainOperationResult.failure(e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<ChainOperationResult> broadcastPrepared(List<String> transactionHashes) {
+        List<ChainOperationResult> results = new ArrayList<>(transactionHashes.size());
+        if (simulationEnabled) {
+            // The whole batch is sent back-to-back and waits for a single block,
+            // so the simulated round trip is paid once per batch, not per operation
+            try {
+                Thread.sleep(simulatedLatencyMs); // Simulate network delay
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Batch broadcast interrupted");
+            }
+            for (String transactionHash : transactionHashes) {
+                results.add(ChainOperationResult.success(transactionHash));
+            }
+            return results;
+        }
+        TransactionSubmitter submitter = requireSubmitter();
+        List<CompletableFuture<String>> sends = new ArrayList<>(transactionHashes.size());
+        for (String transactionHash : transactionHashes) {
+            sends.add(submitter.broadcast(transactionHash));
+        }
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                results.add(ChainOperationResult.submitted(sends.get(i).join()));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof TransactionSubmitter.TransactionRejectedException) {
+                    results.add(ChainOperationResult.failure(e.getCause().getMessage()));
+                } else {
+                    // Not a rejection, so the node may still have taken it: it is
+                    // tracked like any broadcast until the chain says otherwise
+                    ChainOperationResult result = ChainOperationResult.submitted(transactionHashes.get(i));
+                    result.setError(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void discardPrepared(List<String> transactionHashes) {
+        TransactionSubmitter submitter = transactionSubmitter.getIfAvailable();
+        if (simulationEnabled || submitter == null) {
+            return;
+        }
+        transactionHashes.forEach(submitter::discard);
+    }
+
+    @Override
+    public ChainOperationResult lookupTransaction(String transactionHash, Long nonce) {
+        if (simulationEnabled) {
+            // Simulated sends leave nothing behind, so an unresolved one counts as never sent
+            return ChainOperationResult.failure("Simulated transaction " + transactionHash + " was not confirmed");
+        }
+        TransactionSubmitter submitter = requireSubmitter();
+        // Read the signer's mined nonce before the receipt: if the receipt is
+        // missing afterwards, a higher count means another transaction took the nonce
+        CompletableFuture<BigInteger> minedCount = nonce == null ? CompletableFuture.completedFuture(null)
+                : rpcBatchClient.enqueue(web3j.ethGetTransactionCount(submitter.getSignerAddress(), DefaultBlockParameterName.LATEST))
+                        .thenApply(response -> response.getTransactionCount());
+        BigInteger minedNonces = join(minedCount);
+        // The original or any replacement sent for it may be the one that was mined
+        Optional<TransactionReceipt> receipt = Optional.empty();
+        for (String hash : submitter.hashesOf(transactionHash)) {
+            receipt = join(rpcBatchClient.enqueue(web3j.ethGetTransactionReceipt(hash))
+                    .thenApply(response -> response.getTransactionReceipt()));
+            if (receipt.isPresent()) {
+                break;
+            }
+        }
+        if (receipt.isPresent()) {
+            return receipt.get().isStatusOK()
+                    ? ChainOperationResult.success(receipt.get().getTransactionHash())
+                    : ChainOperationResult.failure("Transaction reverted: " + receipt.get().getTransactionHash());
+        }
+        if (minedNonces != null && minedNonces.longValueExact() > nonce) {
+            return ChainOperationResult.failure("Nonce " + nonce + " of " + transactionHash + " was used by another transaction");
+        }
+        return ChainOperationResult.submitted(transactionHash);
+    }
+
+    private String submitAndAwait(ChainOperation operation) {
+        ChainOperationResult result = submitPipelined(Collections.singletonList(operation)).get(0);
+        if (!result.isSuccess()) {
+            throw new RuntimeException("Failed to submit " + operation.getOperation() + ": " + result.getError());
+        }
+        return result.getTransactionHash();
+    }
+
+    /**
+     * Broadcasts every operation before waiting for any receipt, so the whole
+     * list can land in the same block.
+     */
+    private List<ChainOperationResult> submitPipelined(List<ChainOperation> operations) {
+        TransactionSubmitter submitter = requireSubmitter();
+        List<ChainOperationResult> results = broadcast(submitter, operations);
+        Map<Integer, String> pendingHashes = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                pendingHashes.put(i, results.get(i).getTransactionHash());
+            }
+        }
+        awaitReceipts(submitter, pendingHashes, results);
+        return results;
+    }
+
+    private List<ChainOperationResult> broadcast(TransactionSubmitter submitter, List<ChainOperation> operations) {
+        List<CompletableFuture<String>> submissions = new ArrayList<>(operations.size());
+        for (ChainOperation operation : operations) {
+            try {
+                submissions.add(submitter.submit(targetContract(operation), encode(operation)));
+            } catch (RuntimeException e) {
+                submissions.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<ChainOperationResult> results = new ArrayList<>(operations.size());
+        for (CompletableFuture<String> submission : submissions) {
+            try {
+                results.add(ChainOperationResult.submitted(submission.join()));
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(ChainOperationResult.failure(cause.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private TransactionSubmitter requireSubmitter() {
+        TransactionSubmitter submitter = transactionSubmitter.getIfAvailable();
+        if (submitter == null) {
+            throw new RuntimeException("No admin signer configured (blockchain.admin.private-key)");
+        }
+        return submitter;
+    }
+
+    private void awaitReceipts(TransactionSubmitter submitter, Map<Integer, String> pendingHashes, List<ChainOperationResult> results) {
+        long deadline = System.currentTimeMillis() + receiptTimeoutMs;
+        while (!pendingHashes.isEmpty() && System.currentTimeMillis() < deadline) {
+            // Issue every lookup before joining any, so one poll is a single RPC batch
+            Map<Integer, CompletableFuture<Optional<TransactionReceipt>>> lookups = new HashMap<>();
+            pendingHashes.forEach((index, transactionHash) -> lookups.put(index, fetchReceipt(submitter.resolveHash(transactionHash))));
+            pendingHashes.entrySet().removeIf(entry -> {
+                String transactionHash = submitter.resolveHash(entry.getValue());
+                Optional<TransactionReceipt> receipt = lookups.get(entry.getKey()).join();
+                if (receipt.isEmpty()) {
+                    return false;
+                }
+                submitter.markMined(transactionHash);
+                results.set(entry.getKey(), receipt.get().isStatusOK()
+                        ? ChainOperationResult.success(transactionHash)
+                        : ChainOperationResult.failure("Transaction reverted: " + transactionHash));
+                return true;
+            });
+            if (!pendingHashes.isEmpty()) {
+                try {
+                    Thread.sleep(receiptPollMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        pendingHashes.forEach((index, transactionHash) ->
+                results.set(index, ChainOperationResult.failure("No receipt within timeout for " + transactionHash)));
+    }
+
+    private CompletableFuture<Optional<TransactionReceipt>> fetchReceipt(String transactionHash) {
+        return rpcBatchClient.enqueue(web3j.ethGetTransactionReceipt(transactionHash))
+                .thenApply(response -> response.getTransactionReceipt())
+                .exceptionally(error -> Optional.empty());
+    }
+
+    private CompletableFuture<BigInteger> balanceOf(String tokenAddress, String walletAddress) {
+        Function function = new Function("balanceOf",
+                Collections.singletonList(new Address(walletAddress)),
+                Collections.<TypeReference<?>>singletonList(new TypeReference<Uint256>() {}));
+        Transaction call = Transaction.createEthCallTransaction(null, tokenAddress, FunctionEncoder.encode(function));
+        return rpcBatchClient.enqueue(web3j.ethCall(call, DefaultBlockParameterName.LATEST))
+                .thenApply(response -> {
+                    if (response.hasError()) {
+                        throw new RuntimeException("balanceOf failed: " + response.getError().getMessage());
+                    }
+                    List<Type> decoded = FunctionReturnDecoder.decode(response.getValue(), function.getOutputParameters());
+                    return decoded.isEmpty() ? BigInteger.ZERO : (BigInteger) decoded.get(0).getValue();
+                });
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Blockchain query failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private String targetContract(ChainOperation operation) {
+        return "MINT_HT".equals(operation.getOperation()) ? healthTokenAddress : hospitalFinancialsAddress;
+    }
+
+    private String encode(ChainOperation operation) {
+        Function function;
+        switch (operation.getOperation()) {
+            case "MINT_AT":
+                function = new Function("mintAssetToken", Arrays.asList(
+                        new Address(operation.getWalletAddress()),
+                        new Uint256(toDepositNumber(operation.getDepositId())),
+                        new Uint256(operation.getAmount()),
+                        new Utf8String(operation.getMetadata() != null ? operation.getMetadata() : "")),
+                        Collections.emptyList());
+                break;
+            case "MINT_HT":
+                function = new Function("mint", Arrays.asList(
+                        new Address(operation.getWalletAddress()),
+                        new Uint256(operation.getAmount())),
+                        Collections.emptyList());
+                break;
+            case "BURN_HT":
+                function = new Function("redeemHealthToken", Arrays.asList(
+                        new Address(operation.getWalletAddress()),
+                        new Uint256(operation.getAmount()),
+                        new Utf8String("BENEFIT")),
+                        Collections.emptyList());
+                break;
+            case "PUBLISH_ROOT":
+                function = new Function("publishDistributionRoot", Arrays.asList(
+                        new Uint256(new BigInteger(operation.getDepositId())),
+                        new Bytes32(Numeric.hexStringToByteArray(operation.getMetadata())),
+                        new Uint256(operation.getAmount())),
+                        Collections.emptyList());
+                break;
+            default:
+                throw new RuntimeException("Unsupported chain operation: " + operation.getOperation());
         }
+        return FunctionEncoder.encode(function);
+    }
+
+    // HospitalFinancials keys deposits by uint256; non-numeric ids are hashed
+    private BigInteger toDepositNumber(String depositId) {
+        if (depositId == null) {
+            throw new RuntimeException("Deposit id is required to mint asset tokens");
+        }
+        if (depositId.startsWith("0x")) {
+            return Numeric.toBigInt(depositId);
+        }
+        if (depositId.chars().allMatch(Character::isDigit)) {
+            return new BigInteger(depositId);
+        }
+        return Numeric.toBigInt(Hash.sha3(depositId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String mockTransactionHash() {
+        return "0x" + (UUID.randomUUID().toString() + UUID.randomUUID().toString()).replace("-", "");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import com.fixed_asset.patient_service.model.ChainCheckpoint;
+
+import java.util.List;
+
+public interface ChainIndexService {
+    ChainCheckpoint getCheckpoint(String name, long startBlock);
+    int applyRange(String name, long fromBlock, long toBlock, String toBlockHash, List<ChainEvent> events);
+    int rewind(String name, long toBlock, String toBlockHash);
+}
@@ -0,0 +1,234 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.ChainCheckpoint;
+import com.fixed_asset.patient_service.model.ChainEventRecord;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.AssetDepositRepository;
+import com.fixed_asset.patient_service.repository.ChainCheckpointRepository;
+import com.fixed_asset.patient_service.repository.ChainEventRecordRepository;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.TokenTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.web3j.crypto.Keys;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists decoded chain events and applies them to the ledger. A range is
+ * committed together with the checkpoint that covers it, and each log is
+ * keyed by (transaction hash, log index), so replaying a range after a crash
+ * or a rewind changes nothing that was already applied.
+ */
+@Service
+public class ChainIndexServiceImpl implements ChainIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainIndexServiceImpl.class);
+
+    @Autowired
+    private ChainCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ChainEventRecordRepository eventRepository;
+
+    @Autowired
+    private AssetDepositRepository depositRepository;
+
+    @Autowired
+    private TokenTransactionRepository tokenTransactionRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientTokenStatsService statsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Override
+    @Transactional
+    public ChainCheckpoint getCheckpoint(String name, long startBlock) {
+        return checkpointRepository.findById(name)
+                .orElseGet(() -> checkpointRepository.save(new ChainCheckpoint(name, startBlock - 1)));
+    }
+
+    @Override
+    @Transactional
+    public int applyRange(String name, long fromBlock, long toBlock, String toBlockHash, List<ChainEvent> events) {
+        ChainCheckpoint checkpoint = checkpointRepository.lockByName(name)
+                .orElseThrow(() -> new RuntimeException("Chain checkpoint not found: " + name));
+        if (checkpoint.getBlockNumber() != fromBlock - 1) {
+            throw new RuntimeException("Checkpoint " + name + " is at block " + checkpoint.getBlockNumber()
+                    + "; range starting at " + fromBlock + " discarded");
+        }
+
+        int applied = 0;
+        for (ChainEvent event : events) {
+            if (eventRepository.existsByTransactionHashAndLogIndex(event.getTransactionHash(), event.getLogIndex())) {
+                continue;
+            }
+            eventRepository.save(toRecord(event));
+            apply(event);
+            applied++;
+        }
+
+        checkpoint.setBlockNumber(toBlock);
+        checkpoint.setBlockHash(toBlockHash);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        return applied;
+    }
+
+    @Override
+    @Transactional
+    public int rewind(String name, long toBlock, String toBlockHash) {
+        ChainCheckpoint checkpoint = checkpointRepository.lockByName(name)
+                .orElseThrow(() -> new RuntimeException("Chain checkpoint not found: " + name));
+
+        // Ledger rows confirmed by an orphaned log go back to PENDING; if the
+        // transaction was re-mined, re-indexing the range confirms them again
+        List<ChainEventRecord> orphaned = eventRepository.findAfterBlock(toBlock);
+        for (ChainEventRecord record : orphaned) {
+            if ("HealthTokenRedeemed".equals(record.getEventName())) {
+                tokenTransactionRepository.findByTransactionHash(record.getTransactionHash()).ifPresent(transaction -> {
+                    transaction.setStatus("PENDING");
+                    transaction.setConfirmedAt(null);
+                    tokenTransactionRepository.save(transaction);
+                    ledgerVersion.bump(transaction);
+                });
+            } else if ("AssetTokenMinted".equals(record.getEventName())) {
+                log.warn("Deposit {} was minted in orphaned block {}; left for reconciliation",
+                        record.getDepositNumber(), record.getBlockNumber());
+            }
+        }
+        eventRepository.deleteAfterBlock(toBlock);
+
+        checkpoint.setBlockNumber(toBlock);
+        checkpoint.setBlockHash(toBlockHash);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        return orphaned.size();
+    }
+
+    private void apply(ChainEvent event) {
+        switch (event.getEventName()) {
+            case "AssetTokenMinted":
+                applyAssetTokenMinted(event);
+                break;
+            case "HealthTokenRedeemed":
+                applyHealthTokenRedeemed(event);
+                break;
+            default:
+                // TradeRecorded, ProfitDistributed and DepositMetadataSet carry
+                // no per-patient ledger data; they are kept in chain_events only
+                break;
+        }
+    }
+
+    private void applyAssetTokenMinted(ChainEvent event) {
+        Optional<AssetDeposit> match = findDeposit(event.getDepositNumber());
+        if (match.isEmpty()) {
+            log.debug("No deposit matches on-chain deposit {}", event.getDepositNumber());
+            return;
+        }
+        AssetDeposit deposit = match.get();
+        if ("PROCESSED".equals(deposit.getStatus())) {
+            return;
+        }
+        String previousStatus = deposit.getStatus();
+        long previousTokens = deposit.getTokensMinted();
+        long tokens = TokenAmount.fromBaseUnits(event.getAmount());
+
+        deposit.setStatus("PROCESSED");
+        deposit.setTokensMinted(tokens);
+        deposit.setProcessedAt(LocalDateTime.now());
+        depositRepository.save(deposit);
+        statsService.recordDepositTransition(deposit.getPatient().getId(), previousStatus, previousTokens, "PROCESSED", tokens);
+        outboxService.recordDepositEvent(deposit, "DEPOSIT_PROCESSED");
+        ledgerVersion.bump(deposit.getPatient().getId());
+    }
+
+    private void applyHealthTokenRedeemed(ChainEvent event) {
+        Optional<TokenTransaction> existing = tokenTransactionRepository.findByTransactionHash(event.getTransactionHash());
+        if (existing.isPresent()) {
+            TokenTransaction transaction = existing.get();
+            if (!"CONFIRMED".equals(transaction.getStatus())) {
+                transaction.setStatus("CONFIRMED");
+                transaction.setConfirmedAt(LocalDateTime.now());
+                tokenTransactionRepository.save(transaction);
+                ledgerVersion.bump(transaction);
+            }
+            return;
+        }
+
+        // A burn this service did not submit (e.g. redeemed through the hospital)
+        Optional<Patient> patient = findPatient(event.getWalletAddress());
+        if (patient.isEmpty()) {
+            log.debug("No patient with wallet {} for redemption in {}", event.getWalletAddress(), event.getTransactionHash());
+            return;
+        }
+        TokenTransaction transaction = new TokenTransaction();
+        transaction.setPatient(patient.get());
+        transaction.setTransactionHash(event.getTransactionHash());
+        transaction.setTransactionType("BURN");
+        transaction.setAmount(TokenAmount.fromBaseUnits(event.getAmount()));
+        transaction.setTokenType("HT");
+        transaction.setStatus("CONFIRMED");
+        transaction.setMetadata("Indexed from block " + event.getBlockNumber() + ": " + event.getServiceType());
+        transaction.setConfirmedAt(LocalDateTime.now());
+        tokenTransactionRepository.save(transaction);
+        ledgerVersion.bump(patient.get().getId());
+    }
+
+    // Deposit ids are stored as submitted; match the decimal and hex spellings
+    // of the on-chain uint256 (hashed non-numeric ids cannot be matched back)
+    private Optional<AssetDeposit> findDeposit(BigInteger depositNumber) {
+        List<AssetDeposit> deposits = depositRepository.findByDepositIdIn(List.of(
+                depositNumber.toString(),
+                Numeric.toHexStringWithPrefix(depositNumber),
+                Numeric.toHexStringWithPrefixZeroPadded(depositNumber, 64)));
+        return deposits.stream().findFirst();
+    }
+
+    private Optional<Patient> findPatient(String walletAddress) {
+        Optional<Patient> patient = patientRepository.findByWalletAddress(walletAddress);
+        return patient.isPresent() ? patient : patientRepository.findByWalletAddress(Keys.toChecksumAddress(walletAddress));
+    }
+
+    private ChainEventRecord toRecord(ChainEvent event) {
+        ChainEventRecord record = new ChainEventRecord();
+        record.setEventName(event.getEventName());
+        record.setContractAddress(event.getContractAddress());
+        record.setBlockNumber(event.getBlockNumber());
+        record.setBlockHash(event.getBlockHash());
+        record.setTransactionHash(event.getTransactionHash());
+        record.setLogIndex(event.getLogIndex());
+        record.setWalletAddress(event.getWalletAddress());
+        record.setDepositNumber(event.getDepositNumber());
+        record.setTradeId(event.getTradeId());
+        record.setAmount(event.getAmount());
+        record.setProfit(event.getProfit());
+        record.setServiceType(truncate(event.getServiceType()));
+        record.setMetadata(truncate(event.getMetadata()));
+        return record;
+    }
+
+    // On-chain strings are unbounded; the columns are VARCHAR(255)
+    private String truncate(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+}
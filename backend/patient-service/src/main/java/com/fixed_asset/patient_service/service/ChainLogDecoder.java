@@ -0,0 +1,135 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ABI definitions and decoding for the events the chain indexer consumes:
+ * HospitalFinancials' AssetTokenMinted, TradeRecorded, ProfitDistributed and
+ * HealthTokenRedeemed, and AssetToken's DepositMetadataSet. Stateless, so
+ * logs can be decoded from any thread.
+ */
+@Component
+public class ChainLogDecoder {
+
+    public static final Event ASSET_TOKEN_MINTED = new Event("AssetTokenMinted", Arrays.asList(
+            new TypeReference<Address>(true) {},
+            new TypeReference<Uint256>(true) {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Utf8String>() {}));
+
+    public static final Event TRADE_RECORDED = new Event("TradeRecorded", Arrays.asList(
+            new TypeReference<Uint256>(true) {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Uint256>() {}));
+
+    public static final Event PROFIT_DISTRIBUTED = new Event("ProfitDistributed", Arrays.asList(
+            new TypeReference<Uint256>(true) {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Uint256>() {}));
+
+    public static final Event HEALTH_TOKEN_REDEEMED = new Event("HealthTokenRedeemed", Arrays.asList(
+            new TypeReference<Address>(true) {},
+            new TypeReference<Uint256>() {},
+            new TypeReference<Utf8String>() {},
+            new TypeReference<Uint256>() {}));
+
+    public static final Event DEPOSIT_METADATA_SET = new Event("DepositMetadataSet", Arrays.asList(
+            new TypeReference<Uint256>(true) {},
+            new TypeReference<Utf8String>() {}));
+
+    private static final Map<String, Event> EVENTS_BY_TOPIC = List.of(
+                    ASSET_TOKEN_MINTED, TRADE_RECORDED, PROFIT_DISTRIBUTED, HEALTH_TOKEN_REDEEMED, DEPOSIT_METADATA_SET)
+            .stream()
+            .collect(Collectors.toMap(EventEncoder::encode, Function.identity()));
+
+    public List<String> topics() {
+        return List.copyOf(EVENTS_BY_TOPIC.keySet());
+    }
+
+    /**
+     * Returns null for logs whose first topic is not one of the indexed events.
+     */
+    public ChainEvent decode(Log log) {
+        if (log.getTopics() == null || log.getTopics().isEmpty()) {
+            return null;
+        }
+        Event event = EVENTS_BY_TOPIC.get(log.getTopics().get(0));
+        if (event == null) {
+            return null;
+        }
+
+        List<Type> indexed = decodeIndexed(log, event);
+        List<Type> data = FunctionReturnDecoder.decode(log.getData(), event.getNonIndexedParameters());
+
+        ChainEvent decoded = new ChainEvent();
+        decoded.setEventName(event.getName());
+        decoded.setContractAddress(log.getAddress());
+        decoded.setBlockNumber(log.getBlockNumber().longValueExact());
+        decoded.setBlockHash(log.getBlockHash());
+        decoded.setTransactionHash(log.getTransactionHash());
+        decoded.setLogIndex(log.getLogIndex().intValueExact());
+
+        switch (event.getName()) {
+            case "AssetTokenMinted":
+                decoded.setWalletAddress((String) indexed.get(0).getValue());
+                decoded.setDepositNumber((BigInteger) indexed.get(1).getValue());
+                decoded.setAmount((BigInteger) data.get(0).getValue());
+                decoded.setTimestamp(((BigInteger) data.get(1).getValue()).longValue());
+                decoded.setMetadata((String) data.get(2).getValue());
+                break;
+            case "TradeRecorded":
+                decoded.setTradeId((BigInteger) indexed.get(0).getValue());
+                decoded.setAmount((BigInteger) data.get(0).getValue());
+                decoded.setProfit((BigInteger) data.get(1).getValue());
+                decoded.setTimestamp(((BigInteger) data.get(2).getValue()).longValue());
+                break;
+            case "ProfitDistributed":
+                decoded.setTradeId((BigInteger) indexed.get(0).getValue());
+                decoded.setProfit((BigInteger) data.get(0).getValue());
+                decoded.setAmount((BigInteger) data.get(1).getValue());
+                decoded.setTimestamp(((BigInteger) data.get(2).getValue()).longValue());
+                break;
+            case "HealthTokenRedeemed":
+                decoded.setWalletAddress((String) indexed.get(0).getValue());
+                decoded.setAmount((BigInteger) data.get(0).getValue());
+                decoded.setServiceType((String) data.get(1).getValue());
+                decoded.setTimestamp(((BigInteger) data.get(2).getValue()).longValue());
+                break;
+            case "DepositMetadataSet":
+                decoded.setDepositNumber((BigInteger) indexed.get(0).getValue());
+                decoded.setMetadata((String) data.get(0).getValue());
+                break;
+            default:
+                return null;
+        }
+        return decoded;
+    }
+
+    private List<Type> decodeIndexed(Log log, Event event) {
+        List<TypeReference<Type>> parameters = event.getIndexedParameters();
+        return IntStream.range(0, parameters.size())
+                .mapToObj(i -> FunctionReturnDecoder.decodeIndexedValue(log.getTopics().get(i + 1), parameters.get(i)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,232 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import com.fixed_asset.patient_service.model.ChainCheckpoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Follows HospitalFinancials and AssetToken logs into chain_events and the
+ * ledger. Logs are pulled over a block range that halves whenever the node
+ * rejects a query for returning too many results and doubles again while
+ * results stay well under the limit. Only blocks with the configured number
+ * of confirmations are indexed; if the checkpoint block's hash changes
+ * anyway, the last reorg-depth blocks are rewound and indexed again.
+ */
+@Component
+@ConditionalOnProperty(name = "blockchain.indexer.enabled", havingValue = "true")
+public class ChainLogIndexer {
+
+    static final String CHECKPOINT = "hospital-financials";
+
+    private static final Logger log = LoggerFactory.getLogger(ChainLogIndexer.class);
+    private static final int PARALLEL_DECODE_THRESHOLD = 256;
+
+    @Autowired
+    private Web3j web3j;
+
+    @Autowired
+    private ChainLogDecoder decoder;
+
+    @Autowired
+    private ChainIndexService indexService;
+
+    @Value("${blockchain.hospital-financials.contract-address:}")
+    private String hospitalFinancialsAddress;
+
+    @Value("${blockchain.asset-token.contract-address:}")
+    private String assetTokenAddress;
+
+    @Value("${blockchain.indexer.start-block:0}")
+    private long startBlock;
+
+    @Value("${blockchain.indexer.confirmations:2}")
+    private long confirmations;
+
+    @Value("${blockchain.indexer.reorg-depth:12}")
+    private long reorgDepth;
+
+    @Value("${blockchain.indexer.initial-range:2000}")
+    private long initialRange;
+
+    @Value("${blockchain.indexer.max-range:10000}")
+    private long maxRange;
+
+    @Value("${blockchain.indexer.target-logs:5000}")
+    private int targetLogs;
+
+    @Value("${blockchain.indexer.decode-threads:4}")
+    private int decodeThreads;
+
+    private long range;
+    private ThreadPoolTaskExecutor decodeExecutor;
+
+    @PostConstruct
+    public void start() {
+        range = initialRange;
+        decodeExecutor = new ThreadPoolTaskExecutor();
+        decodeExecutor.setCorePoolSize(decodeThreads);
+        decodeExecutor.setMaxPoolSize(decodeThreads);
+        decodeExecutor.setThreadNamePrefix("log-decoder-");
+        decodeExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        decodeExecutor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.indexer.poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            indexToHead();
+        } catch (RuntimeException e) {
+            log.warn("Chain indexer stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes every confirmed block past the checkpoint and returns the new
+     * checkpoint block.
+     */
+    public long indexToHead() {
+        ChainCheckpoint checkpoint = indexService.getCheckpoint(CHECKPOINT, startBlock);
+        long last = checkpoint.getBlockNumber();
+        if (checkpoint.getBlockHash() != null && !checkpoint.getBlockHash().equals(blockHash(last))) {
+            long rewindTo = Math.max(startBlock - 1, last - reorgDepth);
+            int orphaned = indexService.rewind(CHECKPOINT, rewindTo, rewindTo >= startBlock ? blockHash(rewindTo) : null);
+            log.warn("Block {} was reorganized; rewound to {} ({} indexed events orphaned)", last, rewindTo, orphaned);
+            last = rewindTo;
+        }
+
+        long safeHead = headBlock() - confirmations;
+        while (last < safeHead) {
+            long from = last + 1;
+            long to = Math.min(safeHead, from + range - 1);
+            List<Log> logs;
+            try {
+                logs = fetchLogs(from, to);
+            } catch (LogLimitExceededException e) {
+                if (to == from) {
+                    throw new RuntimeException("Block " + from + " alone exceeds the node's log limit");
+                }
+                range = Math.max(1, (to - from + 1) / 2);
+                log.debug("Too many logs in {}-{}; range shrunk to {}", from, to, range);
+                continue;
+            }
+
+            indexService.applyRange(CHECKPOINT, from, to, blockHash(to), decode(logs));
+            last = to;
+            if (logs.size() < targetLogs / 2) {
+                range = Math.min(maxRange, range * 2);
+            }
+        }
+        return last;
+    }
+
+    long getRange() {
+        return range;
+    }
+
+    private List<ChainEvent> decode(List<Log> logs) {
+        if (logs.size() < PARALLEL_DECODE_THRESHOLD) {
+            return logs.stream().map(decoder::decode).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+        // ABI decoding is CPU-bound; split into contiguous chunks and
+        // concatenate in order so events keep their block/log order
+        int chunkSize = (logs.size() + decodeThreads - 1) / decodeThreads;
+        List<CompletableFuture<List<ChainEvent>>> chunks = new ArrayList<>();
+        for (int start = 0; start < logs.size(); start += chunkSize) {
+            List<Log> chunk = logs.subList(start, Math.min(start + chunkSize, logs.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> chunk.stream()
+                    .map(decoder::decode)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()), decodeExecutor));
+        }
+        List<ChainEvent> events = new ArrayList<>(logs.size());
+        chunks.forEach(chunk -> events.addAll(chunk.join()));
+        return events;
+    }
+
+    private List<Log> fetchLogs(long from, long to) {
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(from)),
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(to)),
+                List.of(hospitalFinancialsAddress, assetTokenAddress));
+        filter.addOptionalTopics(decoder.topics().toArray(new String[0]));
+
+        EthLog response = send(() -> web3j.ethGetLogs(filter).send());
+        if (response.hasError()) {
+            if (isLogLimitError(response.getError())) {
+                throw new LogLimitExceededException();
+            }
+            throw new RuntimeException("eth_getLogs failed for " + from + "-" + to + ": " + response.getError().getMessage());
+        }
+        return response.getLogs().stream()
+                .map(result -> (Log) result.get())
+                .collect(Collectors.toList());
+    }
+
+    private long headBlock() {
+        return send(() -> web3j.ethBlockNumber().send()).getBlockNumber().longValueExact();
+    }
+
+    private String blockHash(long blockNumber) {
+        EthBlock.Block block = send(() -> web3j.ethGetBlockByNumber(
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber)), false).send()).getBlock();
+        if (block == null) {
+            throw new RuntimeException("Block " + blockNumber + " not found");
+        }
+        return block.getHash();
+    }
+
+    // Providers word this differently: -32005 (Infura), "query returned more
+    // than N results", "Log response size exceeded", "block range too large"
+    private static boolean isLogLimitError(Response.Error error) {
+        String message = error.getMessage() == null ? "" : error.getMessage().toLowerCase();
+        return error.getCode() == -32005
+                || message.contains("more than")
+                || message.contains("response size")
+                || message.contains("range too large")
+                || message.contains("limit exceeded");
+    }
+
+    private static <T> T send(RpcCall<T> call) {
+        try {
+            return call.send();
+        } catch (IOException e) {
+            throw new RuntimeException("RPC call failed: " + e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RpcCall<T> {
+        T send() throws IOException;
+    }
+
+    private static class LogLimitExceededException extends RuntimeException {
+    }
+}
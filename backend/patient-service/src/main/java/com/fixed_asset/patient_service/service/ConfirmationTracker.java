@@ -0,0 +1,281 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import com.fixed_asset.patient_service.repository.BenefitRedemptionRepository;
+import com.fixed_asset.patient_service.repository.BlockchainJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves broadcast transactions to CONFIRMED or FAILED once their receipt is
+ * the configured number of blocks deep. Outstanding hashes (SUBMITTED
+ * blockchain jobs and completed redemptions still PENDING on chain) are kept
+ * in memory and picked up from the database as they appear. Nothing happens
+ * between blocks: on each new head, receipts are fetched for every hash still
+ * unmined and for every mined hash that has reached the confirmation depth,
+ * all through RpcBatchClient, so one pass costs a handful of batch requests
+ * regardless of how many hashes are outstanding. A mined hash is looked up
+ * again at depth so a receipt that was reorganized away is caught. A job
+ * transaction with no receipt after blockchain.tx.receipt-timeout-blocks is
+ * not failed outright: its nonce is cancelled, and the job fails only once
+ * that nonce has been used by a transaction other than its own.
+ */
+@Component
+@ConditionalOnExpression("${blockchain.jobs.enabled:true} and !${blockchain.simulation.enabled:true}")
+public class ConfirmationTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmationTracker.class);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private Web3j web3j;
+
+    @Autowired
+    private RpcBatchClient rpcBatchClient;
+
+    @Autowired
+    private ObjectProvider<TransactionSubmitter> transactionSubmitter;
+
+    @Autowired
+    private BlockchainJobService jobService;
+
+    @Autowired
+    private BenefitService benefitService;
+
+    @Autowired
+    private BlockchainJobRepository jobRepository;
+
+    @Autowired
+    private BenefitRedemptionRepository redemptionRepository;
+
+    @Value("${blockchain.tx.confirmations:2}")
+    private long confirmations;
+
+    @Value("${blockchain.tx.receipt-timeout-blocks:500}")
+    private long timeoutBlocks;
+
+    @Value("${blockchain.tx.discovery-overlap-ms:60000}")
+    private long discoveryOverlapMs;
+
+    private final Map<String, PendingTransaction> pending = new ConcurrentHashMap<>();
+    private long lastBlock = -1;
+    private LocalDateTime lastDiscovery;
+
+    @Scheduled(fixedDelayString = "${blockchain.tx.receipt-poll-ms:1000}")
+    public void poll() {
+        try {
+            checkNewBlock();
+        } catch (RuntimeException e) {
+            log.warn("Confirmation check failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one pass if the head has moved and returns how many transactions
+     * were resolved.
+     */
+    public int checkNewBlock() {
+        long head = rpcBatchClient.enqueue(web3j.ethBlockNumber()).join().getBlockNumber().longValueExact();
+        if (head == lastBlock) {
+            return 0;
+        }
+        lastBlock = head;
+        discover(head);
+        return checkReceipts(head);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void discover(long head) {
+        LocalDateTime scanStart = LocalDateTime.now();
+        // Rows committed late can carry an older timestamp, so each scan overlaps the last
+        LocalDateTime since = lastDiscovery == null ? EPOCH : lastDiscovery.minusNanos(discoveryOverlapMs * 1_000_000L);
+        for (String transactionHash : jobRepository.findSubmittedHashesSince(since)) {
+            pending.putIfAbsent(transactionHash, new PendingTransaction(Source.JOB, head));
+        }
+        for (String transactionHash : redemptionRepository.findPendingTransactionHashesSince(since)) {
+            pending.putIfAbsent(transactionHash, new PendingTransaction(Source.REDEMPTION, head));
+        }
+        lastDiscovery = scanStart;
+    }
+
+    private int checkReceipts(long head) {
+        TransactionSubmitter submitter = transactionSubmitter.getIfAvailable();
+
+        // Issue every lookup before joining any, so the pass goes out as batches
+        Map<String, CompletableFuture<Optional<TransactionReceipt>>> lookups = new LinkedHashMap<>();
+        pending.forEach((transactionHash, transaction) -> {
+            if (transaction.minedBlock == null || head - transaction.minedBlock + 1 >= confirmations) {
+                lookups.put(transactionHash, receiptOf(submitter, transactionHash));
+            }
+        });
+
+        int resolved = 0;
+        for (Map.Entry<String, CompletableFuture<Optional<TransactionReceipt>>> lookup : lookups.entrySet()) {
+            String transactionHash = lookup.getKey();
+            PendingTransaction transaction = pending.get(transactionHash);
+            Optional<TransactionReceipt> receipt;
+            try {
+                receipt = lookup.getValue().join();
+            } catch (RuntimeException e) {
+                log.debug("Receipt lookup for {} failed: {}", transactionHash, e.getMessage());
+                continue;
+            }
+
+            if (receipt.isEmpty()) {
+                if (transaction.minedBlock != null) {
+                    log.warn("Transaction {} left block {} in a reorg", transactionHash, transaction.minedBlock);
+                    transaction.minedBlock = null;
+                } else if (head - transaction.firstSeenBlock >= timeoutBlocks) {
+                    if (transaction.source == Source.REDEMPTION) {
+                        // Sent by the hospital, not our signer: nothing to cancel and nothing is resent
+                        if (resolve(transactionHash, transaction, transactionHash, false,
+                                "No receipt within " + timeoutBlocks + " blocks for " + transactionHash)) {
+                            resolved++;
+                        }
+                    } else if (settleTimedOutJob(transactionHash, transaction, submitter)) {
+                        resolved++;
+                    }
+                }
+                continue;
+            }
+
+            long minedBlock = receipt.get().getBlockNumber().longValueExact();
+            if (transaction.minedBlock == null && submitter != null) {
+                submitter.markMined(transactionHash);
+            }
+            transaction.minedBlock = minedBlock;
+            if (head - minedBlock + 1 >= confirmations) {
+                boolean success = receipt.get().isStatusOK();
+                if (resolve(transactionHash, transaction, receipt.get().getTransactionHash(), success,
+                        success ? null : "Transaction reverted: " + receipt.get().getTransactionHash())) {
+                    resolved++;
+                }
+            }
+        }
+        if (resolved > 0) {
+            log.debug("Resolved {} transactions at block {}; {} still pending", resolved, head, pending.size());
+        }
+        return resolved;
+    }
+
+    /**
+     * A job whose transaction is overdue may still be mined, so it is only
+     * failed (and requeued) once its nonce has been used by another
+     * transaction. Until then a cancellation is sent under that nonce, which
+     * forces the question either way.
+     */
+    private boolean settleTimedOutJob(String transactionHash, PendingTransaction transaction, TransactionSubmitter submitter) {
+        if (transaction.nonce == null) {
+            transaction.nonce = jobRepository.findByTransactionHashAndStatus(transactionHash, "SUBMITTED")
+                    .map(BlockchainJob::getNonce).orElse(null);
+        }
+        if (submitter == null || transaction.nonce == null) {
+            if (!transaction.overdueReported) {
+                log.warn("Transaction {} has no receipt after {} blocks and no nonce to cancel; still waiting",
+                        transactionHash, timeoutBlocks);
+                transaction.overdueReported = true;
+            }
+            return false;
+        }
+
+        // Count first, receipt second: a receipt that is still missing after the
+        // count moved past the nonce means another transaction took it
+        boolean nonceUsed;
+        boolean minedAfterAll = false;
+        try {
+            long minedNonces = rpcBatchClient.enqueue(web3j.ethGetTransactionCount(submitter.getSignerAddress(), DefaultBlockParameterName.LATEST))
+                    .join().getTransactionCount().longValueExact();
+            nonceUsed = minedNonces > transaction.nonce;
+            if (nonceUsed) {
+                minedAfterAll = receiptOf(submitter, transactionHash).join().isPresent();
+            }
+        } catch (RuntimeException e) {
+            log.debug("Nonce check for {} failed: {}", transactionHash, e.getMessage());
+            return false;
+        }
+        if (nonceUsed) {
+            if (minedAfterAll) {
+                return false; // Picked up by the normal receipt path next block
+            }
+            submitter.markNonceUsed(transaction.nonce);
+            return resolve(transactionHash, transaction, transactionHash, false,
+                    "Nonce " + transaction.nonce + " of " + transactionHash + " was used by another transaction");
+        }
+
+        if (!transaction.cancelRequested) {
+            try {
+                String cancellation = submitter.cancel(transaction.nonce).join();
+                transaction.cancelRequested = true;
+                log.warn("No receipt for {} after {} blocks; sent cancellation {} under nonce {}",
+                        transactionHash, timeoutBlocks, cancellation, transaction.nonce);
+            } catch (RuntimeException e) {
+                log.warn("Could not cancel transaction {} (nonce {}): {}", transactionHash, transaction.nonce, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    // The original or any replacement sent for it may be the one that is mined
+    private CompletableFuture<Optional<TransactionReceipt>> receiptOf(TransactionSubmitter submitter, String transactionHash) {
+        List<String> hashes = submitter != null ? submitter.hashesOf(transactionHash) : List.of(transactionHash);
+        CompletableFuture<Optional<TransactionReceipt>> found = CompletableFuture.completedFuture(Optional.empty());
+        for (String hash : hashes) {
+            CompletableFuture<Optional<TransactionReceipt>> lookup = rpcBatchClient.enqueue(web3j.ethGetTransactionReceipt(hash))
+                    .thenApply(response -> response.getTransactionReceipt());
+            found = found.thenCombine(lookup, (earlier, later) -> earlier.isPresent() ? earlier : later);
+        }
+        return found;
+    }
+
+    private boolean resolve(String transactionHash, PendingTransaction transaction, String minedHash, boolean success, String error) {
+        try {
+            if (transaction.source == Source.JOB) {
+                jobService.resolveSubmitted(transactionHash, minedHash, success, error);
+            } else {
+                benefitService.resolveRedemptionTransaction(transactionHash, success);
+            }
+            pending.remove(transactionHash);
+            return true;
+        } catch (RuntimeException e) {
+            // Left in place and retried on the next block
+            log.warn("Could not resolve transaction {}: {}", transactionHash, e.getMessage());
+            return false;
+        }
+    }
+
+    private enum Source { JOB, REDEMPTION }
+
+    private static class PendingTransaction {
+        private final Source source;
+        private final long firstSeenBlock;
+        private Long minedBlock;
+        private Long nonce;
+        private boolean cancelRequested;
+        private boolean overdueReported;
+
+        private PendingTransaction(Source source, long firstSeenBlock) {
+            this.source = source;
+            this.firstSeenBlock = firstSeenBlock;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.fixed_asset.patient_service.service;
+
+import java.util.Map;
+
+public interface DashboardService {
+    Map<String, Object> getDashboard(Long patientId);
+    Map<String, Object> getDashboardSummary(Long patientId);
+}
@@ -0,0 +1,90 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.DashboardStatsView;
+import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the dashboard from a fixed number of bounded queries: one aggregate
+ * for balances and status counts, plus two LIMIT-ed recent-activity lookups,
+ * so the cost does not grow with the length of a patient's history. The
+ * page requests /dashboard and /dashboard/summary together, so concurrent
+ * stats loads for one patient are coalesced into a single query.
+ */
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int RECENT_ACTIVITY_LIMIT = 5;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DepositService depositService;
+
+    @Autowired
+    private BenefitService benefitService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDashboard(Long patientId) {
+        DashboardStatsView stats = loadStats(patientId);
+        Map<String, Object> dashboard = new HashMap<>();
+
+        TokenBalanceDTO tokenBalance = new TokenBalanceDTO(
+            patientId,
+            stats.getAssetTokenBalance(),
+            stats.getHealthTokenBalance(),
+            stats.getWalletAddress()
+        );
+        tokenBalance.setHealthTokenHeld(stats.getHealthTokenHeld());
+        dashboard.put("tokenBalances", tokenBalance);
+        dashboard.put("recentDeposits", depositService.getRecentDeposits(patientId, RECENT_ACTIVITY_LIMIT));
+        dashboard.put("availableBenefits", benefitService.evaluateBenefits(stats.getAvailableHealthTokenBalance()));
+        dashboard.put("redemptionHistory", benefitService.getRecentRedemptions(patientId, RECENT_ACTIVITY_LIMIT));
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("totalDeposits", stats.getTotalDeposits());
+        statistics.put("pendingDeposits", stats.getPendingDeposits());
+        statistics.put("totalRedemptions", stats.getTotalRedemptions());
+        statistics.put("completedRedemptions", stats.getCompletedRedemptions());
+        dashboard.put("statistics", statistics);
+
+        return dashboard;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDashboardSummary(Long patientId) {
+        DashboardStatsView stats = loadStats(patientId);
+        Map<String, Object> summary = new HashMap<>();
+
+        summary.put("assetTokens", stats.getAssetTokenBalance());
+        summary.put("healthTokens", stats.getHealthTokenBalance());
+        summary.put("availableHealthTokens", stats.getAvailableHealthTokenBalance());
+
+        summary.put("totalDeposits", stats.getTotalDeposits());
+        summary.put("pendingDeposits", stats.getPendingDeposits());
+        summary.put("approvedDeposits", stats.getApprovedDeposits());
+
+        summary.put("totalRedemptions", stats.getTotalRedemptions());
+        summary.put("pendingRedemptions", stats.getPendingRedemptions());
+        summary.put("completedRedemptions", stats.getCompletedRedemptions());
+
+        return summary;
+    }
+
+    private DashboardStatsView loadStats(Long patientId) {
+        return singleFlight.load("dashboardStats", patientId, () -> patientRepository.findDashboardStats(patientId))
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
+    }
+}
@@ -1,18 +1,30 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.CursorPage;
+import com.fixed_asset.patient_service.dto.DepositApproval;
 import com.fixed_asset.patient_service.dto.DepositRequest;
 import com.fixed_asset.patient_service.dto.DepositResponse;
 import com.fixed_asset.patient_service.model.AssetDeposit;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface DepositService {
     DepositResponse submitDeposit(DepositRequest depositRequest);
     DepositResponse getDepositById(Long depositId);
     List<DepositResponse> getDepositsByPatientId(Long patientId);
+    CursorPage<DepositResponse> getDepositPage(Long patientId, String cursor, int limit);
+    void exportDeposits(Long patientId, OutputStream out);
+    List<DepositResponse> getRecentDeposits(Long patientId, int limit);
     List<DepositResponse> getDepositsByStatus(String status);
     DepositResponse updateDepositStatus(Long depositId, String status, String depositIdHash);
-    boolean approveDeposit(Long depositId, Double tokensToMint, String depositIdHash);
-    boolean rejectDeposit(Long depositId, String reason);
+    boolean approveDeposit(Long depositId, long tokensToMint, String depositIdHash, String reviewer);
+    boolean rejectDeposit(Long depositId, String reason, String reviewer);
+    List<BatchItemResult> approveDeposits(List<DepositApproval> approvals, String reviewer);
+    List<BatchItemResult> rejectDeposits(List<Long> depositIds, String reason, String reviewer);
+    List<DepositResponse> claimPendingDeposits(String reviewer, int limit);
+    List<Long> renewDepositLeases(String reviewer, List<Long> depositIds);
+    int releaseDepositLeases(String reviewer, List<Long> depositIds);
     Double getTotalProcessedTokens(Long patientId);
 }
\ No newline at end of file
@@ -1,17 +1,35 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.CursorPage;
+import com.fixed_asset.patient_service.dto.DepositApproval;
 import com.fixed_asset.patient_service.dto.DepositRequest;
 import com.fixed_asset.patient_service.dto.DepositResponse;
+import com.fixed_asset.patient_service.dto.HistoryCursor;
 import com.fixed_asset.patient_service.model.AssetDeposit;
 import com.fixed_asset.patient_service.model.Patient;
 import com.fixed_asset.patient_service.repository.AssetDepositRepository;
 import com.fixed_asset.patient_service.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +41,27 @@ public class DepositServiceImpl implements DepositService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private BlockchainJobService blockchainJobService;
+
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+
+    @Autowired
+    private PatientTokenStatsService statsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Autowired
+    private PatientEventPublisher patientEvents;
+
+    @Value("${review-queue.lease-seconds:300}")
+    private long leaseSeconds;
+
     @Override
     @Transactional
     public DepositResponse submitDeposit(DepositRequest depositRequest) {
@@ -37,6 +76,8 @@ public class DepositServiceImpl implements DepositService {
         deposit.setMetadata(depositRequest.getDescription());
 
         AssetDeposit savedDeposit = depositRepository.save(deposit);
+        outboxService.recordDepositEvent(savedDeposit, "DEPOSIT_SUBMITTED");
+        ledgerVersion.bump(patient.getId());
         return convertToResponse(savedDeposit);
     }
 
@@ -55,6 +96,36 @@ public class DepositServiceImpl implements DepositService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<DepositResponse> getDepositPage(Long patientId, String cursor, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<AssetDeposit> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = depositRepository.findByPatientIdOrderByCreatedAtDescIdDesc(patientId, window);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rows = depositRepository.findPageBefore(patientId, position.getCreatedAt(), position.getId(), window);
+        }
+        return CursorPage.of(rows, pageSize, this::convertToResponse,
+                deposit -> HistoryCursor.encode(deposit.getCreatedAt(), deposit.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportDeposits(Long patientId, OutputStream out) {
+        ndjsonWriter.write(depositRepository.streamByPatientId(patientId), this::convertToResponse, out);
+    }
+
+    @Override
+    public List<DepositResponse> getRecentDeposits(Long patientId, int limit) {
+        List<AssetDeposit> deposits = depositRepository.findByPatientIdOrderByCreatedAtDescIdDesc(patientId, PageRequest.of(0, limit));
+        return deposits.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<DepositResponse> getDepositsByStatus(String status) {
         List<AssetDeposit> deposits = depositRepository.findByStatus(status);
@@ -68,6 +139,7 @@ public class DepositServiceImpl implements DepositService {
     public DepositResponse updateDepositStatus(Long depositId, String status, String depositIdHash) {
         AssetDeposit deposit = depositRepository.findById(depositId)
                 .orElseThrow(() -> new RuntimeException("Deposit not found with id: " + depositId));
+        String previousStatus = deposit.getStatus();
 
         deposit.setStatus(status);
         if (depositIdHash != null) {
@@ -78,41 +150,223 @@ public class DepositServiceImpl implements DepositService {
         }
 
         AssetDeposit updatedDeposit = depositRepository.save(deposit);
+        long tokens = deposit.getTokensMinted();
+        statsService.recordDepositTransition(deposit.getPatient().getId(), previousStatus, tokens, status, tokens);
+        outboxService.recordDepositEvent(updatedDeposit, "DEPOSIT_" + status);
+        ledgerVersion.bump(deposit.getPatient().getId());
         return convertToResponse(updatedDeposit);
     }
 
     @Override
     @Transactional
-    public boolean approveDeposit(Long depositId, Double tokensToMint, String depositIdHash) {
+    public boolean approveDeposit(Long depositId, long tokensToMint, String depositIdHash, String reviewer) {
         AssetDeposit deposit = depositRepository.findById(depositId)
                 .orElseThrow(() -> new RuntimeException("Deposit not found with id: " + depositId));
+        // Only one approval may enqueue the mint, and only by the reviewer holding a live lease, if any
+        if (depositRepository.transitionFromPending(depositId, "APPROVED", reviewer, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(reviewFailure(deposit));
+        }
+        String previousStatus = deposit.getStatus();
+        long previousTokens = deposit.getTokensMinted();
 
         deposit.setStatus("APPROVED");
+        clearLease(deposit);
         deposit.setTokensMinted(tokensToMint);
         deposit.setDepositId(depositIdHash);
         deposit.setProcessedAt(LocalDateTime.now());
 
-        depositRepository.save(deposit);
+        AssetDeposit savedDeposit = depositRepository.save(deposit);
+        statsService.recordDepositTransition(deposit.getPatient().getId(),
+                previousStatus, previousTokens, "APPROVED", tokensToMint);
+        outboxService.recordDepositEvent(savedDeposit, "DEPOSIT_APPROVED");
+        ledgerVersion.bump(deposit.getPatient().getId());
+        patientEvents.depositStatusChanged(deposit.getPatient().getId(), depositId, "APPROVED");
+
+        // Minting happens off the request thread; the job moves the deposit to PROCESSED
+        if (savedDeposit.getPatient().getWalletAddress() != null) {
+            savedDeposit.setMintJobId(blockchainJobService.enqueueAssetMint(savedDeposit));
+            depositRepository.save(savedDeposit);
+        }
         return true;
     }
 
     @Override
     @Transactional
-    public boolean rejectDeposit(Long depositId, String reason) {
+    public boolean rejectDeposit(Long depositId, String reason, String reviewer) {
         AssetDeposit deposit = depositRepository.findById(depositId)
                 .orElseThrow(() -> new RuntimeException("Deposit not found with id: " + depositId));
+        if (depositRepository.transitionFromPending(depositId, "REJECTED", reviewer, LocalDateTime.now()) == 0) {
+            throw new RuntimeException(reviewFailure(deposit));
+        }
+        String previousStatus = deposit.getStatus();
 
         deposit.setStatus("REJECTED");
+        clearLease(deposit);
         deposit.setMetadata(reason);
         deposit.setProcessedAt(LocalDateTime.now());
 
         depositRepository.save(deposit);
+        long tokens = deposit.getTokensMinted();
+        statsService.recordDepositTransition(deposit.getPatient().getId(), previousStatus, tokens, "REJECTED", tokens);
+        outboxService.recordDepositEvent(deposit, "DEPOSIT_REJECTED");
+        ledgerVersion.bump(deposit.getPatient().getId());
+        patientEvents.depositStatusChanged(deposit.getPatient().getId(), depositId, "REJECTED");
         return true;
     }
 
+    @Override
+    @Transactional
+    public List<BatchItemResult> approveDeposits(List<DepositApproval> approvals, String reviewer) {
+        Set<Long> depositIds = approvals.stream()
+                .map(DepositApproval::getDepositId)
+                .collect(Collectors.toSet());
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> reviewable = lockReviewable(depositIds, reviewer, now);
+        Map<Long, AssetDeposit> found = loadDeposits(depositIds);
+
+        List<BatchItemResult> results = new ArrayList<>(approvals.size());
+        for (DepositApproval approval : approvals) {
+            Long depositId = approval.getDepositId();
+            AssetDeposit deposit = found.get(depositId);
+            String failure = checkPending(depositId, deposit, reviewable);
+            if (failure == null && approval.getTokensToMint() == null) {
+                failure = "Tokens to mint is required";
+            }
+            if (failure != null) {
+                results.add(BatchItemResult.failed(depositId, deposit != null ? deposit.getStatus() : null, failure));
+                continue;
+            }
+            long tokensToMint;
+            try {
+                tokensToMint = TokenAmount.fromTokens(approval.getTokensToMint());
+            } catch (RuntimeException e) {
+                results.add(BatchItemResult.failed(depositId, deposit.getStatus(), e.getMessage()));
+                continue;
+            }
+
+            long previousTokens = deposit.getTokensMinted();
+            deposit.setStatus("APPROVED");
+            clearLease(deposit);
+            deposit.setTokensMinted(tokensToMint);
+            deposit.setDepositId(approval.getDepositIdHash());
+            deposit.setProcessedAt(now);
+            statsService.recordDepositTransition(deposit.getPatient().getId(),
+                    "PENDING", previousTokens, "APPROVED", tokensToMint);
+            outboxService.recordDepositEvent(deposit, "DEPOSIT_APPROVED");
+            if (deposit.getPatient().getWalletAddress() != null) {
+                deposit.setMintJobId(blockchainJobService.enqueueAssetMint(deposit));
+            }
+            ledgerVersion.bump(deposit.getPatient().getId());
+            patientEvents.depositStatusChanged(deposit.getPatient().getId(), depositId, "APPROVED");
+            results.add(BatchItemResult.succeeded(depositId, "APPROVED"));
+        }
+        // Deposits and their patients were loaded together and stay managed; updates flush as JDBC batches
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResult> rejectDeposits(List<Long> depositIds, String reason, String reviewer) {
+        Set<Long> requested = new LinkedHashSet<>(depositIds);
+        requested.remove(null);
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> reviewable = lockReviewable(requested, reviewer, now);
+        Map<Long, AssetDeposit> found = loadDeposits(requested);
+
+        List<BatchItemResult> results = new ArrayList<>(requested.size());
+        for (Long depositId : requested) {
+            AssetDeposit deposit = found.get(depositId);
+            String failure = checkPending(depositId, deposit, reviewable);
+            if (failure != null) {
+                results.add(BatchItemResult.failed(depositId, deposit != null ? deposit.getStatus() : null, failure));
+                continue;
+            }
+
+            deposit.setStatus("REJECTED");
+            clearLease(deposit);
+            deposit.setMetadata(reason);
+            deposit.setProcessedAt(now);
+            long tokens = deposit.getTokensMinted();
+            statsService.recordDepositTransition(deposit.getPatient().getId(), "PENDING", tokens, "REJECTED", tokens);
+            outboxService.recordDepositEvent(deposit, "DEPOSIT_REJECTED");
+            ledgerVersion.bump(deposit.getPatient().getId());
+            patientEvents.depositStatusChanged(deposit.getPatient().getId(), depositId, "REJECTED");
+            results.add(BatchItemResult.succeeded(depositId, "REJECTED"));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<DepositResponse> claimPendingDeposits(String reviewer, int limit) {
+        // Rows stay locked until the lease is written, so two nodes never claim the same deposit
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> depositIds = depositRepository.lockClaimableIds(now, limit);
+        if (depositIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        depositRepository.lease(depositIds, reviewer, now.plusSeconds(leaseSeconds));
+        return depositRepository.findAllById(depositIds).stream()
+                .sorted(Comparator.comparing(AssetDeposit::getCreatedAt).thenComparing(AssetDeposit::getId))
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public List<Long> renewDepositLeases(String reviewer, List<Long> depositIds) {
+        if (depositIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        depositRepository.renewLeases(depositIds, reviewer, LocalDateTime.now().plusSeconds(leaseSeconds));
+        return depositRepository.findLeasedIds(depositIds, reviewer);
+    }
+
+    @Override
+    @Transactional
+    public int releaseDepositLeases(String reviewer, List<Long> depositIds) {
+        return depositIds.isEmpty() ? 0 : depositRepository.releaseLeases(depositIds, reviewer);
+    }
+
     @Override
     public Double getTotalProcessedTokens(Long patientId) {
-        return depositRepository.sumProcessedTokensByPatientId(patientId);
+        return TokenAmount.toTokens(statsService.getStats(patientId).getProcessedTokens());
+    }
+
+    private Map<Long, AssetDeposit> loadDeposits(Collection<Long> depositIds) {
+        return depositRepository.findWithPatientByIdIn(depositIds).stream()
+                .collect(Collectors.toMap(AssetDeposit::getId, Function.identity()));
+    }
+
+    // Locked before the deposits are loaded, so the loaded rows are the ones the lock saw
+    private Set<Long> lockReviewable(Set<Long> depositIds, String reviewer, LocalDateTime now) {
+        List<Long> ids = depositIds.stream().filter(Objects::nonNull).toList();
+        return ids.isEmpty() ? Collections.emptySet() : new HashSet<>(depositRepository.lockReviewableIds(ids, reviewer, now));
+    }
+
+    // Batches only move locked PENDING deposits, so a repeated id or a second approval cannot mint twice
+    private String checkPending(Long depositId, AssetDeposit deposit, Set<Long> reviewable) {
+        if (deposit == null) {
+            return "Deposit not found with id: " + depositId;
+        }
+        if (!"PENDING".equals(deposit.getStatus()) || !reviewable.contains(depositId)) {
+            return reviewFailure(deposit);
+        }
+        return null;
+    }
+
+    // A deposit that could not be reviewed has either moved on or is leased to another reviewer
+    private String reviewFailure(AssetDeposit deposit) {
+        if ("PENDING".equals(deposit.getStatus()) && deposit.getClaimedBy() != null) {
+            return "Deposit is leased to " + deposit.getClaimedBy();
+        }
+        return "Deposit is not pending: " + deposit.getStatus();
+    }
+
+    // The entity is written back whole, so the lease has to be cleared on it too
+    private void clearLease(AssetDeposit deposit) {
+        deposit.setClaimedBy(null);
+        deposit.setLeaseExpiresAt(null);
     }
 
     private DepositResponse convertToResponse(AssetDeposit deposit) {
@@ -121,10 +375,11 @@ public class DepositServiceImpl implements DepositService {
         response.setPatientId(deposit.getPatient().getId());
         response.setAssetType(deposit.getAssetType());
         response.setAssetValue(deposit.getAssetValue());
-        response.setTokensMinted(deposit.getTokensMinted());
+        response.setTokensMinted(TokenAmount.toTokens(deposit.getTokensMinted()));
         response.setDepositId(deposit.getDepositId());
         response.setStatus(deposit.getStatus());
         response.setMetadata(deposit.getMetadata());
+        response.setJobId(deposit.getMintJobId());
         response.setCreatedAt(deposit.getCreatedAt());
         response.setProcessedAt(deposit.getProcessedAt());
         return response;
@@ -0,0 +1,33 @@
+package com.fixed_asset.patient_service.service;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * A signed transaction that has been accepted by the node but not yet mined.
+ * Kept so it can be re-signed with a higher gas price under the same nonce.
+ */
+public class InFlightTransaction {
+    private final long nonce;
+    private final String to;
+    private final String data;
+    private final BigInteger gasPrice;
+    private final String transactionHash;
+    private final Instant sentAt;
+
+    public InFlightTransaction(long nonce, String to, String data, BigInteger gasPrice, String transactionHash, Instant sentAt) {
+        this.nonce = nonce;
+        this.to = to;
+        this.data = data;
+        this.gasPrice = gasPrice;
+        this.transactionHash = transactionHash;
+        this.sentAt = sentAt;
+    }
+
+    public long getNonce() { return nonce; }
+    public String getTo() { return to; }
+    public String getData() { return data; }
+    public BigInteger getGasPrice() { return gasPrice; }
+    public String getTransactionHash() { return transactionHash; }
+    public Instant getSentAt() { return sentAt; }
+}
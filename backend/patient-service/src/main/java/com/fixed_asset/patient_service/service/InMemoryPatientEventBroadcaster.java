@@ -0,0 +1,40 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.PatientEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events to listeners in this JVM only, on the publishing thread.
+ * Enough for a single node; streams on other nodes miss the events.
+ */
+@Component
+@ConditionalOnProperty(name = "patient-events.broadcaster", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryPatientEventBroadcaster implements PatientEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryPatientEventBroadcaster.class);
+
+    private final List<Consumer<PatientEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(PatientEvent event) {
+        for (Consumer<PatientEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Patient event listener failed for patient {}: {}", event.getPatientId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PatientEvent> listener) {
+        listeners.add(listener);
+    }
+}
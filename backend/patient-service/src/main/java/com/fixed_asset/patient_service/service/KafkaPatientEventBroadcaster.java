@@ -0,0 +1,80 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fixed_asset.patient_service.dto.PatientEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fans events out to every node through a Kafka topic keyed by patient id.
+ * Each node consumes with its own random group id, so every node sees every
+ * event, and starts from the latest offset: a stream only wants events from
+ * after it connected, and reconnecting clients get a fresh balance anyway.
+ * Best-effort like the streams themselves; a lost event is healed by the
+ * next one or by the client's next reconnect.
+ */
+@Component
+@ConditionalOnProperty(name = "patient-events.broadcaster", havingValue = "kafka")
+public class KafkaPatientEventBroadcaster implements PatientEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaPatientEventBroadcaster.class);
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${patient-events.kafka.topic:patient.events}")
+    private String topic;
+
+    private final List<Consumer<PatientEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(PatientEvent event) {
+        try {
+            kafkaTemplate.send(topic, String.valueOf(event.getPatientId()), objectMapper.writeValueAsString(event))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            log.warn("Failed to broadcast {} event for patient {}: {}", event.getType(), event.getPatientId(), e.getMessage());
+                        }
+                    });
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize patient event", e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<PatientEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @KafkaListener(topics = "${patient-events.kafka.topic:patient.events}", groupId = "patient-events-${random.uuid}")
+    public void onMessage(String payload) {
+        PatientEvent event;
+        try {
+            event = objectMapper.readValue(payload, PatientEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable patient event: {}", e.getMessage());
+            return;
+        }
+        for (Consumer<PatientEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Patient event listener failed for patient {}: {}", event.getPatientId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Per-patient ledger version (patients.ledger_version), used as the strong
+ * ETag of the balance, transaction and redemption history reads. Writes mark
+ * the patients they touch; within a transaction the marks are collected and
+ * applied by one UPDATE just before commit, so the version moves exactly when
+ * the writes become visible and a transaction that touches a patient several
+ * times bumps it once.
+ */
+@Component
+public class LedgerVersion {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    public void bump(Long... patientIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(collect(new TreeSet<>(), patientIds));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> marked = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, marked);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(marked);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LedgerVersion.this);
+                }
+            });
+            pending = marked;
+        }
+        collect(pending, patientIds);
+    }
+
+    /**
+     * Marks the transaction's patient. patient_id is NOT NULL, so a transaction
+     * without one was not loaded with it and is skipped rather than failing the write.
+     */
+    public void bump(TokenTransaction transaction) {
+        if (transaction.getPatient() != null) {
+            bump(transaction.getPatient().getId());
+        }
+    }
+
+    /**
+     * The current version, or null for an unknown patient.
+     */
+    public Long current(Long patientId) {
+        return patientRepository.findLedgerVersion(patientId).orElse(null);
+    }
+
+    public static String etag(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    private Set<Long> collect(Set<Long> into, Long... patientIds) {
+        for (Long patientId : patientIds) {
+            if (patientId != null) {
+                into.add(patientId);
+            }
+        }
+        return into;
+    }
+
+    private void apply(Set<Long> patientIds) {
+        if (!patientIds.isEmpty()) {
+            patientRepository.bumpLedgerVersions(patientIds.toArray(new Long[0]));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.fixed_asset.patient_service.service;
+
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keccak Merkle tree over (wallet, amount) allocations, built the way
+ * OpenZeppelin's MerkleProof verifies: a leaf is
+ * keccak256(keccak256(abi.encode(address, uint256))), a parent is the hash of
+ * its two children in sorted order, and an odd node at the end of a level is
+ * carried up unchanged. Each level is one byte array of 32-byte nodes; leaf
+ * hashing and every level above it are split into index ranges hashed in
+ * parallel. Immutable once built, so proofs can be served from any thread.
+ */
+public class MerkleTree {
+
+    public static final int NODE_SIZE = 32;
+
+    // Smaller levels are hashed on the calling thread; a task per range costs more than it saves
+    private static final int MIN_RANGE = 2048;
+
+    private final List<byte[]> levels;
+
+    private MerkleTree(List<byte[]> levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Builds the tree with leaves in the given order; a parallelism of 1
+     * hashes everything on the calling thread.
+     */
+    public static MerkleTree build(String[] walletAddresses, BigInteger[] amounts, int parallelism) {
+        if (walletAddresses.length != amounts.length) {
+            throw new RuntimeException("Length mismatch: " + walletAddresses.length + " wallets, " + amounts.length + " amounts");
+        }
+        if (walletAddresses.length == 0) {
+            throw new RuntimeException("Cannot build a Merkle tree without leaves");
+        }
+
+        ExecutorService pool = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        try {
+            int count = walletAddresses.length;
+            byte[] leaves = new byte[count * NODE_SIZE];
+            forRanges(count, pool, parallelism, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    System.arraycopy(leaf(walletAddresses[i], amounts[i]), 0, leaves, i * NODE_SIZE, NODE_SIZE);
+                }
+            });
+
+            List<byte[]> levels = new ArrayList<>();
+            levels.add(leaves);
+            byte[] level = leaves;
+            while (level.length > NODE_SIZE) {
+                byte[] current = level;
+                int size = current.length / NODE_SIZE;
+                byte[] parents = new byte[((size + 1) / 2) * NODE_SIZE];
+                forRanges(size / 2, pool, parallelism, (from, to) -> {
+                    byte[] pair = new byte[2 * NODE_SIZE];
+                    for (int i = from; i < to; i++) {
+                        System.arraycopy(hashPair(current, 2 * i, pair), 0, parents, i * NODE_SIZE, NODE_SIZE);
+                    }
+                });
+                if (size % 2 == 1) {
+                    System.arraycopy(current, (size - 1) * NODE_SIZE, parents, parents.length - NODE_SIZE, NODE_SIZE);
+                }
+                levels.add(parents);
+                level = parents;
+            }
+            return new MerkleTree(levels);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    public static byte[] leaf(String walletAddress, BigInteger amount) {
+        byte[] encoded = new byte[2 * NODE_SIZE];
+        byte[] address = Numeric.hexStringToByteArray(walletAddress);
+        if (address.length != 20) {
+            throw new RuntimeException("Invalid wallet address: " + walletAddress);
+        }
+        System.arraycopy(address, 0, encoded, NODE_SIZE - address.length, address.length);
+        System.arraycopy(Numeric.toBytesPadded(amount, NODE_SIZE), 0, encoded, NODE_SIZE, NODE_SIZE);
+        return Hash.sha3(Hash.sha3(encoded));
+    }
+
+    /**
+     * Same check as MerkleProof.verify on chain.
+     */
+    public static boolean verify(List<byte[]> proof, byte[] root, byte[] leaf) {
+        byte[] computed = leaf;
+        byte[] pair = new byte[2 * NODE_SIZE];
+        for (byte[] sibling : proof) {
+            byte[] nodes = new byte[2 * NODE_SIZE];
+            System.arraycopy(computed, 0, nodes, 0, NODE_SIZE);
+            System.arraycopy(sibling, 0, nodes, NODE_SIZE, NODE_SIZE);
+            computed = hashPair(nodes, 0, pair);
+        }
+        return Arrays.equals(computed, root);
+    }
+
+    public int getLeafCount() {
+        return levels.get(0).length / NODE_SIZE;
+    }
+
+    public byte[] getRoot() {
+        return Arrays.copyOf(levels.get(levels.size() - 1), NODE_SIZE);
+    }
+
+    public byte[] getLeaf(int index) {
+        checkIndex(index);
+        return node(levels.get(0), index);
+    }
+
+    /**
+     * Sibling hashes from the leaf up; a node carried up without a sibling
+     * adds nothing to the proof.
+     */
+    public List<byte[]> getProof(int index) {
+        checkIndex(index);
+        List<byte[]> proof = new ArrayList<>();
+        int position = index;
+        for (int depth = 0; depth < levels.size() - 1; depth++) {
+            byte[] level = levels.get(depth);
+            int sibling = position ^ 1;
+            if (sibling < level.length / NODE_SIZE) {
+                proof.add(node(level, sibling));
+            }
+            position >>= 1;
+        }
+        return proof;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= getLeafCount()) {
+            throw new RuntimeException("Leaf index " + index + " out of range (" + getLeafCount() + " leaves)");
+        }
+    }
+
+    private static byte[] node(byte[] level, int index) {
+        return Arrays.copyOfRange(level, index * NODE_SIZE, (index + 1) * NODE_SIZE);
+    }
+
+    // Hashes nodes[index] and nodes[index + 1], smaller first; pair is scratch space
+    private static byte[] hashPair(byte[] nodes, int index, byte[] pair) {
+        int left = index * NODE_SIZE;
+        int right = left + NODE_SIZE;
+        boolean ordered = Arrays.compareUnsigned(nodes, left, right, nodes, right, right + NODE_SIZE) <= 0;
+        System.arraycopy(nodes, ordered ? left : right, pair, 0, NODE_SIZE);
+        System.arraycopy(nodes, ordered ? right : left, pair, NODE_SIZE, NODE_SIZE);
+        return Hash.sha3(pair);
+    }
+
+    private static void forRanges(int count, ExecutorService pool, int parallelism, RangeTask task) {
+        if (pool == null || count <= MIN_RANGE) {
+            task.run(0, count);
+            return;
+        }
+        // A few ranges per thread so a slow one doesn't leave the others idle
+        int rangeSize = Math.max(MIN_RANGE, (count + parallelism * 4 - 1) / (parallelism * 4));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < count; from += rangeSize) {
+            int rangeFrom = from;
+            int rangeTo = Math.min(from + rangeSize, count);
+            futures.add(CompletableFuture.runAsync(() -> task.run(rangeFrom, rangeTo), pool));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Merkle tree build failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+}
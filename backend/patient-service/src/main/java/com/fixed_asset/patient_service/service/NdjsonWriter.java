@@ -0,0 +1,59 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a streamed query result as newline-delimited JSON. Each row is
+ * detached once written so the persistence context, and with it the heap,
+ * stays flat regardless of how many rows the cursor yields. Must be called
+ * inside the transaction that opened the stream.
+ */
+@Component
+public class NdjsonWriter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes one value as a line; for results that are not managed entities.
+     */
+    public void writeLine(Object value, OutputStream out) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write export: " + e.getMessage(), e);
+        }
+    }
+
+    public <E, D> long write(Stream<E> rows, Function<E, D> mapper, OutputStream out) {
+        long written = 0;
+        try (rows) {
+            Iterator<E> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                E row = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(mapper.apply(row)));
+                out.write('\n');
+                entityManager.detach(row);
+                written++;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write export: " + e.getMessage(), e);
+        }
+        return written;
+    }
+}
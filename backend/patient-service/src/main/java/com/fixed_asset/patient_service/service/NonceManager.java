@@ -0,0 +1,143 @@
+package com.fixed_asset.patient_service.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process nonce allocator for the admin signer. The pending nonce is read
+ * from the node once; after that nonces are handed out locally so many
+ * transactions can be in flight at once. Nonces that were allocated but never
+ * broadcast are kept as gaps and reused first, since a gap would block every
+ * later transaction from being mined.
+ * <p>
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized}: the
+ * first allocate() and resync() read the nonce from the node while holding
+ * the lock, and a virtual thread blocked on that I/O inside a monitor would
+ * pin its carrier.
+ */
+public class NonceManager {
+
+    private final LongSupplier chainNonceSource;
+    private final TreeSet<Long> gaps = new TreeSet<>();
+    private final Map<Long, InFlightTransaction> inFlight = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextNonce = -1;
+
+    public NonceManager(LongSupplier chainNonceSource) {
+        this.chainNonceSource = chainNonceSource;
+    }
+
+    public long allocate() {
+        lock.lock();
+        try {
+            if (nextNonce < 0) {
+                nextNonce = chainNonceSource.getAsLong();
+            }
+            Long gap = gaps.pollFirst();
+            return gap != null ? gap : nextNonce++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void markSent(InFlightTransaction transaction) {
+        lock.lock();
+        try {
+            inFlight.put(transaction.getNonce(), transaction);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void confirm(long nonce) {
+        lock.lock();
+        try {
+            inFlight.remove(nonce);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a nonce that was allocated but never reached the node.
+     */
+    public void release(long nonce) {
+        lock.lock();
+        try {
+            inFlight.remove(nonce);
+            gaps.add(nonce);
+            // Trailing gaps can simply be handed out again as the next nonce
+            while (!gaps.isEmpty() && gaps.last() == nextNonce - 1) {
+                gaps.pollLast();
+                nextNonce--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the pending nonce after the node rejected one as too low,
+     * e.g. because another process used the same signer.
+     */
+    public void resync() {
+        lock.lock();
+        try {
+            long chainNonce = chainNonceSource.getAsLong();
+            gaps.headSet(chainNonce).clear();
+            if (chainNonce > nextNonce) {
+                nextNonce = chainNonce;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public InFlightTransaction inFlight(long nonce) {
+        lock.lock();
+        try {
+            return inFlight.get(nonce);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<InFlightTransaction> sentBefore(Instant cutoff) {
+        lock.lock();
+        try {
+            List<InFlightTransaction> stuck = new ArrayList<>();
+            for (InFlightTransaction transaction : inFlight.values()) {
+                if (transaction.getSentAt().isBefore(cutoff)) {
+                    stuck.add(transaction);
+                }
+            }
+            return stuck;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlightCount() {
+        lock.lock();
+        try {
+            return inFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int gapCount() {
+        lock.lock();
+        try {
+            return gaps.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.fixed_asset.patient_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains outbox_events to Kafka. Each poll keeps publishing full batches until
+ * the backlog is empty, so a burst is relayed without waiting a poll interval
+ * per batch.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            published = outboxService.publishBatch(batchSize);
+        } while (published == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:3600000}")
+    public void purge() {
+        int purged = outboxService.purgePublished();
+        if (purged > 0) {
+            log.info("Purged {} published outbox events", purged);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.BenefitRedemption;
+
+public interface OutboxService {
+    void recordDepositEvent(AssetDeposit deposit, String eventType);
+    void recordRedemptionEvent(BenefitRedemption redemption, String eventType);
+    int publishBatch(int batchSize);
+    int purgePublished();
+}
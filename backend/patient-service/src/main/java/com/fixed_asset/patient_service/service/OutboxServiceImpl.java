@@ -0,0 +1,180 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.BenefitRedemption;
+import com.fixed_asset.patient_service.model.OutboxEvent;
+import com.fixed_asset.patient_service.repository.OutboxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transactional outbox for deposit and redemption events. The record* methods
+ * join the caller's transaction, so an event exists exactly when the row
+ * change that produced it commits. publishBatch() sends the oldest unpublished
+ * events to Kafka keyed by patient id, which keeps each patient's events on
+ * one partition, and sends a patient's next event only after the previous one
+ * is acknowledged, so they land in outbox order. Delivery is at-least-once; consumers dedupe on
+ * the eventId header.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.topics.deposits:patient.asset-deposits}")
+    private String depositTopic;
+
+    @Value("${outbox.topics.redemptions:patient.benefit-redemptions}")
+    private String redemptionTopic;
+
+    @Value("${outbox.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.retention-hours:72}")
+    private long retentionHours;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDepositEvent(AssetDeposit deposit, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", eventType);
+        payload.put("id", deposit.getId());
+        payload.put("patientId", deposit.getPatient().getId());
+        payload.put("assetType", deposit.getAssetType());
+        payload.put("assetValue", deposit.getAssetValue());
+        payload.put("tokensMinted", TokenAmount.toTokens(deposit.getTokensMinted()));
+        payload.put("depositId", deposit.getDepositId());
+        payload.put("status", deposit.getStatus());
+        payload.put("occurredAt", LocalDateTime.now());
+        record("ASSET_DEPOSIT", deposit.getId().toString(), deposit.getPatient().getId(), eventType, payload);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRedemptionEvent(BenefitRedemption redemption, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", eventType);
+        payload.put("redemptionId", redemption.getRedemptionId());
+        payload.put("patientId", redemption.getPatient().getId());
+        payload.put("serviceType", redemption.getServiceType());
+        payload.put("htAmount", TokenAmount.toTokens(redemption.getHtAmount()));
+        payload.put("status", redemption.getStatus());
+        payload.put("hospitalId", redemption.getHospitalId());
+        payload.put("transactionHash", redemption.getTransactionHash());
+        payload.put("occurredAt", LocalDateTime.now());
+        record("BENEFIT_REDEMPTION", redemption.getRedemptionId(), redemption.getPatient().getId(), eventType, payload);
+    }
+
+    @Override
+    @Transactional
+    public int publishBatch(int batchSize) {
+        List<OutboxEvent> batch = outboxRepository.lockUnpublished(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Each patient's events in outbox order; a later one is only sent once the
+        // one before it is acknowledged, so it can never be published ahead of it
+        Map<Long, Deque<OutboxEvent>> pending = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            pending.computeIfAbsent(event.getPatientId(), patientId -> new ArrayDeque<>()).add(event);
+        }
+
+        // Each round hands the next event of every patient to the producer before
+        // waiting on any of them, so records across patients share producer batches
+        List<Long> published = new ArrayList<>(batch.size());
+        while (!pending.isEmpty()) {
+            Map<OutboxEvent, CompletableFuture<SendResult<String, String>>> sends = new LinkedHashMap<>();
+            for (Deque<OutboxEvent> events : pending.values()) {
+                OutboxEvent event = events.peek();
+                sends.put(event, kafkaTemplate.send(toRecord(event)));
+            }
+            kafkaTemplate.flush();
+
+            for (Map.Entry<OutboxEvent, CompletableFuture<SendResult<String, String>>> send : sends.entrySet()) {
+                OutboxEvent event = send.getKey();
+                try {
+                    send.getValue().get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                    published.add(event.getId());
+                    pending.get(event.getPatientId()).poll();
+                } catch (ExecutionException | TimeoutException e) {
+                    // Leave the patient's later events for the next run
+                    log.warn("Outbox event {} ({}) not published: {}", event.getId(), event.getEventType(), e.getMessage());
+                    pending.remove(event.getPatientId());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    pending.clear();
+                    break;
+                }
+            }
+            pending.values().removeIf(Deque::isEmpty);
+        }
+
+        if (!published.isEmpty()) {
+            outboxRepository.markPublished(published, LocalDateTime.now());
+        }
+        return published.size();
+    }
+
+    @Override
+    @Transactional
+    public int purgePublished() {
+        return outboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+    }
+
+    private void record(String aggregateType, String aggregateId, Long patientId, String eventType, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setPatientId(patientId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + eventType + " event: " + e.getMessage(), e);
+        }
+        outboxRepository.save(event);
+    }
+
+    private ProducerRecord<String, String> toRecord(OutboxEvent event) {
+        String topic = "ASSET_DEPOSIT".equals(event.getAggregateType()) ? depositTopic : redemptionTopic;
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, event.getPatientId().toString(), event.getPayload());
+        record.headers().add("eventId", event.getId().toString().getBytes(StandardCharsets.UTF_8));
+        record.headers().add("eventType", event.getEventType().getBytes(StandardCharsets.UTF_8));
+        record.headers().add("aggregateId", event.getAggregateId().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
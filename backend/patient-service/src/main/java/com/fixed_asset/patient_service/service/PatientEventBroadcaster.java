@@ -0,0 +1,21 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.PatientEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries patient events from the node that committed the change to every
+ * node holding event streams. Chosen with patient-events.broadcaster:
+ * in-memory (single node, the default) or kafka.
+ */
+public interface PatientEventBroadcaster {
+
+    void publish(PatientEvent event);
+
+    /**
+     * Registers a listener for events published on any node. Listeners are
+     * called on the broadcaster's thread and must not block.
+     */
+    void subscribe(Consumer<PatientEvent> listener);
+}
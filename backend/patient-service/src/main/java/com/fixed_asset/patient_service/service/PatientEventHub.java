@@ -0,0 +1,348 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.VirtualThreadConfig;
+import com.fixed_asset.patient_service.dto.PatientEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fan-out of patient events to the SSE streams open on this node. An idle
+ * stream is an async request parked in Tomcat plus a small Subscriber; no
+ * thread is held. Events are queued per stream and written by a short drain
+ * task on the sender executor, so a publisher never waits on a client.
+ * Balances are state, so a stream only keeps the latest one; status changes
+ * queue up to patient-events.buffer-size, and a stream that falls further
+ * behind loses its queue and gets one RESYNC instead. A BALANCE event is
+ * loaded once per node, and only if the patient has a stream open here.
+ * Writes block, so each one is bounded: Tomcat fails a socket write that
+ * makes no progress for server.tomcat.connection-timeout, and a stream whose
+ * write has run past patient-events.write-timeout-ms is dropped from the hub
+ * at once. On the fixed platform pool a stalled client therefore holds one
+ * sender thread, once, for at most the socket timeout. Counted in
+ * patient.events.subscribers, patient.events.dropped and
+ * patient.events.stalled.
+ */
+@Component
+public class PatientEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientEventHub.class);
+
+    @Autowired
+    private PatientEventBroadcaster broadcaster;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${patient-events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${patient-events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${patient-events.send-threads:8}")
+    private int sendThreads;
+
+    @Value("${patient-events.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private ExecutorService sender;
+    private Counter dropped;
+    private Counter stalled;
+
+    @PostConstruct
+    public void start() {
+        // With virtual threads a stalled client only parks its own drain task
+        sender = virtualThreads
+                ? VirtualThreadConfig.virtualThreads("patient-events-")
+                : Executors.newFixedThreadPool(sendThreads, new CustomizableThreadFactory("patient-events-"));
+        meterRegistry.gauge("patient.events.subscribers", subscriberCount);
+        dropped = meterRegistry.counter("patient.events.dropped");
+        stalled = meterRegistry.counter("patient.events.stalled");
+        broadcaster.subscribe(this::deliver);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Opens a stream for the patient. The first event is the current balance,
+     * so the client needs no separate fetch.
+     */
+    public SseEmitter subscribe(Long patientId) {
+        if (ledgerVersion.current(patientId) == null) {
+            throw new RuntimeException("Patient not found with id: " + patientId);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(patientId, emitter, bufferSize, sender);
+        subscribers.compute(patientId, (id, streams) -> {
+            Set<Subscriber> set = streams != null ? streams : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+
+        Runnable remove = () -> unsubscribe(patientId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        sendBalance(patientId, List.of(subscriber));
+        return emitter;
+    }
+
+    void deliver(PatientEvent event) {
+        Set<Subscriber> streams = subscribers.get(event.getPatientId());
+        if (streams == null) {
+            return;
+        }
+        if (PatientEvent.BALANCE.equals(event.getType())) {
+            sendBalance(event.getPatientId(), streams);
+            return;
+        }
+        for (Subscriber subscriber : streams) {
+            if (!subscriber.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    // Keeps proxies from cutting idle streams and finds clients that went away
+    @Scheduled(fixedDelayString = "${patient-events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                subscriber.ping();
+            }
+        }
+    }
+
+    // The stalled send still holds the emitter's monitor, so the stream is only
+    // taken out of the hub here; the send fails on the socket write timeout and
+    // its drain completes the emitter
+    @Scheduled(fixedDelayString = "${patient-events.write-check-ms:1000}")
+    public void dropStalledWrites() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        for (Set<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                if (subscriber.isWriteStalled(cutoff)) {
+                    log.debug("Dropping patient {} event stream: write stalled for over {} ms", subscriber.patientId, writeTimeoutMs);
+                    stalled.increment();
+                    unsubscribe(subscriber.patientId, subscriber);
+                }
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void sendBalance(Long patientId, Collection<Subscriber> streams) {
+        try {
+            sender.execute(() -> {
+                try {
+                    // Versioned read, so a cache entry older than the change is not sent as the new balance
+                    Long version = ledgerVersion.current(patientId);
+                    if (version == null) {
+                        return;
+                    }
+                    PatientEvent event = new PatientEvent(PatientEvent.BALANCE, patientId, null, null);
+                    event.setBalance(tokenService.getTokenBalance(patientId, version));
+                    for (Subscriber subscriber : streams) {
+                        subscriber.offerBalance(event);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to load balance for patient {} event stream: {}", patientId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    // Runs on completion, timeout and error, so possibly more than once
+    private void unsubscribe(Long patientId, Subscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(patientId, (id, streams) -> {
+            if (streams.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    /**
+     * One open stream. Offers never block; at most one drain task per stream
+     * is queued or running on the sender at a time.
+     */
+    static class Subscriber {
+        private final Long patientId;
+        private final SseEmitter emitter;
+        private final int bufferSize;
+        private final Executor sender;
+        private final Queue<PatientEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicReference<PatientEvent> balance = new AtomicReference<>();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean pingDue = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long writeStartedNanos; // 0 while no send is in progress
+
+        Subscriber(Long patientId, SseEmitter emitter, int bufferSize, Executor sender) {
+            this.patientId = patientId;
+            this.emitter = emitter;
+            this.bufferSize = bufferSize;
+            this.sender = sender;
+        }
+
+        /**
+         * Queues a status event; false if the buffer was full and the stream
+         * will be sent a RESYNC instead.
+         */
+        boolean offer(PatientEvent event) {
+            if (pendingCount.incrementAndGet() > bufferSize) {
+                pendingCount.decrementAndGet();
+                overflowed.set(true);
+                schedule();
+                return false;
+            }
+            pending.add(event);
+            schedule();
+            return true;
+        }
+
+        // Replaces a balance the client has not been sent yet
+        void offerBalance(PatientEvent event) {
+            balance.set(event);
+            schedule();
+        }
+
+        void ping() {
+            pingDue.set(true);
+            schedule();
+        }
+
+        void close() {
+            closed.set(true);
+        }
+
+        private void schedule() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder next;
+                while (!closed.get() && (next = next()) != null) {
+                    writeStartedNanos = System.nanoTime();
+                    emitter.send(next);
+                    writeStartedNanos = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or stream already completed; completion removes it from the hub
+                close();
+                try {
+                    emitter.completeWithError(e);
+                } catch (RuntimeException ignored) {
+                    // Already completed
+                }
+            } finally {
+                writeStartedNanos = 0;
+                draining.set(false);
+            }
+            // Picks up an offer that arrived after the last poll
+            if (hasWork()) {
+                schedule();
+            }
+        }
+
+        private SseEmitter.SseEventBuilder next() {
+            if (overflowed.compareAndSet(true, false)) {
+                while (pending.poll() != null) {
+                    pendingCount.decrementAndGet();
+                }
+                return event(new PatientEvent(PatientEvent.RESYNC, patientId, null, null));
+            }
+            PatientEvent event = pending.poll();
+            if (event != null) {
+                pendingCount.decrementAndGet();
+                return event(event);
+            }
+            event = balance.getAndSet(null);
+            if (event != null) {
+                return event(event);
+            }
+            return pingDue.compareAndSet(true, false) ? SseEmitter.event().comment("ping") : null;
+        }
+
+        // True while a send that started before cutoffNanos is still blocked
+        boolean isWriteStalled(long cutoffNanos) {
+            long started = writeStartedNanos;
+            return started != 0 && started - cutoffNanos < 0;
+        }
+
+        private boolean hasWork() {
+            return !closed.get() && (overflowed.get() || !pending.isEmpty() || balance.get() != null || pingDue.get());
+        }
+
+        private SseEmitter.SseEventBuilder event(PatientEvent event) {
+            return SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON);
+        }
+
+        // Visible for tests
+        List<PatientEvent> pending() {
+            return List.copyOf(pending);
+        }
+
+        boolean isOverflowed() {
+            return overflowed.get();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.PatientEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Write side of the patient event streams. Events are handed to the
+ * broadcaster after the surrounding transaction commits, so a stream never
+ * shows a change that was rolled back, and a client refetching on an event
+ * reads the committed state.
+ */
+@Component
+public class PatientEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientEventPublisher.class);
+
+    @Autowired
+    private PatientEventBroadcaster broadcaster;
+
+    /**
+     * Announces new balances; each streaming node loads the balance itself,
+     * and only for patients it has streams open for.
+     */
+    public void balanceChanged(Long... patientIds) {
+        for (Long patientId : patientIds) {
+            publishAfterCommit(new PatientEvent(PatientEvent.BALANCE, patientId, null, null));
+        }
+    }
+
+    public void depositStatusChanged(Long patientId, Long depositId, String status) {
+        publishAfterCommit(new PatientEvent(PatientEvent.DEPOSIT, patientId, String.valueOf(depositId), status));
+    }
+
+    public void redemptionStatusChanged(Long patientId, String redemptionId, String status) {
+        publishAfterCommit(new PatientEvent(PatientEvent.REDEMPTION, patientId, redemptionId, status));
+    }
+
+    private void publishAfterCommit(PatientEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    // The write has committed by now; a broadcast failure must not fail the request
+    private void publish(PatientEvent event) {
+        try {
+            broadcaster.publish(event);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish {} event for patient {}: {}", event.getType(), event.getPatientId(), e.getMessage());
+        }
+    }
+}
@@ -15,6 +15,12 @@ public class PatientServiceImpl implements PatientService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private TokenBalanceCache tokenBalanceCache;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
     @Override
     public Patient registerPatient(Patient patient) {
         if (existsByEmail(patient.getEmail())) {
@@ -64,7 +70,11 @@ public class PatientServiceImpl implements PatientService {
         patient.setAddress(patientDetails.getAddress());
         patient.setWalletAddress(patientDetails.getWalletAddress());
 
-        return patientRepository.save(patient);
+        Patient updatedPatient = patientRepository.save(patient);
+        // Cached balances carry the wallet address
+        tokenBalanceCache.evictAfterCommit(id);
+        ledgerVersion.bump(id);
+        return updatedPatient;
     }
 
     @Override
@@ -72,6 +82,8 @@ public class PatientServiceImpl implements PatientService {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
         patientRepository.delete(patient);
+        tokenBalanceCache.evictAfterCommit(id);
+        ledgerVersion.bump(id);
     }
 
     @Override
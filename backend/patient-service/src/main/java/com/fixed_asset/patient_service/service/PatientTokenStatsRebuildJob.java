@@ -0,0 +1,93 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes patient_token_stats from the ledger tables. The patient id space
+ * is cut into fixed-size ranges that are rebuilt in parallel, each in its own
+ * short transaction, so no single statement holds locks over the whole table.
+ */
+@Component
+public class PatientTokenStatsRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientTokenStatsRebuildJob.class);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientTokenStatsService statsService;
+
+    @Value("${stats.rebuild.range-size:1000}")
+    private long rangeSize;
+
+    @Value("${stats.rebuild.parallelism:4}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${stats.rebuild.cron:-}")
+    public void scheduledRebuild() {
+        rebuildAll();
+    }
+
+    public Map<String, Object> rebuildAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Token stats rebuild already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Long minId = patientRepository.findMinId();
+            Long maxId = patientRepository.findMaxId();
+
+            int ranges = 0;
+            int patients = 0;
+            if (minId != null) {
+                List<CompletableFuture<Integer>> futures = new ArrayList<>();
+                ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+                try {
+                    for (long from = minId; from <= maxId; from += rangeSize) {
+                        long rangeFrom = from;
+                        long rangeTo = Math.min(from + rangeSize - 1, maxId);
+                        futures.add(CompletableFuture.supplyAsync(() -> statsService.rebuildRange(rangeFrom, rangeTo), pool));
+                    }
+                    for (CompletableFuture<Integer> future : futures) {
+                        patients += future.join();
+                    }
+                    ranges = futures.size();
+                } catch (CompletionException e) {
+                    throw new RuntimeException("Token stats rebuild failed: " + e.getCause().getMessage(), e.getCause());
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            long durationMs = System.currentTimeMillis() - start;
+            log.info("Rebuilt token stats for {} patients in {} ranges ({} ms)", patients, ranges, durationMs);
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("patients", patients);
+            summary.put("ranges", ranges);
+            summary.put("durationMs", durationMs);
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.PatientTokenStats;
+
+public interface PatientTokenStatsService {
+    PatientTokenStats getStats(Long patientId);
+    Long getRedemptionCount(Long patientId, String serviceType);
+    void recordMint(Long patientId, String tokenType, long amount);
+    void recordDepositTransition(Long patientId, String fromStatus, long fromTokens, String toStatus, long toTokens);
+    void recordRedemptionTransition(Long patientId, String fromStatus, String toStatus, long htAmount);
+    void recordRedemptionRequest(Long patientId, String serviceType);
+    int rebuildRange(Long fromId, Long toId);
+}
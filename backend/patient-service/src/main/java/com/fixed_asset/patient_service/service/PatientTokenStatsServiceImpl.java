@@ -0,0 +1,87 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.PatientTokenStats;
+import com.fixed_asset.patient_service.repository.PatientTokenStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains patient_token_stats alongside the ledger. The record* methods join
+ * the caller's transaction, so an aggregate changes exactly when the ledger
+ * row that caused it commits. Amounts are TokenAmount units, like the ledger,
+ * so the running sums stay exact.
+ */
+@Service
+public class PatientTokenStatsServiceImpl implements PatientTokenStatsService {
+
+    @Autowired
+    private PatientTokenStatsRepository statsRepository;
+
+    @Override
+    public PatientTokenStats getStats(Long patientId) {
+        return statsRepository.findById(patientId)
+                .orElseGet(() -> new PatientTokenStats(patientId));
+    }
+
+    @Override
+    public Long getRedemptionCount(Long patientId, String serviceType) {
+        return statsRepository.findServiceUsage(patientId, serviceType).orElse(0L);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMint(Long patientId, String tokenType, long amount) {
+        if ("AT".equals(tokenType)) {
+            statsRepository.addDeltas(patientId, amount, 0L, 0L, 0L);
+        } else if ("HT".equals(tokenType)) {
+            statsRepository.addDeltas(patientId, 0L, amount, 0L, 0L);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDepositTransition(Long patientId, String fromStatus, long fromTokens, String toStatus, long toTokens) {
+        long delta = contribution("PROCESSED", toStatus, toTokens) - contribution("PROCESSED", fromStatus, fromTokens);
+        if (delta != 0) {
+            statsRepository.addDeltas(patientId, 0L, 0L, 0L, delta);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRedemptionTransition(Long patientId, String fromStatus, String toStatus, long htAmount) {
+        long delta = contribution("COMPLETED", toStatus, htAmount) - contribution("COMPLETED", fromStatus, htAmount);
+        if (delta != 0) {
+            statsRepository.addDeltas(patientId, 0L, 0L, delta, 0L);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRedemptionRequest(Long patientId, String serviceType) {
+        // Zero-delta upsert: takes the stats row lock so a concurrent range
+        // rebuild cannot recount usage around this insert
+        statsRepository.addDeltas(patientId, 0L, 0L, 0L, 0L);
+        statsRepository.incrementServiceUsage(patientId, serviceType);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildRange(Long fromId, Long toId) {
+        // Lock every stats row in the range first. Writers block on their
+        // upsert until this commits, and each following statement sees every
+        // ledger row committed before the lock was taken.
+        statsRepository.insertMissingRows(fromId, toId);
+        statsRepository.lockRange(fromId, toId);
+        int rebuilt = statsRepository.recomputeRange(fromId, toId);
+        statsRepository.deleteServiceUsageRange(fromId, toId);
+        statsRepository.recomputeServiceUsageRange(fromId, toId);
+        return rebuilt;
+    }
+
+    private static long contribution(String countedStatus, String status, long amount) {
+        return countedStatus.equals(status) ? amount : 0L;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fixed_asset.patient_service.service;
+
+import java.math.BigInteger;
+
+/**
+ * A signed transaction that has a nonce and a hash but has not been sent yet.
+ * The hash is known up front, so it can be recorded before the node sees it.
+ */
+public class PreparedTransaction {
+    private final long nonce;
+    private final String to;
+    private final String data;
+    private final BigInteger gasPrice;
+    private final String transactionHash;
+    private final String signedTransaction;
+
+    public PreparedTransaction(long nonce, String to, String data, BigInteger gasPrice, String transactionHash, String signedTransaction) {
+        this.nonce = nonce;
+        this.to = to;
+        this.data = data;
+        this.gasPrice = gasPrice;
+        this.transactionHash = transactionHash;
+        this.signedTransaction = signedTransaction;
+    }
+
+    public long getNonce() { return nonce; }
+    public String getTo() { return to; }
+    public String getData() { return data; }
+    public BigInteger getGasPrice() { return gasPrice; }
+    public String getTransactionHash() { return transactionHash; }
+    public String getSignedTransaction() { return signedTransaction; }
+}
@@ -0,0 +1,103 @@
+package com.fixed_asset.patient_service.service;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of {@link ProfitAllocationEngine}: one HT amount in base units per
+ * holder, in patient id order, summing exactly to the allocated total.
+ * Holders whose share rounds to zero keep their slot but are left out of
+ * {@link #chunks(int)}.
+ */
+public class ProfitAllocation {
+
+    private final long[] patientIds;
+    private final String[] walletAddresses;
+    private final BigInteger[] amounts;
+    private final BigInteger total;
+
+    ProfitAllocation(long[] patientIds, String[] walletAddresses, BigInteger[] amounts, BigInteger total) {
+        this.patientIds = patientIds;
+        this.walletAddresses = walletAddresses;
+        this.amounts = amounts;
+        this.total = total;
+    }
+
+    public int size() {
+        return amounts.length;
+    }
+
+    public long getPatientId(int index) {
+        return patientIds[index];
+    }
+
+    public String getWalletAddress(int index) {
+        return walletAddresses[index];
+    }
+
+    public BigInteger getAmount(int index) {
+        return amounts[index];
+    }
+
+    public BigInteger getTotal() {
+        return total;
+    }
+
+    public int getRecipientCount() {
+        int recipients = 0;
+        for (BigInteger amount : amounts) {
+            if (amount.signum() > 0) {
+                recipients++;
+            }
+        }
+        return recipients;
+    }
+
+    /**
+     * Non-zero allocations cut into chunks of at most maxRecipients, each
+     * sized to go out in one transaction (a distributeProfit call, or one
+     * batch of allocation rows).
+     */
+    public List<Chunk> chunks(int maxRecipients) {
+        if (maxRecipients < 1) {
+            throw new RuntimeException("Chunk size must be positive");
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        Chunk chunk = new Chunk();
+        for (int i = 0; i < amounts.length; i++) {
+            if (amounts[i].signum() == 0) {
+                continue;
+            }
+            chunk.add(patientIds[i], walletAddresses[i], amounts[i]);
+            if (chunk.size() == maxRecipients) {
+                chunks.add(chunk);
+                chunk = new Chunk();
+            }
+        }
+        if (chunk.size() > 0) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    public static class Chunk {
+        private final List<Long> patientIds = new ArrayList<>();
+        private final List<String> recipients = new ArrayList<>();
+        private final List<BigInteger> amounts = new ArrayList<>();
+        private BigInteger total = BigInteger.ZERO;
+
+        private void add(long patientId, String recipient, BigInteger amount) {
+            patientIds.add(patientId);
+            recipients.add(recipient);
+            amounts.add(amount);
+            total = total.add(amount);
+        }
+
+        public int size() { return recipients.size(); }
+        public List<Long> getPatientIds() { return patientIds; }
+        public List<String> getRecipients() { return recipients; }
+        public List<BigInteger> getAmounts() { return amounts; }
+        public BigInteger getTotal() { return total; }
+    }
+}
@@ -0,0 +1,184 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.AssetHoldingView;
+import com.fixed_asset.patient_service.repository.TokenBalanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.WalletUtils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits an HT amount across AT holders pro-rata to their token_balances
+ * holdings. Holdings are read in keyset chunks and scaled from ledger units
+ * to 18-decimal base units, so all arithmetic is exact integer math: each
+ * holder gets floor(total * holding / sum), and the few units that rounding
+ * leaves over go one each to the largest remainders (lowest patient id first
+ * on ties), so the amounts always add up to the total. The sums and the
+ * per-holder division are fork-join tasks over index ranges.
+ */
+@Component
+public class ProfitAllocationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfitAllocationEngine.class);
+
+    // Ranges at or below this size are computed directly instead of split further
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+
+    @Autowired
+    private TokenBalanceRepository tokenBalanceRepository;
+
+    @Value("${distribution.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${distribution.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * Allocates total (base units) across every AT holder with a valid wallet.
+     */
+    public ProfitAllocation allocate(BigInteger total) {
+        List<Long> patientIds = new ArrayList<>();
+        List<String> walletAddresses = new ArrayList<>();
+        List<BigInteger> holdings = new ArrayList<>();
+        long afterPatientId = 0L;
+        while (true) {
+            List<AssetHoldingView> chunk = tokenBalanceRepository.findAssetHoldingChunk(afterPatientId, PageRequest.of(0, chunkSize));
+            for (AssetHoldingView holding : chunk) {
+                if (!WalletUtils.isValidAddress(holding.getWalletAddress())) {
+                    log.warn("Patient {} has an invalid wallet address; left out of the allocation", holding.getPatientId());
+                    continue;
+                }
+                patientIds.add(holding.getPatientId());
+                walletAddresses.add(holding.getWalletAddress());
+                holdings.add(TokenAmount.toBaseUnits(holding.getAssetTokenBalance()));
+            }
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            afterPatientId = chunk.get(chunk.size() - 1).getPatientId();
+        }
+
+        return split(total,
+                patientIds.stream().mapToLong(Long::longValue).toArray(),
+                walletAddresses.toArray(new String[0]),
+                holdings.toArray(new BigInteger[0]),
+                parallelism);
+    }
+
+    /**
+     * The allocation itself, on holdings already in base units.
+     */
+    public static ProfitAllocation split(BigInteger total, long[] patientIds, String[] walletAddresses,
+                                         BigInteger[] holdings, int parallelism) {
+        if (total.signum() < 0) {
+            throw new RuntimeException("Cannot allocate a negative amount: " + total);
+        }
+        int count = holdings.length;
+        if (patientIds.length != count || walletAddresses.length != count) {
+            throw new RuntimeException("Holder arrays differ in length");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            BigInteger holdingSum = pool.invoke(new SumTask(holdings, 0, count));
+            if (holdingSum.signum() == 0) {
+                throw new RuntimeException("No AT holdings to allocate against");
+            }
+
+            BigInteger[] amounts = new BigInteger[count];
+            BigInteger[] remainders = new BigInteger[count];
+            pool.invoke(new ShareTask(total, holdingSum, holdings, amounts, remainders, 0, count));
+
+            // Less than one unit per holder is left over, so this fits an int
+            int leftover = total.subtract(pool.invoke(new SumTask(amounts, 0, count))).intValueExact();
+            if (leftover > 0) {
+                Integer[] order = new Integer[count];
+                Arrays.setAll(order, i -> i);
+                Arrays.parallelSort(order, Comparator.<Integer, BigInteger>comparing(i -> remainders[i]).reversed()
+                        .thenComparingInt(i -> i));
+                for (int i = 0; i < leftover; i++) {
+                    amounts[order[i]] = amounts[order[i]].add(BigInteger.ONE);
+                }
+            }
+            return new ProfitAllocation(patientIds, walletAddresses, amounts, total);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class SumTask extends RecursiveTask<BigInteger> {
+        private final BigInteger[] values;
+        private final int from;
+        private final int to;
+
+        private SumTask(BigInteger[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int i = from; i < to; i++) {
+                    sum = sum.add(values[i]);
+                }
+                return sum;
+            }
+            int middle = (from + to) >>> 1;
+            SumTask left = new SumTask(values, from, middle);
+            left.fork();
+            BigInteger right = new SumTask(values, middle, to).compute();
+            return left.join().add(right);
+        }
+    }
+
+    private static class ShareTask extends RecursiveAction {
+        private final BigInteger total;
+        private final BigInteger holdingSum;
+        private final BigInteger[] holdings;
+        private final BigInteger[] amounts;
+        private final BigInteger[] remainders;
+        private final int from;
+        private final int to;
+
+        private ShareTask(BigInteger total, BigInteger holdingSum, BigInteger[] holdings,
+                          BigInteger[] amounts, BigInteger[] remainders, int from, int to) {
+            this.total = total;
+            this.holdingSum = holdingSum;
+            this.holdings = holdings;
+            this.amounts = amounts;
+            this.remainders = remainders;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    BigInteger[] share = total.multiply(holdings[i]).divideAndRemainder(holdingSum);
+                    amounts[i] = share[0];
+                    remainders[i] = share[1];
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ShareTask(total, holdingSum, holdings, amounts, remainders, from, middle),
+                    new ShareTask(total, holdingSum, holdings, amounts, remainders, middle, to));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.DistributionProofDTO;
+import com.fixed_asset.patient_service.model.ProfitDistribution;
+
+public interface ProfitDistributionService {
+    ProfitDistribution createDistribution(Long tradeId, Double profit);
+    ProfitDistribution publishRoot(Long tradeId);
+    ProfitDistribution getDistribution(Long tradeId);
+    DistributionProofDTO getProof(Long tradeId, Long patientId);
+}
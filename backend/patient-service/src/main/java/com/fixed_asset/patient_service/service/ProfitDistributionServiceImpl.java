@@ -0,0 +1,250 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.DistributionProofDTO;
+import com.fixed_asset.patient_service.model.DistributionAllocation;
+import com.fixed_asset.patient_service.model.ProfitDistribution;
+import com.fixed_asset.patient_service.repository.DistributionAllocationRepository;
+import com.fixed_asset.patient_service.repository.ProfitDistributionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.web3j.utils.Numeric;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a trade's profit share across AT holders (see ProfitAllocationEngine)
+ * and commits to the result with a single Merkle root, so the chain sees one
+ * publish transaction per trade and each patient claims their own HT with a
+ * proof. The contract records claims per wallet, so there is one leaf per
+ * distinct wallet holding the sum of its patients' shares. Allocations are
+ * stored per patient with their leaf; the tree itself is only kept in a small
+ * in-memory cache and rebuilt from the stored leaves when a proof is asked for
+ * after eviction or a restart.
+ */
+@Service
+public class ProfitDistributionServiceImpl implements ProfitDistributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfitDistributionServiceImpl.class);
+
+    @Autowired
+    private ProfitAllocationEngine allocationEngine;
+
+    @Autowired
+    private ProfitDistributionRepository distributionRepository;
+
+    @Autowired
+    private DistributionAllocationRepository allocationRepository;
+
+    @Autowired
+    private BlockchainService blockchainService;
+
+    @Value("${service.benefits.profit-share-percentage:20.0}")
+    private double profitSharePercentage;
+
+    @Value("${distribution.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${distribution.parallelism:4}")
+    private int parallelism;
+
+    @Value("${distribution.tree-cache-size:2}")
+    private int treeCacheSize;
+
+    // distribution id -> tree; a 1M-leaf tree holds about 64 MB of hashes
+    private Cache<Long, MerkleTree> trees;
+
+    @PostConstruct
+    public void start() {
+        trees = Caffeine.newBuilder().maximumSize(treeCacheSize).build();
+    }
+
+    @Override
+    public ProfitDistribution createDistribution(Long tradeId, Double profit) {
+        if (tradeId == null) {
+            throw new RuntimeException("Trade id is required");
+        }
+        if (profit == null || profit <= 0) {
+            throw new RuntimeException("Profit must be positive");
+        }
+        distributionRepository.findByTradeId(tradeId).ifPresent(existing -> {
+            if (!"FAILED".equals(existing.getStatus())) {
+                throw new RuntimeException("Trade " + tradeId + " already has a distribution (" + existing.getStatus() + ")");
+            }
+            distributionRepository.delete(existing);
+        });
+
+        long start = System.currentTimeMillis();
+        BigInteger profitUnits = TokenAmount.toBaseUnits(TokenAmount.fromTokens(profit));
+        BigInteger pool = new BigDecimal(profitUnits)
+                .multiply(BigDecimal.valueOf(profitSharePercentage))
+                .movePointLeft(2)
+                .setScale(0, RoundingMode.FLOOR)
+                .toBigInteger();
+
+        ProfitAllocation allocation = allocationEngine.allocate(pool);
+        List<ProfitAllocation.Chunk> chunks = allocation.chunks(chunkSize);
+        if (allocation.getRecipientCount() == 0) {
+            throw new RuntimeException("No AT holders to distribute trade " + tradeId + " to");
+        }
+
+        // claimProfit marks a wallet as claimed, so patients sharing a wallet get one
+        // leaf with their shares summed; leaves are numbered in first-seen order
+        Map<String, Integer> leafByWallet = new HashMap<>();
+        List<String> wallets = new ArrayList<>();
+        List<BigInteger> amounts = new ArrayList<>();
+        int[] leafIndexes = new int[allocation.getRecipientCount()];
+        int position = 0;
+        for (ProfitAllocation.Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.size(); i++, position++) {
+                String wallet = chunk.getRecipients().get(i);
+                Integer leaf = leafByWallet.get(wallet.toLowerCase());
+                if (leaf == null) {
+                    leaf = wallets.size();
+                    leafByWallet.put(wallet.toLowerCase(), leaf);
+                    wallets.add(wallet);
+                    amounts.add(chunk.getAmounts().get(i));
+                } else {
+                    amounts.set(leaf, amounts.get(leaf).add(chunk.getAmounts().get(i)));
+                }
+                leafIndexes[position] = leaf;
+            }
+        }
+        int leaves = wallets.size();
+        MerkleTree tree = MerkleTree.build(wallets.toArray(new String[0]), amounts.toArray(new BigInteger[0]), parallelism);
+
+        ProfitDistribution distribution = new ProfitDistribution();
+        distribution.setTradeId(tradeId);
+        distribution.setProfit(profitUnits);
+        distribution.setPoolAmount(pool);
+        distribution.setDistributedAmount(allocation.getTotal());
+        distribution.setRecipientCount(leaves);
+        distribution.setMerkleRoot(Numeric.toHexString(tree.getRoot()));
+        distribution.setStatus("BUILDING");
+        distribution.setCreatedAt(LocalDateTime.now());
+        distribution = distributionRepository.save(distribution);
+
+        try {
+            position = 0;
+            for (ProfitAllocation.Chunk chunk : chunks) {
+                List<DistributionAllocation> rows = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++, position++) {
+                    int leaf = leafIndexes[position];
+                    rows.add(new DistributionAllocation(distribution.getId(), chunk.getPatientIds().get(i),
+                            wallets.get(leaf), chunk.getAmounts().get(i), amounts.get(leaf), leaf));
+                }
+                allocationRepository.saveAll(rows);
+            }
+        } catch (RuntimeException e) {
+            distribution.setStatus("FAILED");
+            distributionRepository.save(distribution);
+            throw new RuntimeException("Failed to store allocations for trade " + tradeId + ": " + e.getMessage(), e);
+        }
+
+        distribution.setStatus("BUILT");
+        distribution = distributionRepository.save(distribution);
+        trees.put(distribution.getId(), tree);
+
+        log.info("Built distribution for trade {}: {} recipients in {} wallets, root {} ({} ms)",
+                tradeId, allocation.getRecipientCount(), leaves, distribution.getMerkleRoot(),
+                System.currentTimeMillis() - start);
+        return distribution;
+    }
+
+    @Override
+    public ProfitDistribution publishRoot(Long tradeId) {
+        ProfitDistribution distribution = getDistribution(tradeId);
+        if (!"BUILT".equals(distribution.getStatus())) {
+            throw new RuntimeException("Distribution for trade " + tradeId + " cannot be published from " + distribution.getStatus());
+        }
+
+        String transactionHash = blockchainService.publishDistributionRoot(
+                tradeId, distribution.getMerkleRoot(), distribution.getDistributedAmount());
+
+        distribution.setStatus("PUBLISHED");
+        distribution.setTransactionHash(transactionHash);
+        distribution.setPublishedAt(LocalDateTime.now());
+        return distributionRepository.save(distribution);
+    }
+
+    @Override
+    public ProfitDistribution getDistribution(Long tradeId) {
+        return distributionRepository.findByTradeId(tradeId)
+                .orElseThrow(() -> new RuntimeException("No distribution for trade " + tradeId));
+    }
+
+    @Override
+    public DistributionProofDTO getProof(Long tradeId, Long patientId) {
+        ProfitDistribution distribution = getDistribution(tradeId);
+        if (!"BUILT".equals(distribution.getStatus()) && !"PUBLISHED".equals(distribution.getStatus())) {
+            throw new RuntimeException("Distribution for trade " + tradeId + " is " + distribution.getStatus());
+        }
+        DistributionAllocation allocation = allocationRepository
+                .findByDistributionIdAndPatientId(distribution.getId(), patientId)
+                .orElseThrow(() -> new RuntimeException("Patient " + patientId + " has no allocation in trade " + tradeId));
+
+        // Concurrent misses for the same distribution wait on a single rebuild
+        MerkleTree tree = trees.get(distribution.getId(), id -> rebuildTree(distribution));
+
+        DistributionProofDTO dto = new DistributionProofDTO();
+        dto.setTradeId(tradeId);
+        dto.setWalletAddress(allocation.getWalletAddress());
+        dto.setAmount(allocation.getLeafAmount().toString());
+        dto.setHtAmount(TokenAmount.toTokens(TokenAmount.fromBaseUnits(allocation.getLeafAmount())));
+        dto.setLeafIndex(allocation.getLeafIndex());
+        dto.setProof(tree.getProof(allocation.getLeafIndex()).stream()
+                .map(Numeric::toHexString)
+                .collect(Collectors.toList()));
+        dto.setMerkleRoot(distribution.getMerkleRoot());
+        dto.setStatus(distribution.getStatus());
+        return dto;
+    }
+
+    private MerkleTree rebuildTree(ProfitDistribution distribution) {
+        int count = distribution.getRecipientCount();
+        String[] wallets = new String[count];
+        BigInteger[] amounts = new BigInteger[count];
+        // Patients sharing a wallet share a leaf, so a chunk can end partway through
+        // a leaf's rows; the rest repeat the same wallet and total and can be skipped
+        int afterLeafIndex = -1;
+        while (true) {
+            List<DistributionAllocation> chunk = allocationRepository
+                    .findByDistributionIdAndLeafIndexGreaterThanOrderByLeafIndexAsc(
+                            distribution.getId(), afterLeafIndex, PageRequest.of(0, chunkSize));
+            for (DistributionAllocation allocation : chunk) {
+                wallets[allocation.getLeafIndex()] = allocation.getWalletAddress();
+                amounts[allocation.getLeafIndex()] = allocation.getLeafAmount();
+            }
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            afterLeafIndex = chunk.get(chunk.size() - 1).getLeafIndex();
+        }
+        if (Arrays.asList(wallets).contains(null)) {
+            throw new RuntimeException("Allocations for trade " + distribution.getTradeId() + " are incomplete");
+        }
+
+        MerkleTree tree = MerkleTree.build(wallets, amounts, parallelism);
+        if (!Numeric.toHexString(tree.getRoot()).equals(distribution.getMerkleRoot())) {
+            throw new RuntimeException("Rebuilt root for trade " + distribution.getTradeId() + " does not match "
+                    + distribution.getMerkleRoot());
+        }
+        log.debug("Rebuilt Merkle tree for trade {} ({} leaves)", distribution.getTradeId(), count);
+        return tree;
+    }
+}
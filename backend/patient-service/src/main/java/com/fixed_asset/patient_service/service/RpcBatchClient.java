@@ -0,0 +1,175 @@
+package com.fixed_asset.patient_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent JSON-RPC reads into batch requests. Calls are queued and
+ * a single flusher thread sends them once blockchain.rpc.batch.max-size calls
+ * are waiting or the oldest has lingered for blockchain.rpc.batch.linger-ms.
+ * Responses are matched back to callers by JSON-RPC id. Given an executor,
+ * each HTTP request is a blocking send on it (one virtual thread per request
+ * in virtual-thread mode); otherwise it goes through web3j's shared async pool.
+ */
+public class RpcBatchClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RpcBatchClient.class);
+
+    private final Web3j web3j;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Executor sendExecutor;
+    private final BlockingQueue<PendingCall<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public RpcBatchClient(Web3j web3j, int maxBatchSize, long lingerMs) {
+        this(web3j, maxBatchSize, lingerMs, null);
+    }
+
+    public RpcBatchClient(Web3j web3j, int maxBatchSize, long lingerMs, Executor sendExecutor) {
+        this.web3j = web3j;
+        this.sendExecutor = sendExecutor;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.flusher = new Thread(this::flushLoop, "rpc-batch-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public <T extends Response<?>> CompletableFuture<T> enqueue(Request<?, T> request) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("RPC batch client is closed"));
+        }
+        PendingCall<T> call = new PendingCall<>(request);
+        queue.add(call);
+        return call.future;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        flusher.interrupt();
+        List<PendingCall<?>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(call -> call.future.completeExceptionally(new IllegalStateException("RPC batch client is closed")));
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                PendingCall<?> first = queue.take();
+                List<PendingCall<?>> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingCall<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("RPC batch flush failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void send(List<PendingCall<?>> batch) {
+        if (batch.size() == 1) {
+            // A batch of one costs the same round trip; skip the array envelope
+            batch.get(0).sendAlone(sendExecutor);
+            return;
+        }
+        BatchRequest batchRequest = web3j.newBatch();
+        Map<Long, PendingCall<?>> byId = new HashMap<>();
+        for (PendingCall<?> call : batch) {
+            batchRequest.add(call.request);
+            byId.put(call.request.getId(), call);
+        }
+        sendAsync(batchRequest::send, batchRequest::sendAsync, sendExecutor).whenComplete((BatchResponse response, Throwable error) -> {
+            if (error != null) {
+                byId.values().forEach(call -> call.future.completeExceptionally(error));
+                return;
+            }
+            for (Response<?> item : response.getResponses()) {
+                PendingCall<?> call = byId.remove(item.getId());
+                if (call != null) {
+                    call.complete(item);
+                }
+            }
+            byId.values().forEach(call -> call.future.completeExceptionally(
+                    new RuntimeException("No response in batch for request id " + call.request.getId())));
+        });
+    }
+
+    /**
+     * Runs a blocking send on the executor, or falls back to web3j's own
+     * async send when there is none.
+     */
+    static <T> CompletableFuture<T> sendAsync(Callable<T> send, Supplier<CompletableFuture<T>> fallback, Executor executor) {
+        if (executor == null) {
+            return fallback.get();
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(send.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static final class PendingCall<T extends Response<?>> {
+        private final Request<?, T> request;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private PendingCall(Request<?, T> request) {
+            this.request = request;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Response<?> response) {
+            future.complete((T) response);
+        }
+
+        private void sendAlone(Executor executor) {
+            sendAsync(request::send, request::sendAsync, executor).whenComplete((response, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(response);
+                }
+            });
+        }
+    }
+}
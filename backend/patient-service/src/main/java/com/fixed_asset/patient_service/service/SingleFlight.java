@@ -0,0 +1,79 @@
+package com.fixed_asset.patient_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-key request coalescing for hot reads. The first caller for a key runs
+ * the load; callers arriving while it is in flight wait for it and share its
+ * result (or exception) instead of issuing the same queries again. Nothing
+ * is kept once the load finishes, so this complements the caches rather than
+ * replacing them. Callers inside a read-write transaction always load on
+ * their own, since they may see their own uncommitted writes.
+ * Counted in singleflight.calls{group, result=loaded|coalesced|bypassed}.
+ */
+@Component
+public class SingleFlight {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String group, Object key, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            count(group, "bypassed");
+            return loader.get();
+        }
+
+        List<Object> flightKey = List.of(group, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            count(group, "coalesced");
+            return (T) await(leader);
+        }
+
+        count(group, "loaded");
+        try {
+            T value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Rethrow what the leader saw, e.g. "Patient not found"
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void count(String group, String result) {
+        meterRegistry.counter("singleflight.calls", "group", group, "result", result).increment();
+    }
+}
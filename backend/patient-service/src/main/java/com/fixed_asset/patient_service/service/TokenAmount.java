@@ -0,0 +1,85 @@
+package com.fixed_asset.patient_service.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Ledger amounts as primitive long minor units: 1 token = {@link #ONE} units
+ * (8 decimals). Every AT/HT column in token_balances, token_transactions,
+ * token_holds, asset_deposits and benefit_redemptions holds these units, so
+ * balances add, subtract and compare exactly, in SQL as well as here, without
+ * boxing. The contracts use 18 decimals, which a long cannot hold for any
+ * useful range (about 9.2 tokens); 8 decimals leaves room for about 92
+ * billion tokens per amount and converts to chain base units by a fixed
+ * factor. Doubles are only accepted or produced at the API edge.
+ */
+public final class TokenAmount {
+
+    public static final int DECIMALS = 8;
+    public static final long ONE = 100_000_000L;
+
+    // Chain base units per ledger unit
+    private static final BigInteger BASE_UNITS_PER_UNIT = BigInteger.TEN.pow(BlockchainJobServiceImpl.TOKEN_DECIMALS - DECIMALS);
+
+    // Above this a double no longer resolves a single unit
+    private static final double MAX_EXACT_TOKENS = (1L << 53) / (double) ONE;
+
+    private TokenAmount() {}
+
+    /**
+     * Rounds a token amount from a request to the nearest unit.
+     */
+    public static long fromTokens(double tokens) {
+        if (Double.isNaN(tokens) || Math.abs(tokens) > MAX_EXACT_TOKENS) {
+            throw new RuntimeException("Token amount out of range: " + tokens);
+        }
+        return Math.round(tokens * ONE);
+    }
+
+    public static double toTokens(long units) {
+        return (double) units / ONE;
+    }
+
+    public static long add(long units, long delta) {
+        try {
+            return Math.addExact(units, delta);
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Token amount overflow: " + units + " + " + delta);
+        }
+    }
+
+    public static long subtract(long units, long delta) {
+        try {
+            return Math.subtractExact(units, delta);
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Token amount overflow: " + units + " - " + delta);
+        }
+    }
+
+    public static long negate(long units) {
+        if (units == Long.MIN_VALUE) {
+            throw new RuntimeException("Token amount overflow: -(" + units + ")");
+        }
+        return -units;
+    }
+
+    public static BigInteger toBaseUnits(long units) {
+        return BigInteger.valueOf(units).multiply(BASE_UNITS_PER_UNIT);
+    }
+
+    /**
+     * Truncates chain base units to ledger units; the dropped digits are
+     * below 1e-8 tokens.
+     */
+    public static long fromBaseUnits(BigInteger baseUnits) {
+        BigInteger units = baseUnits.divide(BASE_UNITS_PER_UNIT);
+        if (units.bitLength() > 63) {
+            throw new RuntimeException("Token amount out of range: " + baseUnits + " base units");
+        }
+        return units.longValue();
+    }
+
+    public static String format(long units) {
+        return BigDecimal.valueOf(units, DECIMALS).toPlainString();
+    }
+}
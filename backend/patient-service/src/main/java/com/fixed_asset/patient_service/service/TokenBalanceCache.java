@@ -0,0 +1,69 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidation side of the tokenBalances cache. Evictions are deferred until
+ * the surrounding transaction commits; evicting earlier would let a concurrent
+ * read re-cache the pre-commit balance. Bulk lookups also read and fill the
+ * cache directly, since @Cacheable only covers the single-patient path.
+ */
+@Component
+public class TokenBalanceCache {
+
+    public static final String CACHE_NAME = "tokenBalances";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void evictAfterCommit(Long... patientIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(patientIds);
+                }
+            });
+        } else {
+            evict(patientIds);
+        }
+    }
+
+    /**
+     * The cached balance, or null on a miss or when no cache is configured.
+     */
+    public TokenBalanceDTO get(Long patientId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        return cache != null ? cache.get(patientId, TokenBalanceDTO.class) : null;
+    }
+
+    public void put(Long patientId, TokenBalanceDTO balance) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.put(patientId, balance);
+        }
+    }
+
+    public void putIfAbsent(Long patientId, TokenBalanceDTO balance) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.putIfAbsent(patientId, balance);
+        }
+    }
+
+    private void evict(Long... patientIds) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        for (Long patientId : patientIds) {
+            cache.evict(patientId);
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.CursorPage;
 import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
 import com.fixed_asset.patient_service.dto.TokenTransactionDTO;
 
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface TokenService {
     TokenBalanceDTO getTokenBalance(Long patientId);
-    boolean updateAssetTokenBalance(Long patientId, Double amount);
-    boolean updateHealthTokenBalance(Long patientId, Double amount);
-    boolean transferAssetTokens(Long fromPatientId, Long toPatientId, Double amount);
+    TokenBalanceDTO getTokenBalance(Long patientId, long minLedgerVersion);
+    void exportTokenBalances(Collection<Long> patientIds, OutputStream out);
+    boolean updateAssetTokenBalance(Long patientId, long amount);
+    boolean updateHealthTokenBalance(Long patientId, long amount);
+    boolean transferAssetTokens(Long fromPatientId, Long toPatientId, long amount);
+    boolean reserveHealthTokens(Long patientId, String redemptionId, long amount);
+    boolean convertHold(String redemptionId);
+    Set<String> convertHolds(Collection<String> redemptionIds);
+    boolean releaseHold(String redemptionId);
     List<TokenTransactionDTO> getTokenTransactions(Long patientId);
+    CursorPage<TokenTransactionDTO> getTokenTransactionPage(Long patientId, String cursor, int limit);
+    void exportTokenTransactions(Long patientId, OutputStream out);
     List<TokenTransactionDTO> getTokenTransactionsByType(Long patientId, String tokenType);
     Double getTotalMintedTokens(Long patientId, String tokenType);
 }
\ No newline at end of file
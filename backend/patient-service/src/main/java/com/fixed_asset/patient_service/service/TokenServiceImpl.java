@@ -1,20 +1,39 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.CursorPage;
+import com.fixed_asset.patient_service.dto.HistoryCursor;
+import com.fixed_asset.patient_service.dto.PatientBalanceView;
 import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
 import com.fixed_asset.patient_service.dto.TokenTransactionDTO;
 import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.PatientTokenStats;
 import com.fixed_asset.patient_service.model.TokenBalance;
+import com.fixed_asset.patient_service.model.TokenHold;
 import com.fixed_asset.patient_service.model.TokenTransaction;
 import com.fixed_asset.patient_service.repository.PatientRepository;
 import com.fixed_asset.patient_service.repository.TokenBalanceRepository;
+import com.fixed_asset.patient_service.repository.TokenHoldRepository;
 import com.fixed_asset.patient_service.repository.TokenTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TokenServiceImpl implements TokenService {
@@ -25,35 +44,119 @@ public class TokenServiceImpl implements TokenService {
     @Autowired
     private TokenTransactionRepository tokenTransactionRepository;
 
+    @Autowired
+    private TokenHoldRepository tokenHoldRepository;
+
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private BlockchainJobService blockchainJobService;
+
+    @Autowired
+    private TokenBalanceCache tokenBalanceCache;
+
+    @Autowired
+    private NdjsonWriter ndjsonWriter;
+
+    @Autowired
+    private PatientTokenStatsService statsService;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private LedgerVersion ledgerVersion;
+
+    @Autowired
+    private PatientEventPublisher patientEvents;
+
     @Override
+    @Cacheable(cacheNames = TokenBalanceCache.CACHE_NAME, key = "#patientId")
     public TokenBalanceDTO getTokenBalance(Long patientId) {
+        // /tokens/balance and /benefits/available miss the cache together on a page load
+        return singleFlight.load("tokenBalance", patientId, () -> loadTokenBalance(patientId));
+    }
+
+    /**
+     * A balance read at minLedgerVersion or later, for responses tagged with
+     * that version. A cached copy from before a committed write, whose
+     * after-commit eviction has not run yet, is replaced.
+     */
+    @Override
+    public TokenBalanceDTO getTokenBalance(Long patientId, long minLedgerVersion) {
+        TokenBalanceDTO cached = tokenBalanceCache.get(patientId);
+        if (cached != null && cached.getLedgerVersion() != null && cached.getLedgerVersion() >= minLedgerVersion) {
+            return cached;
+        }
+        TokenBalanceDTO balance = singleFlight.load("tokenBalance", patientId, () -> loadTokenBalance(patientId));
+        tokenBalanceCache.put(patientId, balance);
+        return balance;
+    }
+
+    private TokenBalanceDTO loadTokenBalance(Long patientId) {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
 
         TokenBalance balance = tokenBalanceRepository.findByPatientId(patientId)
                 .orElseGet(() -> createTokenBalance(patient));
 
-        return new TokenBalanceDTO(
+        TokenBalanceDTO dto = new TokenBalanceDTO(
             patientId,
-            balance.getAssetTokenBalance(),
-            balance.getHealthTokenBalance(),
+            TokenAmount.toTokens(balance.getAssetTokenBalance()),
+            TokenAmount.toTokens(balance.getHealthTokenBalance()),
             patient.getWalletAddress()
         );
+        dto.setHealthTokenHeld(TokenAmount.toTokens(balance.getHealthTokenHeld()));
+        // Read before the balance, so the balance is at least this new
+        dto.setLedgerVersion(patient.getLedgerVersion());
+        return dto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTokenBalances(Collection<Long> patientIds, OutputStream out) {
+        // Cached balances are written straight away; the misses are resolved with one query.
+        // Unknown ids are left out, and a patient without a ledger row reads as zero.
+        List<Long> misses = new ArrayList<>();
+        for (Long patientId : new LinkedHashSet<>(patientIds)) {
+            if (patientId == null) {
+                continue;
+            }
+            TokenBalanceDTO cached = tokenBalanceCache.get(patientId);
+            if (cached != null) {
+                ndjsonWriter.writeLine(cached, out);
+            } else {
+                misses.add(patientId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return;
+        }
+        try (Stream<PatientBalanceView> rows = tokenBalanceRepository.streamBalancesByPatientIds(misses.toArray(new Long[0]))) {
+            Iterator<PatientBalanceView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TokenBalanceDTO balance = toBalanceDTO(iterator.next());
+                ndjsonWriter.writeLine(balance, out);
+                tokenBalanceCache.putIfAbsent(balance.getPatientId(), balance);
+            }
+        }
     }
 
     @Override
     @Transactional
-    public boolean updateAssetTokenBalance(Long patientId, Double amount) {
+    public boolean updateAssetTokenBalance(Long patientId, long amount) {
+        tokenBalanceCache.evictAfterCommit(patientId);
+        ledgerVersion.bump(patientId);
+        patientEvents.balanceChanged(patientId);
         if (amount > 0) {
             tokenBalanceRepository.incrementAssetTokenBalance(patientId, amount);
             createTransaction(patientId, "MINT", amount, "AT", "Asset token minted");
         } else {
-            int updated = tokenBalanceRepository.decrementAssetTokenBalance(patientId, Math.abs(amount));
+            long burned = TokenAmount.negate(amount);
+            int updated = tokenBalanceRepository.decrementAssetTokenBalance(patientId, burned);
             if (updated > 0) {
-                createTransaction(patientId, "BURN", Math.abs(amount), "AT", "Asset token burned");
+                createTransaction(patientId, "BURN", burned, "AT", "Asset token burned");
             } else {
                 throw new RuntimeException("Insufficient asset token balance");
             }
@@ -63,14 +166,20 @@ public class TokenServiceImpl implements TokenService {
 
     @Override
     @Transactional
-    public boolean updateHealthTokenBalance(Long patientId, Double amount) {
+    public boolean updateHealthTokenBalance(Long patientId, long amount) {
+        tokenBalanceCache.evictAfterCommit(patientId);
+        ledgerVersion.bump(patientId);
+        patientEvents.balanceChanged(patientId);
         if (amount > 0) {
             tokenBalanceRepository.incrementHealthTokenBalance(patientId, amount);
-            createTransaction(patientId, "MINT", amount, "HT", "Health token minted");
+            TokenTransaction transaction = createTransaction(patientId, "MINT", amount, "HT", "Health token minted");
+            submitToChain(transaction, "MINT_HT");
         } else {
-            int updated = tokenBalanceRepository.decrementHealthTokenBalance(patientId, Math.abs(amount));
+            long burned = TokenAmount.negate(amount);
+            int updated = tokenBalanceRepository.decrementHealthTokenBalance(patientId, burned);
             if (updated > 0) {
-                createTransaction(patientId, "BURN", Math.abs(amount), "HT", "Health token burned");
+                TokenTransaction transaction = createTransaction(patientId, "BURN", burned, "HT", "Health token burned");
+                submitToChain(transaction, "BURN_HT");
             } else {
                 throw new RuntimeException("Insufficient health token balance");
             }
@@ -80,11 +189,15 @@ public class TokenServiceImpl implements TokenService {
 
     @Override
     @Transactional
-    public boolean transferAssetTokens(Long fromPatientId, Long toPatientId, Double amount) {
+    public boolean transferAssetTokens(Long fromPatientId, Long toPatientId, long amount) {
         if (amount <= 0) {
             throw new RuntimeException("Transfer amount must be positive");
         }
 
+        tokenBalanceCache.evictAfterCommit(fromPatientId, toPatientId);
+        ledgerVersion.bump(fromPatientId, toPatientId);
+        patientEvents.balanceChanged(fromPatientId, toPatientId);
+
         // Debit from sender
         int debited = tokenBalanceRepository.decrementAssetTokenBalance(fromPatientId, amount);
         if (debited == 0) {
@@ -101,6 +214,118 @@ public class TokenServiceImpl implements TokenService {
         return true;
     }
 
+    @Override
+    @Transactional
+    public boolean reserveHealthTokens(Long patientId, String redemptionId, long amount) {
+        if (amount <= 0) {
+            throw new RuntimeException("Reservation amount must be positive");
+        }
+        // The conditional update is the balance check; no row lock is held beyond it
+        if (tokenBalanceRepository.reserveHealthTokens(patientId, amount) == 0) {
+            return false;
+        }
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
+
+        TokenHold hold = new TokenHold();
+        hold.setPatient(patient);
+        hold.setRedemptionId(redemptionId);
+        hold.setTokenType("HT");
+        hold.setAmount(amount);
+        hold.setStatus("HELD");
+        tokenHoldRepository.save(hold);
+
+        tokenBalanceCache.evictAfterCommit(patientId);
+        ledgerVersion.bump(patientId);
+        patientEvents.balanceChanged(patientId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean convertHold(String redemptionId) {
+        TokenHold hold = tokenHoldRepository.findByRedemptionId(redemptionId).orElse(null);
+        if (hold == null) {
+            return false;
+        }
+        resolveHold(hold, "CONVERTED");
+        Long patientId = hold.getPatient().getId();
+        if (tokenBalanceRepository.convertHeldHealthTokens(patientId, hold.getAmount()) == 0) {
+            throw new RuntimeException("Held health tokens missing for redemption: " + redemptionId);
+        }
+
+        TokenTransaction transaction = createTransaction(patientId, "BURN", hold.getAmount(), "HT", "Health token redeemed for " + redemptionId);
+        submitToChain(transaction, "BURN_HT");
+
+        tokenBalanceCache.evictAfterCommit(patientId);
+        ledgerVersion.bump(patientId);
+        patientEvents.balanceChanged(patientId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Set<String> convertHolds(Collection<String> redemptionIds) {
+        if (redemptionIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        // Only holds still HELD come back, locked until commit; the rest are left to the caller
+        List<TokenHold> holds = tokenHoldRepository.lockHeldByRedemptionIds(redemptionIds);
+        if (holds.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> converted = new LinkedHashSet<>();
+        Map<Long, Long> burnedByPatient = new LinkedHashMap<>();
+        for (TokenHold hold : holds) {
+            converted.add(hold.getRedemptionId());
+            burnedByPatient.merge(hold.getPatient().getId(), hold.getAmount(), TokenAmount::add);
+        }
+        tokenHoldRepository.resolveHolds(converted, "CONVERTED", LocalDateTime.now());
+
+        Long[] patientIds = burnedByPatient.keySet().toArray(new Long[0]);
+        Long[] amounts = burnedByPatient.values().toArray(new Long[0]);
+        if (tokenBalanceRepository.convertHeldHealthTokensBatch(patientIds, amounts) != patientIds.length) {
+            throw new RuntimeException("Held health tokens missing for a batch of " + converted.size() + " redemptions");
+        }
+
+        // Loads the patients behind the hold proxies in one query, for the wallets submitToChain reads
+        patientRepository.findAllById(burnedByPatient.keySet());
+        List<TokenTransaction> burns = new ArrayList<>(holds.size());
+        for (TokenHold hold : holds) {
+            burns.add(newTransaction(hold.getPatient(), "BURN", hold.getAmount(), "HT", "Health token redeemed for " + hold.getRedemptionId()));
+        }
+        // Sequence ids, so the inserts go out as JDBC batches of hibernate.jdbc.batch_size
+        tokenTransactionRepository.saveAll(burns);
+        for (TokenTransaction burn : burns) {
+            submitToChain(burn, "BURN_HT");
+        }
+
+        tokenBalanceCache.evictAfterCommit(patientIds);
+        ledgerVersion.bump(patientIds);
+        patientEvents.balanceChanged(patientIds);
+        return converted;
+    }
+
+    @Override
+    @Transactional
+    public boolean releaseHold(String redemptionId) {
+        TokenHold hold = tokenHoldRepository.findByRedemptionId(redemptionId).orElse(null);
+        if (hold == null) {
+            return false;
+        }
+        resolveHold(hold, "RELEASED");
+        Long patientId = hold.getPatient().getId();
+        if (tokenBalanceRepository.releaseHeldHealthTokens(patientId, hold.getAmount()) == 0) {
+            throw new RuntimeException("Held health tokens missing for redemption: " + redemptionId);
+        }
+
+        tokenBalanceCache.evictAfterCommit(patientId);
+        ledgerVersion.bump(patientId);
+        patientEvents.balanceChanged(patientId);
+        return true;
+    }
+
     @Override
     public List<TokenTransactionDTO> getTokenTransactions(Long patientId) {
         List<TokenTransaction> transactions = tokenTransactionRepository.findByPatientId(patientId);
@@ -109,6 +334,28 @@ public class TokenServiceImpl implements TokenService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TokenTransactionDTO> getTokenTransactionPage(Long patientId, String cursor, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<TokenTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = tokenTransactionRepository.findByPatientIdOrderByCreatedAtDescIdDesc(patientId, window);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rows = tokenTransactionRepository.findPageBefore(patientId, position.getCreatedAt(), position.getId(), window);
+        }
+        return CursorPage.of(rows, pageSize, this::convertToDTO,
+                transaction -> HistoryCursor.encode(transaction.getCreatedAt(), transaction.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTokenTransactions(Long patientId, OutputStream out) {
+        ndjsonWriter.write(tokenTransactionRepository.streamByPatientId(patientId), this::convertToDTO, out);
+    }
+
     @Override
     public List<TokenTransactionDTO> getTokenTransactionsByType(Long patientId, String tokenType) {
         List<TokenTransaction> transactions = tokenTransactionRepository.findByPatientIdAndTokenType(patientId, tokenType);
@@ -119,7 +366,16 @@ public class TokenServiceImpl implements TokenService {
 
     @Override
     public Double getTotalMintedTokens(Long patientId, String tokenType) {
-        return tokenTransactionRepository.sumMintedTokensByPatientAndType(patientId, tokenType);
+        PatientTokenStats stats = statsService.getStats(patientId);
+        long minted = "HT".equals(tokenType) ? stats.getHtMinted() : "AT".equals(tokenType) ? stats.getAtMinted() : 0L;
+        return TokenAmount.toTokens(minted);
+    }
+
+    private void resolveHold(TokenHold hold, String status) {
+        // Conditional on HELD, so a hold is converted or released at most once
+        if (tokenHoldRepository.resolveHold(hold.getRedemptionId(), status, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Hold for redemption " + hold.getRedemptionId() + " is already resolved");
+        }
     }
 
     private TokenBalance createTokenBalance(Patient patient) {
@@ -127,10 +383,18 @@ public class TokenServiceImpl implements TokenService {
         return tokenBalanceRepository.save(balance);
     }
 
-    private void createTransaction(Long patientId, String transactionType, Double amount, String tokenType, String metadata) {
+    private TokenTransaction createTransaction(Long patientId, String transactionType, long amount, String tokenType, String metadata) {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
+        TokenTransaction savedTransaction = tokenTransactionRepository.save(newTransaction(patient, transactionType, amount, tokenType, metadata));
+        if ("MINT".equals(transactionType)) {
+            statsService.recordMint(patientId, tokenType, amount);
+        }
+        return savedTransaction;
+    }
+
+    private TokenTransaction newTransaction(Patient patient, String transactionType, long amount, String tokenType, String metadata) {
         TokenTransaction transaction = new TokenTransaction();
         transaction.setPatient(patient);
         transaction.setTransactionType(transactionType);
@@ -139,18 +403,43 @@ public class TokenServiceImpl implements TokenService {
         transaction.setStatus("CONFIRMED");
         transaction.setMetadata(metadata);
         transaction.setConfirmedAt(LocalDateTime.now());
+        return transaction;
+    }
 
+    private void submitToChain(TokenTransaction transaction, String operation) {
+        String walletAddress = transaction.getPatient().getWalletAddress();
+        if (walletAddress == null) {
+            return;
+        }
+        // The entry stays PENDING until the blockchain job reports back
+        transaction.setStatus("PENDING");
+        transaction.setConfirmedAt(null);
+        transaction.setJobId(blockchainJobService.enqueueHealthTokenOperation(transaction, operation, walletAddress));
         tokenTransactionRepository.save(transaction);
     }
 
+    private TokenBalanceDTO toBalanceDTO(PatientBalanceView view) {
+        TokenBalanceDTO dto = new TokenBalanceDTO(
+            view.getPatientId(),
+            TokenAmount.toTokens(view.getAssetTokenBalance()),
+            TokenAmount.toTokens(view.getHealthTokenBalance()),
+            view.getWalletAddress()
+        );
+        dto.setHealthTokenHeld(TokenAmount.toTokens(view.getHealthTokenHeld()));
+        dto.setLedgerVersion(view.getLedgerVersion());
+        return dto;
+    }
+
     private TokenTransactionDTO convertToDTO(TokenTransaction transaction) {
-        return new TokenTransactionDTO(
+        TokenTransactionDTO dto = new TokenTransactionDTO(
             transaction.getTransactionHash(),
             transaction.getTransactionType(),
-            transaction.getAmount(),
+            TokenAmount.toTokens(transaction.getAmount()),
             transaction.getTokenType(),
             transaction.getCreatedAt(),  // This should match your entity field name
             transaction.getStatus()
-    );
-}
+        );
+        dto.setJobId(transaction.getJobId());
+        return dto;
+    }
 }
\ No newline at end of file
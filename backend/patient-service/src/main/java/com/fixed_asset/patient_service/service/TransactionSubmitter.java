@@ -0,0 +1,280 @@
+package com.fixed_asset.patient_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Signs and broadcasts admin transactions without waiting for receipts, so
+ * mint/burn/recordTrade calls can be pipelined within a block. Nonces come
+ * from the {@link NonceManager}. A call can be prepared (signed, hash known)
+ * first and broadcast later, so its hash can be stored before the node sees
+ * it. Transactions that stay unmined past blockchain.tx.stuck-after-ms are
+ * re-sent under the same nonce with a bumped gas price. A broadcast that
+ * fails in transport keeps its nonce; only an explicit JSON-RPC rejection
+ * returns it to the NonceManager.
+ */
+public class TransactionSubmitter {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSubmitter.class);
+
+    // Nodes require at least a 10% bump to accept a replacement
+    private static final BigInteger REPLACEMENT_BUMP_PERMILLE = BigInteger.valueOf(1125);
+
+    private final Web3j web3j;
+    private final Credentials credentials;
+    private final long chainId;
+    private final NonceManager nonceManager;
+    private final BigInteger gasLimit;
+    private final Duration stuckAfter;
+    private final Executor sendExecutor;
+
+    private final Map<String, PreparedTransaction> prepared = new ConcurrentHashMap<>();
+    private final Map<String, Long> nonceByHash = new ConcurrentHashMap<>();
+    private final Map<String, String> replacedBy = new ConcurrentHashMap<>();
+    private volatile BigInteger gasPrice;
+
+    public TransactionSubmitter(Web3j web3j, Credentials credentials, long chainId, NonceManager nonceManager,
+                                BigInteger gasLimit, Duration stuckAfter) {
+        this(web3j, credentials, chainId, nonceManager, gasLimit, stuckAfter, null);
+    }
+
+    /**
+     * With a sendExecutor, broadcasts are blocking sends on it instead of
+     * going through web3j's shared async pool.
+     */
+    public TransactionSubmitter(Web3j web3j, Credentials credentials, long chainId, NonceManager nonceManager,
+                                BigInteger gasLimit, Duration stuckAfter, Executor sendExecutor) {
+        this.web3j = web3j;
+        this.credentials = credentials;
+        this.chainId = chainId;
+        this.nonceManager = nonceManager;
+        this.gasLimit = gasLimit;
+        this.stuckAfter = stuckAfter;
+        this.sendExecutor = sendExecutor;
+    }
+
+    public String getSignerAddress() {
+        return credentials.getAddress();
+    }
+
+    /**
+     * Broadcasts a contract call and completes with its transaction hash as
+     * soon as the node accepts it.
+     */
+    public CompletableFuture<String> submit(String to, String data) {
+        return broadcast(prepare(to, data).getTransactionHash());
+    }
+
+    /**
+     * Allocates a nonce and signs the call without sending it. The result
+     * stays here until it is broadcast or discarded.
+     */
+    public PreparedTransaction prepare(String to, String data) {
+        long nonce = nonceManager.allocate();
+        try {
+            PreparedTransaction transaction = sign(nonce, to, data, currentGasPrice());
+            prepared.put(transaction.getTransactionHash(), transaction);
+            return transaction;
+        } catch (RuntimeException e) {
+            nonceManager.release(nonce);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a prepared transaction. Fails with a {@link TransactionRejectedException}
+     * when the node answers with a JSON-RPC error.
+     */
+    public CompletableFuture<String> broadcast(String transactionHash) {
+        PreparedTransaction transaction = prepared.remove(transactionHash);
+        if (transaction == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("No prepared transaction " + transactionHash));
+        }
+        return send(transaction, false);
+    }
+
+    /**
+     * Drops a prepared transaction that will never be sent and frees its nonce.
+     */
+    public void discard(String transactionHash) {
+        PreparedTransaction transaction = prepared.remove(transactionHash);
+        if (transaction != null) {
+            nonceManager.release(transaction.getNonce());
+        }
+    }
+
+    /**
+     * Follows replacements so callers holding the original hash can find the
+     * transaction that was actually mined.
+     */
+    public String resolveHash(String transactionHash) {
+        List<String> hashes = hashesOf(transactionHash);
+        return hashes.get(hashes.size() - 1);
+    }
+
+    /**
+     * The original hash followed by every replacement sent for it. Any one of
+     * them may be the one that gets mined, since a replacement whose send
+     * failed in transport may or may not have reached the node.
+     */
+    public List<String> hashesOf(String transactionHash) {
+        List<String> hashes = new ArrayList<>();
+        hashes.add(transactionHash);
+        String next;
+        while ((next = replacedBy.get(hashes.get(hashes.size() - 1))) != null) {
+            hashes.add(next);
+        }
+        return hashes;
+    }
+
+    public void markMined(String transactionHash) {
+        for (String hash : hashesOf(transactionHash)) {
+            Long nonce = nonceByHash.remove(hash);
+            if (nonce != null) {
+                nonceManager.confirm(nonce);
+            }
+        }
+    }
+
+    /**
+     * Sends an empty self-transfer under a nonce whose transaction has not been
+     * mined, outbidding whatever is in flight there. Either the original or the
+     * cancellation is mined, never both. The cancellation takes over the
+     * nonce's in-flight slot, so stuck-transaction bumps apply to it rather
+     * than to the original.
+     */
+    public CompletableFuture<String> cancel(long nonce) {
+        BigInteger price = fetchGasPrice();
+        InFlightTransaction current = nonceManager.inFlight(nonce);
+        if (current != null) {
+            price = price.max(bump(current.getGasPrice()));
+        }
+        return send(sign(nonce, credentials.getAddress(), "0x", price), true);
+    }
+
+    /**
+     * Stops tracking a nonce that is known to be used on chain, by whichever
+     * transaction.
+     */
+    public void markNonceUsed(long nonce) {
+        nonceByHash.values().removeIf(tracked -> tracked == nonce);
+        nonceManager.confirm(nonce);
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.tx.stuck-check-interval-ms:15000}")
+    public void replaceStuckTransactions() {
+        List<InFlightTransaction> stuckTransactions = nonceManager.sentBefore(Instant.now().minus(stuckAfter));
+        if (stuckTransactions.isEmpty()) {
+            return;
+        }
+        gasPrice = fetchGasPrice();
+        for (InFlightTransaction stuck : stuckTransactions) {
+            try {
+                boolean mined = web3j.ethGetTransactionReceipt(stuck.getTransactionHash()).send()
+                        .getTransactionReceipt().isPresent();
+                if (mined) {
+                    markMined(stuck.getTransactionHash());
+                    continue;
+                }
+                String replacement = send(sign(stuck.getNonce(), stuck.getTo(), stuck.getData(), bump(stuck.getGasPrice()).max(gasPrice)), true).join();
+                replacedBy.put(stuck.getTransactionHash(), replacement);
+                nonceByHash.remove(stuck.getTransactionHash());
+                log.warn("Replaced stuck transaction {} (nonce {}) with {}", stuck.getTransactionHash(), stuck.getNonce(), replacement);
+            } catch (Exception e) {
+                log.warn("Could not replace stuck transaction {}: {}", stuck.getTransactionHash(), e.getMessage());
+            }
+        }
+    }
+
+    private PreparedTransaction sign(long nonce, String to, String data, BigInteger price) {
+        RawTransaction rawTransaction = RawTransaction.createTransaction(BigInteger.valueOf(nonce), price, gasLimit, to, data);
+        String signed = Numeric.toHexString(TransactionEncoder.signMessage(rawTransaction, chainId, credentials));
+        return new PreparedTransaction(nonce, to, data, price, Hash.sha3(signed), signed);
+    }
+
+    private CompletableFuture<String> send(PreparedTransaction transaction, boolean replacement) {
+        long nonce = transaction.getNonce();
+        Request<?, EthSendTransaction> request = web3j.ethSendRawTransaction(transaction.getSignedTransaction());
+        return RpcBatchClient.sendAsync(request::send, request::sendAsync, sendExecutor).handle((EthSendTransaction response, Throwable error) -> {
+            if (error != null) {
+                // The node may have taken it before the connection failed, so the
+                // nonce stays reserved and the transaction is tracked as in flight:
+                // the stuck check either finds it mined or sends it again
+                log.warn("Broadcast of {} (nonce {}) failed in transport, keeping it in flight: {}",
+                        transaction.getTransactionHash(), nonce, error.getMessage());
+            } else if (response.hasError() && !isAlreadyKnown(response.getError().getMessage())) {
+                // An explicit rejection means the node never took it; a failed
+                // replacement still leaves the original in the pool, so its nonce stays taken
+                String message = response.getError().getMessage();
+                if (message != null && message.toLowerCase().contains("nonce too low")) {
+                    nonceManager.resync();
+                } else if (!replacement) {
+                    nonceManager.release(nonce);
+                }
+                throw new CompletionException(new TransactionRejectedException("Transaction rejected: " + message));
+            }
+            String transactionHash = transaction.getTransactionHash();
+            nonceByHash.put(transactionHash, nonce);
+            nonceManager.markSent(new InFlightTransaction(nonce, transaction.getTo(), transaction.getData(),
+                    transaction.getGasPrice(), transactionHash, Instant.now()));
+            return transactionHash;
+        });
+    }
+
+    // A re-sent transaction the node already holds is as good as accepted
+    private static boolean isAlreadyKnown(String message) {
+        String lower = message != null ? message.toLowerCase() : "";
+        return lower.contains("already known") || lower.contains("known transaction");
+    }
+
+    private static BigInteger bump(BigInteger price) {
+        return price.multiply(REPLACEMENT_BUMP_PERMILLE).divide(BigInteger.valueOf(1000)).add(BigInteger.ONE);
+    }
+
+    private BigInteger currentGasPrice() {
+        BigInteger price = gasPrice;
+        if (price == null) {
+            price = fetchGasPrice();
+            gasPrice = price;
+        }
+        return price;
+    }
+
+    private BigInteger fetchGasPrice() {
+        try {
+            return web3j.ethGasPrice().send().getGasPrice();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch gas price: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The node answered the broadcast with an error, so the transaction never
+     * entered its pool.
+     */
+    static class TransactionRejectedException extends RuntimeException {
+        TransactionRejectedException(String message) {
+            super(message);
+        }
+    }
+}
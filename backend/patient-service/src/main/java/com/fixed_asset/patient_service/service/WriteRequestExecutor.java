@@ -0,0 +1,100 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.VirtualThreadConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs ledger writes (redeem, approve, complete) off the servlet thread on a
+ * bounded pool, so a slow balance update or chain call holds a pool thread
+ * rather than an HTTP worker and reads keep being served during spikes.
+ * When every thread is busy and the queue is full the request is turned away
+ * at once with 429 and Retry-After, before any work has started. A request
+ * that outlives write-requests.timeout-ms gets 503 without Retry-After: work
+ * that has not started by then is dropped, but work already running
+ * completes, and a blind retry of a redeem would redeem twice. Clients should
+ * check the status before retrying.
+ */
+@Component
+public class WriteRequestExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteRequestExecutor.class);
+
+    @Value("${write-requests.threads:16}")
+    private int threads;
+
+    @Value("${write-requests.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${write-requests.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${write-requests.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("write-request-");
+        if (virtualThreads) {
+            // Still bounded by threads and queue-capacity
+            executor.setThreadFactory(VirtualThreadConfig.virtualThreadFactory("write-request-"));
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the handler on the pool. A RuntimeException it lets escape becomes
+     * a 400 with errorBody(message), like the synchronous handlers.
+     */
+    public <T> DeferredResult<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> handler, Function<String, T> errorBody) {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>(timeoutMs, ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorBody.apply("Request timed out; check its status before retrying")));
+        try {
+            executor.execute(() -> {
+                if (result.isSetOrExpired()) {
+                    return;
+                }
+                try {
+                    result.setResult(handler.get());
+                } catch (RuntimeException e) {
+                    result.setResult(ResponseEntity.badRequest().body(errorBody.apply(e.getMessage())));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Write request rejected: {} in flight, queue full", executor.getActiveCount());
+            // Nothing has run, so retrying is safe
+            result.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(errorBody.apply("Too many requests in flight; retry later")));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+-- Merkle profit distributions (see ProfitDistributionService): one row per
+-- trade with the published root, and one allocation per leaf
+
+CREATE SEQUENCE IF NOT EXISTS profit_distributions_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS profit_distributions (
+    id                 BIGINT PRIMARY KEY,
+    trade_id           BIGINT NOT NULL UNIQUE,
+    profit             NUMERIC(78, 0) NOT NULL,
+    pool_amount        NUMERIC(78, 0) NOT NULL,
+    distributed_amount NUMERIC(78, 0) NOT NULL,
+    recipient_count    INTEGER NOT NULL,
+    merkle_root        VARCHAR(255),
+    status             VARCHAR(255) NOT NULL,
+    transaction_hash   VARCHAR(255),
+    created_at         TIMESTAMP(6) NOT NULL,
+    published_at       TIMESTAMP(6)
+);
+
+CREATE SEQUENCE IF NOT EXISTS distribution_allocations_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS distribution_allocations (
+    id              BIGINT PRIMARY KEY,
+    distribution_id BIGINT NOT NULL REFERENCES profit_distributions (id) ON DELETE CASCADE,
+    patient_id      BIGINT NOT NULL REFERENCES patients (id) ON DELETE CASCADE,
+    wallet_address  VARCHAR(255) NOT NULL,
+    amount          NUMERIC(78, 0) NOT NULL,
+    leaf_index      INTEGER NOT NULL
+);
+
+-- Proof lookups by patient, and tree rebuilds in leaf order
+CREATE UNIQUE INDEX IF NOT EXISTS idx_distribution_allocations_patient
+    ON distribution_allocations (distribution_id, patient_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_distribution_allocations_leaf
+    ON distribution_allocations (distribution_id, leaf_index);
@@ -0,0 +1,3 @@
+-- Keyset walk over AT holders for profit allocation (see ProfitAllocationEngine)
+CREATE INDEX IF NOT EXISTS idx_token_balances_asset_holders
+    ON token_balances (patient_id) WHERE asset_token_balance > 0;
@@ -0,0 +1,23 @@
+-- Ledger amounts move from FLOAT(53) tokens to BIGINT TokenAmount units (1 token = 1e8 units).
+-- Existing values are rounded to the nearest unit; balances and holds are converted in one
+-- statement per table so available = balance - held stays consistent.
+
+ALTER TABLE token_balances
+    ALTER COLUMN asset_token_balance TYPE BIGINT USING ROUND(asset_token_balance * 1e8)::BIGINT,
+    ALTER COLUMN health_token_balance TYPE BIGINT USING ROUND(health_token_balance * 1e8)::BIGINT,
+    ALTER COLUMN health_token_held TYPE BIGINT USING ROUND(health_token_held * 1e8)::BIGINT,
+    ALTER COLUMN health_token_held SET DEFAULT 0;
+
+ALTER TABLE token_transactions
+    ALTER COLUMN amount TYPE BIGINT USING ROUND(amount * 1e8)::BIGINT;
+
+ALTER TABLE token_holds
+    ALTER COLUMN amount TYPE BIGINT USING ROUND(amount * 1e8)::BIGINT;
+
+ALTER TABLE benefit_redemptions
+    ALTER COLUMN ht_amount TYPE BIGINT USING ROUND(ht_amount * 1e8)::BIGINT;
+
+-- Nothing is minted until a deposit is approved
+ALTER TABLE asset_deposits
+    ALTER COLUMN tokens_minted TYPE BIGINT USING ROUND(COALESCE(tokens_minted, 0) * 1e8)::BIGINT,
+    ALTER COLUMN tokens_minted SET DEFAULT 0;
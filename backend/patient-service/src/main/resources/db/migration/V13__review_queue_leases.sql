@@ -0,0 +1,9 @@
+-- Review-queue leases on PENDING deposits and redemptions. A reviewer claims rows until
+-- lease_expires_at and renews by heartbeat; a row with no lease or an expired one can be
+-- claimed again. The claim scans walk idx_deposit_pending / idx_redemption_pending.
+
+ALTER TABLE asset_deposits ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(255);
+ALTER TABLE asset_deposits ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP(6);
+
+ALTER TABLE benefit_redemptions ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(255);
+ALTER TABLE benefit_redemptions ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP(6);
@@ -0,0 +1,5 @@
+-- Per-patient ledger version, the ETag of the balance, transaction and redemption history reads.
+-- Every committed write to a patient's balances, holds, transactions, deposits or redemptions
+-- adds one, so If-None-Match can be answered from this column alone.
+
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS ledger_version BIGINT NOT NULL DEFAULT 0;
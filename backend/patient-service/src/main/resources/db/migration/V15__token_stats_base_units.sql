@@ -0,0 +1,9 @@
+-- patient_token_stats moves from FLOAT(53) tokens to BIGINT TokenAmount units, like the ledger
+-- columns in V12, so the running sums are exact. Existing totals are rounded to the nearest unit;
+-- a range rebuild (PatientTokenStatsRebuildJob) recomputes them exactly from the ledger.
+
+ALTER TABLE patient_token_stats
+    ALTER COLUMN at_minted TYPE BIGINT USING ROUND(at_minted * 1e8)::BIGINT,
+    ALTER COLUMN ht_minted TYPE BIGINT USING ROUND(ht_minted * 1e8)::BIGINT,
+    ALTER COLUMN ht_redeemed TYPE BIGINT USING ROUND(ht_redeemed * 1e8)::BIGINT,
+    ALTER COLUMN processed_tokens TYPE BIGINT USING ROUND(processed_tokens * 1e8)::BIGINT;
@@ -0,0 +1,4 @@
+-- The nonce and hash of a job's transaction are written before it is broadcast,
+-- so recovery can look the transaction up on chain instead of sending it again.
+
+ALTER TABLE blockchain_jobs ADD COLUMN IF NOT EXISTS nonce BIGINT;
@@ -0,0 +1,14 @@
+-- claimProfit keys claims on the caller's wallet, so a distribution has one
+-- leaf per wallet: patients sharing a wallet share a leaf, and each of their
+-- allocation rows carries the leaf's total alongside their own share.
+
+ALTER TABLE distribution_allocations ADD COLUMN IF NOT EXISTS leaf_amount NUMERIC(78, 0);
+
+UPDATE distribution_allocations SET leaf_amount = amount WHERE leaf_amount IS NULL;
+
+ALTER TABLE distribution_allocations ALTER COLUMN leaf_amount SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_distribution_allocations_leaf;
+
+CREATE INDEX IF NOT EXISTS idx_distribution_allocations_leaf
+    ON distribution_allocations (distribution_id, leaf_index);
@@ -0,0 +1,8 @@
+-- balance_discrepancies moves from FLOAT(53) tokens to NUMERIC(78, 0) chain base units
+-- (18 decimals), so a recorded mismatch is the exact balanceOf value and the exact ledger
+-- amount it was compared with. Existing rows are rounded to the nearest base unit.
+
+ALTER TABLE balance_discrepancies
+    ALTER COLUMN chain_balance TYPE NUMERIC(78, 0) USING ROUND(chain_balance::NUMERIC * 1e18),
+    ALTER COLUMN ledger_balance TYPE NUMERIC(78, 0) USING ROUND(ledger_balance::NUMERIC * 1e18),
+    ALTER COLUMN profile_balance TYPE NUMERIC(78, 0) USING ROUND(profile_balance::NUMERIC * 1e18);
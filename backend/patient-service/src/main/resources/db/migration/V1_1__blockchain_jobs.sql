@@ -0,0 +1,28 @@
+-- Background mint/burn queue. Runs right after the baseline so databases
+-- stamped at V1 pick it up; ids come from a pooled sequence from the start.
+
+CREATE SEQUENCE IF NOT EXISTS blockchain_jobs_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS blockchain_jobs (
+    id               BIGINT PRIMARY KEY,
+    job_id           VARCHAR(255) NOT NULL UNIQUE,
+    operation        VARCHAR(255) NOT NULL,
+    contract         VARCHAR(255) NOT NULL,
+    wallet_address   VARCHAR(255) NOT NULL,
+    amount           NUMERIC(78, 0) NOT NULL,
+    deposit_id       VARCHAR(255),
+    metadata         VARCHAR(255),
+    reference_type   VARCHAR(255) NOT NULL,
+    reference_id     BIGINT NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    attempts         INTEGER NOT NULL,
+    transaction_hash VARCHAR(255),
+    last_error       VARCHAR(255),
+    claimed_by       VARCHAR(255),
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    completed_at     TIMESTAMP(6)
+);
+
+ALTER TABLE asset_deposits ADD COLUMN IF NOT EXISTS mint_job_id VARCHAR(255);
+ALTER TABLE token_transactions ADD COLUMN IF NOT EXISTS job_id VARCHAR(255);
@@ -0,0 +1,70 @@
+-- Schema as previously generated by ddl-auto=update, before any versioned
+-- change. Existing databases are baselined at this version; fresh databases
+-- create it here. Later tables and columns belong in their own migrations.
+
+CREATE TABLE IF NOT EXISTS patients (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    registration_id      VARCHAR(255) NOT NULL UNIQUE,
+    name                 VARCHAR(255) NOT NULL,
+    email                VARCHAR(255) NOT NULL UNIQUE,
+    phone                VARCHAR(255) NOT NULL,
+    address              VARCHAR(255),
+    password             VARCHAR(255) NOT NULL,
+    wallet_address       VARCHAR(255),
+    asset_token_balance  FLOAT(53),
+    health_token_balance FLOAT(53),
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS token_balances (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id               BIGINT NOT NULL UNIQUE REFERENCES patients (id),
+    asset_token_balance      FLOAT(53) NOT NULL,
+    health_token_balance     FLOAT(53) NOT NULL,
+    last_asset_token_update  TIMESTAMP(6),
+    last_health_token_update TIMESTAMP(6),
+    created_at               TIMESTAMP(6) NOT NULL,
+    updated_at               TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS asset_deposits (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id    BIGINT NOT NULL REFERENCES patients (id),
+    asset_type    VARCHAR(255) NOT NULL,
+    asset_value   FLOAT(53) NOT NULL,
+    tokens_minted FLOAT(53) NOT NULL,
+    deposit_id    VARCHAR(255) UNIQUE,
+    status        VARCHAR(255) NOT NULL,
+    metadata      VARCHAR(255),
+    created_at    TIMESTAMP(6) NOT NULL,
+    processed_at  TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS benefit_redemptions (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id       BIGINT NOT NULL REFERENCES patients (id),
+    redemption_id    VARCHAR(255) UNIQUE,
+    service_type     VARCHAR(255) NOT NULL,
+    ht_amount        FLOAT(53) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    description      VARCHAR(255),
+    hospital_id      VARCHAR(255),
+    transaction_hash VARCHAR(255),
+    created_at       TIMESTAMP(6) NOT NULL,
+    processed_at     TIMESTAMP(6),
+    completed_at     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS token_transactions (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id       BIGINT NOT NULL REFERENCES patients (id),
+    transaction_hash VARCHAR(255) UNIQUE,
+    transaction_type VARCHAR(255) NOT NULL,
+    amount           FLOAT(53) NOT NULL,
+    token_type       VARCHAR(255) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    metadata         VARCHAR(255),
+    created_at       TIMESTAMP(6) NOT NULL,
+    confirmed_at     TIMESTAMP(6)
+);
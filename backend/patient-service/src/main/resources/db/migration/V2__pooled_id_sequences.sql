@@ -0,0 +1,29 @@
+-- Move every baseline table from IDENTITY columns to pooled sequences so
+-- Hibernate can batch inserts. Sequences step by the entity allocationSize
+-- (50); each is positioned past the current max id so pooled blocks never
+-- reuse an id.
+
+CREATE SEQUENCE IF NOT EXISTS patients_seq INCREMENT BY 50;
+SELECT setval('patients_seq', COALESCE((SELECT MAX(id) FROM patients), 0) + 50, false);
+ALTER TABLE patients ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE patients ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS token_balances_seq INCREMENT BY 50;
+SELECT setval('token_balances_seq', COALESCE((SELECT MAX(id) FROM token_balances), 0) + 50, false);
+ALTER TABLE token_balances ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE token_balances ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS asset_deposits_seq INCREMENT BY 50;
+SELECT setval('asset_deposits_seq', COALESCE((SELECT MAX(id) FROM asset_deposits), 0) + 50, false);
+ALTER TABLE asset_deposits ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE asset_deposits ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS benefit_redemptions_seq INCREMENT BY 50;
+SELECT setval('benefit_redemptions_seq', COALESCE((SELECT MAX(id) FROM benefit_redemptions), 0) + 50, false);
+ALTER TABLE benefit_redemptions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE benefit_redemptions ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE IF NOT EXISTS token_transactions_seq INCREMENT BY 50;
+SELECT setval('token_transactions_seq', COALESCE((SELECT MAX(id) FROM token_transactions), 0) + 50, false);
+ALTER TABLE token_transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE token_transactions ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,44 @@
+-- Secondary indexes for the repository queries. Every hot path filters on
+-- patient_id first; status/type columns follow, then created_at/id for the
+-- newest-first history ordering.
+
+-- token_transactions
+CREATE INDEX IF NOT EXISTS idx_token_tx_patient_created
+    ON token_transactions (patient_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_token_tx_patient_type_created
+    ON token_transactions (patient_id, token_type, created_at);
+CREATE INDEX IF NOT EXISTS idx_token_tx_patient_status_created
+    ON token_transactions (patient_id, status, created_at);
+CREATE INDEX IF NOT EXISTS idx_token_tx_pending
+    ON token_transactions (created_at) WHERE status = 'PENDING';
+
+-- asset_deposits
+CREATE INDEX IF NOT EXISTS idx_deposit_patient_status
+    ON asset_deposits (patient_id, status);
+CREATE INDEX IF NOT EXISTS idx_deposit_patient_created
+    ON asset_deposits (patient_id, created_at, id);
+-- Review queue; other statuses make up most of the table and scan anyway
+CREATE INDEX IF NOT EXISTS idx_deposit_pending
+    ON asset_deposits (created_at) WHERE status = 'PENDING';
+
+-- benefit_redemptions
+CREATE INDEX IF NOT EXISTS idx_redemption_patient_status
+    ON benefit_redemptions (patient_id, status);
+CREATE INDEX IF NOT EXISTS idx_redemption_patient_service
+    ON benefit_redemptions (patient_id, service_type);
+CREATE INDEX IF NOT EXISTS idx_redemption_patient_created
+    ON benefit_redemptions (patient_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_redemption_pending
+    ON benefit_redemptions (created_at) WHERE status = 'PENDING';
+
+-- patients
+CREATE INDEX IF NOT EXISTS idx_patient_wallet
+    ON patients (wallet_address);
+
+-- blockchain_jobs
+CREATE INDEX IF NOT EXISTS idx_job_queued
+    ON blockchain_jobs (contract, id) WHERE status = 'QUEUED';
+CREATE INDEX IF NOT EXISTS idx_job_submitting
+    ON blockchain_jobs (updated_at) WHERE status = 'SUBMITTING';
+CREATE INDEX IF NOT EXISTS idx_job_claimed_by
+    ON blockchain_jobs (claimed_by, status);
@@ -0,0 +1,37 @@
+-- Incrementally maintained per-patient aggregates (see PatientTokenStatsService)
+
+CREATE TABLE IF NOT EXISTS patient_token_stats (
+    patient_id       BIGINT PRIMARY KEY REFERENCES patients (id) ON DELETE CASCADE,
+    at_minted        FLOAT(53) NOT NULL DEFAULT 0,
+    ht_minted        FLOAT(53) NOT NULL DEFAULT 0,
+    ht_redeemed      FLOAT(53) NOT NULL DEFAULT 0,
+    processed_tokens FLOAT(53) NOT NULL DEFAULT 0,
+    updated_at       TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS patient_service_usage (
+    patient_id       BIGINT NOT NULL REFERENCES patients (id) ON DELETE CASCADE,
+    service_type     VARCHAR(255) NOT NULL,
+    redemption_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (patient_id, service_type)
+);
+
+-- Backfill from the existing ledger
+INSERT INTO patient_token_stats (patient_id, at_minted, ht_minted, ht_redeemed, processed_tokens, updated_at)
+SELECT p.id,
+       COALESCE((SELECT SUM(t.amount) FROM token_transactions t
+                 WHERE t.patient_id = p.id AND t.token_type = 'AT' AND t.transaction_type = 'MINT'), 0),
+       COALESCE((SELECT SUM(t.amount) FROM token_transactions t
+                 WHERE t.patient_id = p.id AND t.token_type = 'HT' AND t.transaction_type = 'MINT'), 0),
+       COALESCE((SELECT SUM(r.ht_amount) FROM benefit_redemptions r
+                 WHERE r.patient_id = p.id AND r.status = 'COMPLETED'), 0),
+       COALESCE((SELECT SUM(d.tokens_minted) FROM asset_deposits d
+                 WHERE d.patient_id = p.id AND d.status = 'PROCESSED'), 0),
+       now()
+FROM patients p
+ON CONFLICT (patient_id) DO NOTHING;
+
+INSERT INTO patient_service_usage (patient_id, service_type, redemption_count)
+SELECT patient_id, service_type, COUNT(*) FROM benefit_redemptions
+GROUP BY patient_id, service_type
+ON CONFLICT (patient_id, service_type) DO NOTHING;
@@ -0,0 +1,19 @@
+-- HT reservations for pending redemptions. available = health_token_balance - health_token_held
+
+ALTER TABLE token_balances ADD COLUMN IF NOT EXISTS health_token_held FLOAT(53) NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS token_holds (
+    id            BIGINT PRIMARY KEY,
+    patient_id    BIGINT NOT NULL REFERENCES patients (id),
+    redemption_id VARCHAR(255) NOT NULL UNIQUE,
+    token_type    VARCHAR(255) NOT NULL,
+    amount        FLOAT(53) NOT NULL,
+    status        VARCHAR(255) NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    resolved_at   TIMESTAMP(6)
+);
+
+CREATE SEQUENCE IF NOT EXISTS token_holds_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_hold_patient_held
+    ON token_holds (patient_id) WHERE status = 'HELD';
@@ -0,0 +1,22 @@
+-- Transactional outbox for deposit/redemption events, drained to Kafka by OutboxRelay
+
+-- INCREMENT 1 (no pooling): publish order is id order
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id             BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(255) NOT NULL,
+    aggregate_id   VARCHAR(255) NOT NULL,
+    patient_id     BIGINT NOT NULL,
+    event_type     VARCHAR(255) NOT NULL,
+    payload        VARCHAR(4000) NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    published_at   TIMESTAMP(6)
+);
+
+-- Relay backlog; stays as small as the unpublished set
+CREATE INDEX IF NOT EXISTS idx_outbox_unpublished
+    ON outbox_events (id) WHERE published_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_published_at
+    ON outbox_events (published_at) WHERE published_at IS NOT NULL;
@@ -0,0 +1,33 @@
+-- Chain log indexer: decoded HospitalFinancials/AssetToken events and the block checkpoint
+
+CREATE TABLE IF NOT EXISTS chain_checkpoints (
+    name         VARCHAR(255) PRIMARY KEY,
+    block_number BIGINT NOT NULL,
+    block_hash   VARCHAR(255),
+    updated_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS chain_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS chain_events (
+    id               BIGINT PRIMARY KEY,
+    event_name       VARCHAR(255) NOT NULL,
+    contract_address VARCHAR(255) NOT NULL,
+    block_number     BIGINT NOT NULL,
+    block_hash       VARCHAR(255) NOT NULL,
+    transaction_hash VARCHAR(255) NOT NULL,
+    log_index        INTEGER NOT NULL,
+    wallet_address   VARCHAR(255),
+    deposit_number   NUMERIC(78, 0),
+    trade_id         NUMERIC(78, 0),
+    amount           NUMERIC(78, 0),
+    profit           NUMERIC(78, 0),
+    service_type     VARCHAR(255),
+    metadata         VARCHAR(255),
+    created_at       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_chain_events_log UNIQUE (transaction_hash, log_index)
+);
+
+-- Rewinds select and delete everything past a block
+CREATE INDEX IF NOT EXISTS idx_chain_events_block
+    ON chain_events (block_number);
@@ -0,0 +1,39 @@
+-- On-chain vs. database balance reconciliation (see BalanceReconciliationJob)
+
+CREATE SEQUENCE IF NOT EXISTS reconciliation_runs_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reconciliation_runs (
+    id                 BIGINT PRIMARY KEY,
+    status             VARCHAR(255) NOT NULL,
+    total_wallets      BIGINT NOT NULL,
+    wallets_checked    BIGINT NOT NULL DEFAULT 0,
+    discrepancy_count  BIGINT NOT NULL DEFAULT 0,
+    error_count        BIGINT NOT NULL DEFAULT 0,
+    started_at         TIMESTAMP(6) NOT NULL,
+    finished_at        TIMESTAMP(6)
+);
+
+CREATE SEQUENCE IF NOT EXISTS balance_discrepancies_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS balance_discrepancies (
+    id              BIGINT PRIMARY KEY,
+    run_id          BIGINT NOT NULL REFERENCES reconciliation_runs (id) ON DELETE CASCADE,
+    patient_id      BIGINT NOT NULL REFERENCES patients (id) ON DELETE CASCADE,
+    wallet_address  VARCHAR(255) NOT NULL,
+    token_type      VARCHAR(255) NOT NULL,
+    chain_balance   FLOAT(53) NOT NULL,
+    ledger_balance  FLOAT(53) NOT NULL,
+    profile_balance FLOAT(53) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+-- Report pages are read per run in id order
+CREATE INDEX IF NOT EXISTS idx_balance_discrepancies_run
+    ON balance_discrepancies (run_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_balance_discrepancies_patient
+    ON balance_discrepancies (patient_id);
+
+-- Keyset walk over patients that have a wallet
+CREATE INDEX IF NOT EXISTS idx_patients_wallet_keyset
+    ON patients (id) WHERE wallet_address IS NOT NULL;
@@ -0,0 +1,20 @@
+-- Receipt confirmation tracking (see ConfirmationTracker)
+
+ALTER TABLE benefit_redemptions ADD COLUMN IF NOT EXISTS transaction_status VARCHAR(255);
+ALTER TABLE benefit_redemptions ADD COLUMN IF NOT EXISTS confirmed_at TIMESTAMP(6);
+
+-- Existing hashes were accepted without a confirmation check
+UPDATE benefit_redemptions SET transaction_status = 'CONFIRMED'
+WHERE transaction_hash IS NOT NULL AND transaction_status IS NULL;
+
+-- Discovery scans for newly outstanding hashes
+CREATE INDEX IF NOT EXISTS idx_job_submitted
+    ON blockchain_jobs (updated_at) WHERE status = 'SUBMITTED';
+CREATE INDEX IF NOT EXISTS idx_redemption_tx_pending
+    ON benefit_redemptions (completed_at) WHERE transaction_status = 'PENDING';
+
+-- Resolution looks rows up by hash
+CREATE INDEX IF NOT EXISTS idx_job_transaction_hash
+    ON blockchain_jobs (transaction_hash);
+CREATE INDEX IF NOT EXISTS idx_redemption_transaction_hash
+    ON benefit_redemptions (transaction_hash);
@@ -0,0 +1,116 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.dto.PatientWalletView;
+import com.fixed_asset.patient_service.model.ReconciliationRun;
+import com.fixed_asset.patient_service.repository.BalanceDiscrepancyRepository;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.ReconciliationRunRepository;
+import com.fixed_asset.patient_service.service.BalanceReconciliationJob;
+import com.fixed_asset.patient_service.service.BlockchainServiceImpl;
+import com.fixed_asset.patient_service.service.RpcBatchClient;
+import com.fixed_asset.patient_service.service.StubRpcServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Wallets per second through {@link BalanceReconciliationJob} for different
+ * in-flight limits, with balanceOf going through BlockchainServiceImpl and
+ * RpcBatchClient to a stub node that charges a fixed round trip per HTTP
+ * request. The last column projects the time for 100k wallets.
+ * Run with: mvn test -Pbenchmark -Dtest=BalanceReconciliationBenchmark
+ */
+@Tag("benchmark")
+public class BalanceReconciliationBenchmark {
+
+    private static final int WALLETS = 10_000;
+    private static final long ROUND_TRIP_MS = 5;
+
+    @Test
+    void walletsPerSecondByInFlightLimit() throws Exception {
+        System.out.printf("%-12s %12s %14s %14s%n", "in flight", "wallets/s", "http requests", "100k wallets");
+        for (int maxInFlight : new int[] {10, 50, 200, 1000}) {
+            try (StubRpcServer rpcServer = new StubRpcServer(ROUND_TRIP_MS)) {
+                Web3j web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+                try (RpcBatchClient rpcBatchClient = new RpcBatchClient(web3j, 100, 5)) {
+                    Map<String, Object> status = run(web3j, rpcBatchClient, maxInFlight);
+                    double walletsPerSecond = (Double) status.get("walletsPerSecond");
+                    System.out.printf("%-12d %12.0f %14d %13.1fm%n", maxInFlight, walletsPerSecond,
+                            rpcServer.getHttpRequests(), 100_000 / walletsPerSecond / 60);
+                } finally {
+                    web3j.shutdown();
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> run(Web3j web3j, RpcBatchClient rpcBatchClient, int maxInFlight) {
+        BlockchainServiceImpl blockchainService = new BlockchainServiceImpl();
+        ReflectionTestUtils.setField(blockchainService, "web3j", web3j);
+        ReflectionTestUtils.setField(blockchainService, "rpcBatchClient", rpcBatchClient);
+        ReflectionTestUtils.setField(blockchainService, "simulationEnabled", false);
+        ReflectionTestUtils.setField(blockchainService, "assetTokenAddress", address(0xa1));
+        ReflectionTestUtils.setField(blockchainService, "healthTokenAddress", address(0xb1));
+
+        PatientRepository patientRepository = mock(PatientRepository.class);
+        when(patientRepository.countByWalletAddressIsNotNull()).thenReturn((long) WALLETS);
+        when(patientRepository.findWalletChunk(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            List<PatientWalletView> chunk = new ArrayList<>();
+            for (long id = afterId + 1; id <= Math.min(WALLETS, afterId + page.getPageSize()); id++) {
+                chunk.add(wallet(id));
+            }
+            return chunk;
+        });
+        ReconciliationRunRepository runRepository = mock(ReconciliationRunRepository.class);
+        when(runRepository.save(any(ReconciliationRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BalanceReconciliationJob job = new BalanceReconciliationJob();
+        ReflectionTestUtils.setField(job, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(job, "blockchainService", blockchainService);
+        ReflectionTestUtils.setField(job, "runRepository", runRepository);
+        ReflectionTestUtils.setField(job, "discrepancyRepository", mock(BalanceDiscrepancyRepository.class));
+        ReflectionTestUtils.setField(job, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(job, "simulationEnabled", false);
+        ReflectionTestUtils.setField(job, "chunkSize", 1000);
+        ReflectionTestUtils.setField(job, "maxInFlight", maxInFlight);
+        job.start();
+        try {
+            Map<String, Object> status = job.reconcileAll();
+            if ((Long) status.get("errors") > 0) {
+                throw new IllegalStateException(status.get("errors") + " balance lookups failed");
+            }
+            return status;
+        } finally {
+            job.stop();
+        }
+    }
+
+    private static String address(long value) {
+        return String.format("0x%040x", value);
+    }
+
+    private static PatientWalletView wallet(long id) {
+        String walletAddress = address(id);
+        return new PatientWalletView() {
+            public Long getId() { return id; }
+            public String getWalletAddress() { return walletAddress; }
+            public Long getLedgerAssetTokenBalance() { return 0L; }
+            public Long getLedgerHealthTokenBalance() { return 0L; }
+            public Double getProfileAssetTokenBalance() { return 0.0; }
+            public Double getProfileHealthTokenBalance() { return 0.0; }
+        };
+    }
+}
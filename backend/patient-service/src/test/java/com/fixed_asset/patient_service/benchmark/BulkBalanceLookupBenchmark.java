@@ -0,0 +1,142 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenBalance;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.TokenBalanceRepository;
+import com.fixed_asset.patient_service.service.TokenAmount;
+import com.fixed_asset.patient_service.service.TokenBalanceCache;
+import com.fixed_asset.patient_service.service.TokenService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latency against batch size for resolving N patients' balances: one
+ * getTokenBalance call per patient (what a portal does today through
+ * GET .../tokens/balance) against one exportTokenBalances call, each with a
+ * cold and a warm balance cache. Reports the median of several runs.
+ * Runs on H2 by default; point spring.datasource.* at Postgres to include
+ * network round trips, where the per-patient path pays two per id.
+ * Run with: mvn test -Pbenchmark -Dtest=BulkBalanceLookupBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class BulkBalanceLookupBenchmark {
+
+    private static final int PATIENTS = 5_000;
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1_000, 5_000};
+    private static final int RUNS = 7;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TokenBalanceRepository tokenBalanceRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void latencyPerBatchSize() {
+        List<Long> patientIds = seed();
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            perPatient(patientIds.subList(0, 500), true);
+            bulk(patientIds, true);
+        }
+
+        System.out.printf("%8s %16s %16s %16s %16s%n", "batch", "per-id cold ms", "per-id warm ms", "bulk cold ms", "bulk warm ms");
+        for (int batchSize : BATCH_SIZES) {
+            List<Long> batch = patientIds.subList(0, batchSize);
+            System.out.printf("%8d %16.2f %16.2f %16.2f %16.2f%n", batchSize,
+                    median(() -> perPatient(batch, true)),
+                    median(() -> perPatient(batch, false)),
+                    median(() -> bulk(batch, true)),
+                    median(() -> bulk(batch, false)));
+        }
+    }
+
+    private long perPatient(List<Long> batch, boolean cold) {
+        prepareCache(batch, cold);
+        long start = System.nanoTime();
+        for (Long patientId : batch) {
+            tokenService.getTokenBalance(patientId);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long bulk(List<Long> batch, boolean cold) {
+        prepareCache(batch, cold);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        tokenService.exportTokenBalances(batch, out);
+        return System.nanoTime() - start;
+    }
+
+    private void prepareCache(List<Long> batch, boolean cold) {
+        Cache cache = cacheManager.getCache(TokenBalanceCache.CACHE_NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+        if (!cold) {
+            // Fill the cache first so the timed run is all hits
+            tokenService.exportTokenBalances(batch, new ByteArrayOutputStream());
+        }
+    }
+
+    private double median(Run run) {
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            nanos[i] = run.nanos();
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2] / 1_000_000.0;
+    }
+
+    private List<Long> seed() {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = new Patient();
+            patient.setName("Balance Patient " + i);
+            patient.setEmail("balance-benchmark-" + i + "@example.com");
+            patient.setPhone("0000000000");
+            patient.setPassword("password");
+            patient.setRegistrationId("BENCH-BAL-" + i);
+            patient.setWalletAddress(String.format("0x%040x", i + 1));
+            patients.add(patient);
+        }
+        patients = patientRepository.saveAll(patients);
+
+        List<TokenBalance> balances = new ArrayList<>();
+        List<Long> patientIds = new ArrayList<>();
+        for (Patient patient : patients) {
+            TokenBalance balance = new TokenBalance(patient);
+            balance.setAssetTokenBalance(100 * TokenAmount.ONE);
+            balance.setHealthTokenBalance(40 * TokenAmount.ONE);
+            balances.add(balance);
+            patientIds.add(patient.getId());
+        }
+        tokenBalanceRepository.saveAll(balances);
+        return patientIds;
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        long nanos();
+    }
+}
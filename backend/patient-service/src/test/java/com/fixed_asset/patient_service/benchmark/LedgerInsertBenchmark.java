@@ -0,0 +1,97 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.service.TokenAmount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Insert throughput for 10k token_transactions rows, one-statement-per-row
+ * (what IDENTITY ids force) against pooled-sequence ids with JDBC batching.
+ * Runs on H2 by default; point spring.datasource.* at Postgres to include
+ * network round trips.
+ * Run with: mvn test -Pbenchmark -Dtest=LedgerInsertBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class LedgerInsertBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int FLUSH_EVERY = 50;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void insertThroughputUnbatchedVersusBatched() {
+        Patient patient = new Patient();
+        patient.setName("Benchmark Patient");
+        patient.setEmail("ledger-benchmark@example.com");
+        patient.setPhone("0000000000");
+        patient.setPassword("password");
+        patient.setRegistrationId("BENCH-LEDGER");
+        Long patientId = patientRepository.save(patient).getId();
+
+        // Warm up both paths before measuring
+        insert(patientId, 1, 1_000);
+        insert(patientId, FLUSH_EVERY, 1_000);
+
+        System.out.printf("%-28s %12s %12s%n", "mode", "rows/s", "statements");
+        report("unbatched (IDENTITY-like)", patientId, 1);
+        report("pooled sequence, batch 50", patientId, FLUSH_EVERY);
+    }
+
+    private void report(String mode, Long patientId, int batchSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        insert(patientId, batchSize, ROWS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%-28s %12.0f %12d%n", mode, ROWS / seconds, statistics.getPrepareStatementCount());
+    }
+
+    private void insert(Long patientId, int batchSize, int rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // IDENTITY sends each INSERT as soon as the entity is persisted;
+            // a JDBC batch size of 1 reproduces that statement count.
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            Patient patient = entityManager.getReference(Patient.class, patientId);
+            for (int i = 0; i < rows; i++) {
+                TokenTransaction transaction = new TokenTransaction();
+                transaction.setPatient(patient);
+                transaction.setTransactionType("MINT");
+                transaction.setAmount(TokenAmount.ONE);
+                transaction.setTokenType("AT");
+                transaction.setStatus("CONFIRMED");
+                entityManager.persist(transaction);
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    patient = entityManager.getReference(Patient.class, patientId);
+                }
+            }
+        });
+    }
+}
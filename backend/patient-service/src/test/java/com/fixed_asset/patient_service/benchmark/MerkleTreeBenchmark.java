@@ -0,0 +1,67 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.service.MerkleTree;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Build time of {@link MerkleTree} over 1M allocations by thread count, plus
+ * the cost of producing a proof from the built tree. Each row is the best of
+ * a few builds after a warm-up build.
+ * Run with: mvn test -Pbenchmark -Dtest=MerkleTreeBenchmark
+ */
+@Tag("benchmark")
+public class MerkleTreeBenchmark {
+
+    private static final int LEAVES = 1_000_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void buildTimeByParallelism() {
+        String[] wallets = new String[LEAVES];
+        BigInteger[] amounts = new BigInteger[LEAVES];
+        for (int i = 0; i < LEAVES; i++) {
+            wallets[i] = String.format("0x%040x", i + 1);
+            amounts[i] = BigInteger.TEN.pow(15).multiply(BigInteger.valueOf(i % 1000 + 1));
+        }
+        MerkleTree.build(wallets, amounts, Runtime.getRuntime().availableProcessors());
+
+        System.out.printf("%-12s %12s %14s%n", "threads", "build ms", "leaves/s");
+        long sequentialMs = 0;
+        for (int threads : new int[] {1, 2, 4, 8, 16}) {
+            long bestMs = Long.MAX_VALUE;
+            MerkleTree tree = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                tree = MerkleTree.build(wallets, amounts, threads);
+                bestMs = Math.min(bestMs, (System.nanoTime() - start) / 1_000_000);
+            }
+            if (threads == 1) {
+                sequentialMs = bestMs;
+            }
+            System.out.printf("%-12d %12d %14.0f   x%.1f%n", threads, bestMs, LEAVES * 1000.0 / bestMs,
+                    (double) sequentialMs / bestMs);
+
+            // Guards against the JIT discarding the build
+            if (tree.getLeafCount() != LEAVES) {
+                throw new IllegalStateException("Expected " + LEAVES + " leaves");
+            }
+        }
+
+        MerkleTree tree = MerkleTree.build(wallets, amounts, 4);
+        byte[] root = tree.getRoot();
+        long start = System.nanoTime();
+        int proofs = 100_000;
+        for (int i = 0; i < proofs; i++) {
+            int index = (int) ((i * 7919L) % LEAVES);
+            List<byte[]> proof = tree.getProof(index);
+            if (i % 10_000 == 0 && !MerkleTree.verify(proof, root, tree.getLeaf(index))) {
+                throw new IllegalStateException("Proof for leaf " + index + " does not verify");
+            }
+        }
+        System.out.printf("proofs: %.0f/s (depth %d)%n", proofs * 1e9 / (System.nanoTime() - start), tree.getProof(0).size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.repository.OutboxEventRepository;
+import com.fixed_asset.patient_service.service.OutboxService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Outbox relay throughput for 20k deposit events spread over 1k patients:
+ * one event per publish (a send-and-wait per event) against the relay's
+ * batched publish with producer linger/compression from application.yml.
+ * Run with: mvn test -Pbenchmark -Dtest=OutboxRelayBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.producer.acks=all",
+        "spring.kafka.producer.batch-size=65536",
+        "spring.kafka.producer.compression-type=lz4",
+        "spring.kafka.producer.properties.linger.ms=10",
+        "spring.kafka.producer.properties.enable.idempotence=true"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 6, topics = {"patient.asset-deposits", "patient.benefit-redemptions"})
+public class OutboxRelayBenchmark {
+
+    private static final int EVENTS = 20_000;
+    private static final int PATIENTS = 1_000;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void relayThroughputPerEventVersusBatched() {
+        // Warm up producer metadata and both code paths
+        fill(1_000);
+        drain(1);
+        fill(1_000);
+        drain(500);
+
+        System.out.printf("%-22s %12s%n", "mode", "events/s");
+        report("per event (batch 1)", 1, 2_000);
+        report("batched (500)", 500, EVENTS);
+    }
+
+    private void report(String mode, int batchSize, int events) {
+        fill(events);
+        long start = System.nanoTime();
+        int published = drain(batchSize);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%-22s %12.0f%n", mode, published / seconds);
+    }
+
+    private int drain(int batchSize) {
+        int total = 0;
+        int published;
+        do {
+            published = outboxService.publishBatch(batchSize);
+            total += published;
+        } while (published > 0);
+        return total;
+    }
+
+    private void fill(int events) {
+        outboxRepository.deleteAllInBatch();
+        for (int from = 0; from < events; from += 1_000) {
+            int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < Math.min(start + 1_000, events); i++) {
+                    long patientId = i % PATIENTS + 1;
+                    Patient patient = new Patient();
+                    patient.setId(patientId);
+                    AssetDeposit deposit = new AssetDeposit();
+                    deposit.setId((long) i + 1);
+                    deposit.setPatient(patient);
+                    deposit.setAssetType("GOLD");
+                    deposit.setAssetValue(1000.0);
+                    deposit.setStatus("PENDING");
+                    outboxService.recordDepositEvent(deposit, "DEPOSIT_SUBMITTED");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.service.ProfitAllocation;
+import com.fixed_asset.patient_service.service.ProfitAllocationEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * {@link ProfitAllocationEngine#split} at 10k, 100k and 1M holders on one
+ * thread and on every core, next to the naive Double calculation it
+ * replaces. The last column is how far the Double shares, converted to base
+ * units, miss the amount being distributed. Each timing is the best of a few
+ * runs after a warm-up.
+ * Run with: mvn test -Pbenchmark -Dtest=ProfitAllocationBenchmark
+ */
+@Tag("benchmark")
+public class ProfitAllocationBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final BigInteger TOTAL = new BigInteger("1234567890123456789012345");
+
+    @Test
+    void allocationTimeByHolderCount() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-10s %12s %12s %12s %20s%n", "holders", "1 thread ms", cores + " threads ms", "double ms", "double error (units)");
+        for (int holders : new int[] {10_000, 100_000, 1_000_000}) {
+            long[] patientIds = new long[holders];
+            String[] wallets = new String[holders];
+            BigInteger[] units = new BigInteger[holders];
+            double[] tokens = new double[holders];
+            Random random = new Random(holders);
+            for (int i = 0; i < holders; i++) {
+                patientIds[i] = i + 1;
+                wallets[i] = String.format("0x%040x", i + 1);
+                tokens[i] = random.nextInt(10_000_000) / 1000.0 + 0.001;
+                units[i] = BigDecimal.valueOf(tokens[i]).movePointRight(18).toBigInteger();
+            }
+
+            long sequentialMs = best(() -> check(ProfitAllocationEngine.split(TOTAL, patientIds, wallets, units, 1)));
+            long parallelMs = best(() -> check(ProfitAllocationEngine.split(TOTAL, patientIds, wallets, units, cores)));
+            BigInteger[] error = new BigInteger[1];
+            long doubleMs = best(() -> error[0] = naiveDouble(tokens));
+
+            System.out.printf("%-10d %12d %12d %12d %20s%n", holders, sequentialMs, parallelMs, doubleMs, error[0]);
+        }
+    }
+
+    // Shares as Double tokens, then converted to base units the way the rest of the service does
+    private static BigInteger naiveDouble(double[] tokens) {
+        double total = new BigDecimal(TOTAL).movePointLeft(18).doubleValue();
+        double sum = 0;
+        for (double holding : tokens) {
+            sum += holding;
+        }
+        BigInteger distributed = BigInteger.ZERO;
+        for (double holding : tokens) {
+            distributed = distributed.add(BigDecimal.valueOf(total * holding / sum).movePointRight(18).toBigInteger());
+        }
+        return TOTAL.subtract(distributed).abs();
+    }
+
+    private static void check(ProfitAllocation allocation) {
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = 0; i < allocation.size(); i++) {
+            sum = sum.add(allocation.getAmount(i));
+        }
+        if (!sum.equals(TOTAL)) {
+            throw new IllegalStateException("Allocation sums to " + sum + ", expected " + TOTAL);
+        }
+    }
+
+    private static long best(Runnable run) {
+        run.run();
+        long bestMs = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run.run();
+            bestMs = Math.min(bestMs, (System.nanoTime() - start) / 1_000_000);
+        }
+        return bestMs;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.service.RpcBatchClient;
+import com.fixed_asset.patient_service.service.StubRpcServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requests per second through {@link RpcBatchClient} against a stub node that
+ * charges a fixed round-trip latency per HTTP request.
+ * Run with: mvn test -Pbenchmark -Dtest=RpcBatchClientBenchmark
+ */
+@Tag("benchmark")
+public class RpcBatchClientBenchmark {
+
+    private static final int CALLERS = 64;
+    private static final int CALLS_PER_CALLER = 200;
+    private static final long ROUND_TRIP_MS = 2;
+
+    @Test
+    void requestsPerSecondByBatchSize() throws Exception {
+        System.out.printf("%-12s %12s %14s%n", "batch size", "req/s", "http requests");
+        for (int batchSize : new int[] {1, 10, 50, 100, 250}) {
+            try (StubRpcServer rpcServer = new StubRpcServer(ROUND_TRIP_MS)) {
+                Web3j web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+                try (RpcBatchClient client = new RpcBatchClient(web3j, batchSize, 2)) {
+                    double throughput = run(web3j, client);
+                    System.out.printf("%-12d %12.0f %14d%n", batchSize, throughput, rpcServer.getHttpRequests());
+                } finally {
+                    web3j.shutdown();
+                }
+            }
+        }
+    }
+
+    private double run(Web3j web3j, RpcBatchClient client) throws InterruptedException {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch done = new CountDownLatch(CALLERS);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int c = 0; c < CALLERS; c++) {
+            callers.execute(() -> {
+                for (int i = 0; i < CALLS_PER_CALLER; i++) {
+                    try {
+                        client.enqueue(web3j.ethBlockNumber()).join();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        callers.shutdown();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " calls failed");
+        }
+        return CALLERS * CALLS_PER_CALLER / seconds;
+    }
+}
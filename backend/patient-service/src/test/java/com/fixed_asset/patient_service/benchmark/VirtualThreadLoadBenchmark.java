@@ -0,0 +1,77 @@
+package com.fixed_asset.patient_service.benchmark;
+
+import com.fixed_asset.patient_service.VirtualThreadConfig;
+import com.fixed_asset.patient_service.service.StubRpcServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Concurrent in-flight requests when every request blocks on a slow node:
+ * REQUESTS arrive at once and each makes a blocking web3j call to a stub RPC
+ * that takes ROUND_TRIP_MS to answer, as a request path calling
+ * BlockchainService does. The platform run uses Tomcat's default 200 request
+ * threads; the virtual run uses the per-request virtual threads
+ * VirtualThreadConfig installs. Reports the peak number of RPCs the stub saw
+ * at once, wall time and request latency percentiles.
+ * Run with: mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmark
+ */
+@Tag("benchmark")
+public class VirtualThreadLoadBenchmark {
+
+    private static final int REQUESTS = 5_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long ROUND_TRIP_MS = 500;
+
+    @Test
+    void inFlightRequestsByThreadKind() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21");
+        System.out.printf("%-10s %10s %12s %10s %10s %10s%n", "threads", "peak rpc", "wall ms", "req/s", "p50 ms", "p99 ms");
+        run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS));
+        run("virtual", VirtualThreadConfig.virtualThreads("tomcat-handler-"));
+    }
+
+    private void run(String label, ExecutorService requestThreads) throws Exception {
+        try (StubRpcServer rpcServer = new StubRpcServer(ROUND_TRIP_MS, VirtualThreadConfig.virtualThreads("stub-rpc-"))) {
+            Web3j web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+            long[] latencies = new long[REQUESTS];
+            CountDownLatch done = new CountDownLatch(REQUESTS);
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                int request = i;
+                requestThreads.execute(() -> {
+                    try {
+                        web3j.ethBlockNumber().send();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    // Measured from arrival, so queueing for a thread counts
+                    latencies[request] = System.nanoTime() - start;
+                    done.countDown();
+                });
+            }
+            done.await();
+            long wallNanos = System.nanoTime() - start;
+            requestThreads.shutdown();
+            web3j.shutdown();
+            if (failures.get() > 0) {
+                throw new IllegalStateException(failures.get() + " requests failed");
+            }
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %10d %12.0f %10.0f %10.0f %10.0f%n", label, rpcServer.getPeakInFlight(),
+                    wallNanos / 1_000_000.0, REQUESTS / (wallNanos / 1_000_000_000.0),
+                    latencies[REQUESTS / 2] / 1_000_000.0, latencies[REQUESTS * 99 / 100] / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.fixed_asset.patient_service.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations the way application.yml configures them, both on
+ * an empty schema and on one that already holds the ddl-auto baseline tables
+ * and rows (the database Flyway stamps at V1 and migrates from there).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class FlywayMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void testMigrate_EmptySchema() {
+        MigrateResult result = flyway("fresh").migrate();
+
+        assertTrue(result.success);
+        assertNull(result.initialSchemaVersion);
+        assertEquals(latestVersion(), result.targetSchemaVersion);
+    }
+
+    @Test
+    void testMigrate_BaselineSchemaWithRows() throws Exception {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA adopted");
+            statement.execute("SET search_path TO adopted");
+            statement.execute(baselineSql());
+            statement.execute("""
+                    INSERT INTO patients (id, registration_id, name, email, phone, password,
+                                          asset_token_balance, health_token_balance, created_at, updated_at)
+                    VALUES (7, 'PAT-7', 'Jane', 'jane@example.com', '555', 'x', 10.5, 2.25, now(), now())
+                    """);
+            statement.execute("""
+                    INSERT INTO asset_deposits (id, patient_id, asset_type, asset_value, tokens_minted, status, created_at)
+                    VALUES (3, 7, 'GOLD', 100.0, 100.0, 'APPROVED', now())
+                    """);
+        }
+
+        MigrateResult result = flyway("adopted").migrate();
+
+        assertTrue(result.success);
+        assertEquals("1", result.initialSchemaVersion);
+        assertEquals(latestVersion(), result.targetSchemaVersion);
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO adopted");
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM patients WHERE id = 7"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM asset_deposits WHERE id = 3 AND mint_job_id IS NULL"));
+            assertEquals(0, count(statement, "SELECT COUNT(*) FROM blockchain_jobs"));
+            assertTrue(count(statement, "SELECT nextval('patients_seq')") > 7);
+            assertTrue(count(statement, "SELECT nextval('asset_deposits_seq')") > 3);
+        }
+    }
+
+    private static Flyway flyway(String schema) {
+        return Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas(schema)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    private static String latestVersion() {
+        MigrationInfo[] migrations = flyway("public").info().all();
+        return migrations[migrations.length - 1].getVersion().getVersion();
+    }
+
+    private static String baselineSql() throws IOException {
+        try (InputStream in = FlywayMigrationTest.class.getResourceAsStream("/db/migration/V1__baseline_schema.sql")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,457 @@
+package com.fixed_asset.patient_service.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations against Postgres, seeds the tables with
+ * production-shaped data (tens of thousands of patients, a few rows each of
+ * history, work queues that are a small recent slice of their table), runs
+ * VACUUM ANALYZE and EXPLAINs the SQL behind each repository query with the
+ * planner's default settings. A query passes only if every scan is driven by
+ * an index condition or a matching partial index; a full index walk with a
+ * filter counts as a miss, and a sequential scan only passes on a table that
+ * fits in one page.
+ * The unused global lookups findByTokenType and findByTransactionType are not covered.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class RepositoryQueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static Set<String> partialIndexes;
+    private static Set<String> singlePageTables;
+
+    // Ids run 1..n in insert order, so the newest rows sit at the end of each table
+    private static final String[] SEED = {
+            """
+            INSERT INTO patients (id, registration_id, name, email, phone, address, password, wallet_address,
+                                  asset_token_balance, health_token_balance, created_at, updated_at, ledger_version)
+            SELECT g, 'PAT-' || g, 'Patient ' || g, 'patient' || g || '@example.com', '555-' || lpad(g::TEXT, 7, '0'),
+                   g || ' Hospital Road, Springfield', md5('password' || g) || md5('salt' || g),
+                   CASE WHEN g % 10 = 0 THEN NULL ELSE '0x' || lpad(to_hex(g), 40, '0') END,
+                   (g % 7) * 10.0, (g % 5) * 2.5,
+                   TIMESTAMP '2023-01-01' + g * INTERVAL '30 minutes', TIMESTAMP '2023-01-01' + g * INTERVAL '30 minutes', g % 50
+            FROM generate_series(1, 20000) g
+            """,
+            """
+            INSERT INTO token_balances (id, patient_id, asset_token_balance, health_token_balance, health_token_held,
+                                        created_at, updated_at)
+            SELECT g, g, CASE WHEN g % 10 < 7 THEN g * 100000000 ELSE 0 END, (g % 5) * 250000000,
+                   CASE WHEN g > 19900 THEN 100000000 ELSE 0 END, now(), now()
+            FROM generate_series(1, 20000) g
+            """,
+            // Five deposits per patient; only the newest 100 are still pending review
+            """
+            INSERT INTO asset_deposits (id, patient_id, asset_type, asset_value, tokens_minted, deposit_id, status,
+                                        created_at, processed_at)
+            SELECT g, g % 20000 + 1, 'GOLD', 100.0, 10000000000, '0x' || to_hex(g),
+                   CASE WHEN g > 99900 THEN 'PENDING' WHEN g % 20 = 0 THEN 'REJECTED' WHEN g % 2 = 0 THEN 'APPROVED' ELSE 'PROCESSED' END,
+                   TIMESTAMP '2023-01-01' + g * INTERVAL '5 minutes', TIMESTAMP '2023-01-01' + g * INTERVAL '5 minutes'
+            FROM generate_series(1, 100000) g
+            """,
+            """
+            INSERT INTO benefit_redemptions (id, patient_id, redemption_id, service_type, ht_amount, status, hospital_id,
+                                             transaction_hash, transaction_status, created_at, completed_at)
+            SELECT g, g % 20000 + 1, 'RED-' || g,
+                   (ARRAY['CHECKUP', 'DENTAL', 'VISION', 'PHARMACY', 'LAB', 'THERAPY'])[g % 6 + 1], 500000000,
+                   CASE WHEN g > 99900 THEN 'PENDING' WHEN g % 25 = 0 THEN 'REJECTED' ELSE 'COMPLETED' END, 'HOSP-1',
+                   CASE WHEN g > 99900 OR g % 25 = 0 THEN NULL ELSE '0x' || md5('redemption' || g) END,
+                   CASE WHEN g > 99900 OR g % 25 = 0 THEN NULL WHEN g > 99800 THEN 'PENDING' ELSE 'CONFIRMED' END,
+                   TIMESTAMP '2023-01-01' + g * INTERVAL '5 minutes',
+                   CASE WHEN g > 99900 OR g % 25 = 0 THEN NULL ELSE TIMESTAMP '2023-01-01' + g * INTERVAL '5 minutes' END
+            FROM generate_series(1, 100000) g
+            """,
+            """
+            INSERT INTO token_transactions (id, patient_id, transaction_hash, transaction_type, amount, token_type,
+                                            status, created_at, confirmed_at)
+            SELECT g, g % 20000 + 1, '0x' || md5('transaction' || g), CASE WHEN g % 4 = 0 THEN 'BURN' ELSE 'MINT' END,
+                   100000000, CASE WHEN g % 2 = 0 THEN 'AT' ELSE 'HT' END,
+                   CASE WHEN g > 199800 THEN 'PENDING' ELSE 'CONFIRMED' END,
+                   TIMESTAMP '2023-01-01' + g * INTERVAL '150 seconds', TIMESTAMP '2023-01-01' + g * INTERVAL '150 seconds'
+            FROM generate_series(1, 200000) g
+            """,
+            """
+            INSERT INTO token_holds (id, patient_id, redemption_id, token_type, amount, status, created_at, resolved_at)
+            SELECT g, g % 20000 + 1, 'RED-' || g, 'HT', 500000000,
+                   CASE WHEN g > 99900 THEN 'HELD' WHEN g % 25 = 0 THEN 'RELEASED' ELSE 'CONVERTED' END,
+                   TIMESTAMP '2023-01-01' + g * INTERVAL '5 minutes', NULL
+            FROM generate_series(1, 100000) g
+            """,
+            """
+            INSERT INTO patient_token_stats (patient_id, at_minted, ht_minted, ht_redeemed, processed_tokens, updated_at)
+            SELECT g, 1000000000, 500000000, 0, 0, now() FROM generate_series(1, 20000) g
+            """,
+            """
+            INSERT INTO patient_service_usage (patient_id, service_type, redemption_count)
+            SELECT g, s, 1 FROM generate_series(1, 20000) g CROSS JOIN unnest(ARRAY['CHECKUP', 'DENTAL', 'LAB']) s
+            """,
+            // The relay keeps up: only the newest 100 events are unpublished, and the
+            // purge has already removed everything older than the retention window
+            """
+            INSERT INTO outbox_events (id, aggregate_type, aggregate_id, patient_id, event_type, payload, created_at, published_at)
+            SELECT g, 'ASSET_DEPOSIT', g::TEXT, g % 20000 + 1, 'DEPOSIT_SUBMITTED', '{"id":' || g || '}',
+                   TIMESTAMP '2024-06-01' + g * INTERVAL '1 second',
+                   CASE WHEN g > 199900 THEN NULL ELSE TIMESTAMP '2024-06-01' + g * INTERVAL '1 second' END
+            FROM generate_series(1, 200000) g
+            """,
+            """
+            INSERT INTO chain_events (id, event_name, contract_address, block_number, block_hash, transaction_hash,
+                                      log_index, wallet_address, amount, created_at)
+            SELECT g, 'Transfer', '0x' || lpad('1', 40, '0'), 1000000 + g / 4, '0x' || md5('block' || g / 4),
+                   '0x' || md5('event' || g / 4), g % 4, '0x' || lpad(to_hex(g % 20000 + 1), 40, '0'), 100, now()
+            FROM generate_series(1, 100000) g
+            """,
+            """
+            INSERT INTO chain_checkpoints (name, block_number, block_hash, updated_at)
+            VALUES ('hospital-financials', 1025000, '0xabc', now())
+            """,
+            """
+            INSERT INTO reconciliation_runs (id, status, total_wallets, wallets_checked, started_at, finished_at)
+            SELECT g, 'COMPLETED', 18000, 18000, now(), now() FROM generate_series(1, 20) g
+            """,
+            """
+            INSERT INTO balance_discrepancies (id, run_id, patient_id, wallet_address, token_type, chain_balance,
+                                               ledger_balance, profile_balance, created_at)
+            SELECT g, (g - 1) / 2500 + 1, g % 20000 + 1, '0x' || lpad(to_hex(g % 20000 + 1), 40, '0'), 'HT', 1, 0, 0, now()
+            FROM generate_series(1, 50000) g
+            """,
+            """
+            INSERT INTO profit_distributions (id, trade_id, profit, pool_amount, distributed_amount, recipient_count,
+                                              merkle_root, status, created_at)
+            SELECT g, g, 100, 20, 20, 2000, '0x' || md5('root' || g), 'PUBLISHED', now() FROM generate_series(1, 500) g
+            """,
+            """
+            INSERT INTO distribution_allocations (id, distribution_id, patient_id, wallet_address, amount, leaf_amount, leaf_index)
+            SELECT g, (g - 1) / 2000 + 1, (g - 1) % 2000 + 1, '0x' || lpad(to_hex((g - 1) % 2000 + 1), 40, '0'), 1, 1, (g - 1) % 2000
+            FROM generate_series(1, 100000) g
+            """,
+            // Settled jobs make up the table; the queue states are its newest 150 rows
+            """
+            INSERT INTO blockchain_jobs (id, job_id, operation, contract, wallet_address, amount, reference_type,
+                                         reference_id, status, attempts, transaction_hash, nonce, claimed_by,
+                                         created_at, updated_at, completed_at)
+            SELECT g, 'job-' || g, 'MINT_AT', CASE WHEN g % 2 = 0 THEN 'ASSET_TOKEN' ELSE 'HEALTH_TOKEN' END,
+                   '0x' || lpad(to_hex(g % 20000 + 1), 40, '0'), 100, 'ASSET_DEPOSIT', g,
+                   CASE WHEN g > 99950 THEN 'QUEUED' WHEN g > 99900 THEN 'SUBMITTING' WHEN g > 99850 THEN 'SUBMITTED' ELSE 'CONFIRMED' END,
+                   1, CASE WHEN g > 99950 THEN NULL ELSE '0x' || md5('job' || g) END,
+                   CASE WHEN g > 99950 THEN NULL ELSE g END,
+                   CASE WHEN g > 99950 OR g <= 99850 THEN NULL ELSE 'node:' || g % 3 END,
+                   TIMESTAMP '2024-06-01' + g * INTERVAL '1 minute', TIMESTAMP '2024-06-01' + g * INTERVAL '1 minute',
+                   CASE WHEN g > 99850 THEN NULL ELSE TIMESTAMP '2024-06-01' + g * INTERVAL '1 minute' END
+            FROM generate_series(1, 100000) g
+            """
+    };
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            for (String sql : SEED) {
+                statement.execute(sql);
+            }
+            // Fresh statistics and visibility map, as autovacuum would leave them
+            statement.execute("VACUUM ANALYZE");
+            partialIndexes = names(statement, "SELECT indexname FROM pg_indexes WHERE indexdef LIKE '% WHERE %'");
+            singlePageTables = names(statement, "SELECT relname FROM pg_class WHERE relkind = 'r' AND relpages <= 1");
+        }
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                // PatientRepository
+                Arguments.of("Patient.findByEmail", "SELECT * FROM patients WHERE email = 'a@example.com'"),
+                Arguments.of("Patient.findByRegistrationId", "SELECT * FROM patients WHERE registration_id = 'PAT-1'"),
+                Arguments.of("Patient.findByWalletAddress", "SELECT * FROM patients WHERE wallet_address = '0xabc'"),
+                Arguments.of("Patient.findDashboardStats", """
+                        SELECT p.wallet_address, tb.asset_token_balance, tb.health_token_balance,
+                               tb.health_token_held, tb.health_token_balance - tb.health_token_held,
+                               ds.total, ds.pending, ds.approved, rs.total, rs.pending, rs.completed
+                        FROM patients p
+                        LEFT JOIN token_balances tb ON tb.patient_id = p.id
+                        CROSS JOIN (SELECT COUNT(*) AS total,
+                                           COUNT(*) FILTER (WHERE status = 'PENDING') AS pending,
+                                           COUNT(*) FILTER (WHERE status = 'APPROVED') AS approved
+                                    FROM asset_deposits WHERE patient_id = 1) ds
+                        CROSS JOIN (SELECT COUNT(*) AS total,
+                                           COUNT(*) FILTER (WHERE status = 'PENDING') AS pending,
+                                           COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed
+                                    FROM benefit_redemptions WHERE patient_id = 1) rs
+                        WHERE p.id = 1
+                        """),
+                Arguments.of("Patient.countByWalletAddressIsNotNull",
+                        "SELECT COUNT(*) FROM patients WHERE wallet_address IS NOT NULL"),
+                Arguments.of("Patient.findLedgerVersion", "SELECT ledger_version FROM patients WHERE id = 1"),
+                Arguments.of("Patient.bumpLedgerVersions",
+                        "UPDATE patients SET ledger_version = ledger_version + 1 WHERE id = ANY('{1,2}'::BIGINT[])"),
+                Arguments.of("Patient.findWalletChunk", """
+                        SELECT p.id, p.wallet_address, tb.asset_token_balance, tb.health_token_balance,
+                               p.asset_token_balance, p.health_token_balance
+                        FROM patients p
+                        LEFT JOIN token_balances tb ON tb.patient_id = p.id
+                        WHERE p.id > 1000 AND p.wallet_address IS NOT NULL
+                        ORDER BY p.id LIMIT 1000
+                        """),
+
+                // TokenBalanceRepository
+                Arguments.of("TokenBalance.findByPatientId", "SELECT * FROM token_balances WHERE patient_id = 1"),
+                Arguments.of("TokenBalance.decrementAssetTokenBalance",
+                        "UPDATE token_balances SET asset_token_balance = asset_token_balance - 5 WHERE patient_id = 1 AND asset_token_balance >= 5"),
+                Arguments.of("TokenBalance.reserveHealthTokens",
+                        "UPDATE token_balances SET health_token_held = health_token_held + 5 WHERE patient_id = 1 AND health_token_balance - health_token_held >= 5"),
+                Arguments.of("TokenBalance.streamBalancesByPatientIds", """
+                        SELECT p.id, p.wallet_address, p.ledger_version, tb.asset_token_balance, tb.health_token_balance, tb.health_token_held
+                        FROM patients p
+                        LEFT JOIN token_balances tb ON tb.patient_id = p.id
+                        WHERE p.id = ANY('{1,2,3}'::BIGINT[])
+                        """),
+                Arguments.of("TokenBalance.convertHeldHealthTokensBatch", """
+                        UPDATE token_balances tb
+                        SET health_token_balance = tb.health_token_balance - d.amount,
+                            health_token_held = tb.health_token_held - d.amount
+                        FROM unnest('{1,2}'::BIGINT[], '{5,7}'::BIGINT[]) AS d(patient_id, amount)
+                        WHERE tb.patient_id = d.patient_id AND tb.health_token_held >= d.amount
+                        """),
+
+                // TokenHoldRepository
+                Arguments.of("TokenHold.findByRedemptionId", "SELECT * FROM token_holds WHERE redemption_id = 'RED-1'"),
+                Arguments.of("TokenHold.resolveHold",
+                        "UPDATE token_holds SET status = 'CONVERTED' WHERE redemption_id = 'RED-1' AND status = 'HELD'"),
+                Arguments.of("TokenHold.lockHeldByRedemptionIds",
+                        "SELECT * FROM token_holds WHERE redemption_id IN ('RED-1', 'RED-2') AND status = 'HELD' FOR UPDATE"),
+                Arguments.of("TokenHold.resolveHolds",
+                        "UPDATE token_holds SET status = 'CONVERTED' WHERE redemption_id IN ('RED-1', 'RED-2') AND status = 'HELD'"),
+
+                // TokenTransactionRepository
+                Arguments.of("TokenTransaction.findByPatientId", "SELECT * FROM token_transactions WHERE patient_id = 1"),
+                Arguments.of("TokenTransaction.findByTransactionHash", "SELECT * FROM token_transactions WHERE transaction_hash = '0xabc'"),
+                Arguments.of("TokenTransaction.findByPatientIdAndTokenType",
+                        "SELECT * FROM token_transactions WHERE patient_id = 1 AND token_type = 'AT'"),
+                Arguments.of("TokenTransaction.findByPatientIdAndStatus",
+                        "SELECT * FROM token_transactions WHERE patient_id = 1 AND status = 'PENDING' ORDER BY created_at DESC"),
+                Arguments.of("TokenTransaction.sumMintedTokensByPatientAndType",
+                        "SELECT SUM(amount) FROM token_transactions WHERE patient_id = 1 AND token_type = 'AT' AND transaction_type = 'MINT'"),
+                Arguments.of("TokenTransaction.findByPatientIdOrderByCreatedAtDescIdDesc",
+                        "SELECT * FROM token_transactions WHERE patient_id = 1 ORDER BY created_at DESC, id DESC LIMIT 51"),
+                Arguments.of("TokenTransaction.findPageBefore", """
+                        SELECT * FROM token_transactions WHERE patient_id = 1
+                          AND (created_at < '2024-01-01 00:00' OR (created_at = '2024-01-01 00:00' AND id < 100))
+                        ORDER BY created_at DESC, id DESC LIMIT 51
+                        """),
+
+                // AssetDepositRepository
+                Arguments.of("AssetDeposit.findByPatientId", "SELECT * FROM asset_deposits WHERE patient_id = 1"),
+                Arguments.of("AssetDeposit.findByDepositId", "SELECT * FROM asset_deposits WHERE deposit_id = '0xabc'"),
+                Arguments.of("AssetDeposit.findByDepositIdIn",
+                        "SELECT * FROM asset_deposits WHERE deposit_id IN ('7001', '0x1b59')"),
+                Arguments.of("AssetDeposit.transitionFromPending",
+                        "UPDATE asset_deposits SET status = 'APPROVED' WHERE id = 1 AND status = 'PENDING' AND (claimed_by IS NULL OR claimed_by = 'reviewer-1' OR lease_expires_at < '2024-01-01 00:00')"),
+                Arguments.of("AssetDeposit.lockReviewableIds", """
+                        SELECT id FROM asset_deposits
+                        WHERE id IN (1, 2) AND status = 'PENDING'
+                          AND (claimed_by IS NULL OR claimed_by = 'reviewer-1' OR lease_expires_at < '2024-01-01 00:00')
+                        FOR UPDATE
+                        """),
+                Arguments.of("AssetDeposit.findWithPatientByIdIn",
+                        "SELECT * FROM asset_deposits ad JOIN patients p ON p.id = ad.patient_id WHERE ad.id IN (1, 2)"),
+                Arguments.of("AssetDeposit.lockClaimableIds", """
+                        SELECT id FROM asset_deposits
+                        WHERE status = 'PENDING' AND (lease_expires_at IS NULL OR lease_expires_at < '2024-01-01 00:00')
+                        ORDER BY created_at, id LIMIT 20
+                        FOR UPDATE SKIP LOCKED
+                        """),
+                Arguments.of("AssetDeposit.renewLeases",
+                        "UPDATE asset_deposits SET lease_expires_at = '2024-01-01 00:05' WHERE id IN (1, 2) AND claimed_by = 'reviewer-1' AND status = 'PENDING'"),
+                Arguments.of("AssetDeposit.findByStatus", "SELECT * FROM asset_deposits WHERE status = 'PENDING'"),
+                Arguments.of("AssetDeposit.findByPatientIdAndStatus",
+                        "SELECT * FROM asset_deposits WHERE patient_id = 1 AND status = 'APPROVED'"),
+                Arguments.of("AssetDeposit.sumProcessedTokensByPatientId",
+                        "SELECT COALESCE(SUM(tokens_minted), 0) FROM asset_deposits WHERE patient_id = 1 AND status = 'PROCESSED'"),
+                Arguments.of("AssetDeposit.findPageBefore", """
+                        SELECT * FROM asset_deposits WHERE patient_id = 1
+                          AND (created_at < '2024-01-01 00:00' OR (created_at = '2024-01-01 00:00' AND id < 100))
+                        ORDER BY created_at DESC, id DESC LIMIT 51
+                        """),
+
+                // BenefitRedemptionRepository
+                Arguments.of("BenefitRedemption.findByPatientId", "SELECT * FROM benefit_redemptions WHERE patient_id = 1"),
+                Arguments.of("BenefitRedemption.findByRedemptionId", "SELECT * FROM benefit_redemptions WHERE redemption_id = 'RED-1'"),
+                Arguments.of("BenefitRedemption.transition",
+                        "UPDATE benefit_redemptions SET status = 'COMPLETED' WHERE redemption_id = 'RED-1' AND status = 'APPROVED'"),
+                Arguments.of("BenefitRedemption.transitionFromPending",
+                        "UPDATE benefit_redemptions SET status = 'APPROVED' WHERE redemption_id = 'RED-1' AND status = 'PENDING' AND (claimed_by IS NULL OR claimed_by = 'reviewer-1' OR lease_expires_at < '2024-01-01 00:00')"),
+                Arguments.of("BenefitRedemption.lockReviewableRedemptionIds", """
+                        SELECT redemption_id FROM benefit_redemptions
+                        WHERE redemption_id IN ('RED-1', 'RED-2') AND status = 'PENDING'
+                          AND (claimed_by IS NULL OR claimed_by = 'reviewer-1' OR lease_expires_at < '2024-01-01 00:00')
+                        FOR UPDATE
+                        """),
+                Arguments.of("BenefitRedemption.lockRedemptionIdsByStatus",
+                        "SELECT redemption_id FROM benefit_redemptions WHERE redemption_id IN ('RED-1', 'RED-2') AND status = 'APPROVED' FOR UPDATE"),
+                Arguments.of("BenefitRedemption.findByRedemptionIdIn",
+                        "SELECT * FROM benefit_redemptions WHERE redemption_id IN ('RED-1', 'RED-2')"),
+                Arguments.of("BenefitRedemption.lockClaimableIds", """
+                        SELECT id FROM benefit_redemptions
+                        WHERE status = 'PENDING' AND (lease_expires_at IS NULL OR lease_expires_at < '2024-01-01 00:00')
+                        ORDER BY created_at, id LIMIT 20
+                        FOR UPDATE SKIP LOCKED
+                        """),
+                Arguments.of("BenefitRedemption.renewLeases",
+                        "UPDATE benefit_redemptions SET lease_expires_at = '2024-01-01 00:05' WHERE redemption_id IN ('RED-1', 'RED-2') AND claimed_by = 'reviewer-1' AND status = 'PENDING'"),
+                Arguments.of("BenefitRedemption.findByStatus", "SELECT * FROM benefit_redemptions WHERE status = 'PENDING'"),
+                Arguments.of("BenefitRedemption.findByPatientIdAndStatus",
+                        "SELECT * FROM benefit_redemptions WHERE patient_id = 1 AND status = 'APPROVED'"),
+                Arguments.of("BenefitRedemption.sumRedeemedHTByPatientId",
+                        "SELECT SUM(ht_amount) FROM benefit_redemptions WHERE patient_id = 1 AND status = 'COMPLETED'"),
+                Arguments.of("BenefitRedemption.countRedemptionsByPatientAndServiceType",
+                        "SELECT COUNT(*) FROM benefit_redemptions WHERE patient_id = 1 AND service_type = 'CHECKUP'"),
+                Arguments.of("BenefitRedemption.findPendingTransactionHashesSince",
+                        "SELECT transaction_hash FROM benefit_redemptions WHERE transaction_status = 'PENDING' AND completed_at >= '2024-01-01 00:00'"),
+                Arguments.of("BenefitRedemption.resolveTransaction",
+                        "UPDATE benefit_redemptions SET transaction_status = 'CONFIRMED' WHERE transaction_hash = '0xabc' AND transaction_status = 'PENDING'"),
+                Arguments.of("BenefitRedemption.findPageBefore", """
+                        SELECT * FROM benefit_redemptions WHERE patient_id = 1
+                          AND (created_at < '2024-01-01 00:00' OR (created_at = '2024-01-01 00:00' AND id < 100))
+                        ORDER BY created_at DESC, id DESC LIMIT 51
+                        """),
+
+                // PatientTokenStatsRepository
+                Arguments.of("PatientTokenStats.findById", "SELECT * FROM patient_token_stats WHERE patient_id = 1"),
+                Arguments.of("PatientTokenStats.findServiceUsage",
+                        "SELECT redemption_count FROM patient_service_usage WHERE patient_id = 1 AND service_type = 'CHECKUP'"),
+                Arguments.of("PatientTokenStats.recomputeServiceUsageRange",
+                        "SELECT patient_id, service_type, COUNT(*) FROM benefit_redemptions WHERE patient_id BETWEEN 1 AND 100 GROUP BY patient_id, service_type"),
+
+                // OutboxEventRepository
+                Arguments.of("OutboxEvent.lockUnpublished",
+                        "SELECT * FROM outbox_events WHERE published_at IS NULL ORDER BY id LIMIT 500 FOR UPDATE"),
+                Arguments.of("OutboxEvent.deletePublishedBefore",
+                        "DELETE FROM outbox_events WHERE published_at < '2024-01-01 00:00'"),
+
+                // ChainEventRecordRepository / ChainCheckpointRepository
+                Arguments.of("ChainEventRecord.existsByTransactionHashAndLogIndex",
+                        "SELECT id FROM chain_events WHERE transaction_hash = '0xabc' AND log_index = 0 LIMIT 1"),
+                Arguments.of("ChainEventRecord.findAfterBlock",
+                        "SELECT * FROM chain_events WHERE block_number > 1024990 ORDER BY block_number, log_index"),
+                Arguments.of("ChainCheckpoint.lockByName",
+                        "SELECT * FROM chain_checkpoints WHERE name = 'hospital-financials' FOR UPDATE"),
+
+                // BalanceDiscrepancyRepository
+                Arguments.of("BalanceDiscrepancy.findByRunIdAndIdGreaterThan",
+                        "SELECT * FROM balance_discrepancies WHERE run_id = 1 AND id > 0 ORDER BY id LIMIT 100"),
+
+                // TokenBalanceRepository
+                Arguments.of("TokenBalance.findAssetHoldingChunk", """
+                        SELECT tb.patient_id, p.wallet_address, tb.asset_token_balance
+                        FROM token_balances tb JOIN patients p ON p.id = tb.patient_id
+                        WHERE tb.patient_id > 0 AND tb.asset_token_balance > 0 AND p.wallet_address IS NOT NULL
+                        ORDER BY tb.patient_id LIMIT 1000
+                        """),
+
+                // ProfitDistributionRepository / DistributionAllocationRepository
+                Arguments.of("ProfitDistribution.findByTradeId", "SELECT * FROM profit_distributions WHERE trade_id = 1"),
+                Arguments.of("DistributionAllocation.findByDistributionIdAndPatientId",
+                        "SELECT * FROM distribution_allocations WHERE distribution_id = 1 AND patient_id = 1"),
+                Arguments.of("DistributionAllocation.findByDistributionIdAndLeafIndexGreaterThan",
+                        "SELECT * FROM distribution_allocations WHERE distribution_id = 1 AND leaf_index > 999 ORDER BY leaf_index LIMIT 1000"),
+
+                // BlockchainJobRepository
+                Arguments.of("BlockchainJob.findByJobId", "SELECT * FROM blockchain_jobs WHERE job_id = 'job-1'"),
+                Arguments.of("BlockchainJob.findByClaimedByAndStatus",
+                        "SELECT * FROM blockchain_jobs WHERE claimed_by = 'node:1' AND status = 'SUBMITTING'"),
+                Arguments.of("BlockchainJob.findQueuedIdsByContract",
+                        "SELECT id FROM blockchain_jobs WHERE contract = 'ASSET_TOKEN' AND status = 'QUEUED' ORDER BY id LIMIT 20"),
+                Arguments.of("BlockchainJob.claimJobs",
+                        "UPDATE blockchain_jobs SET status = 'SUBMITTING' WHERE id IN (1, 2, 3) AND status = 'QUEUED'"),
+                Arguments.of("BlockchainJob.findByTransactionHashAndStatus",
+                        "SELECT * FROM blockchain_jobs WHERE transaction_hash = '0xabc' AND status = 'SUBMITTED'"),
+                Arguments.of("BlockchainJob.findSubmittedHashesSince",
+                        "SELECT transaction_hash FROM blockchain_jobs WHERE status = 'SUBMITTED' AND updated_at >= '2024-01-01 00:00'"),
+                Arguments.of("BlockchainJob.findStaleClaims",
+                        "SELECT * FROM blockchain_jobs WHERE status = 'SUBMITTING' AND updated_at < '2024-01-01 00:00' ORDER BY id LIMIT 20"),
+                Arguments.of("BlockchainJob.recordBroadcast",
+                        "UPDATE blockchain_jobs SET transaction_hash = '0xabc', nonce = 4 WHERE id = 1 AND claimed_by = 'node:1' AND status = 'SUBMITTING'"),
+                Arguments.of("BlockchainJob.releaseClaim",
+                        "UPDATE blockchain_jobs SET status = 'QUEUED', claimed_by = NULL WHERE id = 1 AND claimed_by = 'node:1' AND status = 'SUBMITTING'"),
+                Arguments.of("BlockchainJob.resolveSubmitted",
+                        "UPDATE blockchain_jobs SET status = 'CONFIRMED' WHERE id = 1 AND status = 'SUBMITTED'")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryIsIndexDriven(String query, String sql) throws Exception {
+        JsonNode plan;
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+                rs.next();
+                plan = objectMapper.readTree(rs.getString(1)).get(0).get("Plan");
+            }
+        }
+
+        List<String> misses = new ArrayList<>();
+        collectMisses(plan, misses);
+        assertTrue(misses.isEmpty(), query + " is not index-driven: " + misses + "\n" + plan.toPrettyString());
+    }
+
+    private static void collectMisses(JsonNode node, List<String> misses) {
+        String nodeType = node.get("Node Type").asText();
+        if (nodeType.equals("Seq Scan")) {
+            if (singlePageTables.contains(node.get("Relation Name").asText())) {
+                return;
+            }
+            misses.add("Seq Scan on " + node.get("Relation Name").asText());
+        } else if (nodeType.equals("Index Scan") || nodeType.equals("Index Only Scan") || nodeType.equals("Bitmap Index Scan")) {
+            String indexName = node.get("Index Name").asText();
+            if (!node.has("Index Cond") && !partialIndexes.contains(indexName)) {
+                misses.add("full walk of " + indexName);
+            }
+        }
+        if (node.has("Plans")) {
+            for (JsonNode child : node.get("Plans")) {
+                collectMisses(child, misses);
+            }
+        }
+    }
+
+    private static Set<String> names(Statement statement, String sql) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
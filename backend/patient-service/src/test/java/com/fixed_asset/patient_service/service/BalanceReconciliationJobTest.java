@@ -0,0 +1,257 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.PatientWalletView;
+import com.fixed_asset.patient_service.model.BalanceDiscrepancy;
+import com.fixed_asset.patient_service.model.ReconciliationRun;
+import com.fixed_asset.patient_service.repository.BalanceDiscrepancyRepository;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.ReconciliationRunRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceReconciliationJobTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private BlockchainService blockchainService;
+
+    @Mock
+    private ReconciliationRunRepository runRepository;
+
+    @Mock
+    private BalanceDiscrepancyRepository discrepancyRepository;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BalanceReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(job, "simulationEnabled", false);
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+        ReflectionTestUtils.setField(job, "maxInFlight", 4);
+        job.start();
+
+        lenient().when(runRepository.save(any(ReconciliationRun.class))).thenAnswer(invocation -> {
+            ReconciliationRun run = invocation.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(7L);
+            }
+            return run;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.stop();
+    }
+
+    @Test
+    void testReconcileAll_WalksChunksAndRecordsMismatches() {
+        when(patientRepository.countByWalletAddressIsNotNull()).thenReturn(3L);
+        when(patientRepository.findWalletChunk(eq(0L), any())).thenReturn(List.of(
+                wallet(1L, "0x1", 10.0, 5.0, 10.0, 5.0),
+                wallet(2L, "0x2", 10.0, 5.0, 10.0, 5.0)));
+        when(patientRepository.findWalletChunk(eq(2L), any())).thenReturn(List.of(
+                wallet(3L, "0x3", 0.0, 8.0, 0.0, 6.0)));
+        chainBalances("0x1", 10.0, 5.0);
+        chainBalances("0x2", 12.0, 5.0);
+        chainBalances("0x3", 0.0, 8.0);
+
+        Map<String, Object> status = job.reconcileAll();
+
+        assertEquals("COMPLETED", status.get("status"));
+        assertEquals(3L, status.get("walletsChecked"));
+        assertEquals(2L, status.get("discrepancies"));
+        assertEquals(100.0, status.get("percentComplete"));
+
+        List<BalanceDiscrepancy> saved = savedDiscrepancies();
+        assertEquals(2, saved.size());
+        BalanceDiscrepancy asset = saved.stream().filter(d -> d.getPatientId() == 2L).findFirst().orElseThrow();
+        assertEquals("AT", asset.getTokenType());
+        assertEquals(units(12.0), asset.getChainBalance());
+        assertEquals(units(10.0), asset.getLedgerBalance());
+        BalanceDiscrepancy health = saved.stream().filter(d -> d.getPatientId() == 3L).findFirst().orElseThrow();
+        assertEquals("HT", health.getTokenType());
+        assertEquals(units(8.0), health.getLedgerBalance());
+        assertEquals(units(6.0), health.getProfileBalance());
+        assertTrue(saved.stream().allMatch(d -> d.getRunId() == 7L));
+
+        assertEquals(3.0, meterRegistry.counter("reconciliation.wallets.checked").count());
+        assertEquals(2.0, meterRegistry.counter("reconciliation.discrepancies").count());
+    }
+
+    @Test
+    void testReconcileAll_MissingLedgerRowCountsAsZero() {
+        when(patientRepository.countByWalletAddressIsNotNull()).thenReturn(1L);
+        when(patientRepository.findWalletChunk(eq(0L), any())).thenReturn(List.of(wallet(1L, "0x1", null, null, 0.0, 0.0)));
+        chainBalances("0x1", 0.0, 0.0);
+
+        Map<String, Object> status = job.reconcileAll();
+
+        assertEquals(0L, status.get("discrepancies"));
+        verify(discrepancyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testReconcileAll_ComparesBaseUnitsExactly() {
+        when(patientRepository.countByWalletAddressIsNotNull()).thenReturn(1L);
+        when(patientRepository.findWalletChunk(eq(0L), any())).thenReturn(List.of(wallet(1L, "0x1", 10.0, 5.0, 10.0, 5.0)));
+        // One base unit over the ledger; far below what a double of the token amount resolves
+        BigInteger chainAsset = units(10.0).add(BigInteger.ONE);
+        when(blockchainService.getAssetTokenBalanceAsync("0x1")).thenReturn(CompletableFuture.completedFuture(chainAsset));
+        when(blockchainService.getHealthTokenBalanceAsync("0x1")).thenReturn(baseUnits(5.0));
+
+        Map<String, Object> status = job.reconcileAll();
+
+        assertEquals(1L, status.get("discrepancies"));
+        BalanceDiscrepancy discrepancy = savedDiscrepancies().get(0);
+        assertEquals("AT", discrepancy.getTokenType());
+        assertEquals(chainAsset, discrepancy.getChainBalance());
+        assertEquals(units(10.0), discrepancy.getLedgerBalance());
+        assertEquals(units(10.0), discrepancy.getProfileBalance());
+    }
+
+    @Test
+    void testReconcileAll_FailedLookupCountsAsError() {
+        when(patientRepository.countByWalletAddressIsNotNull()).thenReturn(1L);
+        when(patientRepository.findWalletChunk(eq(0L), any())).thenReturn(List.of(wallet(1L, "0x1", 10.0, 5.0, 10.0, 5.0)));
+        when(blockchainService.getAssetTokenBalanceAsync("0x1"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("node unavailable")));
+        when(blockchainService.getHealthTokenBalanceAsync("0x1")).thenReturn(baseUnits(5.0));
+
+        Map<String, Object> status = job.reconcileAll();
+
+        assertEquals("COMPLETED", status.get("status"));
+        assertEquals(1L, status.get("errors"));
+        assertEquals(0L, status.get("walletsChecked"));
+        verify(discrepancyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testStartRun_BoundsRequestsInFlight() throws Exception {
+        ReflectionTestUtils.setField(job, "chunkSize", 10);
+        List<PatientWalletView> wallets = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            wallets.add(wallet(id, "0x" + id, 1.0, 1.0, 1.0, 1.0));
+        }
+        when(patientRepository.countByWalletAddressIsNotNull()).thenReturn(5L);
+        when(patientRepository.findWalletChunk(eq(0L), any())).thenReturn(wallets);
+        List<CompletableFuture<BigInteger>> pending = new CopyOnWriteArrayList<>();
+        when(blockchainService.getAssetTokenBalanceAsync(anyString())).thenAnswer(invocation -> track(pending));
+        when(blockchainService.getHealthTokenBalanceAsync(anyString())).thenAnswer(invocation -> track(pending));
+
+        job.startRun();
+        awaitSize(pending, 4);
+        Thread.sleep(100);
+
+        // Two wallets' worth of calls; the third waits for a permit
+        assertEquals(4, pending.size());
+        assertEquals(4L, job.getStatus().get("requestsInFlight"));
+        assertThrows(RuntimeException.class, () -> job.startRun());
+
+        BigInteger one = TokenAmount.toBaseUnits(TokenAmount.ONE);
+        for (int completed = 0; completed < 10; completed++) {
+            awaitSize(pending, completed + 1);
+            pending.get(completed).complete(one);
+        }
+        awaitStatus("COMPLETED");
+
+        assertEquals(5L, job.getStatus().get("walletsChecked"));
+        assertEquals(0L, job.getStatus().get("discrepancies"));
+    }
+
+    @Test
+    void testStartRun_RefusedInSimulationMode() {
+        ReflectionTestUtils.setField(job, "simulationEnabled", true);
+
+        assertThrows(RuntimeException.class, () -> job.startRun());
+
+        verifyNoInteractions(patientRepository, blockchainService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BalanceDiscrepancy> savedDiscrepancies() {
+        ArgumentCaptor<List<BalanceDiscrepancy>> captor = ArgumentCaptor.forClass(List.class);
+        verify(discrepancyRepository, atLeastOnce()).saveAll(captor.capture());
+        List<BalanceDiscrepancy> saved = new ArrayList<>();
+        captor.getAllValues().forEach(saved::addAll);
+        return saved;
+    }
+
+    private void chainBalances(String walletAddress, double assetTokens, double healthTokens) {
+        when(blockchainService.getAssetTokenBalanceAsync(walletAddress)).thenReturn(baseUnits(assetTokens));
+        when(blockchainService.getHealthTokenBalanceAsync(walletAddress)).thenReturn(baseUnits(healthTokens));
+    }
+
+    private CompletableFuture<BigInteger> baseUnits(double tokens) {
+        return CompletableFuture.completedFuture(units(tokens));
+    }
+
+    private static BigInteger units(double tokens) {
+        return TokenAmount.toBaseUnits(TokenAmount.fromTokens(tokens));
+    }
+
+    private CompletableFuture<BigInteger> track(List<CompletableFuture<BigInteger>> pending) {
+        CompletableFuture<BigInteger> future = new CompletableFuture<>();
+        pending.add(future);
+        return future;
+    }
+
+    private void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + size + " calls");
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitStatus(String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!status.equals(job.getStatus().get("status"))) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + status);
+            Thread.sleep(5);
+        }
+    }
+
+    private PatientWalletView wallet(Long id, String walletAddress, Double ledgerAsset, Double ledgerHealth,
+                                     Double profileAsset, Double profileHealth) {
+        // Ledger balances come back in TokenAmount units
+        Long ledgerAssetUnits = ledgerAsset != null ? TokenAmount.fromTokens(ledgerAsset) : null;
+        Long ledgerHealthUnits = ledgerHealth != null ? TokenAmount.fromTokens(ledgerHealth) : null;
+        return new PatientWalletView() {
+            public Long getId() { return id; }
+            public String getWalletAddress() { return walletAddress; }
+            public Long getLedgerAssetTokenBalance() { return ledgerAssetUnits; }
+            public Long getLedgerHealthTokenBalance() { return ledgerHealthUnits; }
+            public Double getProfileAssetTokenBalance() { return profileAsset; }
+            public Double getProfileHealthTokenBalance() { return profileHealth; }
+        };
+    }
+}
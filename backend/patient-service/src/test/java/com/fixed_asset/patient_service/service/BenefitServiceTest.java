@@ -1,5 +1,154 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.RedemptionCompletion;
+import com.fixed_asset.patient_service.model.BenefitRedemption;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.repository.BenefitRedemptionRepository;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
 public class BenefitServiceTest {
-    
+
+    @Mock
+    private BenefitRedemptionRepository redemptionRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private PatientTokenStatsService statsService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @Mock
+    private PatientEventPublisher patientEvents;
+
+    @InjectMocks
+    private BenefitServiceImpl benefitService;
+
+    @Test
+    void testCompleteRedemption_Approved() {
+        BenefitRedemption approved = redemption("RED-1", "APPROVED");
+        when(redemptionRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(approved));
+        when(redemptionRepository.transition("RED-1", "APPROVED", "COMPLETED")).thenReturn(1);
+
+        assertTrue(benefitService.completeRedemption("RED-1", "0xabc"));
+
+        assertEquals("COMPLETED", approved.getStatus());
+        assertEquals("PENDING", approved.getTransactionStatus());
+        verify(statsService).recordRedemptionTransition(1L, "APPROVED", "COMPLETED", 20 * TokenAmount.ONE);
+        verify(redemptionRepository).save(approved);
+    }
+
+    @Test
+    void testCompleteRedemption_PendingRedemptionIsRefused() {
+        // Its hold was never converted, so completing it would leave the HT held and count it as redeemed
+        BenefitRedemption pending = redemption("RED-1", "PENDING");
+        when(redemptionRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(pending));
+        when(redemptionRepository.transition("RED-1", "APPROVED", "COMPLETED")).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> benefitService.completeRedemption("RED-1", "0xabc"));
+
+        assertEquals("Redemption is not approved: PENDING", e.getMessage());
+        assertEquals("PENDING", pending.getStatus());
+        verifyNoInteractions(statsService, outboxService, patientEvents);
+        verify(redemptionRepository, never()).save(any());
+    }
+
+    @Test
+    void testApproveRedemption_LeaseHolderBurnsHold() {
+        BenefitRedemption pending = redemption("RED-1", "PENDING");
+        pending.setClaimedBy("reviewer-1");
+        pending.setLeaseExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(redemptionRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(pending));
+        when(redemptionRepository.transitionFromPending(eq("RED-1"), eq("APPROVED"), eq("reviewer-1"), any())).thenReturn(1);
+        when(tokenService.convertHold("RED-1")).thenReturn(true);
+
+        assertTrue(benefitService.approveRedemption("RED-1", "HOSP-1", "reviewer-1"));
+
+        assertEquals("APPROVED", pending.getStatus());
+        assertNull(pending.getClaimedBy());
+        assertNull(pending.getLeaseExpiresAt());
+    }
+
+    @Test
+    void testApproveRedemption_LeasedToAnotherReviewer() {
+        BenefitRedemption leased = redemption("RED-1", "PENDING");
+        leased.setClaimedBy("reviewer-2");
+        when(redemptionRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(leased));
+        when(redemptionRepository.transitionFromPending(eq("RED-1"), eq("APPROVED"), eq("reviewer-1"), any())).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> benefitService.approveRedemption("RED-1", "HOSP-1", "reviewer-1"));
+
+        assertEquals("Redemption is leased to reviewer-2", e.getMessage());
+        verifyNoInteractions(tokenService, outboxService, patientEvents);
+    }
+
+    @Test
+    void testApproveRedemptions_SkipsRowsTheReviewerCannotLock() {
+        BenefitRedemption pending = redemption("RED-1", "PENDING");
+        BenefitRedemption leased = redemption("RED-2", "PENDING");
+        leased.setClaimedBy("reviewer-2");
+        when(redemptionRepository.lockReviewableRedemptionIds(anyCollection(), eq("reviewer-1"), any())).thenReturn(List.of("RED-1"));
+        when(redemptionRepository.findByRedemptionIdIn(anyCollection())).thenReturn(List.of(pending, leased));
+        when(tokenService.convertHolds(List.of("RED-1"))).thenReturn(Set.of("RED-1"));
+
+        List<BatchItemResult> results = benefitService.approveRedemptions(List.of("RED-1", "RED-2"), "HOSP-1", "reviewer-1");
+
+        assertEquals("Redemption is leased to reviewer-2", results.get(0).getMessage());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("APPROVED", pending.getStatus());
+        assertEquals("PENDING", leased.getStatus());
+    }
+
+    @Test
+    void testCompleteRedemptions_OnlyLockedApprovedRows() {
+        BenefitRedemption approved = redemption("RED-1", "APPROVED");
+        BenefitRedemption pending = redemption("RED-2", "PENDING");
+        when(redemptionRepository.lockRedemptionIdsByStatus(anyCollection(), eq("APPROVED"))).thenReturn(List.of("RED-1"));
+        when(redemptionRepository.findByRedemptionIdIn(anyCollection())).thenReturn(List.of(approved, pending));
+
+        List<BatchItemResult> results = benefitService.completeRedemptions(List.of(
+                new RedemptionCompletion("RED-1", "0xabc"),
+                new RedemptionCompletion("RED-2", "0xdef")));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("COMPLETED", approved.getStatus());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Redemption is not approved: PENDING", results.get(1).getMessage());
+    }
+
+    private BenefitRedemption redemption(String redemptionId, String status) {
+        Patient patient = new Patient();
+        patient.setId(1L);
+        BenefitRedemption redemption = new BenefitRedemption();
+        redemption.setPatient(patient);
+        redemption.setRedemptionId(redemptionId);
+        redemption.setHtAmount(20 * TokenAmount.ONE);
+        redemption.setStatus(status);
+        return redemption;
+    }
 }
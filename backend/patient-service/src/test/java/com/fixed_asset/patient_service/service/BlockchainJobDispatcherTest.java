@@ -0,0 +1,127 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlockchainJobDispatcherTest {
+
+    @Mock
+    private BlockchainJobService jobService;
+
+    @Mock
+    private BlockchainService blockchainService;
+
+    @InjectMocks
+    private BlockchainJobDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+    }
+
+    @Test
+    void testProcess_RecordsHashBeforeBroadcast() {
+        BlockchainJob job = job("JOB-1");
+        ChainOperationResult prepared = ChainOperationResult.prepared("0xabc", 4L);
+        List<ChainOperationResult> sent = List.of(ChainOperationResult.submitted("0xabc"));
+        when(blockchainService.prepareBatch(eq("ASSET_TOKEN"), anyList())).thenReturn(List.of(prepared));
+        when(jobService.recordBroadcast(job, "0xabc", 4L)).thenReturn(true);
+        when(blockchainService.broadcastPrepared(List.of("0xabc"))).thenReturn(sent);
+
+        ReflectionTestUtils.invokeMethod(dispatcher, "process", "ASSET_TOKEN", List.of(job));
+
+        InOrder order = inOrder(jobService, blockchainService);
+        order.verify(jobService).recordBroadcast(job, "0xabc", 4L);
+        order.verify(blockchainService).broadcastPrepared(List.of("0xabc"));
+        order.verify(jobService).completeBatch(List.of(job), sent);
+    }
+
+    @Test
+    void testProcess_LostClaimIsNeverBroadcast() {
+        BlockchainJob job = job("JOB-1");
+        when(blockchainService.prepareBatch(eq("ASSET_TOKEN"), anyList()))
+                .thenReturn(List.of(ChainOperationResult.prepared("0xabc", 4L)));
+        when(jobService.recordBroadcast(job, "0xabc", 4L)).thenReturn(false);
+
+        ReflectionTestUtils.invokeMethod(dispatcher, "process", "ASSET_TOKEN", List.of(job));
+
+        verify(blockchainService).discardPrepared(List.of("0xabc"));
+        verify(blockchainService, never()).broadcastPrepared(any());
+        verify(jobService, never()).completeBatch(any(), any());
+    }
+
+    @Test
+    void testProcess_BroadcastErrorLeavesJobsForRecovery() {
+        BlockchainJob job = job("JOB-1");
+        when(blockchainService.prepareBatch(eq("ASSET_TOKEN"), anyList()))
+                .thenReturn(List.of(ChainOperationResult.prepared("0xabc", 4L)));
+        when(jobService.recordBroadcast(job, "0xabc", 4L)).thenReturn(true);
+        when(blockchainService.broadcastPrepared(any())).thenThrow(new RuntimeException("connection reset"));
+
+        ReflectionTestUtils.invokeMethod(dispatcher, "process", "ASSET_TOKEN", List.of(job));
+
+        verify(jobService, never()).completeBatch(any(), any());
+    }
+
+    @Test
+    void testRecoverStaleJobs_UnsentJobIsRequeued() {
+        BlockchainJob job = job("JOB-1");
+        when(jobService.findStaleJobs(20)).thenReturn(List.of(job));
+
+        dispatcher.recoverStaleJobs();
+
+        verify(jobService).requeueUnsent(job);
+        verifyNoInteractions(blockchainService);
+    }
+
+    @Test
+    void testRecoverStaleJobs_RecordedJobIsLookedUpOnChain() {
+        BlockchainJob job = job("JOB-1");
+        job.setTransactionHash("0xabc");
+        job.setNonce(4L);
+        ChainOperationResult stillPending = ChainOperationResult.submitted("0xabc");
+        when(jobService.findStaleJobs(20)).thenReturn(List.of(job));
+        when(blockchainService.lookupTransaction("0xabc", 4L)).thenReturn(stillPending);
+
+        dispatcher.recoverStaleJobs();
+
+        verify(jobService).completeBatch(List.of(job), List.of(stillPending));
+        verify(jobService, never()).requeueUnsent(any());
+    }
+
+    @Test
+    void testRecoverStaleJobs_LookupFailureLeavesJobClaimed() {
+        BlockchainJob job = job("JOB-1");
+        job.setTransactionHash("0xabc");
+        when(jobService.findStaleJobs(20)).thenReturn(List.of(job));
+        when(blockchainService.lookupTransaction("0xabc", null)).thenThrow(new RuntimeException("timeout"));
+
+        dispatcher.recoverStaleJobs();
+
+        verify(jobService, never()).completeBatch(any(), any());
+        verify(jobService, never()).requeueUnsent(any());
+    }
+
+    private BlockchainJob job(String jobId) {
+        BlockchainJob job = new BlockchainJob();
+        job.setJobId(jobId);
+        job.setOperation("MINT_AT");
+        job.setStatus("SUBMITTING");
+        job.setClaimedBy("node-1:abc");
+        return job;
+    }
+}
@@ -0,0 +1,231 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainOperationResult;
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.AssetDepositRepository;
+import com.fixed_asset.patient_service.repository.BlockchainJobRepository;
+import com.fixed_asset.patient_service.repository.TokenTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlockchainJobServiceTest {
+
+    @Mock
+    private BlockchainJobRepository jobRepository;
+
+    @Mock
+    private AssetDepositRepository depositRepository;
+
+    @Mock
+    private TokenTransactionRepository tokenTransactionRepository;
+
+    @Mock
+    private PatientTokenStatsService statsService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @InjectMocks
+    private BlockchainJobServiceImpl jobService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jobService, "maxAttempts", 3);
+    }
+
+    @Test
+    void testCompleteBatch_SuccessMarksDepositProcessed() {
+        AssetDeposit deposit = new AssetDeposit();
+        deposit.setId(7L);
+        deposit.setPatient(patient(1L));
+        deposit.setStatus("APPROVED");
+        deposit.setTokensMinted(250 * TokenAmount.ONE);
+        BlockchainJob job = job("ASSET_DEPOSIT", 7L);
+        when(depositRepository.findById(7L)).thenReturn(Optional.of(deposit));
+        claimStillHeld();
+
+        jobService.completeBatch(List.of(job), List.of(ChainOperationResult.success("0xabc")));
+
+        assertEquals("CONFIRMED", job.getStatus());
+        assertEquals("0xabc", job.getTransactionHash());
+        assertEquals("PROCESSED", deposit.getStatus());
+        verify(statsService).recordDepositTransition(1L, "APPROVED", 250 * TokenAmount.ONE, "PROCESSED", 250 * TokenAmount.ONE);
+        verify(outboxService).recordDepositEvent(deposit, "DEPOSIT_PROCESSED");
+        verify(jobRepository).releaseClaim(eq(70L), eq("node-1:abc"), eq("CONFIRMED"), eq(1), eq("0xabc"),
+                isNull(), isNull(), notNull(), any());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void testCompleteBatch_FailureIsRetriedUntilMaxAttempts() {
+        BlockchainJob job = job("ASSET_DEPOSIT", 7L);
+        claimStillHeld();
+
+        jobService.completeBatch(List.of(job), List.of(ChainOperationResult.failure("nonce too low")));
+
+        assertEquals("QUEUED", job.getStatus());
+        assertNull(job.getClaimedBy());
+        verifyNoInteractions(depositRepository);
+
+        job.setAttempts(2);
+        job.setClaimedBy("node-1:def");
+        AssetDeposit deposit = new AssetDeposit();
+        deposit.setPatient(patient(1L));
+        when(depositRepository.findById(7L)).thenReturn(Optional.of(deposit));
+        jobService.completeBatch(List.of(job), List.of(ChainOperationResult.failure("nonce too low")));
+
+        assertEquals("FAILED", job.getStatus());
+    }
+
+    @Test
+    void testCompleteBatch_BroadcastWaitsForConfirmations() {
+        TokenTransaction transaction = new TokenTransaction();
+        transaction.setPatient(patient(1L));
+        transaction.setStatus("PENDING");
+        BlockchainJob job = job("TOKEN_TRANSACTION", 9L);
+        when(tokenTransactionRepository.findById(9L)).thenReturn(Optional.of(transaction));
+        claimStillHeld();
+
+        jobService.completeBatch(List.of(job), List.of(ChainOperationResult.submitted("0xdef")));
+
+        assertEquals("SUBMITTED", job.getStatus());
+        assertEquals("0xdef", job.getTransactionHash());
+        assertNull(job.getCompletedAt());
+        assertEquals("PENDING", transaction.getStatus());
+        assertEquals("0xdef", transaction.getTransactionHash());
+        verify(ledgerVersion).bump(transaction);
+    }
+
+    @Test
+    void testResolveSubmitted_ConfirmsWithMinedHash() {
+        TokenTransaction transaction = new TokenTransaction();
+        transaction.setPatient(patient(1L));
+        transaction.setStatus("PENDING");
+        BlockchainJob job = job("TOKEN_TRANSACTION", 9L);
+        job.setStatus("SUBMITTED");
+        job.setAttempts(1);
+        when(jobRepository.findByTransactionHashAndStatus("0xdef", "SUBMITTED")).thenReturn(Optional.of(job));
+        when(tokenTransactionRepository.findById(9L)).thenReturn(Optional.of(transaction));
+        when(jobRepository.resolveSubmitted(eq(70L), eq("CONFIRMED"), eq(1), eq("0xbeef"), any(), any(), any(), any()))
+                .thenReturn(1);
+
+        assertTrue(jobService.resolveSubmitted("0xdef", "0xbeef", true, null));
+
+        assertEquals("CONFIRMED", job.getStatus());
+        assertEquals("0xbeef", job.getTransactionHash());
+        assertEquals("CONFIRMED", transaction.getStatus());
+        assertEquals("0xbeef", transaction.getTransactionHash());
+        verify(ledgerVersion).bump(transaction);
+    }
+
+    @Test
+    void testResolveSubmitted_RevertIsRequeued() {
+        BlockchainJob job = job("TOKEN_TRANSACTION", 9L);
+        job.setStatus("SUBMITTED");
+        job.setAttempts(1);
+        when(jobRepository.findByTransactionHashAndStatus("0xdef", "SUBMITTED")).thenReturn(Optional.of(job));
+        when(jobRepository.resolveSubmitted(eq(70L), eq("QUEUED"), eq(1), isNull(), isNull(), any(), isNull(), any()))
+                .thenReturn(1);
+
+        assertTrue(jobService.resolveSubmitted("0xdef", "0xdef", false, "Transaction reverted: 0xdef"));
+
+        assertEquals("QUEUED", job.getStatus());
+        assertEquals("Transaction reverted: 0xdef", job.getLastError());
+        verifyNoInteractions(tokenTransactionRepository);
+    }
+
+    @Test
+    void testResolveSubmitted_AlreadyResolved() {
+        when(jobRepository.findByTransactionHashAndStatus("0xdef", "SUBMITTED")).thenReturn(Optional.empty());
+
+        assertFalse(jobService.resolveSubmitted("0xdef", "0xdef", true, null));
+
+        verify(jobRepository, never()).resolveSubmitted(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testCompleteBatch_LostClaimLeavesReferenceAlone() {
+        BlockchainJob job = job("ASSET_DEPOSIT", 7L);
+        when(jobRepository.releaseClaim(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        jobService.completeBatch(List.of(job), List.of(ChainOperationResult.success("0xabc")));
+
+        assertEquals("node-1:abc", job.getClaimedBy());
+        verifyNoInteractions(depositRepository, statsService, outboxService);
+    }
+
+    @Test
+    void testRecordBroadcast_OnlyForCurrentClaim() {
+        BlockchainJob job = job("ASSET_DEPOSIT", 7L);
+        when(jobRepository.recordBroadcast(eq(70L), eq("node-1:abc"), eq("0xabc"), eq(4L), any())).thenReturn(1);
+
+        assertTrue(jobService.recordBroadcast(job, "0xabc", 4L));
+        assertEquals("0xabc", job.getTransactionHash());
+        assertEquals(4L, job.getNonce());
+
+        job.setClaimedBy("node-2:def");
+        when(jobRepository.recordBroadcast(eq(70L), eq("node-2:def"), any(), any(), any())).thenReturn(0);
+        assertFalse(jobService.recordBroadcast(job, "0xbcd", 5L));
+        assertEquals("0xabc", job.getTransactionHash());
+    }
+
+    @Test
+    void testRequeueUnsent_RefusesJobWithRecordedTransaction() {
+        BlockchainJob job = job("ASSET_DEPOSIT", 7L);
+        job.setTransactionHash("0xabc");
+
+        assertThrows(RuntimeException.class, () -> jobService.requeueUnsent(job));
+
+        verify(jobRepository, never()).releaseClaim(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testRequeueUnsent_KeepsAttempts() {
+        BlockchainJob job = job("ASSET_DEPOSIT", 7L);
+        job.setAttempts(1);
+        when(jobRepository.releaseClaim(eq(70L), eq("node-1:abc"), eq("QUEUED"), eq(1), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(1);
+
+        assertTrue(jobService.requeueUnsent(job));
+    }
+
+    private void claimStillHeld() {
+        when(jobRepository.releaseClaim(any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+    }
+
+    private Patient patient(Long id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+
+    private BlockchainJob job(String referenceType, Long referenceId) {
+        BlockchainJob job = new BlockchainJob();
+        job.setId(70L);
+        job.setJobId("JOB-1");
+        job.setStatus("SUBMITTING");
+        job.setClaimedBy("node-1:abc");
+        job.setReferenceType(referenceType);
+        job.setReferenceId(referenceId);
+        return job;
+    }
+}
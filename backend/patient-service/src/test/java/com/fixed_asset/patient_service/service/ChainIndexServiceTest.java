@@ -0,0 +1,200 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.ChainCheckpoint;
+import com.fixed_asset.patient_service.model.ChainEventRecord;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.AssetDepositRepository;
+import com.fixed_asset.patient_service.repository.ChainCheckpointRepository;
+import com.fixed_asset.patient_service.repository.ChainEventRecordRepository;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.TokenTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChainIndexServiceTest {
+
+    private static final String WALLET = "0x1111111111111111111111111111111111111111";
+    private static final BigInteger TOKEN = BigInteger.TEN.pow(18);
+
+    @Mock
+    private ChainCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ChainEventRecordRepository eventRepository;
+
+    @Mock
+    private AssetDepositRepository depositRepository;
+
+    @Mock
+    private TokenTransactionRepository tokenTransactionRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientTokenStatsService statsService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @InjectMocks
+    private ChainIndexServiceImpl indexService;
+
+    private ChainCheckpoint checkpoint;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        checkpoint = new ChainCheckpoint("hospital-financials", 99L);
+        patient = new Patient();
+        patient.setId(1L);
+        patient.setWalletAddress(WALLET);
+    }
+
+    @Test
+    void testApplyRange_MintProcessesDepositAndAdvancesCheckpoint() {
+        AssetDeposit deposit = new AssetDeposit();
+        deposit.setId(5L);
+        deposit.setPatient(patient);
+        deposit.setDepositId("7001");
+        deposit.setStatus("APPROVED");
+        deposit.setTokensMinted(250 * TokenAmount.ONE);
+        when(checkpointRepository.lockByName("hospital-financials")).thenReturn(Optional.of(checkpoint));
+        when(depositRepository.findByDepositIdIn(argThat(ids -> ids.contains("7001")))).thenReturn(List.of(deposit));
+
+        int applied = indexService.applyRange("hospital-financials", 100, 120, "0xhash120", List.of(minted(101, 1)));
+
+        assertEquals(1, applied);
+        assertEquals("PROCESSED", deposit.getStatus());
+        assertEquals(120L, checkpoint.getBlockNumber());
+        assertEquals("0xhash120", checkpoint.getBlockHash());
+        verify(eventRepository).save(any(ChainEventRecord.class));
+        verify(statsService).recordDepositTransition(1L, "APPROVED", 250 * TokenAmount.ONE, "PROCESSED", 250 * TokenAmount.ONE);
+        verify(outboxService).recordDepositEvent(deposit, "DEPOSIT_PROCESSED");
+    }
+
+    @Test
+    void testApplyRange_ReplayedLogIsSkipped() {
+        when(checkpointRepository.lockByName("hospital-financials")).thenReturn(Optional.of(checkpoint));
+        when(eventRepository.existsByTransactionHashAndLogIndex("0xtx101", 1)).thenReturn(true);
+
+        int applied = indexService.applyRange("hospital-financials", 100, 120, "0xhash120", List.of(minted(101, 1)));
+
+        assertEquals(0, applied);
+        assertEquals(120L, checkpoint.getBlockNumber());
+        verify(eventRepository, never()).save(any());
+        verifyNoInteractions(depositRepository, statsService, outboxService);
+    }
+
+    @Test
+    void testApplyRange_RejectsRangeNotFollowingCheckpoint() {
+        checkpoint.setBlockNumber(120L);
+        when(checkpointRepository.lockByName("hospital-financials")).thenReturn(Optional.of(checkpoint));
+
+        assertThrows(RuntimeException.class,
+                () -> indexService.applyRange("hospital-financials", 100, 120, "0xhash120", List.of(minted(101, 1))));
+
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testApplyRange_ExternalRedemptionAddsConfirmedBurn() {
+        when(checkpointRepository.lockByName("hospital-financials")).thenReturn(Optional.of(checkpoint));
+        when(tokenTransactionRepository.findByTransactionHash("0xtx118")).thenReturn(Optional.empty());
+        when(patientRepository.findByWalletAddress(WALLET)).thenReturn(Optional.of(patient));
+
+        indexService.applyRange("hospital-financials", 100, 120, "0xhash120", List.of(redeemed(118)));
+
+        verify(tokenTransactionRepository).save(argThat(transaction ->
+                "BURN".equals(transaction.getTransactionType())
+                        && "HT".equals(transaction.getTokenType())
+                        && "CONFIRMED".equals(transaction.getStatus())
+                        && transaction.getAmount() == 10 * TokenAmount.ONE
+                        && "0xtx118".equals(transaction.getTransactionHash())));
+    }
+
+    @Test
+    void testApplyRange_KnownRedemptionIsConfirmed() {
+        TokenTransaction transaction = new TokenTransaction();
+        transaction.setPatient(patient);
+        transaction.setTransactionHash("0xtx118");
+        transaction.setStatus("PENDING");
+        when(checkpointRepository.lockByName("hospital-financials")).thenReturn(Optional.of(checkpoint));
+        when(tokenTransactionRepository.findByTransactionHash("0xtx118")).thenReturn(Optional.of(transaction));
+
+        indexService.applyRange("hospital-financials", 100, 120, "0xhash120", List.of(redeemed(118)));
+
+        assertEquals("CONFIRMED", transaction.getStatus());
+        verify(ledgerVersion).bump(transaction);
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testRewind_DemotesOrphanedConfirmations() {
+        checkpoint.setBlockNumber(158L);
+        ChainEventRecord orphaned = new ChainEventRecord();
+        orphaned.setEventName("HealthTokenRedeemed");
+        orphaned.setTransactionHash("0xtx150");
+        orphaned.setBlockNumber(150L);
+        TokenTransaction transaction = new TokenTransaction();
+        transaction.setPatient(patient);
+        transaction.setStatus("CONFIRMED");
+        when(checkpointRepository.lockByName("hospital-financials")).thenReturn(Optional.of(checkpoint));
+        when(eventRepository.findAfterBlock(146L)).thenReturn(List.of(orphaned));
+        when(tokenTransactionRepository.findByTransactionHash("0xtx150")).thenReturn(Optional.of(transaction));
+
+        assertEquals(1, indexService.rewind("hospital-financials", 146L, "0xhash146"));
+
+        assertEquals("PENDING", transaction.getStatus());
+        verify(ledgerVersion).bump(transaction);
+        assertEquals(146L, checkpoint.getBlockNumber());
+        verify(eventRepository).deleteAfterBlock(146L);
+    }
+
+    private ChainEvent minted(long block, int logIndex) {
+        ChainEvent event = new ChainEvent();
+        event.setEventName("AssetTokenMinted");
+        event.setContractAddress("0xf1");
+        event.setBlockNumber(block);
+        event.setBlockHash("0xhash" + block);
+        event.setTransactionHash("0xtx" + block);
+        event.setLogIndex(logIndex);
+        event.setWalletAddress(WALLET);
+        event.setDepositNumber(BigInteger.valueOf(7001));
+        event.setAmount(TOKEN.multiply(BigInteger.valueOf(250)));
+        return event;
+    }
+
+    private ChainEvent redeemed(long block) {
+        ChainEvent event = new ChainEvent();
+        event.setEventName("HealthTokenRedeemed");
+        event.setContractAddress("0xf1");
+        event.setBlockNumber(block);
+        event.setBlockHash("0xhash" + block);
+        event.setTransactionHash("0xtx" + block);
+        event.setLogIndex(0);
+        event.setWalletAddress(WALLET);
+        event.setAmount(TOKEN.multiply(BigInteger.TEN));
+        event.setServiceType("CHECKUP");
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChainLogDecoderTest {
+
+    private static final BigInteger TOKEN = BigInteger.TEN.pow(18);
+
+    private final ChainLogDecoder decoder = new ChainLogDecoder();
+    private List<Log> logs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        try (InputStream in = getClass().getResourceAsStream("/chain/hospital-financials-logs.json")) {
+            logs = objectMapper.readValue(in, new TypeReference<List<Log>>() {});
+        }
+    }
+
+    @Test
+    void testDecodesEveryRecordedLog() {
+        List<ChainEvent> events = logs.stream().map(decoder::decode).collect(Collectors.toList());
+
+        assertEquals(12, events.size());
+        assertTrue(events.stream().allMatch(event -> event != null));
+    }
+
+    @Test
+    void testAssetTokenMinted() {
+        ChainEvent event = decoder.decode(logs.get(1));
+
+        assertEquals("AssetTokenMinted", event.getEventName());
+        assertEquals("0x1111111111111111111111111111111111111111", event.getWalletAddress());
+        assertEquals(BigInteger.valueOf(7001), event.getDepositNumber());
+        assertEquals(TOKEN.multiply(BigInteger.valueOf(250)), event.getAmount());
+        assertEquals("gold bar #1", event.getMetadata());
+        assertEquals(101, event.getBlockNumber());
+        assertEquals(1, event.getLogIndex());
+    }
+
+    @Test
+    void testDepositMetadataSet() {
+        ChainEvent event = decoder.decode(logs.get(0));
+
+        assertEquals("DepositMetadataSet", event.getEventName());
+        assertEquals(BigInteger.valueOf(7001), event.getDepositNumber());
+        assertEquals("gold bar #1", event.getMetadata());
+    }
+
+    @Test
+    void testTradeAndProfitEvents() {
+        ChainEvent trade = decoder.decode(logs.get(2));
+        ChainEvent profit = decoder.decode(logs.get(3));
+
+        assertEquals("TradeRecorded", trade.getEventName());
+        assertEquals(BigInteger.ONE, trade.getTradeId());
+        assertEquals(TOKEN.multiply(BigInteger.valueOf(1000)), trade.getAmount());
+        assertEquals(TOKEN.multiply(BigInteger.valueOf(50)), trade.getProfit());
+
+        assertEquals("ProfitDistributed", profit.getEventName());
+        assertEquals(TOKEN.multiply(BigInteger.valueOf(50)), profit.getProfit());
+        assertEquals(TOKEN.multiply(BigInteger.valueOf(40)), profit.getAmount());
+    }
+
+    @Test
+    void testHealthTokenRedeemed() {
+        ChainEvent event = decoder.decode(logs.get(4));
+
+        assertEquals("HealthTokenRedeemed", event.getEventName());
+        assertEquals(TOKEN.multiply(BigInteger.TEN), event.getAmount());
+        assertEquals("CHECKUP", event.getServiceType());
+        assertEquals(1700000118L, event.getTimestamp());
+    }
+
+    @Test
+    void testUnknownTopicIsSkipped() {
+        Log transfer = logs.get(4);
+        transfer.setTopics(List.of("0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef"));
+
+        assertNull(decoder.decode(transfer));
+    }
+}
@@ -0,0 +1,218 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fixed_asset.patient_service.dto.ChainEvent;
+import com.fixed_asset.patient_service.model.ChainCheckpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the indexer against StubRpcServer replaying the recorded logs in
+ * src/test/resources/chain. The stub rejects eth_getLogs calls that would
+ * return more than maxResults logs, like a hosted provider would.
+ */
+public class ChainLogIndexerTest {
+
+    private static final String HOSPITAL_FINANCIALS = "0x00000000000000000000000000000000000000f1";
+    private static final String ASSET_TOKEN = "0x00000000000000000000000000000000000000a1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, String> forkedHashes = new HashMap<>();
+    private final List<long[]> servedRanges = new ArrayList<>();
+    private final List<ChainEvent> applied = new ArrayList<>();
+
+    private List<JsonNode> recordedLogs;
+    private long head = 160;
+    private int maxResults = 5;
+
+    private StubRpcServer rpcServer;
+    private Web3j web3j;
+    private ChainIndexService indexService;
+    private ChainCheckpoint checkpoint;
+    private ChainLogIndexer indexer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recordedLogs = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream("/chain/hospital-financials-logs.json")) {
+            objectMapper.readTree(in).forEach(recordedLogs::add);
+        }
+
+        rpcServer = new StubRpcServer(0);
+        rpcServer.on("eth_blockNumber", params -> "0x" + Long.toHexString(head));
+        rpcServer.on("eth_getBlockByNumber", params -> block(Long.decode(params.get(0).asText())));
+        rpcServer.on("eth_getLogs", params -> logs(params.get(0)));
+        web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+
+        checkpoint = new ChainCheckpoint(ChainLogIndexer.CHECKPOINT, 99L);
+        indexService = mock(ChainIndexService.class);
+        when(indexService.getCheckpoint(eq(ChainLogIndexer.CHECKPOINT), anyLong())).thenAnswer(invocation -> checkpoint);
+        when(indexService.applyRange(eq(ChainLogIndexer.CHECKPOINT), anyLong(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(1);
+            assertEquals(checkpoint.getBlockNumber() + 1, from, "ranges must be contiguous");
+            checkpoint.setBlockNumber(invocation.getArgument(2));
+            checkpoint.setBlockHash(invocation.getArgument(3));
+            List<ChainEvent> events = invocation.getArgument(4);
+            applied.addAll(events);
+            return events.size();
+        });
+        when(indexService.rewind(eq(ChainLogIndexer.CHECKPOINT), anyLong(), any())).thenAnswer(invocation -> {
+            long toBlock = invocation.getArgument(1);
+            checkpoint.setBlockNumber(toBlock);
+            checkpoint.setBlockHash(invocation.getArgument(2));
+            int before = applied.size();
+            applied.removeIf(event -> event.getBlockNumber() > toBlock);
+            return before - applied.size();
+        });
+
+        indexer = new ChainLogIndexer();
+        ReflectionTestUtils.setField(indexer, "web3j", web3j);
+        ReflectionTestUtils.setField(indexer, "decoder", new ChainLogDecoder());
+        ReflectionTestUtils.setField(indexer, "indexService", indexService);
+        ReflectionTestUtils.setField(indexer, "hospitalFinancialsAddress", HOSPITAL_FINANCIALS);
+        ReflectionTestUtils.setField(indexer, "assetTokenAddress", ASSET_TOKEN);
+        ReflectionTestUtils.setField(indexer, "startBlock", 100L);
+        ReflectionTestUtils.setField(indexer, "confirmations", 2L);
+        ReflectionTestUtils.setField(indexer, "reorgDepth", 12L);
+        ReflectionTestUtils.setField(indexer, "initialRange", 100L);
+        ReflectionTestUtils.setField(indexer, "maxRange", 100L);
+        ReflectionTestUtils.setField(indexer, "targetLogs", 10);
+        ReflectionTestUtils.setField(indexer, "decodeThreads", 2);
+        indexer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexer.stop();
+        web3j.shutdown();
+        rpcServer.close();
+    }
+
+    @Test
+    void testIndexesToConfirmedHeadWithAdaptiveRanges() {
+        assertEquals(158, indexer.indexToHead());
+
+        assertEquals(12, applied.size());
+        assertEquals(158, checkpoint.getBlockNumber());
+        assertEquals(hash(158), checkpoint.getBlockHash());
+        // Events arrive in chain order
+        for (int i = 1; i < applied.size(); i++) {
+            ChainEvent previous = applied.get(i - 1);
+            ChainEvent current = applied.get(i);
+            assertTrue(previous.getBlockNumber() < current.getBlockNumber()
+                    || (previous.getBlockNumber() == current.getBlockNumber() && previous.getLogIndex() < current.getLogIndex()));
+        }
+        // The opening 100-block query was refused and split
+        assertTrue(servedRanges.stream().allMatch(range -> range[1] - range[0] + 1 < 59));
+    }
+
+    @Test
+    void testNothingPastConfirmedHead() {
+        head = 101;
+
+        assertEquals(99, indexer.indexToHead());
+
+        verify(indexService, never()).applyRange(any(), anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void testResumesFromCheckpoint() {
+        head = 120;
+        indexer.indexToHead();
+        assertEquals(118, checkpoint.getBlockNumber());
+        assertEquals(5, applied.size());
+
+        head = 160;
+        indexer.indexToHead();
+
+        assertEquals(12, applied.size());
+        assertEquals(12, uniqueLogs(applied));
+    }
+
+    @Test
+    void testShallowReorgRewindsAndReindexes() {
+        indexer.indexToHead();
+
+        // Blocks from 150 on are replaced; the logs stay (re-mined on the new branch)
+        for (long block = 150; block <= 170; block++) {
+            forkedHashes.put(block, Hash.sha3String("fork-" + block));
+        }
+        head = 170;
+        indexer.indexToHead();
+
+        verify(indexService).rewind(ChainLogIndexer.CHECKPOINT, 146L, hash(146));
+        assertEquals(168, checkpoint.getBlockNumber());
+        assertEquals(forkedHashes.get(168L), checkpoint.getBlockHash());
+        assertEquals(12, applied.size());
+        assertEquals(12, uniqueLogs(applied));
+    }
+
+    @Test
+    void testSingleBlockOverLimitFails() {
+        maxResults = 3;
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> indexer.indexToHead());
+
+        assertTrue(exception.getMessage().contains("Block 150"));
+        assertEquals(149, checkpoint.getBlockNumber());
+    }
+
+    private Object logs(JsonNode filter) {
+        long from = Long.decode(filter.get("fromBlock").asText());
+        long to = Long.decode(filter.get("toBlock").asText());
+        Set<String> addresses = new HashSet<>();
+        filter.get("address").forEach(address -> addresses.add(address.asText().toLowerCase()));
+
+        List<JsonNode> matches = new ArrayList<>();
+        for (JsonNode log : recordedLogs) {
+            long block = Long.decode(log.get("blockNumber").asText());
+            if (block >= from && block <= to && addresses.contains(log.get("address").asText())) {
+                matches.add(log);
+            }
+        }
+        if (matches.size() > maxResults) {
+            throw new StubRpcServer.RpcError(-32005, "query returned more than " + maxResults + " results");
+        }
+        servedRanges.add(new long[] {from, to});
+        return matches;
+    }
+
+    private Map<String, Object> block(long number) {
+        Map<String, Object> block = new LinkedHashMap<>();
+        block.put("number", "0x" + Long.toHexString(number));
+        block.put("hash", hash(number));
+        block.put("parentHash", hash(number - 1));
+        block.put("miner", Address.DEFAULT.toString());
+        return block;
+    }
+
+    private String hash(long block) {
+        return forkedHashes.getOrDefault(block, Hash.sha3String("block-" + block));
+    }
+
+    private int uniqueLogs(List<ChainEvent> events) {
+        Set<String> keys = new HashSet<>();
+        events.forEach(event -> keys.add(event.getTransactionHash() + ":" + event.getLogIndex()));
+        return keys.size();
+    }
+}
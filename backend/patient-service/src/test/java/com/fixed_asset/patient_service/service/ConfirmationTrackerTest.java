@@ -0,0 +1,262 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.BlockchainJob;
+import com.fixed_asset.patient_service.repository.BenefitRedemptionRepository;
+import com.fixed_asset.patient_service.repository.BlockchainJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the tracker block by block against StubRpcServer, which serves
+ * receipts from a map the tests edit between blocks.
+ */
+public class ConfirmationTrackerTest {
+
+    private static final String SIGNER_KEY = "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318";
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong minedNonces = new AtomicLong(3);
+    private final AtomicInteger rawSends = new AtomicInteger();
+    private final Map<String, Map<String, Object>> receipts = new ConcurrentHashMap<>();
+
+    private StubRpcServer rpcServer;
+    private Web3j web3j;
+    private RpcBatchClient rpcBatchClient;
+    private BlockchainJobService jobService;
+    private BenefitService benefitService;
+    private BlockchainJobRepository jobRepository;
+    private BenefitRedemptionRepository redemptionRepository;
+    private ConfirmationTracker tracker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        rpcServer = new StubRpcServer(0);
+        rpcServer.on("eth_blockNumber", params -> "0x" + Long.toHexString(head.get()));
+        rpcServer.on("eth_getTransactionReceipt", params -> receipts.get(params.get(0).asText()));
+        web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+        rpcBatchClient = new RpcBatchClient(web3j, 100, 1);
+
+        jobService = mock(BlockchainJobService.class);
+        benefitService = mock(BenefitService.class);
+        jobRepository = mock(BlockchainJobRepository.class);
+        redemptionRepository = mock(BenefitRedemptionRepository.class);
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of());
+        when(redemptionRepository.findPendingTransactionHashesSince(any())).thenReturn(List.of());
+        ObjectProvider<TransactionSubmitter> noSigner = mock(ObjectProvider.class);
+
+        tracker = new ConfirmationTracker();
+        ReflectionTestUtils.setField(tracker, "web3j", web3j);
+        ReflectionTestUtils.setField(tracker, "rpcBatchClient", rpcBatchClient);
+        ReflectionTestUtils.setField(tracker, "transactionSubmitter", noSigner);
+        ReflectionTestUtils.setField(tracker, "jobService", jobService);
+        ReflectionTestUtils.setField(tracker, "benefitService", benefitService);
+        ReflectionTestUtils.setField(tracker, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(tracker, "redemptionRepository", redemptionRepository);
+        ReflectionTestUtils.setField(tracker, "confirmations", 2L);
+        ReflectionTestUtils.setField(tracker, "timeoutBlocks", 50L);
+        ReflectionTestUtils.setField(tracker, "discoveryOverlapMs", 60000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rpcBatchClient.close();
+        web3j.shutdown();
+        rpcServer.close();
+    }
+
+    @Test
+    void testResolvesOnceReceiptsAreDeepEnough() {
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of("0xa", "0xb", "0xc"), List.of());
+        when(redemptionRepository.findPendingTransactionHashesSince(any())).thenReturn(List.of("0xd"), List.of());
+        receipts.put("0xa", receipt("0xa", 10, true));
+        receipts.put("0xb", receipt("0xb", 10, false));
+        receipts.put("0xd", receipt("0xd", 10, true));
+
+        head.set(10);
+        assertEquals(0, tracker.checkNewBlock());
+        assertEquals(4, tracker.getPendingCount());
+
+        // Same head: no receipt lookups at all
+        int callsBefore = rpcServer.getRpcCalls();
+        assertEquals(0, tracker.checkNewBlock());
+        assertEquals(callsBefore + 1, rpcServer.getRpcCalls());
+
+        head.set(11);
+        assertEquals(3, tracker.checkNewBlock());
+
+        verify(jobService).resolveSubmitted("0xa", "0xa", true, null);
+        verify(jobService).resolveSubmitted(eq("0xb"), eq("0xb"), eq(false), contains("reverted"));
+        verify(benefitService).resolveRedemptionTransaction("0xd", true);
+        verify(jobService, never()).resolveSubmitted(eq("0xc"), any(), anyBoolean(), any());
+        assertEquals(1, tracker.getPendingCount());
+    }
+
+    @Test
+    void testReorganizedReceiptIsCheckedAgain() {
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of("0xa"), List.of());
+        receipts.put("0xa", receipt("0xa", 20, true));
+        head.set(20);
+        tracker.checkNewBlock();
+
+        // The block holding 0xa is replaced before it is two deep
+        receipts.remove("0xa");
+        head.set(21);
+        assertEquals(0, tracker.checkNewBlock());
+
+        receipts.put("0xa", receipt("0xa", 22, true));
+        head.set(22);
+        assertEquals(0, tracker.checkNewBlock());
+        head.set(23);
+        assertEquals(1, tracker.checkNewBlock());
+
+        verify(jobService, times(1)).resolveSubmitted("0xa", "0xa", true, null);
+    }
+
+    @Test
+    void testOverdueJobWithoutSignerKeepsWaiting() {
+        ReflectionTestUtils.setField(tracker, "timeoutBlocks", 5L);
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of("0xc"), List.of());
+        head.set(10);
+        tracker.checkNewBlock();
+
+        head.set(15);
+        assertEquals(0, tracker.checkNewBlock());
+        head.set(16);
+        assertEquals(0, tracker.checkNewBlock());
+
+        // It may still be mined, so it is never failed just for being late
+        verify(jobService, never()).resolveSubmitted(any(), any(), anyBoolean(), any());
+        assertEquals(1, tracker.getPendingCount());
+    }
+
+    @Test
+    void testOverdueJobIsCancelledAndFailsOnceNonceIsUsed() {
+        useSigner();
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of("0xc"), List.of());
+        when(jobRepository.findByTransactionHashAndStatus("0xc", "SUBMITTED")).thenReturn(Optional.of(jobWithNonce(3L)));
+        head.set(10);
+        tracker.checkNewBlock();
+
+        head.set(15);
+        assertEquals(0, tracker.checkNewBlock());
+        assertEquals(1, rawSends.get());
+        head.set(16);
+        assertEquals(0, tracker.checkNewBlock());
+        assertEquals(1, rawSends.get());
+        verify(jobService, never()).resolveSubmitted(any(), any(), anyBoolean(), any());
+
+        // The cancellation is mined, so 0xc never can be
+        minedNonces.set(4);
+        head.set(17);
+        assertEquals(1, tracker.checkNewBlock());
+
+        verify(jobService).resolveSubmitted(eq("0xc"), eq("0xc"), eq(false), contains("used by another transaction"));
+        assertEquals(0, tracker.getPendingCount());
+    }
+
+    @Test
+    void testOverdueJobMinedDespiteCancellationIsConfirmed() {
+        useSigner();
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of("0xc"), List.of());
+        when(jobRepository.findByTransactionHashAndStatus("0xc", "SUBMITTED")).thenReturn(Optional.of(jobWithNonce(3L)));
+        head.set(10);
+        tracker.checkNewBlock();
+        head.set(15);
+        tracker.checkNewBlock();
+        assertEquals(1, rawSends.get());
+
+        // The original wins the nonce
+        receipts.put("0xc", receipt("0xc", 16, true));
+        minedNonces.set(4);
+        head.set(17);
+        assertEquals(1, tracker.checkNewBlock());
+
+        verify(jobService).resolveSubmitted("0xc", "0xc", true, null);
+        verify(jobService, never()).resolveSubmitted(any(), any(), eq(false), any());
+    }
+
+    @Test
+    void testFailedResolutionIsRetriedNextBlock() {
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(List.of("0xa"), List.of());
+        receipts.put("0xa", receipt("0xa", 10, true));
+        when(jobService.resolveSubmitted("0xa", "0xa", true, null))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(true);
+
+        head.set(11);
+        assertEquals(0, tracker.checkNewBlock());
+        head.set(12);
+        assertEquals(1, tracker.checkNewBlock());
+    }
+
+    @Test
+    void testTwentyThousandHashesInOnePass() {
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String transactionHash = String.format("0x%064x", i);
+            hashes.add(transactionHash);
+            receipts.put(transactionHash, receipt(transactionHash, 100, true));
+        }
+        when(jobRepository.findSubmittedHashesSince(any())).thenReturn(hashes, List.of());
+
+        head.set(101);
+        assertEquals(20_000, tracker.checkNewBlock());
+
+        // One block number call plus receipts in batches of up to 100
+        assertTrue(rpcServer.getHttpRequests() < 400, "http requests: " + rpcServer.getHttpRequests());
+        verify(jobService, times(20_000)).resolveSubmitted(anyString(), anyString(), eq(true), isNull());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void useSigner() {
+        ReflectionTestUtils.setField(tracker, "timeoutBlocks", 5L);
+        rpcServer.on("eth_gasPrice", params -> "0x3b9aca00");
+        rpcServer.on("eth_getTransactionCount", params -> "0x" + Long.toHexString(minedNonces.get()));
+        rpcServer.on("eth_sendRawTransaction", params -> {
+            rawSends.incrementAndGet();
+            return String.format("0x%064x", rawSends.get());
+        });
+        TransactionSubmitter submitter = new TransactionSubmitter(web3j, Credentials.create(SIGNER_KEY), 1337,
+                new NonceManager(() -> 5L), BigInteger.valueOf(100_000), Duration.ofMinutes(5));
+        ObjectProvider<TransactionSubmitter> signer = mock(ObjectProvider.class);
+        when(signer.getIfAvailable()).thenReturn(submitter);
+        ReflectionTestUtils.setField(tracker, "transactionSubmitter", signer);
+    }
+
+    private BlockchainJob jobWithNonce(long nonce) {
+        BlockchainJob job = new BlockchainJob();
+        job.setStatus("SUBMITTED");
+        job.setNonce(nonce);
+        return job;
+    }
+
+    private Map<String, Object> receipt(String transactionHash, long blockNumber, boolean success) {
+        return Map.of(
+                "transactionHash", transactionHash,
+                "blockNumber", "0x" + Long.toHexString(blockNumber),
+                "blockHash", String.format("0x%064x", blockNumber),
+                "status", success ? "0x1" : "0x0",
+                "logs", List.of());
+    }
+}
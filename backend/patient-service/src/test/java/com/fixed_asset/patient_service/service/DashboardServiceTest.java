@@ -0,0 +1,130 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.DashboardStatsView;
+import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DashboardServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DepositService depositService;
+
+    @Mock
+    private BenefitService benefitService;
+
+    @Mock
+    private DashboardStatsView stats;
+
+    @InjectMocks
+    private DashboardServiceImpl dashboardService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        SingleFlight singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dashboardService, "singleFlight", singleFlight);
+    }
+
+    @Test
+    void testGetDashboard_UsesAggregateAndBoundedLookups() {
+        when(patientRepository.findDashboardStats(1L)).thenReturn(Optional.of(stats));
+        when(stats.getHealthTokenBalance()).thenReturn(40.0);
+        when(stats.getHealthTokenHeld()).thenReturn(15.0);
+        when(stats.getAvailableHealthTokenBalance()).thenReturn(25.0);
+        when(stats.getTotalDeposits()).thenReturn(1200L);
+        when(stats.getPendingDeposits()).thenReturn(3L);
+        when(depositService.getRecentDeposits(1L, 5)).thenReturn(Collections.emptyList());
+        when(benefitService.getRecentRedemptions(1L, 5)).thenReturn(Collections.emptyList());
+        when(benefitService.evaluateBenefits(25.0)).thenReturn(Collections.emptyList());
+
+        Map<String, Object> dashboard = dashboardService.getDashboard(1L);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> statistics = (Map<String, Object>) dashboard.get("statistics");
+        assertEquals(1200L, statistics.get("totalDeposits"));
+        assertEquals(3L, statistics.get("pendingDeposits"));
+        // Benefits are priced against what pending redemptions have not already held
+        TokenBalanceDTO balance = (TokenBalanceDTO) dashboard.get("tokenBalances");
+        assertEquals(25.0, balance.getAvailableHealthTokens());
+        verify(depositService, never()).getDepositsByPatientId(any());
+        verify(benefitService, never()).getRedemptionHistory(any());
+        verify(benefitService, never()).getAvailableBenefits(any(Long.class));
+    }
+
+    @Test
+    void testGetDashboardSummary_PatientNotFound() {
+        when(patientRepository.findDashboardStats(1L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> dashboardService.getDashboardSummary(1L));
+    }
+
+    @Test
+    void testGetDashboardSummary_ConcurrentCallsShareOneQuery() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        when(patientRepository.findDashboardStats(1L)).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(stats);
+        });
+        when(stats.getTotalDeposits()).thenReturn(1200L);
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Map<String, Object>>> summaries = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                summaries.add(pool.submit(() -> dashboardService.getDashboardSummary(1L)));
+            }
+            // Hold the first query open until every other caller has joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalesced() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<Map<String, Object>> summary : summaries) {
+                assertEquals(1200L, summary.get(5, TimeUnit.SECONDS).get("totalDeposits"));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, queries.get());
+        assertEquals(callers - 1, coalesced());
+        verify(patientRepository, times(1)).findDashboardStats(1L);
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("singleflight.calls", "group", "dashboardStats", "result", "coalesced").count();
+    }
+}
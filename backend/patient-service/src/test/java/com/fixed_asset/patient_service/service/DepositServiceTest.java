@@ -1,6 +1,11 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.BatchItemResult;
+import com.fixed_asset.patient_service.dto.CursorPage;
+import com.fixed_asset.patient_service.dto.DepositApproval;
 import com.fixed_asset.patient_service.dto.DepositRequest;
+import com.fixed_asset.patient_service.dto.DepositResponse;
+import com.fixed_asset.patient_service.dto.HistoryCursor;
 import com.fixed_asset.patient_service.model.AssetDeposit;
 import com.fixed_asset.patient_service.model.Patient;
 import com.fixed_asset.patient_service.repository.AssetDepositRepository;
@@ -11,11 +16,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +39,21 @@ public class DepositServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BlockchainJobService blockchainJobService;
+
+    @Mock
+    private PatientTokenStatsService statsService;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @Mock
+    private PatientEventPublisher patientEvents;
+
     @InjectMocks
     private DepositServiceImpl depositService;
 
@@ -44,6 +71,8 @@ public class DepositServiceTest {
         depositRequest.setAssetType("GOLD");
         depositRequest.setAssetValue(1000.0);
         depositRequest.setDescription("Gold deposit");
+
+        ReflectionTestUtils.setField(depositService, "leaseSeconds", 300L);
     }
 
     @Test
@@ -62,5 +91,191 @@ public class DepositServiceTest {
         assertEquals(1000.0, result.getAssetValue());
         assertEquals("PENDING", result.getStatus());
         verify(depositRepository, times(1)).save(any(AssetDeposit.class));
+        verify(outboxService).recordDepositEvent(any(AssetDeposit.class), eq("DEPOSIT_SUBMITTED"));
+    }
+
+    @Test
+    void testGetDepositPage_ExtraRowSignalsNextPage() {
+        LocalDateTime now = LocalDateTime.now();
+        List<AssetDeposit> rows = List.of(deposit(30L, now), deposit(20L, now), deposit(10L, now.minusMinutes(1)));
+        when(depositRepository.findByPatientIdOrderByCreatedAtDescIdDesc(eq(1L), any())).thenReturn(rows);
+
+        CursorPage<DepositResponse> page = depositService.getDepositPage(1L, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        HistoryCursor cursor = HistoryCursor.decode(page.getNextCursor());
+        assertEquals(20L, cursor.getId());
+        assertEquals(now, cursor.getCreatedAt());
+    }
+
+    @Test
+    void testGetDepositPage_CursorContinuesFromLastRow() {
+        LocalDateTime createdAt = LocalDateTime.now();
+        String cursor = HistoryCursor.encode(createdAt, 20L);
+        when(depositRepository.findPageBefore(eq(1L), eq(createdAt), eq(20L), any()))
+                .thenReturn(List.of(deposit(10L, createdAt.minusMinutes(1))));
+
+        CursorPage<DepositResponse> page = depositService.getDepositPage(1L, cursor, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetDepositPage_InvalidCursor() {
+        assertThrows(RuntimeException.class, () -> depositService.getDepositPage(1L, "not-a-cursor", 10));
+    }
+
+    @Test
+    void testApproveDeposit_EnqueuesMintOnce() {
+        patient.setWalletAddress("0x0000000000000000000000000000000000000001");
+        AssetDeposit pending = deposit(10L, LocalDateTime.now());
+        pending.setClaimedBy("reviewer-1");
+        pending.setLeaseExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(depositRepository.findById(10L)).thenReturn(Optional.of(pending));
+        when(depositRepository.transitionFromPending(eq(10L), eq("APPROVED"), eq("reviewer-1"), any())).thenReturn(1);
+        when(depositRepository.save(pending)).thenReturn(pending);
+        when(blockchainJobService.enqueueAssetMint(pending)).thenReturn("job-10");
+
+        assertTrue(depositService.approveDeposit(10L, 50 * TokenAmount.ONE, "0xa", "reviewer-1"));
+
+        assertEquals("APPROVED", pending.getStatus());
+        assertNull(pending.getClaimedBy());
+        assertEquals("job-10", pending.getMintJobId());
+        verify(blockchainJobService, times(1)).enqueueAssetMint(pending);
+    }
+
+    @Test
+    void testApproveDeposit_RepeatedOrRacingApprovalDoesNotMint() {
+        AssetDeposit approved = deposit(10L, LocalDateTime.now());
+        approved.setStatus("APPROVED");
+        when(depositRepository.findById(10L)).thenReturn(Optional.of(approved));
+        when(depositRepository.transitionFromPending(eq(10L), eq("APPROVED"), isNull(), any())).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> depositService.approveDeposit(10L, 50 * TokenAmount.ONE, "0xa", null));
+
+        assertEquals("Deposit is not pending: APPROVED", e.getMessage());
+        verifyNoInteractions(blockchainJobService, outboxService, statsService);
+        verify(depositRepository, never()).save(any());
+    }
+
+    @Test
+    void testRejectDeposit_LeasedToAnotherReviewer() {
+        AssetDeposit leased = deposit(10L, LocalDateTime.now());
+        leased.setClaimedBy("reviewer-2");
+        leased.setLeaseExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(depositRepository.findById(10L)).thenReturn(Optional.of(leased));
+        when(depositRepository.transitionFromPending(eq(10L), eq("REJECTED"), eq("reviewer-1"), any())).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> depositService.rejectDeposit(10L, "Unverifiable title", "reviewer-1"));
+
+        assertEquals("Deposit is leased to reviewer-2", e.getMessage());
+        assertEquals("PENDING", leased.getStatus());
+        verifyNoInteractions(outboxService, statsService, patientEvents);
+        verify(depositRepository, never()).save(any());
+    }
+
+    @Test
+    void testApproveDeposits_AppliesValidItemsAndReportsTheRest() {
+        patient.setWalletAddress("0x0000000000000000000000000000000000000001");
+        AssetDeposit pending = deposit(10L, LocalDateTime.now());
+        AssetDeposit approved = deposit(11L, LocalDateTime.now());
+        approved.setStatus("APPROVED");
+        AssetDeposit leased = deposit(13L, LocalDateTime.now());
+        leased.setClaimedBy("reviewer-2");
+        when(depositRepository.lockReviewableIds(anyCollection(), eq("reviewer-1"), any())).thenReturn(List.of(10L));
+        when(depositRepository.findWithPatientByIdIn(anyCollection())).thenReturn(List.of(pending, approved, leased));
+        when(blockchainJobService.enqueueAssetMint(pending)).thenReturn("job-10");
+
+        List<BatchItemResult> results = depositService.approveDeposits(List.of(
+                new DepositApproval(10L, 50.0, "0xa"),
+                new DepositApproval(11L, 50.0, "0xb"),
+                new DepositApproval(12L, 50.0, "0xc"),
+                new DepositApproval(10L, 50.0, "0xa"),
+                new DepositApproval(13L, 50.0, "0xd")), "reviewer-1");
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("APPROVED", results.get(0).getStatus());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Deposit is not pending: APPROVED", results.get(1).getMessage());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals("12", results.get(2).getId());
+        // A repeated id cannot mint twice
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Deposit is leased to reviewer-2", results.get(4).getMessage());
+        assertEquals("PENDING", leased.getStatus());
+
+        assertEquals(50 * TokenAmount.ONE, pending.getTokensMinted());
+        assertEquals("job-10", pending.getMintJobId());
+        verify(blockchainJobService, times(1)).enqueueAssetMint(any());
+        verify(outboxService, times(1)).recordDepositEvent(pending, "DEPOSIT_APPROVED");
+        verify(depositRepository, never()).save(any());
+    }
+
+    @Test
+    void testRejectDeposits_OnlyMovesPendingDeposits() {
+        AssetDeposit pending = deposit(10L, LocalDateTime.now());
+        AssetDeposit processed = deposit(11L, LocalDateTime.now());
+        processed.setStatus("PROCESSED");
+        when(depositRepository.lockReviewableIds(anyCollection(), isNull(), any())).thenReturn(List.of(10L));
+        when(depositRepository.findWithPatientByIdIn(anyCollection())).thenReturn(List.of(pending, processed));
+
+        List<BatchItemResult> results = depositService.rejectDeposits(List.of(10L, 11L), "Unverifiable title", null);
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("REJECTED", pending.getStatus());
+        assertEquals("Unverifiable title", pending.getMetadata());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("PROCESSED", processed.getStatus());
+        verify(statsService).recordDepositTransition(1L, "PENDING", 0L, "REJECTED", 0L);
+    }
+
+    @Test
+    void testClaimPendingDeposits_LeasesLockedRowsOldestFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        when(depositRepository.lockClaimableIds(any(), eq(2))).thenReturn(List.of(20L, 10L));
+        when(depositRepository.findAllById(List.of(20L, 10L)))
+                .thenReturn(List.of(deposit(20L, now), deposit(10L, now.minusMinutes(1))));
+
+        List<DepositResponse> claimed = depositService.claimPendingDeposits("reviewer-1", 2);
+
+        assertEquals(List.of(10L, 20L), claimed.stream().map(DepositResponse::getId).toList());
+        verify(depositRepository).lease(eq(List.of(20L, 10L)), eq("reviewer-1"),
+                argThat(expiresAt -> !expiresAt.isBefore(now.plusSeconds(300))));
+    }
+
+    @Test
+    void testClaimPendingDeposits_NothingClaimable() {
+        when(depositRepository.lockClaimableIds(any(), eq(20))).thenReturn(List.of());
+
+        assertTrue(depositService.claimPendingDeposits("reviewer-1", 20).isEmpty());
+
+        verify(depositRepository, never()).lease(any(), any(), any());
+    }
+
+    @Test
+    void testRenewDepositLeases_ReportsOnlyLeasesStillHeld() {
+        when(depositRepository.findLeasedIds(List.of(10L, 11L), "reviewer-1")).thenReturn(List.of(10L));
+
+        assertEquals(List.of(10L), depositService.renewDepositLeases("reviewer-1", List.of(10L, 11L)));
+
+        verify(depositRepository).renewLeases(eq(List.of(10L, 11L)), eq("reviewer-1"), any());
+    }
+
+    private AssetDeposit deposit(Long id, LocalDateTime createdAt) {
+        AssetDeposit deposit = new AssetDeposit();
+        deposit.setId(id);
+        deposit.setPatient(patient);
+        deposit.setAssetType("GOLD");
+        deposit.setAssetValue(1000.0);
+        deposit.setTokensMinted(0L);
+        deposit.setStatus("PENDING");
+        deposit.setCreatedAt(createdAt);
+        return deposit;
     }
-}
\ No newline at end of file
+}
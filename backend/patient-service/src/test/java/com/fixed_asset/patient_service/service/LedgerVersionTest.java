@@ -0,0 +1,49 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerVersionTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @InjectMocks
+    private LedgerVersion ledgerVersion;
+
+    @Test
+    void testBump_OutsideTransactionAppliesAtOnce() {
+        ledgerVersion.bump(2L, null, 1L, 2L);
+
+        verify(patientRepository).bumpLedgerVersions(aryEq(new Long[] {1L, 2L}));
+    }
+
+    @Test
+    void testBump_TransactionWithPatient() {
+        Patient patient = new Patient();
+        patient.setId(1L);
+        TokenTransaction transaction = new TokenTransaction();
+        transaction.setPatient(patient);
+
+        ledgerVersion.bump(transaction);
+
+        verify(patientRepository).bumpLedgerVersions(aryEq(new Long[] {1L}));
+    }
+
+    @Test
+    void testBump_TransactionWithoutPatientIsSkipped() {
+        ledgerVersion.bump(new TokenTransaction());
+
+        verifyNoInteractions(patientRepository);
+    }
+}
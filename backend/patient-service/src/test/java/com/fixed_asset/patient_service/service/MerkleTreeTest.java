@@ -0,0 +1,101 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.TypeEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MerkleTreeTest {
+
+    @Test
+    void testLeafMatchesSolidityEncoding() {
+        String wallet = "0x70997970C51812dc3A010C7d01b50e0d17dc79C8";
+        BigInteger amount = new BigInteger("1500000000000000000");
+
+        String encoded = TypeEncoder.encode(new Address(wallet)) + TypeEncoder.encode(new Uint256(amount));
+        byte[] expected = Hash.sha3(Hash.sha3(Numeric.hexStringToByteArray(encoded)));
+
+        assertArrayEquals(expected, MerkleTree.leaf(wallet, amount));
+    }
+
+    @Test
+    void testEveryProofVerifies() {
+        // Odd sizes exercise nodes carried up without a sibling
+        for (int count : new int[] {1, 2, 3, 7, 8, 33}) {
+            String[] wallets = wallets(count);
+            BigInteger[] amounts = amounts(count);
+            MerkleTree tree = MerkleTree.build(wallets, amounts, 1);
+
+            assertEquals(count, tree.getLeafCount());
+            for (int i = 0; i < count; i++) {
+                List<byte[]> proof = tree.getProof(i);
+                assertTrue(MerkleTree.verify(proof, tree.getRoot(), MerkleTree.leaf(wallets[i], amounts[i])),
+                        "leaf " + i + " of " + count);
+            }
+        }
+    }
+
+    @Test
+    void testSingleLeafIsTheRoot() {
+        MerkleTree tree = MerkleTree.build(wallets(1), amounts(1), 1);
+
+        assertArrayEquals(tree.getLeaf(0), tree.getRoot());
+        assertTrue(tree.getProof(0).isEmpty());
+    }
+
+    @Test
+    void testWrongAmountDoesNotVerify() {
+        String[] wallets = wallets(5);
+        BigInteger[] amounts = amounts(5);
+        MerkleTree tree = MerkleTree.build(wallets, amounts, 1);
+
+        byte[] inflated = MerkleTree.leaf(wallets[2], amounts[2].add(BigInteger.ONE));
+
+        assertFalse(MerkleTree.verify(tree.getProof(2), tree.getRoot(), inflated));
+    }
+
+    @Test
+    void testParallelBuildMatchesSequential() {
+        // Large enough that leaves and the first levels are split across threads
+        int count = 20_001;
+        String[] wallets = wallets(count);
+        BigInteger[] amounts = amounts(count);
+
+        MerkleTree sequential = MerkleTree.build(wallets, amounts, 1);
+        MerkleTree parallel = MerkleTree.build(wallets, amounts, 4);
+
+        assertArrayEquals(sequential.getRoot(), parallel.getRoot());
+        assertTrue(MerkleTree.verify(parallel.getProof(count - 1), parallel.getRoot(), parallel.getLeaf(count - 1)));
+    }
+
+    @Test
+    void testRejectsInvalidInput() {
+        assertThrows(RuntimeException.class, () -> MerkleTree.build(new String[0], new BigInteger[0], 1));
+        assertThrows(RuntimeException.class, () -> MerkleTree.build(wallets(2), amounts(3), 1));
+        assertThrows(RuntimeException.class, () -> MerkleTree.leaf("0x1234", BigInteger.ONE));
+        assertThrows(RuntimeException.class, () -> MerkleTree.build(wallets(2), amounts(2), 1).getProof(2));
+    }
+
+    private static String[] wallets(int count) {
+        String[] wallets = new String[count];
+        for (int i = 0; i < count; i++) {
+            wallets[i] = String.format("0x%040x", i + 1);
+        }
+        return wallets;
+    }
+
+    private static BigInteger[] amounts(int count) {
+        BigInteger[] amounts = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = BigInteger.valueOf(1000L * (i + 1));
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NonceManagerTest {
+
+    @Test
+    void testAllocate_ReadsChainOnceThenCountsLocally() {
+        AtomicInteger chainReads = new AtomicInteger();
+        NonceManager nonceManager = new NonceManager(() -> {
+            chainReads.incrementAndGet();
+            return 10L;
+        });
+
+        assertEquals(10L, nonceManager.allocate());
+        assertEquals(11L, nonceManager.allocate());
+        assertEquals(12L, nonceManager.allocate());
+        assertEquals(1, chainReads.get());
+    }
+
+    @Test
+    void testRelease_GapIsReusedBeforeNewNonces() {
+        NonceManager nonceManager = new NonceManager(() -> 0L);
+        nonceManager.allocate();
+        long failed = nonceManager.allocate();
+        nonceManager.allocate();
+
+        nonceManager.release(failed);
+
+        assertEquals(1, nonceManager.gapCount());
+        assertEquals(failed, nonceManager.allocate());
+        assertEquals(3L, nonceManager.allocate());
+    }
+
+    @Test
+    void testRelease_TrailingNonceRollsBack() {
+        NonceManager nonceManager = new NonceManager(() -> 5L);
+        nonceManager.allocate();
+        long last = nonceManager.allocate();
+
+        nonceManager.release(last);
+
+        assertEquals(0, nonceManager.gapCount());
+        assertEquals(last, nonceManager.allocate());
+    }
+
+    @Test
+    void testSentBefore_ReturnsOnlyOldInFlightTransactions() {
+        NonceManager nonceManager = new NonceManager(() -> 0L);
+        Instant now = Instant.now();
+        nonceManager.markSent(new InFlightTransaction(0, "0xto", "0x", BigInteger.ONE, "0xold", now.minusSeconds(120)));
+        nonceManager.markSent(new InFlightTransaction(1, "0xto", "0x", BigInteger.ONE, "0xnew", now));
+
+        assertEquals(1, nonceManager.sentBefore(now.minusSeconds(60)).size());
+
+        nonceManager.confirm(0);
+        assertEquals(1, nonceManager.inFlightCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.AssetDeposit;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.repository.OutboxEventRepository;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}")
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 3, topics = {"patient.asset-deposits", "patient.benefit-redemptions"})
+public class OutboxRelayIntegrationTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testPublishBatch_PreservesPerPatientOrder() {
+        // Interleave three patients' deposit lifecycles in one backlog
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String step : List.of("SUBMITTED", "APPROVED", "PROCESSED")) {
+                for (long patientId = 1; patientId <= 3; patientId++) {
+                    outboxService.recordDepositEvent(deposit(patientId * 100, patientId), "DEPOSIT_" + step);
+                }
+            }
+        });
+
+        assertEquals(9, outboxService.publishBatch(500));
+        assertEquals(0, outboxRepository.countByPublishedAtIsNull());
+
+        Map<String, List<String>> eventsByPatient = new HashMap<>();
+        try (Consumer<String, String> consumer = consumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, "patient.asset-deposits");
+            List<ConsumerRecord<String, String>> received = new ArrayList<>();
+            while (received.size() < 9) {
+                ConsumerRecords<String, String> records = KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(10));
+                assertFalse(records.isEmpty(), "Timed out after " + received.size() + " records");
+                records.forEach(received::add);
+            }
+            for (ConsumerRecord<String, String> record : received) {
+                String eventType = new String(record.headers().lastHeader("eventType").value());
+                eventsByPatient.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(eventType);
+            }
+        }
+
+        List<String> lifecycle = List.of("DEPOSIT_SUBMITTED", "DEPOSIT_APPROVED", "DEPOSIT_PROCESSED");
+        assertEquals(lifecycle, eventsByPatient.get("1"));
+        assertEquals(lifecycle, eventsByPatient.get("2"));
+        assertEquals(lifecycle, eventsByPatient.get("3"));
+    }
+
+    @Test
+    void testPublishBatch_NothingToRelay() {
+        assertEquals(0, outboxService.publishBatch(500));
+    }
+
+    private Consumer<String, String> consumer() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("outbox-test", "false", broker);
+        props.put("auto.offset.reset", "earliest");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer()).createConsumer();
+    }
+
+    private AssetDeposit deposit(Long id, Long patientId) {
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        AssetDeposit deposit = new AssetDeposit();
+        deposit.setId(id);
+        deposit.setPatient(patient);
+        deposit.setAssetType("GOLD");
+        deposit.setAssetValue(1000.0);
+        return deposit;
+    }
+}
@@ -0,0 +1,135 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.OutboxEvent;
+import com.fixed_asset.patient_service.repository.OutboxEventRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @InjectMocks
+    private OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "depositTopic", "deposits");
+        ReflectionTestUtils.setField(outboxService, "redemptionTopic", "redemptions");
+        ReflectionTestUtils.setField(outboxService, "sendTimeoutMs", 1000L);
+    }
+
+    @Test
+    void testPublishBatch_KeysByPatientAndMarksPublished() {
+        List<OutboxEvent> batch = List.of(
+                event(1L, 10L, "ASSET_DEPOSIT"),
+                event(2L, 20L, "BENEFIT_REDEMPTION"));
+        when(outboxRepository.lockUnpublished(any())).thenReturn(batch);
+        when(kafkaTemplate.send(anyRecord())).thenReturn(sent());
+
+        assertEquals(2, outboxService.publishBatch(500));
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, String> record) ->
+                record.topic().equals("deposits") && record.key().equals("10")));
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, String> record) ->
+                record.topic().equals("redemptions") && record.key().equals("20")));
+        verify(outboxRepository).markPublished(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void testPublishBatch_FailureHoldsBackLaterEventsForSamePatient() {
+        List<OutboxEvent> batch = List.of(
+                event(1L, 10L, "ASSET_DEPOSIT"),
+                event(2L, 20L, "ASSET_DEPOSIT"),
+                event(3L, 10L, "ASSET_DEPOSIT"));
+        when(outboxRepository.lockUnpublished(any())).thenReturn(batch);
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")))
+                .thenReturn(sent())
+                .thenReturn(sent());
+
+        assertEquals(1, outboxService.publishBatch(500));
+
+        // Event 3 is never sent ahead of event 1; both are retried on the next run
+        verify(kafkaTemplate, times(2)).send(anyRecord());
+        verify(outboxRepository).markPublished(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void testPublishBatch_SendsPatientsNextEventAfterAcknowledgement() {
+        List<OutboxEvent> batch = List.of(
+                event(1L, 10L, "ASSET_DEPOSIT"),
+                event(2L, 20L, "ASSET_DEPOSIT"),
+                event(3L, 10L, "ASSET_DEPOSIT"));
+        when(outboxRepository.lockUnpublished(any())).thenReturn(batch);
+        when(kafkaTemplate.send(anyRecord())).thenReturn(sent());
+
+        assertEquals(3, outboxService.publishBatch(500));
+
+        // Events 1 and 2 go out together; event 3 waits for event 1's acknowledgement
+        InOrder order = inOrder(kafkaTemplate);
+        order.verify(kafkaTemplate).send(argThat(aggregate("agg-1")));
+        order.verify(kafkaTemplate).send(argThat(aggregate("agg-2")));
+        order.verify(kafkaTemplate).flush();
+        order.verify(kafkaTemplate).send(argThat(aggregate("agg-3")));
+        order.verify(kafkaTemplate).flush();
+        verify(outboxRepository).markPublished(eq(List.of(1L, 2L, 3L)), any());
+    }
+
+    @Test
+    void testPublishBatch_EmptyBacklog() {
+        when(outboxRepository.lockUnpublished(any())).thenReturn(List.of());
+
+        assertEquals(0, outboxService.publishBatch(500));
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxRepository, never()).markPublished(any(), any());
+    }
+
+    private OutboxEvent event(Long id, Long patientId, String aggregateType) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setPatientId(patientId);
+        event.setAggregateType(aggregateType);
+        event.setAggregateId("agg-" + id);
+        event.setEventType("DEPOSIT_SUBMITTED");
+        event.setPayload("{}");
+        return event;
+    }
+
+    private static ProducerRecord<String, String> anyRecord() {
+        return ArgumentMatchers.<ProducerRecord<String, String>>any();
+    }
+
+    private static ArgumentMatcher<ProducerRecord<String, String>> aggregate(String aggregateId) {
+        return record -> aggregateId.equals(new String(record.headers().lastHeader("aggregateId").value(), StandardCharsets.UTF_8));
+    }
+
+    private CompletableFuture<SendResult<String, String>> sent() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
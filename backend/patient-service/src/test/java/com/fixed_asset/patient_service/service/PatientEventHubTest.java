@@ -0,0 +1,168 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.PatientEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientEventHubTest {
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @InjectMocks
+    private PatientEventHub hub;
+
+    private final InMemoryPatientEventBroadcaster broadcaster = new InMemoryPatientEventBroadcaster();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hub, "broadcaster", broadcaster);
+        ReflectionTestUtils.setField(hub, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(hub, "sendThreads", 1);
+        hub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    void testSubscribe_UnknownPatient() {
+        when(ledgerVersion.current(9L)).thenReturn(null);
+
+        assertThrows(RuntimeException.class, () -> hub.subscribe(9L));
+        assertEquals(0, hub.subscriberCount());
+    }
+
+    @Test
+    void testDeliver_PatientWithoutStreamsLoadsNothing() {
+        broadcaster.publish(new PatientEvent(PatientEvent.BALANCE, 5L, null, null));
+
+        verifyNoInteractions(tokenService, ledgerVersion);
+    }
+
+    @Test
+    void testOffer_FullBufferCollapsesToOneResync() {
+        List<Runnable> tasks = new ArrayList<>();
+        PatientEventHub.Subscriber subscriber = new PatientEventHub.Subscriber(1L, new SseEmitter(), 2, tasks::add);
+
+        assertTrue(subscriber.offer(status("RED-1", "APPROVED")));
+        assertTrue(subscriber.offer(status("RED-1", "COMPLETED")));
+        assertFalse(subscriber.offer(status("RED-2", "APPROVED")));
+
+        // One drain task however many offers arrive before it runs
+        assertEquals(1, tasks.size());
+        assertTrue(subscriber.isOverflowed());
+
+        tasks.get(0).run();
+
+        assertFalse(subscriber.isOverflowed());
+        assertTrue(subscriber.pending().isEmpty());
+        assertTrue(subscriber.offer(status("RED-3", "APPROVED")));
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    void testOfferBalance_KeepsOnlyTheLatest() {
+        List<Runnable> tasks = new ArrayList<>();
+        PatientEventHub.Subscriber subscriber = new PatientEventHub.Subscriber(1L, new SseEmitter(), 2, tasks::add);
+
+        subscriber.offerBalance(new PatientEvent(PatientEvent.BALANCE, 1L, null, null));
+        subscriber.offerBalance(new PatientEvent(PatientEvent.BALANCE, 1L, null, null));
+
+        assertEquals(1, tasks.size());
+        assertTrue(subscriber.pending().isEmpty());
+    }
+
+    @Test
+    void testIsWriteStalled_OnlyWhileASendIsBlocked() throws Exception {
+        BlockingEmitter emitter = new BlockingEmitter();
+        PatientEventHub.Subscriber subscriber = new PatientEventHub.Subscriber(1L, emitter, 2, task -> new Thread(task).start());
+        assertFalse(subscriber.isWriteStalled(System.nanoTime()));
+
+        subscriber.offer(status("RED-1", "APPROVED"));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+        assertTrue(subscriber.isWriteStalled(System.nanoTime()));
+        assertFalse(subscriber.isWriteStalled(System.nanoTime() - TimeUnit.MINUTES.toNanos(1)));
+
+        emitter.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriber.isWriteStalled(System.nanoTime()) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(subscriber.isWriteStalled(System.nanoTime()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDropStalledWrites_RemovesTheStream() throws Exception {
+        ReflectionTestUtils.setField(hub, "writeTimeoutMs", 0L);
+        BlockingEmitter emitter = new BlockingEmitter();
+        PatientEventHub.Subscriber subscriber = new PatientEventHub.Subscriber(1L, emitter, 2, task -> new Thread(task).start());
+        Map<Long, Set<PatientEventHub.Subscriber>> streams =
+                (Map<Long, Set<PatientEventHub.Subscriber>>) ReflectionTestUtils.getField(hub, "subscribers");
+        streams.put(1L, ConcurrentHashMap.newKeySet());
+        streams.get(1L).add(subscriber);
+        ((AtomicInteger) ReflectionTestUtils.getField(hub, "subscriberCount")).incrementAndGet();
+
+        subscriber.offer(status("RED-1", "APPROVED"));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(1);
+        hub.dropStalledWrites();
+
+        assertEquals(0, hub.subscriberCount());
+        assertFalse(streams.containsKey(1L));
+        // Closed, so nothing more is queued behind the stalled write
+        subscriber.offer(status("RED-2", "APPROVED"));
+        emitter.release.countDown();
+    }
+
+    // Stands in for a client that stops reading: the first send blocks until released
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private PatientEvent status(String redemptionId, String status) {
+        return new PatientEvent(PatientEvent.REDEMPTION, 1L, redemptionId, status);
+    }
+}
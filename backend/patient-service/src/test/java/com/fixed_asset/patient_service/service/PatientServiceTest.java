@@ -21,6 +21,9 @@ public class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private LedgerVersion ledgerVersion;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
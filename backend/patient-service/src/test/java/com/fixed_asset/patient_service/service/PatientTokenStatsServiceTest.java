@@ -0,0 +1,93 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.model.PatientTokenStats;
+import com.fixed_asset.patient_service.repository.PatientTokenStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientTokenStatsServiceTest {
+
+    @Mock
+    private PatientTokenStatsRepository statsRepository;
+
+    @InjectMocks
+    private PatientTokenStatsServiceImpl statsService;
+
+    @Test
+    void testRecordMint_RoutesByTokenType() {
+        statsService.recordMint(1L, "AT", 10 * TokenAmount.ONE);
+        statsService.recordMint(1L, "HT", 4 * TokenAmount.ONE);
+
+        verify(statsRepository).addDeltas(1L, 10 * TokenAmount.ONE, 0L, 0L, 0L);
+        verify(statsRepository).addDeltas(1L, 0L, 4 * TokenAmount.ONE, 0L, 0L);
+    }
+
+    @Test
+    void testRecordDepositTransition_IntoAndOutOfProcessed() {
+        statsService.recordDepositTransition(1L, "APPROVED", 250 * TokenAmount.ONE, "PROCESSED", 250 * TokenAmount.ONE);
+        statsService.recordDepositTransition(1L, "PROCESSED", 250 * TokenAmount.ONE, "REJECTED", 250 * TokenAmount.ONE);
+
+        verify(statsRepository).addDeltas(1L, 0L, 0L, 0L, 250 * TokenAmount.ONE);
+        verify(statsRepository).addDeltas(1L, 0L, 0L, 0L, -250 * TokenAmount.ONE);
+    }
+
+    @Test
+    void testRecordDepositTransition_ReprocessingAdjustsByDifference() {
+        statsService.recordDepositTransition(1L, "PROCESSED", 250 * TokenAmount.ONE, "PROCESSED", 300 * TokenAmount.ONE);
+
+        verify(statsRepository).addDeltas(1L, 0L, 0L, 0L, 50 * TokenAmount.ONE);
+    }
+
+    @Test
+    void testRecordDepositTransition_UncountedStatusesAreNoOps() {
+        statsService.recordDepositTransition(1L, "PENDING", 0L, "APPROVED", 250 * TokenAmount.ONE);
+        statsService.recordDepositTransition(1L, "APPROVED", 250 * TokenAmount.ONE, "FAILED", 250 * TokenAmount.ONE);
+
+        verifyNoInteractions(statsRepository);
+    }
+
+    @Test
+    void testRecordRedemptionTransition_CompletingTwiceCountsOnce() {
+        statsService.recordRedemptionTransition(1L, "APPROVED", "COMPLETED", 30 * TokenAmount.ONE);
+        statsService.recordRedemptionTransition(1L, "COMPLETED", "COMPLETED", 30 * TokenAmount.ONE);
+
+        verify(statsRepository, times(1)).addDeltas(1L, 0L, 0L, 30 * TokenAmount.ONE, 0L);
+        verifyNoMoreInteractions(statsRepository);
+    }
+
+    @Test
+    void testGetStats_MissingRowReadsAsZero() {
+        when(statsRepository.findById(9L)).thenReturn(Optional.empty());
+        when(statsRepository.findServiceUsage(9L, "CHECKUP")).thenReturn(Optional.empty());
+
+        PatientTokenStats stats = statsService.getStats(9L);
+
+        assertEquals(0L, stats.getProcessedTokens());
+        assertEquals(0L, stats.getHtRedeemed());
+        assertEquals(0L, statsService.getRedemptionCount(9L, "CHECKUP"));
+    }
+
+    @Test
+    void testRebuildRange_LocksBeforeRecomputing() {
+        when(statsRepository.recomputeRange(1L, 1000L)).thenReturn(12);
+
+        assertEquals(12, statsService.rebuildRange(1L, 1000L));
+
+        var order = inOrder(statsRepository);
+        order.verify(statsRepository).insertMissingRows(1L, 1000L);
+        order.verify(statsRepository).lockRange(1L, 1000L);
+        order.verify(statsRepository).recomputeRange(1L, 1000L);
+        order.verify(statsRepository).deleteServiceUsageRange(1L, 1000L);
+        order.verify(statsRepository).recomputeServiceUsageRange(1L, 1000L);
+    }
+}
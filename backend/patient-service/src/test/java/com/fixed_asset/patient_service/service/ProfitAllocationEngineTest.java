@@ -0,0 +1,137 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.AssetHoldingView;
+import com.fixed_asset.patient_service.repository.TokenBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProfitAllocationEngineTest {
+
+    @Mock
+    private TokenBalanceRepository tokenBalanceRepository;
+
+    @InjectMocks
+    private ProfitAllocationEngine allocationEngine;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(allocationEngine, "chunkSize", 2);
+        ReflectionTestUtils.setField(allocationEngine, "parallelism", 2);
+    }
+
+    @Test
+    void testAllocate_StreamsHoldersInKeysetChunks() {
+        when(tokenBalanceRepository.findAssetHoldingChunk(eq(0L), any())).thenReturn(List.of(
+                holding(1L, address(1), 10.0),
+                holding(4L, "not-a-wallet", 50.0)));
+        when(tokenBalanceRepository.findAssetHoldingChunk(eq(4L), any())).thenReturn(List.of(
+                holding(7L, address(7), 30.0)));
+
+        ProfitAllocation allocation = allocationEngine.allocate(BigInteger.valueOf(1000));
+
+        // The invalid wallet is skipped, not counted in the denominator
+        assertEquals(2, allocation.size());
+        assertEquals(1L, allocation.getPatientId(0));
+        assertEquals(BigInteger.valueOf(250), allocation.getAmount(0));
+        assertEquals(7L, allocation.getPatientId(1));
+        assertEquals(BigInteger.valueOf(750), allocation.getAmount(1));
+        verify(tokenBalanceRepository, times(2)).findAssetHoldingChunk(anyLong(), any());
+    }
+
+    @Test
+    void testSplit_LargestRemaindersTakeTheLeftoverUnits() {
+        // 100 over holdings 1:1:1 is 33 each with one unit left; ties go to the lowest index
+        ProfitAllocation even = split(BigInteger.valueOf(100), 1, 1, 1);
+        assertEquals(List.of(34L, 33L, 33L), amounts(even));
+
+        // 10 over 1:2:4 is 1.43, 2.86, 5.71: floors 1, 2, 5 and the leftovers go to .86 and .71
+        ProfitAllocation uneven = split(BigInteger.TEN, 1, 2, 4);
+        assertEquals(List.of(1L, 3L, 6L), amounts(uneven));
+    }
+
+    @Test
+    void testSplit_TotalIsExactForRandomHoldings() {
+        Random random = new Random(42);
+        BigInteger[] holdings = new BigInteger[50_000];
+        for (int i = 0; i < holdings.length; i++) {
+            holdings[i] = TokenAmount.toBaseUnits(random.nextInt(1_000_000) * (TokenAmount.ONE / 1000));
+        }
+        BigInteger total = new BigInteger("123456789012345678901");
+
+        ProfitAllocation sequential = ProfitAllocationEngine.split(total, ids(holdings.length), wallets(holdings.length), holdings, 1);
+        ProfitAllocation parallel = ProfitAllocationEngine.split(total, ids(holdings.length), wallets(holdings.length), holdings, 4);
+
+        BigInteger sum = IntStream.range(0, parallel.size()).mapToObj(parallel::getAmount).reduce(BigInteger.ZERO, BigInteger::add);
+        assertEquals(total, sum);
+        for (int i = 0; i < holdings.length; i++) {
+            assertEquals(sequential.getAmount(i), parallel.getAmount(i));
+        }
+    }
+
+    @Test
+    void testChunks_SkipZeroSharesAndRespectTheLimit() {
+        ProfitAllocation allocation = split(BigInteger.valueOf(5), 1, 0, 1, 1, 1, 1);
+
+        List<ProfitAllocation.Chunk> chunks = allocation.chunks(2);
+
+        assertEquals(3, chunks.size());
+        assertEquals(List.of(1L, 3L), chunks.get(0).getPatientIds());
+        assertEquals(1, chunks.get(2).size());
+        assertEquals(BigInteger.valueOf(5), chunks.stream().map(ProfitAllocation.Chunk::getTotal).reduce(BigInteger.ZERO, BigInteger::add));
+        assertEquals(5, allocation.getRecipientCount());
+    }
+
+    @Test
+    void testSplit_RejectsEmptyHoldings() {
+        assertThrows(RuntimeException.class, () -> split(BigInteger.TEN));
+        assertThrows(RuntimeException.class, () -> split(BigInteger.TEN, 0, 0));
+    }
+
+    private static ProfitAllocation split(BigInteger total, long... holdings) {
+        BigInteger[] units = new BigInteger[holdings.length];
+        for (int i = 0; i < holdings.length; i++) {
+            units[i] = BigInteger.valueOf(holdings[i]);
+        }
+        return ProfitAllocationEngine.split(total, ids(holdings.length), wallets(holdings.length), units, 2);
+    }
+
+    private static List<Long> amounts(ProfitAllocation allocation) {
+        return IntStream.range(0, allocation.size()).mapToObj(i -> allocation.getAmount(i).longValueExact()).toList();
+    }
+
+    private static long[] ids(int count) {
+        return IntStream.rangeClosed(1, count).asLongStream().toArray();
+    }
+
+    private static String[] wallets(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(ProfitAllocationEngineTest::address).toArray(String[]::new);
+    }
+
+    private static String address(int value) {
+        return String.format("0x%040x", value);
+    }
+
+    private static AssetHoldingView holding(Long patientId, String walletAddress, double assetTokens) {
+        long units = TokenAmount.fromTokens(assetTokens);
+        return new AssetHoldingView() {
+            public Long getPatientId() { return patientId; }
+            public String getWalletAddress() { return walletAddress; }
+            public Long getAssetTokenBalance() { return units; }
+        };
+    }
+}
@@ -0,0 +1,262 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fixed_asset.patient_service.dto.DistributionProofDTO;
+import com.fixed_asset.patient_service.model.DistributionAllocation;
+import com.fixed_asset.patient_service.model.ProfitDistribution;
+import com.fixed_asset.patient_service.repository.DistributionAllocationRepository;
+import com.fixed_asset.patient_service.repository.ProfitDistributionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProfitDistributionServiceTest {
+
+    private static final String WALLET_1 = "0x0000000000000000000000000000000000000001";
+    private static final String WALLET_2 = "0x0000000000000000000000000000000000000002";
+    private static final String WALLET_3 = "0x0000000000000000000000000000000000000003";
+    private static final String SHARED_WALLET = "0x00000000000000000000000000000000000000ab";
+
+    @Mock
+    private ProfitAllocationEngine allocationEngine;
+
+    @Mock
+    private ProfitDistributionRepository distributionRepository;
+
+    @Mock
+    private DistributionAllocationRepository allocationRepository;
+
+    @Mock
+    private BlockchainService blockchainService;
+
+    @InjectMocks
+    private ProfitDistributionServiceImpl distributionService;
+
+    private final List<DistributionAllocation> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(distributionService, "profitSharePercentage", 20.0);
+        ReflectionTestUtils.setField(distributionService, "chunkSize", 2);
+        ReflectionTestUtils.setField(distributionService, "parallelism", 1);
+        ReflectionTestUtils.setField(distributionService, "treeCacheSize", 2);
+        distributionService.start();
+
+        lenient().when(distributionRepository.save(any(ProfitDistribution.class))).thenAnswer(invocation -> {
+            ProfitDistribution distribution = invocation.getArgument(0);
+            if (distribution.getId() == null) {
+                distribution.setId(5L);
+            }
+            return distribution;
+        });
+        lenient().when(allocationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<DistributionAllocation> chunk = invocation.getArgument(0);
+            stored.addAll(chunk);
+            return chunk;
+        });
+    }
+
+    @Test
+    void testCreateDistribution_AllocatesProRataToAtHolders() {
+        holders(wallet(1L, WALLET_1, 30.0), wallet(2L, WALLET_2, 0.0), wallet(3L, WALLET_3, 10.0));
+
+        ProfitDistribution distribution = distributionService.createDistribution(9L, 100.0);
+
+        // 20% of 100 HT, split 30:10 between the two holders
+        assertEquals("BUILT", distribution.getStatus());
+        assertEquals(units(20.0), distribution.getPoolAmount());
+        assertEquals(units(20.0), distribution.getDistributedAmount());
+        assertEquals(2, distribution.getRecipientCount());
+        assertEquals(2, stored.size());
+        assertEquals(units(15.0), stored.get(0).getAmount());
+        assertEquals(0, stored.get(0).getLeafIndex());
+        assertEquals(3L, stored.get(1).getPatientId());
+        assertEquals(units(5.0), stored.get(1).getAmount());
+        assertEquals(1, stored.get(1).getLeafIndex());
+    }
+
+    @Test
+    void testCreateDistribution_DistributesWholePool() {
+        holders(wallet(1L, WALLET_1, 1.0), wallet(2L, WALLET_2, 1.0), wallet(3L, WALLET_3, 1.0));
+
+        ProfitDistribution distribution = distributionService.createDistribution(9L, 100.0);
+
+        // 20 HT three ways: the two units rounding leaves over go to the first two holders
+        assertEquals(3, distribution.getRecipientCount());
+        assertEquals(distribution.getPoolAmount(), distribution.getDistributedAmount());
+        assertEquals(new BigInteger("6666666666666666667"), stored.get(0).getAmount());
+        assertEquals(new BigInteger("6666666666666666667"), stored.get(1).getAmount());
+        assertEquals(new BigInteger("6666666666666666666"), stored.get(2).getAmount());
+    }
+
+    @Test
+    void testCreateDistribution_RejectsExistingTrade() {
+        ProfitDistribution existing = new ProfitDistribution();
+        existing.setStatus("PUBLISHED");
+        when(distributionRepository.findByTradeId(9L)).thenReturn(Optional.of(existing));
+
+        assertThrows(RuntimeException.class, () -> distributionService.createDistribution(9L, 100.0));
+
+        verifyNoInteractions(allocationEngine);
+    }
+
+    @Test
+    void testGetProof_VerifiesAgainstPublishedRoot() {
+        holders(wallet(1L, WALLET_1, 30.0), wallet(2L, WALLET_2, 20.0), wallet(3L, WALLET_3, 10.0));
+        ProfitDistribution distribution = distributionService.createDistribution(9L, 100.0);
+        when(distributionRepository.findByTradeId(9L)).thenReturn(Optional.of(distribution));
+        when(allocationRepository.findByDistributionIdAndPatientId(5L, 3L)).thenReturn(Optional.of(stored.get(2)));
+
+        DistributionProofDTO proof = distributionService.getProof(9L, 3L);
+
+        assertEquals(WALLET_3, proof.getWalletAddress());
+        assertEquals("3333333333333333333", proof.getAmount());
+        assertEquals(2, proof.getLeafIndex());
+        assertTrue(MerkleTree.verify(hexProof(proof), Numeric.hexStringToByteArray(proof.getMerkleRoot()),
+                MerkleTree.leaf(WALLET_3, new BigInteger(proof.getAmount()))));
+    }
+
+    @Test
+    void testGetProof_RebuildsTreeFromStoredAllocations() {
+        holders(wallet(1L, WALLET_1, 30.0), wallet(2L, WALLET_2, 20.0), wallet(3L, WALLET_3, 10.0));
+        ProfitDistribution distribution = distributionService.createDistribution(9L, 100.0);
+        when(distributionRepository.findByTradeId(9L)).thenReturn(Optional.of(distribution));
+        when(allocationRepository.findByDistributionIdAndPatientId(5L, 1L)).thenReturn(Optional.of(stored.get(0)));
+        when(allocationRepository.findByDistributionIdAndLeafIndexGreaterThanOrderByLeafIndexAsc(eq(5L), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    int afterLeafIndex = invocation.getArgument(1);
+                    return stored.stream()
+                            .filter(allocation -> allocation.getLeafIndex() > afterLeafIndex)
+                            .limit(2)
+                            .collect(Collectors.toList());
+                });
+
+        // As after a restart: nothing cached
+        distributionService.start();
+        DistributionProofDTO proof = distributionService.getProof(9L, 1L);
+
+        assertTrue(MerkleTree.verify(hexProof(proof), Numeric.hexStringToByteArray(distribution.getMerkleRoot()),
+                MerkleTree.leaf(WALLET_1, new BigInteger(proof.getAmount()))));
+        verify(allocationRepository, times(2))
+                .findByDistributionIdAndLeafIndexGreaterThanOrderByLeafIndexAsc(eq(5L), anyInt(), any());
+    }
+
+    @Test
+    void testCreateDistribution_PatientsSharingAWalletShareALeaf() {
+        // Patient 3 registered patient 1's wallet in a different case
+        holders(wallet(1L, SHARED_WALLET, 30.0), wallet(2L, WALLET_2, 10.0),
+                wallet(3L, "0x00000000000000000000000000000000000000AB", 10.0));
+        ProfitDistribution distribution = distributionService.createDistribution(9L, 100.0);
+        when(distributionRepository.findByTradeId(9L)).thenReturn(Optional.of(distribution));
+        when(allocationRepository.findByDistributionIdAndPatientId(5L, 3L)).thenReturn(Optional.of(stored.get(2)));
+        when(allocationRepository.findByDistributionIdAndLeafIndexGreaterThanOrderByLeafIndexAsc(eq(5L), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    int afterLeafIndex = invocation.getArgument(1);
+                    return stored.stream()
+                            .filter(allocation -> allocation.getLeafIndex() > afterLeafIndex)
+                            .sorted(Comparator.comparing(DistributionAllocation::getLeafIndex))
+                            .limit(2)
+                            .collect(Collectors.toList());
+                });
+
+        // 20 HT split 30:10:10; the wallet claims once for both of its patients
+        assertEquals(2, distribution.getRecipientCount());
+        assertEquals(3, stored.size());
+        assertEquals(0, stored.get(2).getLeafIndex());
+        assertEquals(SHARED_WALLET, stored.get(2).getWalletAddress());
+        assertEquals(units(4.0), stored.get(2).getAmount());
+        assertEquals(units(16.0), stored.get(2).getLeafAmount());
+        assertEquals(units(16.0), stored.get(0).getLeafAmount());
+        assertEquals(1, stored.get(1).getLeafIndex());
+
+        distributionService.start();
+        DistributionProofDTO proof = distributionService.getProof(9L, 3L);
+
+        assertEquals(SHARED_WALLET, proof.getWalletAddress());
+        assertEquals(units(16.0).toString(), proof.getAmount());
+        assertTrue(MerkleTree.verify(hexProof(proof), Numeric.hexStringToByteArray(distribution.getMerkleRoot()),
+                MerkleTree.leaf(SHARED_WALLET, units(16.0))));
+    }
+
+    @Test
+    void testPublishRoot_SendsRootAndDistributedTotal() {
+        ProfitDistribution distribution = new ProfitDistribution();
+        distribution.setId(5L);
+        distribution.setTradeId(9L);
+        distribution.setStatus("BUILT");
+        distribution.setMerkleRoot("0xabc");
+        distribution.setDistributedAmount(units(20.0));
+        when(distributionRepository.findByTradeId(9L)).thenReturn(Optional.of(distribution));
+        when(blockchainService.publishDistributionRoot(9L, "0xabc", units(20.0))).thenReturn("0xtx");
+
+        ProfitDistribution published = distributionService.publishRoot(9L);
+
+        assertEquals("PUBLISHED", published.getStatus());
+        assertEquals("0xtx", published.getTransactionHash());
+        assertNotNull(published.getPublishedAt());
+        assertThrows(RuntimeException.class, () -> distributionService.publishRoot(9L));
+    }
+
+    @Test
+    void testCreateDistribution_MarksFailedWhenAllocationsCannotBeStored() {
+        holders(wallet(1L, WALLET_1, 30.0));
+        when(allocationRepository.saveAll(anyList())).thenThrow(new RuntimeException("disk full"));
+
+        assertThrows(RuntimeException.class, () -> distributionService.createDistribution(9L, 100.0));
+
+        ArgumentCaptor<ProfitDistribution> captor = ArgumentCaptor.forClass(ProfitDistribution.class);
+        verify(distributionRepository, atLeastOnce()).save(captor.capture());
+        assertEquals("FAILED", captor.getValue().getStatus());
+    }
+
+    private void holders(Holder... holders) {
+        when(allocationEngine.allocate(any())).thenAnswer(invocation -> ProfitAllocationEngine.split(
+                invocation.getArgument(0),
+                Arrays.stream(holders).mapToLong(holder -> holder.patientId).toArray(),
+                Arrays.stream(holders).map(holder -> holder.walletAddress).toArray(String[]::new),
+                Arrays.stream(holders).map(holder -> units(holder.assetTokens)).toArray(BigInteger[]::new),
+                1));
+    }
+
+    private static List<byte[]> hexProof(DistributionProofDTO proof) {
+        return proof.getProof().stream().map(Numeric::hexStringToByteArray).collect(Collectors.toList());
+    }
+
+    private static BigInteger units(double tokens) {
+        return TokenAmount.toBaseUnits(TokenAmount.fromTokens(tokens));
+    }
+
+    private static Holder wallet(long patientId, String walletAddress, double assetTokens) {
+        return new Holder(patientId, walletAddress, assetTokens);
+    }
+
+    private static class Holder {
+        private final long patientId;
+        private final String walletAddress;
+        private final double assetTokens;
+
+        private Holder(long patientId, String walletAddress, double assetTokens) {
+            this.patientId = patientId;
+            this.walletAddress = walletAddress;
+            this.assetTokens = assetTokens;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.http.HttpService;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RpcBatchClientTest {
+
+    private StubRpcServer rpcServer;
+    private Web3j web3j;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rpcServer = new StubRpcServer(0);
+        web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        web3j.shutdown();
+        rpcServer.close();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneBatch() {
+        try (RpcBatchClient client = new RpcBatchClient(web3j, 100, 50)) {
+            List<CompletableFuture<EthBlockNumber>> calls = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                calls.add(client.enqueue(web3j.ethBlockNumber()));
+            }
+
+            for (CompletableFuture<EthBlockNumber> call : calls) {
+                assertEquals(BigInteger.valueOf(16), call.join().getBlockNumber());
+            }
+            assertEquals(40, rpcServer.getRpcCalls());
+            assertTrue(rpcServer.getHttpRequests() <= 2, "expected calls to be coalesced, got " + rpcServer.getHttpRequests() + " HTTP requests");
+        }
+    }
+
+    @Test
+    void testBatchIsSplitAtMaxSize() {
+        try (RpcBatchClient client = new RpcBatchClient(web3j, 10, 50)) {
+            List<CompletableFuture<EthBlockNumber>> calls = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                calls.add(client.enqueue(web3j.ethBlockNumber()));
+            }
+            calls.forEach(CompletableFuture::join);
+
+            assertTrue(rpcServer.getHttpRequests() >= 3);
+        }
+    }
+
+    @Test
+    void testBlockingSendsRunOnGivenExecutor() {
+        AtomicInteger sends = new AtomicInteger();
+        ExecutorService sendThreads = Executors.newCachedThreadPool();
+        try (RpcBatchClient client = new RpcBatchClient(web3j, 10, 50, task -> {
+            sends.incrementAndGet();
+            sendThreads.execute(task);
+        })) {
+            List<CompletableFuture<EthBlockNumber>> calls = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                calls.add(client.enqueue(web3j.ethBlockNumber()));
+            }
+
+            for (CompletableFuture<EthBlockNumber> call : calls) {
+                assertEquals(BigInteger.valueOf(16), call.join().getBlockNumber());
+            }
+            assertEquals(rpcServer.getHttpRequests(), sends.get());
+        } finally {
+            sendThreads.shutdown();
+        }
+    }
+}
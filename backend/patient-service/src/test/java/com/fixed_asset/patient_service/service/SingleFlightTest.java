@@ -0,0 +1,91 @@
+package com.fixed_asset.patient_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testLoad_FollowerSharesLeadersException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> singleFlight.load("balance", 1L, () -> {
+            started.countDown();
+            await(release);
+            throw new RuntimeException("Patient not found with id: 1");
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> singleFlight.load("balance", 1L, () -> "own load"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        Exception error = assertThrows(Exception.class, follower::join);
+        assertEquals("Patient not found with id: 1", error.getCause().getMessage());
+        assertThrows(Exception.class, leader::join);
+        assertEquals(1.0, count("loaded"));
+    }
+
+    @Test
+    void testLoad_NothingIsKeptAfterTheLoad() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.load("balance", 1L, loads::incrementAndGet);
+        singleFlight.load("balance", 1L, loads::incrementAndGet);
+        singleFlight.load("balance", 2L, loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    @Test
+    void testLoad_BypassedInsideReadWriteTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertEquals("own load", singleFlight.load("balance", 1L, () -> "own load"));
+
+        assertEquals(1.0, count("bypassed"));
+        assertEquals(0.0, count("loaded"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("singleflight.calls", "group", "balance", "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
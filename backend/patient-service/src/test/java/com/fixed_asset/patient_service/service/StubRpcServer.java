@@ -0,0 +1,154 @@
+package com.fixed_asset.patient_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Minimal JSON-RPC node stand-in for tests and benchmarks. Every HTTP request
+ * pays a fixed latency, single and batch payloads alike, and results are
+ * produced per method by pluggable handlers; a handler throws RpcError to
+ * reply with a JSON-RPC error instead.
+ */
+public class StubRpcServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Function<JsonNode, Object>> handlers = new ConcurrentHashMap<>();
+    private final AtomicInteger httpRequests = new AtomicInteger();
+    private final AtomicInteger rpcCalls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+
+    public StubRpcServer(long latencyMs) throws IOException {
+        this(latencyMs, Executors.newFixedThreadPool(32));
+    }
+
+    /**
+     * Serves requests on the given executor, e.g. one virtual thread per
+     * request so the stub itself never caps concurrency.
+     */
+    public StubRpcServer(long latencyMs, ExecutorService executor) throws IOException {
+        this.latencyMs = latencyMs;
+        this.executor = executor;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+
+        on("eth_blockNumber", params -> "0x10");
+        on("eth_call", params -> "0x" + String.format("%064x", 1000));
+        on("eth_getTransactionReceipt", params -> null);
+    }
+
+    public StubRpcServer on(String method, Function<JsonNode, Object> handler) {
+        handlers.put(method, handler);
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getHttpRequests() {
+        return httpRequests.get();
+    }
+
+    public int getRpcCalls() {
+        return rpcCalls.get();
+    }
+
+    /**
+     * Most HTTP requests that were being served at the same time.
+     */
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        httpRequests.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        inFlight.decrementAndGet();
+
+        JsonNode reply;
+        if (body.isArray()) {
+            ArrayNode replies = objectMapper.createArrayNode();
+            body.forEach(call -> replies.add(answer(call)));
+            reply = replies;
+        } else {
+            reply = answer(body);
+        }
+
+        byte[] bytes = objectMapper.writeValueAsBytes(reply);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        exchange.close();
+    }
+
+    private ObjectNode answer(JsonNode call) {
+        rpcCalls.incrementAndGet();
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", call.get("id"));
+        Function<JsonNode, Object> handler = handlers.get(call.get("method").asText());
+        if (handler == null) {
+            ObjectNode error = response.putObject("error");
+            error.put("code", -32601);
+            error.put("message", "Method not found");
+        } else {
+            try {
+                response.set("result", objectMapper.valueToTree(handler.apply(call.get("params"))));
+            } catch (RpcError e) {
+                ObjectNode error = response.putObject("error");
+                error.put("code", e.code);
+                error.put("message", e.getMessage());
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Thrown from a handler to answer the call with a JSON-RPC error.
+     */
+    public static class RpcError extends RuntimeException {
+        private final int code;
+
+        public RpcError(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenAmountTest {
+
+    @Test
+    void testFromTokens_RoundsToNearestUnit() {
+        assertEquals(29_000_000L, TokenAmount.fromTokens(0.29));
+        assertEquals(1L, TokenAmount.fromTokens(0.000000009));
+        assertEquals(-250 * TokenAmount.ONE, TokenAmount.fromTokens(-250.0));
+    }
+
+    @Test
+    void testFromTokens_RejectsUnrepresentableAmounts() {
+        assertThrows(RuntimeException.class, () -> TokenAmount.fromTokens(Double.NaN));
+        assertThrows(RuntimeException.class, () -> TokenAmount.fromTokens(Double.POSITIVE_INFINITY));
+        assertThrows(RuntimeException.class, () -> TokenAmount.fromTokens(1e12));
+    }
+
+    @Test
+    void testArithmetic_IsExactWhereDoublesDrift() {
+        // 0.1 + 0.2 != 0.3 in doubles
+        long sum = TokenAmount.add(TokenAmount.fromTokens(0.1), TokenAmount.fromTokens(0.2));
+        assertEquals(TokenAmount.fromTokens(0.3), sum);
+        assertEquals(0L, TokenAmount.subtract(sum, TokenAmount.fromTokens(0.3)));
+        assertEquals("0.30000000", TokenAmount.format(sum));
+    }
+
+    @Test
+    void testArithmetic_RejectsOverflow() {
+        assertThrows(RuntimeException.class, () -> TokenAmount.add(Long.MAX_VALUE, 1L));
+        assertThrows(RuntimeException.class, () -> TokenAmount.subtract(Long.MIN_VALUE, 1L));
+        assertThrows(RuntimeException.class, () -> TokenAmount.negate(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testBaseUnits_RoundTripThroughEighteenDecimals() {
+        BigInteger oneToken = BigInteger.TEN.pow(18);
+        assertEquals(oneToken.multiply(BigInteger.valueOf(250)), TokenAmount.toBaseUnits(250 * TokenAmount.ONE));
+        assertEquals(250 * TokenAmount.ONE, TokenAmount.fromBaseUnits(oneToken.multiply(BigInteger.valueOf(250))));
+        // Digits below one unit are dropped
+        assertEquals(1L, TokenAmount.fromBaseUnits(new BigInteger("19999999999")));
+        assertThrows(RuntimeException.class, () -> TokenAmount.fromBaseUnits(oneToken.pow(2)));
+    }
+}
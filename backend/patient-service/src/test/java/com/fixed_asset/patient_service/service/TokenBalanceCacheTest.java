@@ -0,0 +1,71 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBalanceCacheTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private TokenBalanceCache tokenBalanceCache;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(TokenBalanceCache.CACHE_NAME);
+        tokenBalanceCache = new TokenBalanceCache();
+        ReflectionTestUtils.setField(tokenBalanceCache, "cacheManager", cacheManager);
+        cache = cacheManager.getCache(TokenBalanceCache.CACHE_NAME);
+        cache.put(1L, "balance-1");
+        cache.put(2L, "balance-2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEvictAfterCommit_NoTransactionEvictsImmediately() {
+        tokenBalanceCache.evictAfterCommit(1L);
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+
+    @Test
+    void testEvictAfterCommit_DeferredUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenBalanceCache.evictAfterCommit(1L, 2L);
+
+        assertNotNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+
+        assertNull(cache.get(1L));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void testEvictAfterCommit_RollbackKeepsEntries() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tokenBalanceCache.evictAfterCommit(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertNotNull(cache.get(1L));
+    }
+}
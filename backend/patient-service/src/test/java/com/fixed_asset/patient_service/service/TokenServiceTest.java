@@ -1,5 +1,284 @@
 package com.fixed_asset.patient_service.service;
 
+import com.fixed_asset.patient_service.dto.PatientBalanceView;
+import com.fixed_asset.patient_service.dto.TokenBalanceDTO;
+import com.fixed_asset.patient_service.model.Patient;
+import com.fixed_asset.patient_service.model.TokenBalance;
+import com.fixed_asset.patient_service.model.TokenHold;
+import com.fixed_asset.patient_service.model.TokenTransaction;
+import com.fixed_asset.patient_service.repository.PatientRepository;
+import com.fixed_asset.patient_service.repository.TokenBalanceRepository;
+import com.fixed_asset.patient_service.repository.TokenHoldRepository;
+import com.fixed_asset.patient_service.repository.TokenTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
 public class TokenServiceTest {
-    
+
+    private static final long HT_20 = 20 * TokenAmount.ONE;
+
+    @Mock
+    private TokenBalanceRepository tokenBalanceRepository;
+
+    @Mock
+    private TokenTransactionRepository tokenTransactionRepository;
+
+    @Mock
+    private TokenHoldRepository tokenHoldRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private BlockchainJobService blockchainJobService;
+
+    @Mock
+    private TokenBalanceCache tokenBalanceCache;
+
+    @Mock
+    private PatientTokenStatsService statsService;
+
+    @Mock
+    private NdjsonWriter ndjsonWriter;
+
+    @Mock
+    private LedgerVersion ledgerVersion;
+
+    @Mock
+    private PatientEventPublisher patientEvents;
+
+    @InjectMocks
+    private TokenServiceImpl tokenService;
+
+    @Test
+    void testReserveHealthTokens_RecordsHold() {
+        Patient patient = patient(1L);
+        when(tokenBalanceRepository.reserveHealthTokens(1L, HT_20)).thenReturn(1);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+
+        assertTrue(tokenService.reserveHealthTokens(1L, "RED-1", HT_20));
+
+        verify(tokenHoldRepository).save(argThat(hold ->
+                "RED-1".equals(hold.getRedemptionId()) && "HELD".equals(hold.getStatus()) && hold.getAmount() == HT_20));
+        verify(tokenBalanceCache).evictAfterCommit(1L);
+    }
+
+    @Test
+    void testReserveHealthTokens_InsufficientAvailableBalance() {
+        when(tokenBalanceRepository.reserveHealthTokens(1L, HT_20)).thenReturn(0);
+
+        assertFalse(tokenService.reserveHealthTokens(1L, "RED-1", HT_20));
+
+        verify(tokenHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void testReserveHealthTokens_RejectsNonPositiveAmount() {
+        assertThrows(RuntimeException.class, () -> tokenService.reserveHealthTokens(1L, "RED-1", 0L));
+        verifyNoInteractions(tokenBalanceRepository);
+    }
+
+    @Test
+    void testConvertHold_BurnsHeldTokens() {
+        Patient patient = patient(1L);
+        when(tokenHoldRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(hold(patient, "RED-1", HT_20)));
+        when(tokenHoldRepository.resolveHold(eq("RED-1"), eq("CONVERTED"), any())).thenReturn(1);
+        when(tokenBalanceRepository.convertHeldHealthTokens(1L, HT_20)).thenReturn(1);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        when(tokenTransactionRepository.save(any(TokenTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertTrue(tokenService.convertHold("RED-1"));
+
+        verify(tokenTransactionRepository).save(argThat(transaction ->
+                "BURN".equals(transaction.getTransactionType()) && "HT".equals(transaction.getTokenType())));
+        verify(tokenBalanceCache).evictAfterCommit(1L);
+    }
+
+    @Test
+    void testConvertHold_NoHoldForLegacyRedemption() {
+        when(tokenHoldRepository.findByRedemptionId("RED-OLD")).thenReturn(Optional.empty());
+
+        assertFalse(tokenService.convertHold("RED-OLD"));
+
+        verifyNoInteractions(tokenBalanceRepository);
+    }
+
+    @Test
+    void testConvertHold_AlreadyResolved() {
+        when(tokenHoldRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(hold(patient(1L), "RED-1", HT_20)));
+        when(tokenHoldRepository.resolveHold(eq("RED-1"), eq("CONVERTED"), any())).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> tokenService.convertHold("RED-1"));
+
+        assertTrue(exception.getMessage().contains("already resolved"));
+        verifyNoInteractions(tokenBalanceRepository);
+    }
+
+    @Test
+    void testConvertHolds_BurnsPerPatientTotalsInOneUpdate() {
+        Patient first = patient(1L);
+        Patient second = patient(2L);
+        List<String> redemptionIds = List.of("RED-1", "RED-2", "RED-3", "RED-GONE");
+        when(tokenHoldRepository.lockHeldByRedemptionIds(redemptionIds)).thenReturn(List.of(
+                hold(first, "RED-1", HT_20), hold(first, "RED-2", TokenAmount.ONE), hold(second, "RED-3", HT_20)));
+        when(tokenBalanceRepository.convertHeldHealthTokensBatch(aryEq(new Long[] {1L, 2L}), aryEq(new Long[] {HT_20 + TokenAmount.ONE, HT_20})))
+                .thenReturn(2);
+
+        Set<String> converted = tokenService.convertHolds(redemptionIds);
+
+        assertEquals(Set.of("RED-1", "RED-2", "RED-3"), converted);
+        verify(tokenHoldRepository).resolveHolds(eq(converted), eq("CONVERTED"), any());
+        ArgumentCaptor<List<TokenTransaction>> burns = ArgumentCaptor.forClass(List.class);
+        verify(tokenTransactionRepository).saveAll(burns.capture());
+        assertEquals(3, burns.getValue().size());
+        assertTrue(burns.getValue().stream().allMatch(burn -> "BURN".equals(burn.getTransactionType())));
+        verify(tokenTransactionRepository, never()).save(any());
+        verify(tokenBalanceCache).evictAfterCommit(1L, 2L);
+    }
+
+    @Test
+    void testConvertHolds_MissingHeldBalanceFailsTheBatch() {
+        when(tokenHoldRepository.lockHeldByRedemptionIds(List.of("RED-1", "RED-2"))).thenReturn(List.of(
+                hold(patient(1L), "RED-1", HT_20), hold(patient(2L), "RED-2", HT_20)));
+        when(tokenBalanceRepository.convertHeldHealthTokensBatch(any(), any())).thenReturn(1);
+
+        assertThrows(RuntimeException.class, () -> tokenService.convertHolds(List.of("RED-1", "RED-2")));
+
+        verifyNoInteractions(tokenTransactionRepository);
+    }
+
+    @Test
+    void testConvertHolds_NothingHeld() {
+        when(tokenHoldRepository.lockHeldByRedemptionIds(List.of("RED-OLD"))).thenReturn(List.of());
+
+        assertTrue(tokenService.convertHolds(List.of("RED-OLD")).isEmpty());
+
+        verifyNoInteractions(tokenBalanceRepository, tokenTransactionRepository);
+    }
+
+    @Test
+    void testReleaseHold_ReturnsTokensWithoutBurning() {
+        when(tokenHoldRepository.findByRedemptionId("RED-1")).thenReturn(Optional.of(hold(patient(1L), "RED-1", HT_20)));
+        when(tokenHoldRepository.resolveHold(eq("RED-1"), eq("RELEASED"), any())).thenReturn(1);
+        when(tokenBalanceRepository.releaseHeldHealthTokens(1L, HT_20)).thenReturn(1);
+
+        assertTrue(tokenService.releaseHold("RED-1"));
+
+        verifyNoInteractions(tokenTransactionRepository, blockchainJobService);
+        verify(tokenBalanceCache).evictAfterCommit(1L);
+    }
+
+    @Test
+    void testExportTokenBalances_ResolvesCacheMissesInOneQuery() {
+        TokenBalanceDTO cached = new TokenBalanceDTO(1L, 5.0, 2.0, "0x1");
+        when(tokenBalanceCache.get(anyLong())).thenAnswer(invocation -> invocation.getArgument(0).equals(1L) ? cached : null);
+        when(tokenBalanceRepository.streamBalancesByPatientIds(aryEq(new Long[] {2L, 3L})))
+                .thenReturn(Stream.of(balanceRow(2L, "0x2", 10 * TokenAmount.ONE, HT_20, TokenAmount.ONE)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Duplicates are looked up once; 3 is unknown and left out
+        tokenService.exportTokenBalances(List.of(1L, 2L, 2L, 3L), out);
+
+        ArgumentCaptor<Object> written = ArgumentCaptor.forClass(Object.class);
+        verify(ndjsonWriter, times(2)).writeLine(written.capture(), eq(out));
+        assertSame(cached, written.getAllValues().get(0));
+        TokenBalanceDTO loaded = (TokenBalanceDTO) written.getAllValues().get(1);
+        assertEquals(2L, loaded.getPatientId());
+        assertEquals(10.0, loaded.getAssetTokenBalance());
+        assertEquals(19.0, loaded.getAvailableHealthTokens());
+        verify(tokenBalanceCache).putIfAbsent(2L, loaded);
+        verify(tokenBalanceRepository, times(1)).streamBalancesByPatientIds(any());
+    }
+
+    @Test
+    void testExportTokenBalances_AllCachedSkipsTheQuery() {
+        when(tokenBalanceCache.get(1L)).thenReturn(new TokenBalanceDTO(1L, 5.0, 2.0, "0x1"));
+
+        tokenService.exportTokenBalances(List.of(1L), new ByteArrayOutputStream());
+
+        verifyNoInteractions(tokenBalanceRepository, patientRepository);
+    }
+
+    @Test
+    void testGetTokenBalanceAtVersion_CurrentCacheEntryIsServed() {
+        TokenBalanceDTO cached = new TokenBalanceDTO(1L, 5.0, 2.0, "0x1");
+        cached.setLedgerVersion(7L);
+        when(tokenBalanceCache.get(1L)).thenReturn(cached);
+
+        assertSame(cached, tokenService.getTokenBalance(1L, 7L));
+        verifyNoInteractions(tokenBalanceRepository, patientRepository);
+    }
+
+    @Test
+    void testGetTokenBalanceAtVersion_StaleCacheEntryIsReloaded() {
+        useSingleFlight();
+        TokenBalanceDTO stale = new TokenBalanceDTO(1L, 5.0, 2.0, "0x1");
+        stale.setLedgerVersion(6L);
+        when(tokenBalanceCache.get(1L)).thenReturn(stale);
+        Patient patient = patient(1L);
+        patient.setLedgerVersion(7L);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+        TokenBalance balance = new TokenBalance();
+        balance.setAssetTokenBalance(5 * TokenAmount.ONE);
+        balance.setHealthTokenBalance(TokenAmount.ONE);
+        balance.setHealthTokenHeld(0L);
+        when(tokenBalanceRepository.findByPatientId(1L)).thenReturn(Optional.of(balance));
+
+        TokenBalanceDTO loaded = tokenService.getTokenBalance(1L, 7L);
+
+        assertEquals(7L, loaded.getLedgerVersion());
+        assertEquals(1.0, loaded.getHealthTokenBalance());
+        verify(tokenBalanceCache).put(1L, loaded);
+    }
+
+    private PatientBalanceView balanceRow(Long patientId, String walletAddress, long asset, long health, long held) {
+        return new PatientBalanceView() {
+            public Long getPatientId() { return patientId; }
+            public String getWalletAddress() { return walletAddress; }
+            public Long getAssetTokenBalance() { return asset; }
+            public Long getHealthTokenBalance() { return health; }
+            public Long getHealthTokenHeld() { return held; }
+            public Long getLedgerVersion() { return 1L; }
+        };
+    }
+
+    private void useSingleFlight() {
+        SingleFlight singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenService, "singleFlight", singleFlight);
+    }
+
+    private Patient patient(Long id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+
+    private TokenHold hold(Patient patient, String redemptionId, long amount) {
+        TokenHold hold = new TokenHold();
+        hold.setPatient(patient);
+        hold.setRedemptionId(redemptionId);
+        hold.setTokenType("HT");
+        hold.setAmount(amount);
+        hold.setStatus("HELD");
+        return hold;
+    }
 }
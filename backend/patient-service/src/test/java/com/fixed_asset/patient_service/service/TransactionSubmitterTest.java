@@ -0,0 +1,115 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Broadcasts against StubRpcServer, or against a closed port for transport
+ * failures, and checks what happens to the nonce.
+ */
+public class TransactionSubmitterTest {
+
+    private static final String SIGNER_KEY = "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318";
+    private static final String CONTRACT = "0x00000000000000000000000000000000000000aa";
+
+    private final AtomicInteger rawSends = new AtomicInteger();
+    private StubRpcServer rpcServer;
+    private Web3j web3j;
+    private NonceManager nonceManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rpcServer = new StubRpcServer(0);
+        rpcServer.on("eth_gasPrice", params -> "0x3b9aca00");
+        rpcServer.on("eth_getTransactionReceipt", params -> null);
+        nonceManager = new NonceManager(() -> 7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (web3j != null) {
+            web3j.shutdown();
+        }
+        rpcServer.close();
+    }
+
+    @Test
+    void testTransportErrorKeepsNonceInFlight() {
+        rpcServer.close();
+        TransactionSubmitter submitter = submitter(Duration.ofMinutes(5));
+
+        String transactionHash = submitter.submit(CONTRACT, "0x").join();
+
+        assertNotNull(transactionHash);
+        assertEquals(1, nonceManager.inFlightCount());
+        assertEquals(0, nonceManager.gapCount());
+        assertEquals(8L, nonceManager.allocate());
+    }
+
+    @Test
+    void testRejectionReleasesNonce() {
+        rpcServer.on("eth_sendRawTransaction", params -> {
+            throw new StubRpcServer.RpcError(-32000, "insufficient funds for gas * price + value");
+        });
+        TransactionSubmitter submitter = submitter(Duration.ofMinutes(5));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> submitter.submit(CONTRACT, "0x").join());
+
+        assertInstanceOf(TransactionSubmitter.TransactionRejectedException.class, e.getCause());
+        assertEquals(0, nonceManager.inFlightCount());
+        assertEquals(7L, nonceManager.allocate());
+    }
+
+    @Test
+    void testAlreadyKnownCountsAsSent() {
+        rpcServer.on("eth_sendRawTransaction", params -> {
+            throw new StubRpcServer.RpcError(-32000, "already known");
+        });
+        TransactionSubmitter submitter = submitter(Duration.ofMinutes(5));
+
+        submitter.submit(CONTRACT, "0x").join();
+
+        assertEquals(1, nonceManager.inFlightCount());
+        assertEquals(8L, nonceManager.allocate());
+    }
+
+    @Test
+    void testReplacementKeepsEveryHashOfTheNonce() throws Exception {
+        rpcServer.on("eth_sendRawTransaction", params -> "0x" + rawSends.incrementAndGet());
+        TransactionSubmitter submitter = submitter(Duration.ZERO);
+        String original = submitter.submit(CONTRACT, "0x").join();
+        Thread.sleep(5);
+
+        submitter.replaceStuckTransactions();
+
+        List<String> hashes = submitter.hashesOf(original);
+        assertEquals(2, hashes.size());
+        assertEquals(original, hashes.get(0));
+        assertEquals(hashes.get(1), submitter.resolveHash(original));
+        assertEquals(2, rawSends.get());
+
+        submitter.markMined(original);
+        assertEquals(0, nonceManager.inFlightCount());
+    }
+
+    private TransactionSubmitter submitter(Duration stuckAfter) {
+        web3j = Web3j.build(new HttpService(rpcServer.getUrl()));
+        TransactionSubmitter submitter = new TransactionSubmitter(web3j, Credentials.create(SIGNER_KEY), 1337,
+                nonceManager, BigInteger.valueOf(100_000), stuckAfter);
+        ReflectionTestUtils.setField(submitter, "gasPrice", BigInteger.valueOf(1_000_000_000L));
+        return submitter;
+    }
+}
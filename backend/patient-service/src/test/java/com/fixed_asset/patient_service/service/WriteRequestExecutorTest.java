@@ -0,0 +1,130 @@
+package com.fixed_asset.patient_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteRequestExecutorTest {
+
+    private WriteRequestExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new WriteRequestExecutor();
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 0);
+        ReflectionTestUtils.setField(executor, "timeoutMs", 30000L);
+        ReflectionTestUtils.setField(executor, "retryAfterSeconds", 2L);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    void testSubmit_CompletesWithHandlerResponse() throws Exception {
+        DeferredResult<ResponseEntity<String>> result = executor.submit(() -> ResponseEntity.ok("done"), message -> message);
+
+        ResponseEntity<String> response = await(result);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("done", response.getBody());
+    }
+
+    @Test
+    void testSubmit_TurnsEscapedExceptionIntoBadRequest() throws Exception {
+        DeferredResult<ResponseEntity<String>> result = executor.submit(() -> {
+            throw new RuntimeException("Insufficient health tokens");
+        }, message -> "Failed: " + message);
+
+        ResponseEntity<String> response = await(result);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Failed: Insufficient health tokens", response.getBody());
+    }
+
+    @Test
+    void testStart_VirtualThreadsNeedJdk21() throws Exception {
+        WriteRequestExecutor virtualExecutor = new WriteRequestExecutor();
+        ReflectionTestUtils.setField(virtualExecutor, "threads", 1);
+        ReflectionTestUtils.setField(virtualExecutor, "queueCapacity", 0);
+        ReflectionTestUtils.setField(virtualExecutor, "timeoutMs", 30000L);
+        ReflectionTestUtils.setField(virtualExecutor, "virtualThreads", true);
+        if (Runtime.version().feature() < 21) {
+            assertThrows(RuntimeException.class, virtualExecutor::start);
+            return;
+        }
+
+        virtualExecutor.start();
+        try {
+            DeferredResult<ResponseEntity<String>> result = virtualExecutor.submit(() -> {
+                try {
+                    return ResponseEntity.ok(String.valueOf(Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())));
+                } catch (ReflectiveOperationException e) {
+                    throw new RuntimeException(e);
+                }
+            }, message -> message);
+
+            assertEquals("true", await(result).getBody());
+        } finally {
+            virtualExecutor.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_RejectsWith429WhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        DeferredResult<ResponseEntity<String>> busy = executor.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.ok("done");
+        }, message -> message);
+
+        // The only thread is taken and there is no queue
+        DeferredResult<ResponseEntity<String>> rejected = executor.submit(() -> ResponseEntity.ok("never"), message -> message);
+
+        ResponseEntity<String> response = (ResponseEntity<String>) rejected.getResult();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        assertEquals(HttpStatus.OK, await(busy).getStatusCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_TimeoutAnswersWithoutRetryAfter() {
+        DeferredResult<ResponseEntity<String>> result = executor.submit(() -> ResponseEntity.ok("done"), message -> message);
+
+        // What the async dispatcher sends once write-requests.timeout-ms passes; the handler may still be running
+        Supplier<ResponseEntity<String>> timeoutResult = (Supplier<ResponseEntity<String>>) ReflectionTestUtils.getField(result, "timeoutResult");
+        ResponseEntity<String> response = timeoutResult.get();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<String> await(DeferredResult<ResponseEntity<String>> result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(result.hasResult(), "handler did not complete");
+        return (ResponseEntity<String>) result.getResult();
+    }
+}
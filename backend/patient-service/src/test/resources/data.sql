@@ -3,7 +3,12 @@ VALUES
 (1, 'PAT-001', 'John Doe', 'john@example.com', '1234567890', 'password', '0xWallet1', NOW(), NOW()),
 (2, 'PAT-002', 'Jane Smith', 'jane@example.com', '0987654321', 'password', '0xWallet2', NOW(), NOW());
 
+-- tokens_minted is in TokenAmount units (1 token = 100000000)
 INSERT INTO asset_deposits (id, patient_id, asset_type, asset_value, tokens_minted, status, created_at) 
 VALUES 
-(1, 1, 'GOLD', 1000.0, 100000.0, 'PROCESSED', NOW()),
-(2, 1, 'SILVER', 500.0, NULL, 'PENDING', NOW());
\ No newline at end of file
+(1, 1, 'GOLD', 1000.0, 10000000000000, 'PROCESSED', NOW()),
+(2, 1, 'SILVER', 500.0, 0, 'PENDING', NOW());
+
+-- Keep generated ids clear of the fixed ids above
+ALTER SEQUENCE patients_seq RESTART WITH 1001;
+ALTER SEQUENCE asset_deposits_seq RESTART WITH 1001;
@@ -5,6 +5,7 @@ pragma solidity ^0.8.20;
 /// @notice Controls AT minting, profit distribution, and HT redemption
 import "@openzeppelin/contracts/access/AccessControl.sol";
 import "@openzeppelin/contracts/utils/ReentrancyGuard.sol";// locking functions
+import "@openzeppelin/contracts/utils/cryptography/MerkleProof.sol";
 import "./AssetToken.sol";
 import "./HealthToken.sol";
 
@@ -26,6 +27,14 @@ contract HospitalFinancials is AccessControl, ReentrancyGuard {
     uint256 public nextTradeId = 1; //counter for tradeId
     mapping(uint256 => Trade) public trades; //tradeId -> investedAT, profitEarned, timestamp
 
+    // Merkle distributions: the backend publishes one root per trade and each
+    // patient claims their own HT with a proof, so gas no longer grows with
+    // the number of recipients
+    mapping(uint256 => bytes32) public distributionRoots; //tradeId -> merkle root
+    mapping(uint256 => uint256) public distributionTotalHT; //tradeId -> HT covered by the root
+    mapping(uint256 => uint256) public distributionClaimedHT; //tradeId -> HT claimed so far
+    mapping(uint256 => mapping(address => bool)) public profitClaimed; //tradeId -> patient -> claimed
+
     event AssetTokenMinted(
         address indexed patient, // indexed helps in searching logs
         uint256 indexed depositId,
@@ -48,6 +57,20 @@ contract HospitalFinancials is AccessControl, ReentrancyGuard {
         uint256 timestamp
     );
 
+    event DistributionRootPublished(
+        uint256 indexed tradeId,
+        bytes32 merkleRoot,
+        uint256 totalHT,
+        uint256 timestamp
+    );
+
+    event ProfitClaimed(
+        uint256 indexed tradeId,
+        address indexed patient,
+        uint256 amountHT,
+        uint256 timestamp
+    );
+
     event HealthTokenRedeemed(
         address indexed patient,
         uint256 amountHT,
@@ -125,6 +148,45 @@ contract HospitalFinancials is AccessControl, ReentrancyGuard {
         );
     }
 
+    /// @notice Publishes the Merkle root of a trade's HT allocations
+    /// @dev Leaves are keccak256(bytes.concat(keccak256(abi.encode(patient, amountHT))))
+    /// and pairs are hashed in sorted order, as MerkleProof.verify expects
+    function publishDistributionRoot(
+        uint256 tradeId,
+        bytes32 merkleRoot,
+        uint256 totalHT
+    ) external onlyRole(DEFAULT_ADMIN_ROLE) {
+        require(trades[tradeId].timestamp > 0, "Invalid trade");
+        require(distributionRoots[tradeId] == bytes32(0), "Root already published");
+        require(merkleRoot != bytes32(0), "Empty root");
+
+        distributionRoots[tradeId] = merkleRoot;
+        distributionTotalHT[tradeId] = totalHT;
+
+        emit DistributionRootPublished(tradeId, merkleRoot, totalHT, block.timestamp);
+    }
+
+    /// @notice Mints the caller's HT allocation for a trade
+    function claimProfit(
+        uint256 tradeId,
+        uint256 amountHT,
+        bytes32[] calldata proof
+    ) external nonReentrant {
+        bytes32 root = distributionRoots[tradeId];
+        require(root != bytes32(0), "No distribution");
+        require(!profitClaimed[tradeId][msg.sender], "Already claimed");
+
+        bytes32 leaf = keccak256(bytes.concat(keccak256(abi.encode(msg.sender, amountHT))));
+        require(MerkleProof.verify(proof, root, leaf), "Invalid proof");
+        require(distributionClaimedHT[tradeId] + amountHT <= distributionTotalHT[tradeId], "Exceeds distribution");
+
+        profitClaimed[tradeId][msg.sender] = true;
+        distributionClaimedHT[tradeId] += amountHT;
+        healthToken.mint(msg.sender, amountHT);
+
+        emit ProfitClaimed(tradeId, msg.sender, amountHT, block.timestamp);
+    }
+
     function redeemHealthToken(
         address patient,
         uint256 amountHT,